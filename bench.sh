@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+# JMH 基准测试
+#   ./bench.sh [regex] [额外 JMH 参数]    运行基准，结果写入 target/benchmarks/<时间>-<提交>.json
+#   ./bench.sh compare <base.json> <new.json>  对比两次结果
+set -euo pipefail
+cd "$(dirname "$0")"
+
+if [[ "${1:-}" == "compare" ]]; then
+    [[ $# -eq 3 ]] || { echo "用法: $0 compare <baseline.json> <candidate.json>"; exit 2; }
+    mvn -B -q -Pbenchmark test-compile exec:exec \
+        -Dbenchmark.mainClass=com.findu.negotiation.benchmark.BenchmarkComparator \
+        -Dbenchmark.args="$(realpath "$2") $(realpath "$3")"
+    exit 0
+fi
+
+PATTERN="${1:-.*}"
+shift || true
+SHA="$(git rev-parse --short HEAD 2>/dev/null || echo nogit)"
+if ! git diff --quiet HEAD 2>/dev/null; then
+    SHA="${SHA}-dirty"
+fi
+OUT_DIR="target/benchmarks"
+OUT="${OUT_DIR}/$(date +%Y%m%d-%H%M%S)-${SHA}.json"
+mkdir -p "${OUT_DIR}"
+
+mvn -B -q -Pbenchmark test-compile exec:exec \
+    -Dbenchmark.args="${PATTERN} -rf json -rff $(pwd)/${OUT} $*"
+echo "结果: ${OUT}"
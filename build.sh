@@ -1,25 +1,39 @@
 #!/bin/bash
 
-# 默认环境为 dev
+# 默认环境为 dev；可选参数 aot（Spring AOT 处理）、cds（打包后训练 AppCDS 归档），如 ./build.sh prod aot cds
 ENV=${1:-dev}
+shift || true
+PROFILES="$ENV"
+CDS=false
+for OPT in "$@"; do
+    case "$OPT" in
+        aot) PROFILES="$PROFILES,aot" ;;
+        cds) CDS=true ;;
+        *)
+            echo "错误: 无效的选项 '$OPT'，可选: aot cds"
+            exit 1
+            ;;
+    esac
+done
 
 # 验证环境参数
 if [[ ! "$ENV" =~ ^(stable|dev|test|prod)$ ]]; then
     echo "错误: 无效的环境参数 '$ENV'"
-    echo "用法: $0 [stable|dev|test|prod]"
+    echo "用法: $0 [stable|dev|test|prod] [aot] [cds]"
     echo "示例: $0 dev    # 打包开发环境"
     echo "      $0 stable   # 打包集成环境"
     echo "      $0 test   # 打包测试环境"
     echo "      $0 prod   # 打包生产环境"
+    echo "      $0 prod aot cds   # 打包生产环境，启用 Spring AOT 并生成 AppCDS 归档"
     exit 1
 fi
 
 echo "=========================================="
-echo "开始打包，环境: $ENV"
+echo "开始打包，环境: $ENV，profiles: $PROFILES，CDS: $CDS"
 echo "=========================================="
 
 # 使用 Maven profile 进行打包
-mvn -B clean package -Dmaven.test.skip=true -Dautoconfig.skip -P$ENV
+mvn -B clean package -Dmaven.test.skip=true -Dautoconfig.skip -P$PROFILES
 
 # 检查打包是否成功
 if [ $? -ne 0 ]; then
@@ -33,6 +47,15 @@ mkdir -p output
 # 解压打包文件
 tar --strip-components=1 -zxf target/*.tar.gz -C output
 
+# AppCDS 训练：归档写入 output/cds/app.jsa，随 output 一起部署；部署机的 JDK 版本需与打包机一致
+if [ "$CDS" = "true" ]; then
+    bash output/bin/cds-train.sh
+    if [ $? -ne 0 ]; then
+        echo "CDS 训练失败！"
+        exit 1
+    fi
+fi
+
 echo "=========================================="
 echo "打包完成，环境: $ENV"
 echo "输出目录: output/"
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# 本地开环压测：以 stub profile 启动服务（下游全部为进程内桩服务），对 /create 施压并输出延迟分布
+#   ./loadtest.sh [--rate 50] [--duration 60] [--warmup 10] [--timeout 30]
+# 桩服务的延迟、错误率、响应规模可通过环境变量 STUB_OPTS 覆盖，例如：
+#   STUB_OPTS="--findu.stub.agent.latency=lognormal:400:1500 --findu.stub.chat.error-rate=0.01" ./loadtest.sh --rate 100
+# 结果写入 target/loadtest/<时间>-<提交>.json
+set -euo pipefail
+cd "$(dirname "$0")"
+
+PORT="${PORT:-8810}"
+SHA="$(git rev-parse --short HEAD 2>/dev/null || echo nogit)"
+OUT="target/loadtest/$(date +%Y%m%d-%H%M%S)-${SHA}.json"
+LOG_DIR="$(pwd)/target/loadtest-logs"
+mkdir -p "${LOG_DIR}"
+
+# 与 bin/start.sh 相同的启动方式：配置目录 + 类目录 + 依赖，application-stub.properties 与 log4j2.xml 取自 src/main/resources
+mvn -B -q compile dependency:build-classpath -Dmdep.includeScope=runtime -Dmdep.outputFile=target/runtime.classpath
+CLASSPATH="target/classes:src/main/resources:$(cat target/runtime.classpath)"
+
+java ${JAVA_OPTS:-} -Dapp.log.dir="${LOG_DIR}" -cp "${CLASSPATH}" com.findu.negotiation.FinduNegotiationApplication \
+    --spring.profiles.active=stub --server.port="${PORT}" ${STUB_OPTS:-} > "${LOG_DIR}/console.log" 2>&1 &
+APP_PID=$!
+trap 'kill ${APP_PID} 2>/dev/null || true; wait ${APP_PID} 2>/dev/null || true' EXIT
+
+# 等待启动预热结束（/health/ready 返回 200），避免预热请求与压测流量争抢 CPU
+for _ in $(seq 1 120); do
+    if curl -sf -o /dev/null "http://localhost:${PORT}/health/ready"; then
+        break
+    fi
+    if ! kill -0 ${APP_PID} 2>/dev/null; then
+        echo "服务启动失败，见 ${LOG_DIR}/console.log"
+        exit 1
+    fi
+    sleep 1
+done
+
+mvn -B -q -Pbenchmark test-compile exec:exec \
+    -Dbenchmark.mainClass=com.findu.negotiation.benchmark.OpenLoopLoadGenerator \
+    -Dbenchmark.args="--target http://localhost:${PORT} --out $(pwd)/${OUT} $*"
+echo "结果: ${OUT}"
@@ -0,0 +1,40 @@
+package com.findu.negotiation.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.benchmark.BenchmarkFixtures;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天记录到 Agent 对话列表的转换基准
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversationBuildingBenchmark {
+
+    @Param({"20", "200", "1000"})
+    public int messageCount;
+
+    private ChatHistoryResponse history;
+
+    @Setup
+    public void setUp() throws Exception {
+        history = new ObjectMapper().readValue(BenchmarkFixtures.chatHistoryJson(messageCount), ChatHistoryResponse.class);
+    }
+
+    @Benchmark
+    public List<ConversationItem> buildHumanConversations() {
+        return NegotiationBizServiceImpl.buildHumanConversations(history, BenchmarkFixtures.PROVIDER_ID);
+    }
+}
@@ -0,0 +1,82 @@
+package com.findu.negotiation.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比两次 JMH JSON 结果（-rf json 输出），按 benchmark + 参数对齐，打印得分与变化比例
+ * <p>
+ * 用法：BenchmarkComparator &lt;baseline.json&gt; &lt;candidate.json&gt;
+ * 当置信区间不重叠时标记为显著变化
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class BenchmarkComparator {
+
+    private BenchmarkComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: BenchmarkComparator <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> candidate = index(mapper.readTree(new File(args[1])));
+
+        System.out.printf("%-80s %14s %14s %9s %s%n", "Benchmark", "Baseline", "Candidate", "Change", "Unit");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode now = entry.getValue().path("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey())
+                    ? baseline.get(entry.getKey()).path("primaryMetric") : null;
+            String unit = now.path("scoreUnit").asText();
+            double score = now.path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+            double baseScore = before.path("score").asDouble();
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), baseScore, score, change, unit,
+                    significant(before, now) ? " *" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!candidate.containsKey(key)) {
+                System.out.printf("%-80s %14.3f %14s %9s%n", key,
+                        baseline.get(key).path("primaryMetric").path("score").asDouble(), "-", "removed");
+            }
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            if (!params.isMissingNode()) {
+                params.fields().forEachRemaining(p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            }
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+
+    /**
+     * 两次结果的 99.9% 置信区间不重叠视为显著
+     */
+    private static boolean significant(JsonNode before, JsonNode now) {
+        JsonNode a = before.path("scoreConfidence");
+        JsonNode b = now.path("scoreConfidence");
+        if (a.size() != 2 || b.size() != 2) {
+            return false;
+        }
+        return a.get(1).asDouble() < b.get(0).asDouble() || b.get(1).asDouble() < a.get(0).asDouble();
+    }
+}
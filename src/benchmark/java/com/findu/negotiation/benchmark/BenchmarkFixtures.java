@@ -0,0 +1,82 @@
+package com.findu.negotiation.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.domain.vo.NegotiationResultSchemaVO;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import com.findu.negotiation.infrastructure.stub.StubPayloads;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的数据构造，与桩服务共用 {@link StubPayloads}，使用固定随机种子保证多次运行可比
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class BenchmarkFixtures {
+
+    public static final String PROVIDER_ID = StubPayloads.PROVIDER_ID;
+    public static final String CUSTOMER_ID = StubPayloads.CUSTOMER_ID;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 构造聊天记录 JSON，文本、图片、需求卡片、普通自定义消息按约 7:1:1:1 混合
+     *
+     * @param messageCount 消息条数
+     */
+    public static String chatHistoryJson(int messageCount) {
+        return StubPayloads.chatHistory(PROVIDER_ID, CUSTOMER_ID, messageCount, 42);
+    }
+
+    /**
+     * DMS 需求描述，服务类型位于表格中间
+     */
+    public static String demandMarkdown() {
+        return StubPayloads.demandMarkdown();
+    }
+
+    /**
+     * /create 请求体
+     */
+    public static String createRequestJson() {
+        return "{\"providerId\":\"" + PROVIDER_ID + "\",\"customerId\":\"" + CUSTOMER_ID
+                + "\",\"demandId\":\"demand-1\",\"productId\":\"works-1\"}";
+    }
+
+    /**
+     * Agent 请求：聊天记录中的文本消息作为 human_conversations，附 5 个服务与默认结果 Schema
+     *
+     * @param messageCount 聊天记录消息条数
+     */
+    public static OrderNegotiationCompletionsRequest agentRequest(int messageCount) {
+        ChatHistoryResponse history;
+        try {
+            history = new ObjectMapper().readValue(chatHistoryJson(messageCount), ChatHistoryResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<ConversationItem> conversations = new ArrayList<>();
+        for (var msg : history.getData().getMessages()) {
+            msg.getContent().stream()
+                    .filter(content -> content.isTextContent())
+                    .findFirst()
+                    .ifPresent(content -> conversations.add(new ConversationItem(
+                            PROVIDER_ID.equals(msg.getFrom()) ? "服务方" : "用户", content.getContentAsText(), msg.getMsgTime())));
+        }
+        List<ProductInfoVO> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(new ProductInfoVO("works-" + i, "婚礼跟拍套餐 " + i, "全天跟拍，含精修 " + (i + 1) * 50 + " 张",
+                    (i + 3) * 100000, i == 1));
+        }
+        return new OrderNegotiationCompletionsRequest("bench-1", new ArrayList<>(), conversations, products,
+                NegotiationResultSchemaVO.buildDefault());
+    }
+}
@@ -0,0 +1,212 @@
+package com.findu.negotiation.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /create 接口开环压测
+ * <p>
+ * 按固定速率发出请求，第 i 个请求的计划发出时间为 start + i / rate，发送不等待前一个请求完成
+ * （每个请求一个虚拟线程）。延迟从计划发出时间算起，服务端变慢时排队的等待时间也计入结果，
+ * 避免闭环压测的协调遗漏（coordinated omission）低估尾延迟。同时输出从实际发出时间算起的
+ * 服务时间作为对照，两者差距越大说明排队越严重。
+ * <p>
+ * 参数：
+ * <pre>
+ *   --target   服务地址，默认 http://localhost:8810
+ *   --rate     每秒请求数，默认 50
+ *   --duration 统计时长（秒），默认 60
+ *   --warmup   预热时长（秒），预热期间的请求不计入结果，默认 10
+ *   --timeout  单请求超时（秒），默认 30
+ *   --out      JSON 结果输出文件，可选
+ * </pre>
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class OpenLoopLoadGenerator {
+
+    private static final String CREATE_PATH = "/api/v1/orders_negotiation/create";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LatencyHistogram corrected = new LatencyHistogram();
+    private final LatencyHistogram service = new LatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private OpenLoopLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String target = options.getOrDefault("target", "http://localhost:8810");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long timeoutSeconds = Long.parseLong(options.getOrDefault("timeout", "30"));
+
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator();
+        ObjectNode report = generator.run(URI.create(target + CREATE_PATH), rate,
+                warmupSeconds, durationSeconds, timeoutSeconds);
+
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            File out = new File(options.get("out"));
+            File parent = out.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("无法创建目录: " + parent);
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, report);
+        }
+    }
+
+    private ObjectNode run(URI uri, double rate, long warmupSeconds, long durationSeconds, long timeoutSeconds)
+            throws InterruptedException {
+        // 发送线程与 HttpClient 内部回调线程分开，发送线程池关闭等待时不影响进行中的请求完成
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer loadtest")
+                .header("X-User-Id", BenchmarkFixtures.CUSTOMER_ID)
+                .POST(HttpRequest.BodyPublishers.ofString(BenchmarkFixtures.createRequestJson()))
+                .build();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long maxLagNanos = 0;
+        long sent = 0;
+
+        System.err.printf("开环压测: %s, rate=%.1f/s, warmup=%ds, duration=%ds%n", uri, rate, warmupSeconds, durationSeconds);
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            boolean measured = intended >= measureStart;
+            if (measured) {
+                sent++;
+                maxLagNanos = Math.max(maxLagNanos, now - intended);
+            }
+            executor.execute(() -> send(client, request, intended, measured));
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(timeoutSeconds + 5, TimeUnit.SECONDS)) {
+            System.err.println("部分请求在超时后仍未完成，强制结束");
+            executor.shutdownNow();
+        }
+        clientExecutor.shutdownNow();
+        long elapsedNanos = Math.max(1, System.nanoTime() - measureStart);
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode report = mapper.createObjectNode();
+        report.put("target", uri.toString());
+        report.put("rate", rate);
+        report.put("duration_seconds", durationSeconds);
+        report.put("sent", sent);
+        report.put("success", success.sum());
+        report.put("failed", failed.sum());
+        ObjectNode failureNode = report.putObject("failures");
+        failures.forEach((k, v) -> failureNode.put(k, v.sum()));
+        report.put("throughput", round(success.sum() * 1e9 / elapsedNanos));
+        report.put("max_in_flight", maxInFlight.get());
+        report.put("max_dispatch_lag_ms", round(maxLagNanos / 1e6));
+        report.set("latency_ms", latencyNode(mapper, corrected.snapshot()));
+        report.set("service_time_ms", latencyNode(mapper, service.snapshot()));
+        return report;
+    }
+
+    private void send(HttpClient client, HttpRequest request, long intended, boolean measured) {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        long sentAt = System.nanoTime();
+        String failure = null;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                failure = "http_" + response.statusCode();
+            }
+        } catch (IOException e) {
+            failure = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "interrupted";
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (!measured) {
+            return;
+        }
+        long done = System.nanoTime();
+        corrected.recordNanos(done - intended);
+        service.recordNanos(done - sentAt);
+        if (failure == null) {
+            success.increment();
+        } else {
+            failed.increment();
+            failures.computeIfAbsent(failure, k -> new LongAdder()).increment();
+        }
+    }
+
+    private static ObjectNode latencyNode(ObjectMapper mapper, LatencyHistogram.Snapshot snapshot) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("count", snapshot.getCount());
+        node.put("mean", round(snapshot.getMeanMicros() / 1000.0));
+        for (double p : PERCENTILES) {
+            node.put("p" + (p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p).replace(".", "")),
+                    round(snapshot.valueAtPercentile(p) / 1000.0));
+        }
+        node.put("max", round(snapshot.getMaxMicros() / 1000.0));
+        return node;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数格式: --name value, 无法解析: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
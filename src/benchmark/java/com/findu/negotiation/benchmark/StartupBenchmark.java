@@ -0,0 +1,331 @@
+package com.findu.negotiation.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.findu.negotiation.infrastructure.stub.DownstreamStubServer;
+import com.findu.negotiation.infrastructure.stub.LatencyDistribution;
+import com.findu.negotiation.infrastructure.stub.StubEndpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 启动耗时基准：从拉起进程到第一个 /create 成功返回的时间，以及此时的常驻内存
+ * <p>
+ * 在本进程内启动零延迟的 {@link DownstreamStubServer}，以与 bin/start.sh 相同的类路径（lib/*.jar 在前，conf 在后）
+ * 拉起打包产物，下游地址通过命令行参数指向桩服务，关闭启动预热。每 10ms 发送一次 /create，
+ * 第一次返回 HTTP 200 且 code=200 的时刻即为结果；同时记录 Spring Boot 日志中的 "Started ... in" 耗时作为对照，
+ * 并读取 /proc/&lt;pid&gt;/status 中的 VmRSS 作为首个请求完成时的常驻内存（非 Linux 记为 -1）。
+ * 各模式交替运行，避免页缓存等状态只偏向某一个模式。
+ * <p>
+ * 模式：
+ * <pre>
+ *   default  -Dspring.aot.enabled=false，不使用 CDS 归档
+ *   cds      使用 cds/app.jsa（bin/cds-train.sh 生成）
+ *   aot      -Dspring.aot.enabled=true，需以 aot profile 打包
+ *   aot-cds  同时使用 AOT 与 CDS
+ *   native   GraalVM native-image 可执行文件（mvn -P&lt;env&gt;,native native:compile 生成），需指定 --native
+ * </pre>
+ * 参数：
+ * <pre>
+ *   --app-dir  解压后的打包目录（含 bin、conf、lib），默认 output
+ *   --modes    逗号分隔的模式，默认 default,cds,aot,aot-cds
+ *   --runs     每个模式的运行次数，默认 5
+ *   --timeout  单次启动超时（秒），默认 120
+ *   --native   native 模式使用的可执行文件
+ *   --out      JSON 结果输出文件，可选
+ * </pre>
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class StartupBenchmark {
+
+    private static final String CREATE_PATH = "/api/v1/orders_negotiation/create";
+    private static final String MAIN_CLASS = "com.findu.negotiation.FinduNegotiationApplication";
+    private static final String JVM_OPTS = "-Xms512m -Xmx512m -XX:+UseG1GC";
+    /**
+     * native-image 默认使用 Serial GC，只保留与 JVM 模式一致的堆上限
+     */
+    private static final String NATIVE_OPTS = "-Xmx512m";
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final Path appDir;
+    private final String classpath;
+    private final Path nativeExecutable;
+    private final DownstreamStubServer stub;
+    private final long timeoutNanos;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark(Path appDir, Path nativeExecutable, DownstreamStubServer stub, long timeoutSeconds)
+            throws IOException {
+        this.appDir = appDir;
+        this.classpath = classpath(appDir);
+        this.nativeExecutable = nativeExecutable;
+        this.stub = stub;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        Path appDir = Path.of(options.getOrDefault("app-dir", "output")).toAbsolutePath();
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "default,cds,aot,aot-cds").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        long timeoutSeconds = Long.parseLong(options.getOrDefault("timeout", "120"));
+        Path nativeExecutable = options.containsKey("native") ? Path.of(options.get("native")).toAbsolutePath() : null;
+        if (modes.contains("native") && (nativeExecutable == null || !Files.isExecutable(nativeExecutable))) {
+            throw new IllegalArgumentException("native 模式需要 --native 指向可执行文件: " + nativeExecutable);
+        }
+
+        DownstreamStubServer stub = new DownstreamStubServer(0,
+                "/api/v1/inner/order_negotiation/completions",
+                "/api/v1/inner/order_negotiation/completions/batch",
+                new StubEndpoint("user", LatencyDistribution.NONE, 0, 10),
+                new StubEndpoint("chat", LatencyDistribution.NONE, 0, 200),
+                new StubEndpoint("dms", LatencyDistribution.NONE, 0, 0),
+                new StubEndpoint("agent", LatencyDistribution.NONE, 0, 4));
+        stub.start();
+        ObjectNode report;
+        try {
+            report = new StartupBenchmark(appDir, nativeExecutable, stub, timeoutSeconds).run(modes, runs);
+        } finally {
+            stub.stop();
+        }
+
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            File out = new File(options.get("out"));
+            File parent = out.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("无法创建目录: " + parent);
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, report);
+        }
+    }
+
+    private ObjectNode run(List<String> modes, int runs) throws Exception {
+        Map<String, List<double[]>> samples = new HashMap<>();
+        for (int i = 0; i < runs; i++) {
+            for (String mode : modes) {
+                double[] sample = launch(mode, i);
+                samples.computeIfAbsent(mode, k -> new ArrayList<>()).add(sample);
+                System.err.printf("%-8s run=%d first_create=%.0fms started=%.0fms rss=%.1fMB%n",
+                        mode, i, sample[0], sample[1], sample[2]);
+            }
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode report = mapper.createObjectNode();
+        report.put("app_dir", appDir.toString());
+        report.put("runs", runs);
+        report.put("java", System.getProperty("java.version"));
+        ObjectNode results = report.putObject("modes");
+        for (String mode : modes) {
+            ObjectNode node = results.putObject(mode);
+            node.put("options", options(mode));
+            node.set("first_create_ms", summary(mapper, samples.get(mode), 0));
+            node.set("started_ms", summary(mapper, samples.get(mode), 1));
+            node.set("rss_mb", summary(mapper, samples.get(mode), 2));
+        }
+        return report;
+    }
+
+    /**
+     * 拉起一次应用，返回 {首个 /create 成功耗时 ms, Spring Boot 报告的启动耗时 ms, 此时的 RSS MB}
+     */
+    private double[] launch(String mode, int run) throws Exception {
+        int port = freePort();
+        Path log = Files.createTempFile("startup-" + mode + "-" + run, ".log");
+        Path logDir = Files.createTempDirectory("startup-logs");
+        List<String> command = new ArrayList<>();
+        if ("native".equals(mode)) {
+            // 配置与 log4j2.xml 已编译进可执行文件，conf 目录作为外部配置叠加，与 JVM 模式的类路径效果一致
+            command.add(nativeExecutable.toString());
+            command.addAll(Arrays.asList(options(mode).split(" ")));
+            command.add("-Dapp.log.dir=" + logDir);
+            command.add("--spring.config.additional-location=optional:file:" + appDir.resolve("conf") + "/");
+        } else {
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(Arrays.asList(options(mode).split(" ")));
+            command.add("-Dapp.log.dir=" + logDir);
+            command.add("-cp");
+            command.add(classpath);
+            command.add(MAIN_CLASS);
+        }
+        command.add("--server.port=" + port);
+        command.add("--findu.warmup.enabled=false");
+        command.add("--findu.user.base-url=http://127.0.0.1:" + stub.getPort(DownstreamStubServer.USER_OFFSET));
+        command.add("--findu.chat.base-url=http://127.0.0.1:" + stub.getPort(DownstreamStubServer.CHAT_OFFSET));
+        command.add("--findu.dms.base-url=http://127.0.0.1:" + stub.getPort(DownstreamStubServer.DMS_OFFSET));
+        command.add("--findu.order-negotiation-agent.base-url=http://127.0.0.1:"
+                + stub.getPort(DownstreamStubServer.AGENT_OFFSET));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + CREATE_PATH))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer startup")
+                .header("X-User-Id", BenchmarkFixtures.CUSTOMER_ID)
+                .POST(HttpRequest.BodyPublishers.ofString(BenchmarkFixtures.createRequestJson()))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long firstCreate = awaitFirstCreate(process, request, start);
+            double rss = rssMegabytes(process.pid());
+            double started = startedMillis(logDir);
+            // 失败时保留控制台输出便于排查
+            Files.deleteIfExists(log);
+            return new double[]{firstCreate / 1e6, started, rss};
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(e.getMessage() + "，输出见 " + log, e);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            deleteRecursively(logDir);
+        }
+    }
+
+    private long awaitFirstCreate(Process process, HttpRequest request, long start) throws InterruptedException {
+        while (System.nanoTime() - start < timeoutNanos) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("应用启动失败，exit=" + process.exitValue());
+            }
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"code\":200")) {
+                    return System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                // 端口尚未监听
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new IllegalStateException("等待首个 /create 成功超时");
+    }
+
+    /**
+     * 应用日志写入 app.log.dir 而不是控制台，从其中的日志文件查找启动耗时
+     */
+    private static double startedMillis(Path logDir) throws IOException {
+        try (Stream<Path> files = Files.list(logDir)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".log")).toList()) {
+                Matcher matcher = STARTED.matcher(Files.readString(file));
+                if (matcher.find()) {
+                    return Double.parseDouble(matcher.group(1)) * 1000;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 进程当前的常驻内存，取自 /proc/&lt;pid&gt;/status 的 VmRSS（单位 kB）
+     */
+    private static double rssMegabytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D+", "")) / 1024.0;
+            }
+        }
+        return -1;
+    }
+
+    private String options(String mode) {
+        String cds = " -XX:SharedArchiveFile=" + appDir.resolve("cds/app.jsa") + " -Xshare:auto";
+        return switch (mode) {
+            case "default" -> JVM_OPTS + " -Dspring.aot.enabled=false";
+            case "cds" -> JVM_OPTS + " -Dspring.aot.enabled=false" + cds;
+            case "aot" -> JVM_OPTS + " -Dspring.aot.enabled=true";
+            case "aot-cds" -> JVM_OPTS + " -Dspring.aot.enabled=true" + cds;
+            case "native" -> NATIVE_OPTS;
+            default -> throw new IllegalArgumentException("未知模式: " + mode);
+        };
+    }
+
+    private static ObjectNode summary(ObjectMapper mapper, List<double[]> samples, int index) {
+        double[] values = samples.stream().mapToDouble(s -> s[index]).sorted().toArray();
+        ObjectNode node = mapper.createObjectNode();
+        node.put("min", round(values[0]));
+        node.put("median", round(values.length % 2 == 1 ? values[values.length / 2]
+                : (values[values.length / 2 - 1] + values[values.length / 2]) / 2));
+        node.put("mean", round(Arrays.stream(values).average().orElse(0)));
+        node.put("max", round(values[values.length - 1]));
+        ArrayNode all = node.putArray("samples");
+        samples.forEach(s -> all.add(round(s[index])));
+        return node;
+    }
+
+    /**
+     * 与 bin/start.sh 相同的类路径，CDS 校验要求训练与运行时完全一致
+     */
+    private static String classpath(Path appDir) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (Stream<Path> jars = Files.list(appDir.resolve("lib"))) {
+            jars.filter(p -> p.toString().endsWith(".jar")).sorted().forEach(p -> entries.add(p.toString()));
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("未找到 " + appDir.resolve("lib") + "/*.jar，--app-dir 应指向解压后的打包目录");
+        }
+        entries.add(appDir.resolve("conf").toString());
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("参数格式: --name value, 无法解析: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
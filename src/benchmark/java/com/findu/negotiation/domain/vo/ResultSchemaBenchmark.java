@@ -0,0 +1,46 @@
+package com.findu.negotiation.domain.vo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果 Schema 构建与序列化基准
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultSchemaBenchmark {
+
+    private ObjectWriter writer;
+    private NegotiationResultSchemaVO schema;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(NegotiationResultSchemaVO.class);
+        schema = NegotiationResultSchemaVO.buildDefault();
+    }
+
+    @Benchmark
+    public NegotiationResultSchemaVO buildDefault() {
+        return NegotiationResultSchemaVO.buildDefault();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(schema);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws Exception {
+        return writer.writeValueAsBytes(NegotiationResultSchemaVO.buildDefault());
+    }
+}
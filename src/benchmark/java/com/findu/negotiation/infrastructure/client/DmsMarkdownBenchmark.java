@@ -0,0 +1,40 @@
+package com.findu.negotiation.infrastructure.client;
+
+import com.findu.negotiation.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DMS 需求描述 markdown 服务类型提取基准
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DmsMarkdownBenchmark {
+
+    private String markdown;
+    private String plainText;
+
+    @Setup
+    public void setUp() {
+        markdown = BenchmarkFixtures.demandMarkdown();
+        plainText = "需要深度保洁，包括厨房油烟机和卫生间，周六下午上门";
+    }
+
+    @Benchmark
+    public String extractFromTable() {
+        return DmsClient.extractServiceTypeFromMarkdown(markdown);
+    }
+
+    @Benchmark
+    public String extractNotFound() {
+        return DmsClient.extractServiceTypeFromMarkdown(plainText);
+    }
+}
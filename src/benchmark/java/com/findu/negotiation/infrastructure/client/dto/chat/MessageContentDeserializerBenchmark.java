@@ -0,0 +1,41 @@
+package com.findu.negotiation.infrastructure.client.dto.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.findu.negotiation.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天记录反序列化（含 MessageContentDeserializer 多态解析）基准
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageContentDeserializerBenchmark {
+
+    @Param({"20", "200", "1000"})
+    public int messageCount;
+
+    private byte[] payload;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkFixtures.chatHistoryJson(messageCount).getBytes(StandardCharsets.UTF_8);
+        reader = new ObjectMapper().readerFor(ChatHistoryResponse.class);
+    }
+
+    @Benchmark
+    public ChatHistoryResponse deserializeChatHistory() throws Exception {
+        return reader.readValue(payload);
+    }
+}
@@ -0,0 +1,65 @@
+package com.findu.negotiation.infrastructure.filter;
+
+import com.findu.negotiation.benchmark.BenchmarkFixtures;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpLoggingFilter 开销基准：与直接调用过滤链对比
+ * 请求日志写入 target/benchmark-logs（见 log4j2-test.xml）
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpLoggingFilterBenchmark {
+
+    private static final byte[] RESPONSE = "{\"code\":200,\"message\":\"success\",\"data\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    private HttpLoggingFilter filter;
+    private FilterChain chain;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        filter = new HttpLoggingFilter();
+        body = BenchmarkFixtures.createRequestJson().getBytes(StandardCharsets.UTF_8);
+        chain = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            response.getOutputStream().write(RESPONSE);
+        };
+    }
+
+    private MockHttpServletRequest newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders_negotiation/create");
+        request.setContentType("application/json");
+        request.addHeader("X-Request-Id", "req-1");
+        request.addHeader("X-Trace-Id", "trace-1");
+        request.setContent(body);
+        return request;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chain.doFilter(newRequest(), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse withFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(newRequest(), response, chain);
+        return response;
+    }
+}
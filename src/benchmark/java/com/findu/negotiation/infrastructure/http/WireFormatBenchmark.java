@@ -0,0 +1,85 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.findu.negotiation.benchmark.BenchmarkFixtures;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Agent 请求与聊天记录在 JSON / Smile / CBOR 下的编解码基准
+ * <p>
+ * 传输字节数（未压缩与 gzip）在 Setup 中输出，与编解码耗时一起作为按路由开启 Smile 的依据。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    /**
+     * agent_request：Agent 请求（200 条聊天记录中的文本消息）；chat_history：200 条聊天记录响应
+     */
+    @Param({"agent_request", "chat_history"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Class<?> type;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "smile" -> WireFormat.smileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+        if ("agent_request".equals(payload)) {
+            type = OrderNegotiationCompletionsRequest.class;
+            value = BenchmarkFixtures.agentRequest(200);
+            encoded = mapper.writeValueAsBytes(value);
+        } else {
+            // 聊天记录由下游编码，解码的是下游原始报文转换后的字节；DTO 重新序列化会多出派生属性，不用于解码
+            String json = BenchmarkFixtures.chatHistoryJson(200);
+            type = ChatHistoryResponse.class;
+            value = new ObjectMapper().readValue(json, ChatHistoryResponse.class);
+            encoded = mapper.writeValueAsBytes(new ObjectMapper().readTree(json));
+        }
+        System.out.printf("%n[wire] format=%s payload=%s bytes=%d gzip_bytes=%d%n",
+                format, payload, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
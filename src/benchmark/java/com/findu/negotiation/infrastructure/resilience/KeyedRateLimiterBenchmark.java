@@ -0,0 +1,51 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 key 限速的单次取令牌开销，keyCount 为轮流访问的 key 数，4 个线程并发
+ * <p>
+ * keyCount=1 时所有线程竞争同一个桶的 CAS；keyCount=1000000 且 maxKeys 较小时持续发生淘汰与新建桶
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class KeyedRateLimiterBenchmark {
+
+    @Param({"1", "10000", "1000000"})
+    private int keyCount;
+
+    private KeyedRateLimiter limiter;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        // 速率足够高，基准测量的是放行路径
+        limiter = new KeyedRateLimiter("customer", true, 1_000_000_000, 1000, 100_000);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "customer-" + i;
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = i + 1 == keys.length ? 0 : i + 1;
+        return limiter.tryAcquire(keys[i]);
+    }
+}
@@ -0,0 +1,28 @@
+package com.findu.negotiation.infrastructure.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 价格解析基准
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceParserBenchmark {
+
+    @Param({"300元/小时", "99.9元", "50", "面议"})
+    public String price;
+
+    @Benchmark
+    public int parseToCents() {
+        return PriceParser.parseToCents(price);
+    }
+}
@@ -1,9 +1,12 @@
 package com.findu.negotiation;
 
+import com.findu.negotiation.infrastructure.config.NativeImageHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeImageHints.class)
 public class FinduNegotiationApplication {
 
     public static void main(String[] args) {
@@ -14,4 +14,37 @@ public interface NegotiationBizService {
      * @return
      */
     NegotiationEntity createNegotiation(String providerId, String customerId, String demandId, String productId);
+
+    /**
+     * 不调用下游服务，直接返回降级结果（与 Agent 调用失败时的结果一致），用于过载时快速响应
+     */
+    NegotiationEntity createFallbackNegotiation(String providerId, String customerId, String demandId, String productId);
+
+    /**
+     * 后台预生成协商草案，Agent 调用走 BACKGROUND 通道
+     * <p>
+     * 与 createNegotiation 不同，Agent 调用失败时抛出异常，不返回降级结果；Agent 返回空结果时返回没有草案ID的降级结果
+     */
+    NegotiationEntity precomputeNegotiation(String providerId, String customerId);
+
+    /**
+     * 把预生成的草案交给一次创建请求：预生成时不知道 demandId/productId，与请求不一致时复制一份，
+     * 填入请求的值后作为新草案保存，后续增量更新沿用这两个值；预生成的草案本身不修改
+     */
+    NegotiationEntity adoptPrecomputedNegotiation(NegotiationEntity precomputed, String demandId, String productId);
+
+    /**
+     * 按草案ID取回已保存的草案，不调用下游服务；草案不存在、已过期或不属于这对用户时返回 null
+     */
+    NegotiationEntity getDraft(String providerId, String customerId, String draftId);
+
+    /**
+     * 增量更新协商草案：只把上一版草案之后的新消息发给 Agent，Agent 的输入随新消息数而不是聊天记录长度增长
+     * <p>
+     * 取不到上一版草案、或聊天记录中找不到它的 lastMsgKey 时按创建处理；没有新消息或 Agent 调用失败时返回上一版草案
+     *
+     * @param draftId 上一版草案ID，可为null
+     * @param draft   调用方传回的上一版草案，按 draftId 取不到时使用，可为null
+     */
+    NegotiationEntity updateNegotiation(String providerId, String customerId, String draftId, NegotiationEntity draft);
 }
@@ -2,16 +2,31 @@ package com.findu.negotiation.application;
 
 import com.findu.negotiation.domain.entity.NegotiationEntity;
 import com.findu.negotiation.domain.vo.NegotiationResultSchemaVO;
+import com.findu.negotiation.domain.vo.NegotiationResultVO;
 import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.archive.ArchivedHistory;
+import com.findu.negotiation.infrastructure.archive.ArchivedMessage;
+import com.findu.negotiation.infrastructure.archive.ChatArchive;
+import com.findu.negotiation.infrastructure.cache.DraftCache;
+import com.findu.negotiation.infrastructure.cache.DraftKey;
+import com.findu.negotiation.infrastructure.cache.DraftStore;
 import com.findu.negotiation.infrastructure.client.ChatClient;
 import com.findu.negotiation.infrastructure.client.DmsClient;
 import com.findu.negotiation.infrastructure.client.OrderNegotiationAgentClient;
 import com.findu.negotiation.infrastructure.client.UserClient;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
 import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
 import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
 import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
 import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationDeltaCompletionsRequest;
 import com.findu.negotiation.infrastructure.client.dto.user.ProviderProduct;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.StageTimer;
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +39,18 @@ import java.util.stream.Collectors;
 public class NegotiationBizServiceImpl implements NegotiationBizService {
     private static final Logger LOGGER = LoggerFactory.getLogger(NegotiationBizServiceImpl.class);
 
+    private static final StageTimer.Stage STAGE_USER_WORKS = StageTimer.Stage.of("user_works");
+    private static final StageTimer.Stage STAGE_CHAT_HISTORY = StageTimer.Stage.of("chat_history");
+    private static final StageTimer.Stage STAGE_BUILD_REQUEST = StageTimer.Stage.of("build_request");
+    private static final StageTimer.Stage STAGE_DRAFT_CACHE = StageTimer.Stage.of("draft_cache");
+    private static final StageTimer.Stage STAGE_AGENT = StageTimer.Stage.of("agent");
+    private static final LatencyHistogram PIPELINE_TOTAL = MetricsRegistry.stage("total");
+
+    /**
+     * 结果 Schema 的版本，Schema 变化后旧草案的缓存键不再命中
+     */
+    private static final String SCHEMA_VERSION = DraftKey.fingerprint(NegotiationResultSchemaVO.buildDefault());
+
     @Autowired
     private DmsClient dmsClient;
 
@@ -35,6 +62,21 @@ public class NegotiationBizServiceImpl implements NegotiationBizService {
     @Autowired
     private ChatClient chatClient;
 
+    /**
+     * 未启用（findu.draft-cache.enabled=false）时为 null
+     */
+    @Autowired(required = false)
+    private DraftCache draftCache;
+
+    @Autowired
+    private DraftStore draftStore;
+
+    /**
+     * 未启用（findu.chat-archive.enabled=false）时为 null
+     */
+    @Autowired(required = false)
+    private ChatArchive chatArchive;
+
     @Override
     public NegotiationEntity createNegotiation(String providerId, String customerId, String demandId, String productId) {
         NegotiationEntity entity = NegotiationEntity.builder()
@@ -44,18 +86,91 @@ public class NegotiationBizServiceImpl implements NegotiationBizService {
                 .productId(productId)
                 .build();
         try {
-            return createNegotiationWithAgent(entity);
+            return createNegotiationWithAgent(entity, Priority.INTERACTIVE);
         } catch (Exception e) {
             LOGGER.warn("Agent服务调用失败，降级到手动逻辑: {}", e.getMessage(), e);
             return buildNormalResult(entity, null);
         }
     }
 
+    @Override
+    public NegotiationEntity createFallbackNegotiation(String providerId, String customerId, String demandId, String productId) {
+        NegotiationEntity entity = NegotiationEntity.builder()
+                .providerId(providerId)
+                .customerId(customerId)
+                .demandId(demandId)
+                .productId(productId)
+                .build();
+        return buildNormalResult(entity, null);
+    }
+
+    @Override
+    public NegotiationEntity precomputeNegotiation(String providerId, String customerId) {
+        NegotiationEntity entity = NegotiationEntity.builder()
+                .providerId(providerId)
+                .customerId(customerId)
+                .build();
+        return createNegotiationWithAgent(entity, Priority.BACKGROUND);
+    }
+
+    @Override
+    public NegotiationEntity adoptPrecomputedNegotiation(NegotiationEntity precomputed, String demandId, String productId) {
+        if (Objects.equals(precomputed.getDemandId(), demandId) && Objects.equals(precomputed.getProductId(), productId)) {
+            return precomputed;
+        }
+        NegotiationEntity entity = precomputed.toBuilder()
+                .demandId(demandId)
+                .productId(productId)
+                .build();
+        saveDraft(entity);
+        return entity;
+    }
+
+    @Override
+    public NegotiationEntity getDraft(String providerId, String customerId, String draftId) {
+        return draftId != null ? draftStore.get(draftId, providerId, customerId) : null;
+    }
+
+    @Override
+    public NegotiationEntity updateNegotiation(String providerId, String customerId, String draftId, NegotiationEntity draft) {
+        NegotiationEntity previous = draftId != null ? draftStore.get(draftId, providerId, customerId) : null;
+        if (previous == null) {
+            previous = draft;
+        }
+        if (previous == null || previous.getLastMsgKey() == null
+                || previous.getProducts() == null || previous.getProducts().isEmpty()) {
+            LOGGER.info("没有可增量更新的草案，按创建处理: draftId={}", draftId);
+            return createNegotiation(providerId, customerId,
+                    previous != null ? previous.getDemandId() : null, previous != null ? previous.getProductId() : null);
+        }
+        try {
+            return updateNegotiationWithAgent(previous);
+        } catch (Exception e) {
+            LOGGER.warn("Agent增量更新失败，返回上一版草案: {}", e.getMessage(), e);
+            return previous;
+        }
+    }
+
     /**
      * 使用Agent服务创建协商草案
+     *
+     * @param priority Agent 调用所在的优先级通道
      */
-    private NegotiationEntity createNegotiationWithAgent(NegotiationEntity entity) {
+    private NegotiationEntity createNegotiationWithAgent(NegotiationEntity entity, Priority priority) {
+        // Agent 返回空结果的降级与抛出的异常同样计入 total，慢尾部大多在这些请求中
+        long pipelineStart = System.nanoTime();
+        try {
+            return runCreatePipeline(entity, priority);
+        } finally {
+            PIPELINE_TOTAL.recordNanos(System.nanoTime() - pipelineStart);
+        }
+    }
+
+    private NegotiationEntity runCreatePipeline(NegotiationEntity entity, Priority priority) {
         LOGGER.info("使用Agent Completions服务创建协商草案");
+        StageTimer stageTimer = StageTimer.currentOrNew();
+        // 草案缓存键，随请求的构造逐项写入
+        DraftKey.Builder draftKey = draftCache != null ? DraftKey.builder().schema(SCHEMA_VERSION) : null;
 
         // 1. 获取provider的服务卡片
         List<ProviderProduct> providerWorks = userClient.getProviderWorks(entity.getProviderId());
@@ -67,49 +182,20 @@ public class NegotiationBizServiceImpl implements NegotiationBizService {
             productInfoVO.setDescription(product.getContent());
             productInfoVO.setPrice(product.getExtendInfo().getParsedPrice());
             productInfoVOS.add(productInfoVO);
+            if (draftKey != null) {
+                draftKey.product(productInfoVO);
+            }
         }
+        stageTimer.mark(STAGE_USER_WORKS);
 
         // 2. TODO 获取 customer agent 历史对话
         // 获取用户的需求
 
         // 3. 获取 IM 历史对话
         // 获取用户和服务方的协商条款
-        ChatHistoryResponse chatHistoryResponse = chatClient.getChatHistory(entity.getProviderId(), entity.getCustomerId());
-        List<ConversationItem> humanConversations = new ArrayList<>();
-        if (chatHistoryResponse != null && chatHistoryResponse.getData() != null) {
-            for (var msg : chatHistoryResponse.getData().getMessages()) {
-                ConversationItem item = new ConversationItem();
-                item.setTimestamp(msg.getMsgTime());
-                item.setSender(Objects.equals(msg.getFrom(), entity.getProviderId()) ? "服务方" : "用户");
-
-                for (var content : msg.getContent()) {
-                    if (content.isTextContent()) {
-                        item.setContent(content.getContentAsText());
-                        humanConversations.add(item);
-                        break;
-                    } else if (content.isDemandCardContent()) {
-                        // Handle demand card content - extract meaningful information
-                        var demandCard = content.getContentAsDemandCard();
-                        if (demandCard != null) {
-                            StringBuilder demandInfo = new StringBuilder();
-                            demandInfo.append("[需求卡片] ");
-                            if (demandCard.getDemandTitle() != null) {
-                                demandInfo.append(demandCard.getDemandTitle()).append(": ");
-                            }
-                            if (demandCard.getLocation() != null) {
-                                demandInfo.append("地点: ").append(demandCard.getLocation()).append(", ");
-                            }
-                            if (demandCard.getBudget() != null) {
-                                demandInfo.append("预算: ").append(demandCard.getBudget());
-                            }
-                            item.setContent(demandInfo.toString());
-                            humanConversations.add(item);
-                            break;
-                        }
-                    }
-                }
-            }
-        }
+        ChatHistory chatHistory = loadChatHistory(entity.getProviderId(), entity.getCustomerId());
+        stageTimer.mark(STAGE_CHAT_HISTORY);
+        List<ConversationItem> humanConversations = chatHistory.conversations(0, entity.getProviderId(), draftKey);
 
         LOGGER.info("获取IM历史对话完成: 对话记录={}", humanConversations
                 .stream()
@@ -132,32 +218,346 @@ public class NegotiationBizServiceImpl implements NegotiationBizService {
                 resultSchemaVO
         );
 
-        // 调用Agent服务
-        OrderNegotiationCompletionsResponse agentResponse = agentClient.completions(agentRequest);
+        stageTimer.mark(STAGE_BUILD_REQUEST);
+
+        // 调用Agent服务，输入与缓存中的某次请求完全相同时直接使用上次的结果
+        NegotiationResultVO result = completeDraft(agentRequest, draftKey, stageTimer, priority);
 
-        if (null == agentResponse.getResult()) {
+        if (null == result) {
             // 如果Agent返回空，使用默认的降级逻辑
             return buildNormalResult(entity, productInfoVOS);
         }
 
-        entity.setTitle(agentResponse.getResult().getTitle());
-        entity.setContent(agentResponse.getResult().getContent());
+        applyResult(entity, result, productInfoVOS);
+        entity.setLastMsgKey(chatHistory.lastMsgKey());
+        saveDraft(entity);
+
+        LOGGER.info("Agent Completions服务创建协商成功: title={}, price={}, productsCount={}",
+                entity.getTitle(), entity.getPrice(),
+                entity.getProducts() != null ? entity.getProducts().size() : 0);
+
+        return entity;
+    }
+
+    /**
+     * 把上一版草案之后的新消息经增量接口发给 Agent
+     */
+    private NegotiationEntity updateNegotiationWithAgent(NegotiationEntity previous) {
+        LOGGER.info("使用Agent增量补全服务更新协商草案: draftId={}, lastMsgKey={}", previous.getId(), previous.getLastMsgKey());
+        StageTimer stageTimer = StageTimer.currentOrNew();
+
+        ChatHistory chatHistory = loadChatHistory(previous.getProviderId(), previous.getCustomerId());
+        stageTimer.mark(STAGE_CHAT_HISTORY);
+        int start = chatHistory.indexAfter(previous.getLastMsgKey());
+        if (start < 0) {
+            LOGGER.info("聊天记录中找不到草案的 lastMsgKey，按创建处理: lastMsgKey={}", previous.getLastMsgKey());
+            return createNegotiation(previous.getProviderId(), previous.getCustomerId(),
+                    previous.getDemandId(), previous.getProductId());
+        }
+        List<ConversationItem> newConversations = chatHistory.conversations(start, previous.getProviderId(), null);
+        if (newConversations.isEmpty()) {
+            LOGGER.info("草案之后没有新的文本消息，返回上一版草案: draftId={}", previous.getId());
+            return previous;
+        }
+
+        // 服务取自上一版草案，不再调用 User 服务；选中状态由 Agent 重新给出
+        List<ProductInfoVO> productInfoVOS = new ArrayList<>();
+        List<ProductInfoVO> selected = new ArrayList<>();
+        for (ProductInfoVO product : previous.getProducts()) {
+            productInfoVOS.add(new ProductInfoVO(product.getId(), product.getTitle(), product.getDescription(),
+                    product.getPrice(), false));
+            if (product.isSelected()) {
+                selected.add(product);
+            }
+        }
+        NegotiationResultVO previousResult = NegotiationResultVO.builder()
+                .id(previous.getId())
+                .title(previous.getTitle())
+                .price(previous.getPrice())
+                .content(previous.getContent())
+                .products(selected)
+                .build();
+        OrderNegotiationDeltaCompletionsRequest agentRequest = new OrderNegotiationDeltaCompletionsRequest(
+                UUID.randomUUID().toString(),
+                previousResult,
+                newConversations,
+                productInfoVOS,
+                NegotiationResultSchemaVO.buildDefault()
+        );
+        stageTimer.mark(STAGE_BUILD_REQUEST);
+
+        OrderNegotiationCompletionsResponse agentResponse = agentClient.deltaCompletions(agentRequest);
+        stageTimer.mark(STAGE_AGENT);
+        if (agentResponse.getResult() == null) {
+            LOGGER.info("Agent增量补全返回空结果，返回上一版草案: draftId={}", previous.getId());
+            return previous;
+        }
+
+        NegotiationEntity entity = NegotiationEntity.builder()
+                .providerId(previous.getProviderId())
+                .customerId(previous.getCustomerId())
+                .demandId(previous.getDemandId())
+                .productId(previous.getProductId())
+                .build();
+        applyResult(entity, agentResponse.getResult(), productInfoVOS);
+        entity.setLastMsgKey(chatHistory.lastMsgKey());
+        saveDraft(entity);
+
+        LOGGER.info("Agent增量补全服务更新协商成功: draftId={}, previousDraftId={}, newConversations={}",
+                entity.getId(), previous.getId(), newConversations.size());
+        return entity;
+    }
+
+    private static void applyResult(NegotiationEntity entity, NegotiationResultVO result, List<ProductInfoVO> productInfoVOS) {
+        entity.setTitle(result.getTitle());
+        entity.setContent(result.getContent());
 
         for (ProductInfoVO product :productInfoVOS) {
             // 找到和 productInfoVOS 匹配的 product id
-            if (agentResponse.getResult().getProducts().stream().anyMatch(p -> product.getId().equals(p.getId()))) {
+            if (result.getProducts().stream().anyMatch(p -> product.getId().equals(p.getId()))) {
                 product.setSelected(true);
                 break;
             }
         }
         entity.setProducts(productInfoVOS);
-        entity.setPrice(agentResponse.getResult().getPrice());
+        entity.setPrice(result.getPrice());
+    }
 
-        LOGGER.info("Agent Completions服务创建协商成功: title={}, price={}, productsCount={}",
-                entity.getTitle(), entity.getPrice(),
-                entity.getProducts() != null ? entity.getProducts().size() : 0);
+    /**
+     * 分配草案ID并保存，供增量更新按ID取回；预热请求的草案不保存
+     */
+    private void saveDraft(NegotiationEntity entity) {
+        entity.setId(UUID.randomUUID().toString());
+        if (!RequestContextHolder.isWarmup()) {
+            draftStore.put(entity);
+        }
+    }
 
-        return entity;
+    /**
+     * 获取聊天记录；启用本地归档时，归档在 max-age 内直接使用归档，否则调用 Chat 服务并追加到归档，
+     * Chat 服务失败（已重试）时退回到归档中的记录
+     */
+    private ChatHistory loadChatHistory(String providerId, String customerId) {
+        if (chatArchive == null) {
+            return ChatHistory.of(chatClient.getChatHistory(providerId, customerId));
+        }
+        ArchivedHistory fresh = chatArchive.fresh(providerId, customerId);
+        if (fresh != null) {
+            return new ChatHistory(null, fresh);
+        }
+        ChatHistoryResponse response;
+        try {
+            response = chatClient.getChatHistory(providerId, customerId);
+        } catch (BusinessException e) {
+            ArchivedHistory archived = chatArchive.fallback(providerId, customerId);
+            if (archived == null) {
+                throw e;
+            }
+            LOGGER.warn("Chat服务调用失败，使用本地归档的聊天记录: providerId={}, customerId={}, messages={}, syncedAt={}",
+                    providerId, customerId, archived.size(), archived.getSyncedAt());
+            return new ChatHistory(null, archived);
+        }
+        ChatHistory history = ChatHistory.of(response);
+        // 预热请求的聊天记录不归档
+        if (history.messages() != null && !RequestContextHolder.isWarmup()) {
+            try {
+                chatArchive.append(providerId, customerId, history.messages());
+            } catch (RuntimeException e) {
+                LOGGER.warn("归档聊天记录失败: providerId={}, customerId={}, error={}", providerId, customerId, e.getMessage());
+            }
+        }
+        return history;
+    }
+
+    /**
+     * @return 最后一条消息的 msg_key，没有消息时为 null
+     */
+    static String lastMsgKey(List<ChatHistoryData.ChatMessage> messages) {
+        return messages == null || messages.isEmpty() ? null : messages.getLast().getMsgKey();
+    }
+
+    /**
+     * @return msg_key 为 lastMsgKey 的消息之后的下标，找不到时为 -1
+     */
+    static int indexAfter(List<ChatHistoryData.ChatMessage> messages, String lastMsgKey) {
+        // 新消息在末尾，从后往前找
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (lastMsgKey.equals(messages.get(i).getMsgKey())) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查询草案缓存，未命中时调用 Agent 并缓存非空结果
+     * <p>
+     * 预热请求的输入每次相同，只计算缓存键、不读写缓存，否则第一次之后就不再经过 Agent 调用链路
+     *
+     * @param draftKey 未启用缓存时为 null
+     * @return Agent 返回空结果时为 null
+     */
+    private NegotiationResultVO completeDraft(OrderNegotiationCompletionsRequest agentRequest, DraftKey.Builder draftKey,
+                                              StageTimer stageTimer, Priority priority) {
+        DraftKey key = draftKey != null ? draftKey.build() : null;
+        boolean useCache = key != null && !RequestContextHolder.isWarmup();
+        if (useCache) {
+            NegotiationResultVO cached = draftCache.get(key);
+            stageTimer.mark(STAGE_DRAFT_CACHE);
+            if (cached != null) {
+                LOGGER.info("命中协商草案缓存: key={}", key);
+                return cached;
+            }
+        }
+
+        OrderNegotiationCompletionsResponse agentResponse = agentClient.completions(agentRequest, priority);
+        stageTimer.mark(STAGE_AGENT);
+        NegotiationResultVO result = agentResponse.getResult();
+        if (useCache && result != null) {
+            draftCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 将 IM 聊天记录转换为 Agent 对话列表
+     * 每条消息取第一个文本内容或需求卡片，其余类型（图片等）忽略
+     *
+     * @param chatHistoryResponse 聊天记录，可为null
+     * @param providerId          服务方ID，用于区分发送方角色
+     * @return 对话列表
+     */
+    static List<ConversationItem> buildHumanConversations(ChatHistoryResponse chatHistoryResponse, String providerId) {
+        return buildHumanConversations(chatHistoryResponse, providerId, null);
+    }
+
+    /**
+     * @param draftKey 草案缓存键，加入对话列表的每一项同时写入；为 null 时不写入
+     */
+    static List<ConversationItem> buildHumanConversations(ChatHistoryResponse chatHistoryResponse, String providerId,
+                                                          DraftKey.Builder draftKey) {
+        if (chatHistoryResponse == null || chatHistoryResponse.getData() == null) {
+            return new ArrayList<>();
+        }
+        return buildHumanConversations(chatHistoryResponse.getData().getMessages(), providerId, draftKey);
+    }
+
+    /**
+     * @param messages 聊天记录中的消息，增量更新时为上一版草案之后的部分
+     */
+    static List<ConversationItem> buildHumanConversations(List<ChatHistoryData.ChatMessage> messages, String providerId,
+                                                          DraftKey.Builder draftKey) {
+        List<ConversationItem> humanConversations = new ArrayList<>();
+        if (messages != null) {
+            for (var msg : messages) {
+                ConversationItem item = new ConversationItem();
+                item.setTimestamp(msg.getMsgTime());
+                item.setSender(Objects.equals(msg.getFrom(), providerId) ? "服务方" : "用户");
+
+                for (var content : msg.getContent()) {
+                    String text = conversationText(content);
+                    if (text != null) {
+                        item.setContent(text);
+                        humanConversations.add(item);
+                        break;
+                    }
+                }
+                if (draftKey != null && item.getContent() != null) {
+                    draftKey.conversation(item);
+                }
+            }
+        }
+        return humanConversations;
+    }
+
+    /**
+     * 从归档视图构建对话，结果与同样的消息经 Chat 服务返回时相同；文本内容直接从映射段解码，不还原整条消息
+     *
+     * @param from 从第几条消息开始，增量更新时为上一版草案之后的第一条
+     */
+    static List<ConversationItem> buildHumanConversations(ArchivedHistory history, int from, String providerId,
+                                                          DraftKey.Builder draftKey) {
+        List<ConversationItem> humanConversations = new ArrayList<>();
+        for (int i = from; i < history.size(); i++) {
+            ArchivedMessage msg = history.get(i);
+            ConversationItem item = new ConversationItem();
+            item.setTimestamp(msg.getMsgTime());
+            item.setSender(msg.isFrom(providerId) ? "服务方" : "用户");
+
+            for (int c = 0; c < msg.getContentCount(); c++) {
+                String text = msg.isTextContent(c) ? msg.getText(c) : conversationText(msg.getContent(c));
+                if (text != null) {
+                    item.setContent(text);
+                    humanConversations.add(item);
+                    break;
+                }
+            }
+            if (draftKey != null && item.getContent() != null) {
+                draftKey.conversation(item);
+            }
+        }
+        return humanConversations;
+    }
+
+    /**
+     * 消息内容在对话中的文本：取文本内容或需求卡片，其余类型（图片等）为 null
+     */
+    private static String conversationText(ChatHistoryData.MessageContent content) {
+        if (content.isTextContent()) {
+            return content.getContentAsText();
+        }
+        if (content.isDemandCardContent()) {
+            // Handle demand card content - extract meaningful information
+            var demandCard = content.getContentAsDemandCard();
+            if (demandCard != null) {
+                StringBuilder demandInfo = new StringBuilder();
+                demandInfo.append("[需求卡片] ");
+                if (demandCard.getDemandTitle() != null) {
+                    demandInfo.append(demandCard.getDemandTitle()).append(": ");
+                }
+                if (demandCard.getLocation() != null) {
+                    demandInfo.append("地点: ").append(demandCard.getLocation()).append(", ");
+                }
+                if (demandCard.getBudget() != null) {
+                    demandInfo.append("预算: ").append(demandCard.getBudget());
+                }
+                return demandInfo.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 一次取到的聊天记录：Chat 服务返回的消息，或本地归档的视图，二者只有一个
+     */
+    private record ChatHistory(List<ChatHistoryData.ChatMessage> messages, ArchivedHistory archived) {
+
+        static ChatHistory of(ChatHistoryResponse response) {
+            return new ChatHistory(response != null && response.getData() != null
+                    ? response.getData().getMessages() : null, null);
+        }
+
+        String lastMsgKey() {
+            return archived != null ? archived.lastMsgKey() : NegotiationBizServiceImpl.lastMsgKey(messages);
+        }
+
+        /**
+         * @return msg_key 为 lastMsgKey 的消息之后的下标，找不到时为 -1
+         */
+        int indexAfter(String lastMsgKey) {
+            if (archived != null) {
+                return archived.indexAfter(lastMsgKey);
+            }
+            return NegotiationBizServiceImpl.indexAfter(messages != null ? messages : List.of(), lastMsgKey);
+        }
+
+        List<ConversationItem> conversations(int from, String providerId, DraftKey.Builder draftKey) {
+            if (archived != null) {
+                return buildHumanConversations(archived, from, providerId, draftKey);
+            }
+            return buildHumanConversations(messages != null ? messages.subList(from, messages.size()) : null,
+                    providerId, draftKey);
+        }
     }
 
     private NegotiationEntity buildNormalResult(NegotiationEntity entity, List<ProductInfoVO> productInfoVOS) {
@@ -16,7 +16,9 @@ import java.util.Map;
  */
 @ToString
 @Data
-@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
 public class NegotiationEntity {
     /**
      * 协商ID - 主键
@@ -68,6 +70,11 @@ public class NegotiationEntity {
      */
     public NegotiationResultVO result;
 
+    /**
+     * 生成草案时聊天记录中最后一条消息的 msg_key，增量更新从它之后的消息开始
+     */
+    private String lastMsgKey;
+
     /**
      * 创建时间
      */
@@ -0,0 +1,91 @@
+package com.findu.negotiation.infrastructure.archive;
+
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一对用户归档聊天记录的快照，按消息顺序排列的 {@link ArchivedMessage} 视图
+ * <p>
+ * 快照取得后归档的追加与压缩不影响它，消息内容仍在段的映射中，不占堆内存
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class ArchivedHistory {
+
+    private final String providerId;
+    private final String customerId;
+    private final ByteBuffer[] buffers;
+    private final int[] offsets;
+    private final long syncedAt;
+
+    ArchivedHistory(String providerId, String customerId, ByteBuffer[] buffers, int[] offsets, long syncedAt) {
+        this.providerId = providerId;
+        this.customerId = customerId;
+        this.buffers = buffers;
+        this.offsets = offsets;
+        this.syncedAt = syncedAt;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public boolean isEmpty() {
+        return offsets.length == 0;
+    }
+
+    public ArchivedMessage get(int index) {
+        return new ArchivedMessage(buffers[index], offsets[index], providerId, customerId);
+    }
+
+    /**
+     * @return 最后一条消息的 msg_key，没有消息时为 null
+     */
+    public String lastMsgKey() {
+        return isEmpty() ? null : get(size() - 1).getMsgKey();
+    }
+
+    /**
+     * 按字节比较 msg_key，不解码
+     *
+     * @return msg_key 为 lastMsgKey 的消息之后的下标，找不到时为 -1
+     */
+    public int indexAfter(String lastMsgKey) {
+        for (int i = size() - 1; i >= 0; i--) {
+            if (get(i).msgKeyEquals(lastMsgKey)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解码全部消息
+     */
+    public List<ChatHistoryData.ChatMessage> toChatMessages() {
+        List<ChatHistoryData.ChatMessage> messages = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            messages.add(get(i).toChatMessage());
+        }
+        return messages;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * @return 最后一次与 Chat 服务同步的时间（毫秒时间戳）
+     */
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+}
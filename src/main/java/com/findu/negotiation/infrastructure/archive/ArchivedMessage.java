@@ -0,0 +1,171 @@
+package com.findu.negotiation.infrastructure.archive;
+
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.findu.negotiation.infrastructure.archive.ChatRecordCodec.*;
+
+/**
+ * 归档中一条消息的只读视图，直接读取映射段中的记录，不复制整条记录
+ * <p>
+ * 定长字段按固定偏移读取；字符串与内容在取用时才解码，构建对话只解码用到的那个文本内容。
+ * 视图持有段的映射，压缩删除段文件后已取得的视图仍然可读。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class ArchivedMessage {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final String providerId;
+    private final String customerId;
+    /**
+     * msgKey 的位置，首次用到时计算
+     */
+    private int msgKeyPosition = -1;
+
+    ArchivedMessage(ByteBuffer buffer, int offset, String providerId, String customerId) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.providerId = providerId;
+        this.customerId = customerId;
+    }
+
+    public Long getMsgSeq() {
+        return has(HAS_SEQ) ? buffer.getLong(offset + SEQ) : null;
+    }
+
+    public Long getMsgTime() {
+        return has(HAS_TIME) ? buffer.getLong(offset + TIME) : null;
+    }
+
+    public Long getMsgRandom() {
+        return has(HAS_RANDOM) ? buffer.getLong(offset + RANDOM) : null;
+    }
+
+    public Integer getIsPeerRead() {
+        return has(HAS_PEER_READ) ? buffer.getInt(offset + PEER_READ) : null;
+    }
+
+    public String getFrom() {
+        return user(buffer.get(offset + FROM_ROLE), fromPosition());
+    }
+
+    public String getTo() {
+        return user(buffer.get(offset + TO_ROLE), toPosition());
+    }
+
+    /**
+     * 发送方是否为 userId；发送方是这对用户之一时只比较角色字节
+     */
+    public boolean isFrom(String userId) {
+        return switch (buffer.get(offset + FROM_ROLE)) {
+            case ROLE_PROVIDER -> providerId.equals(userId);
+            case ROLE_CUSTOMER -> customerId.equals(userId);
+            case ROLE_OTHER -> stringEquals(buffer, fromPosition(), userId);
+            default -> userId == null;
+        };
+    }
+
+    public String getMsgKey() {
+        return readString(buffer, msgKeyPosition());
+    }
+
+    public boolean msgKeyEquals(String msgKey) {
+        return stringEquals(buffer, msgKeyPosition(), msgKey);
+    }
+
+    public int getContentCount() {
+        return buffer.getShort(skipString(buffer, msgKeyPosition())) & 0xFFFF;
+    }
+
+    public boolean isTextContent(int index) {
+        return buffer.get(contentPosition(index)) == CONTENT_TEXT;
+    }
+
+    /**
+     * 文本内容直接从映射段解码为字符串
+     */
+    public String getText(int index) {
+        int position = contentPosition(index);
+        return buffer.get(position) == CONTENT_TEXT ? readText(buffer, position) : null;
+    }
+
+    /**
+     * 解码第 index 个内容，结构与 Chat 服务返回的内容相同
+     */
+    public ChatHistoryData.MessageContent getContent(int index) {
+        return readContent(buffer, contentPosition(index));
+    }
+
+    /**
+     * 解码整条消息
+     */
+    public ChatHistoryData.ChatMessage toChatMessage() {
+        int count = getContentCount();
+        List<ChatHistoryData.MessageContent> content = new ArrayList<>(count);
+        int position = skipString(buffer, msgKeyPosition()) + 2;
+        for (int i = 0; i < count; i++) {
+            content.add(readContent(buffer, position));
+            position = skipContent(buffer, position);
+        }
+        return new ChatHistoryData.ChatMessage(getFrom(), getTo(), getMsgTime(), getMsgRandom(), getMsgSeq(),
+                getMsgKey(), getIsPeerRead(), content);
+    }
+
+    /**
+     * @return 记录长度，含记录头
+     */
+    public int getRecordLength() {
+        return recordLength(buffer, offset);
+    }
+
+    private boolean has(int flag) {
+        return (buffer.get(offset + PRESENCE) & flag) != 0;
+    }
+
+    private String user(byte role, int position) {
+        return switch (role) {
+            case ROLE_PROVIDER -> providerId;
+            case ROLE_CUSTOMER -> customerId;
+            case ROLE_OTHER -> readString(buffer, position);
+            default -> null;
+        };
+    }
+
+    /**
+     * from 角色为 OTHER 时 from 字符串的位置
+     */
+    private int fromPosition() {
+        return skipString(buffer, skipString(buffer, offset + MESSAGE_PAIR));
+    }
+
+    private int toPosition() {
+        int position = fromPosition();
+        return buffer.get(offset + FROM_ROLE) == ROLE_OTHER ? skipString(buffer, position) : position;
+    }
+
+    private int msgKeyPosition() {
+        if (msgKeyPosition < 0) {
+            int position = toPosition();
+            msgKeyPosition = buffer.get(offset + TO_ROLE) == ROLE_OTHER ? skipString(buffer, position) : position;
+        }
+        return msgKeyPosition;
+    }
+
+    private int contentPosition(int index) {
+        int count = getContentCount();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("内容下标越界: index=" + index + ", count=" + count);
+        }
+        int position = skipString(buffer, msgKeyPosition()) + 2;
+        for (int i = 0; i < index; i++) {
+            position = skipContent(buffer, position);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,750 @@
+package com.findu.negotiation.infrastructure.archive;
+
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.findu.negotiation.infrastructure.archive.ChatRecordCodec.*;
+
+/**
+ * 本地聊天记录归档，消息以紧凑的二进制记录追加写入内存映射的段文件，不占堆内存
+ * <p>
+ * 每次从 Chat 服务取到聊天记录后追加归档中还没有的消息（按上次最后一条的 msg_key 定位），再写一条同步记录。
+ * 堆上只保留索引：每对用户按消息顺序的记录位置和按 msg_seq 排序的位置，每条消息约 20 字节。
+ * 读取返回段映射上的视图，构建对话时直接从映射中解码文本。
+ * <p>
+ * 重启时按段号顺序扫描段文件重建索引，遇到长度或 CRC 不对的记录视为未写完的尾部，从那里继续写；
+ * 写入不逐条刷盘，进程退出不丢数据，机器掉电可能丢失最后一部分记录。
+ * <p>
+ * 被替换的同步记录、纪元变化后的旧消息、超过 retention 未同步的用户对都成为无效记录；
+ * {@link #compact()} 把无效比例达到 compactThreshold 的段中的有效记录原样复制到当前段，然后删除旧段。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class ChatArchive {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatArchive.class);
+
+    public static final String LOOKUPS = "findu_chat_archive_lookups_total";
+    public static final String FALLBACKS = "findu_chat_archive_fallbacks_total";
+    public static final String APPENDED = "findu_chat_archive_appended_total";
+    public static final String RESETS = "findu_chat_archive_resets_total";
+    public static final String EXPIRED = "findu_chat_archive_expired_total";
+    public static final String COMPACTIONS = "findu_chat_archive_compacted_segments_total";
+    public static final String RECLAIMED = "findu_chat_archive_reclaimed_bytes_total";
+    public static final String PAIRS = "findu_chat_archive_pairs";
+    public static final String MESSAGES = "findu_chat_archive_messages";
+    public static final String SEGMENTS = "findu_chat_archive_segments";
+    public static final String BYTES = "findu_chat_archive_bytes";
+
+    static {
+        MetricsRegistry.describe(LOOKUPS, "counter", "max-age 内直接使用归档的查询，result 为 fresh / stale / miss");
+        MetricsRegistry.describe(FALLBACKS, "counter", "Chat 服务失败后退回归档的次数，result 为 hit / miss");
+        MetricsRegistry.describe(APPENDED, "counter", "追加到归档的消息数");
+        MetricsRegistry.describe(RESETS, "counter", "聊天记录与归档对不上、重新归档的次数");
+        MetricsRegistry.describe(EXPIRED, "counter", "超过 retention 未同步被移出归档的用户对数");
+        MetricsRegistry.describe(COMPACTIONS, "counter", "压缩并删除的段数");
+        MetricsRegistry.describe(RECLAIMED, "counter", "压缩回收的字节数");
+        MetricsRegistry.describe(PAIRS, "gauge", "归档中的用户对数");
+        MetricsRegistry.describe(MESSAGES, "gauge", "归档中的消息数");
+        MetricsRegistry.describe(SEGMENTS, "gauge", "段文件数");
+        MetricsRegistry.describe(BYTES, "gauge", "段文件中已写入的字节数，state 为 live / written");
+    }
+
+    private static final LongAdder FRESH = MetricsRegistry.counter(LOOKUPS, "result", "fresh");
+    private static final LongAdder STALE = MetricsRegistry.counter(LOOKUPS, "result", "stale");
+    private static final LongAdder MISS = MetricsRegistry.counter(LOOKUPS, "result", "miss");
+    private static final LongAdder FALLBACK_HIT = MetricsRegistry.counter(FALLBACKS, "result", "hit");
+    private static final LongAdder FALLBACK_MISS = MetricsRegistry.counter(FALLBACKS, "result", "miss");
+    private static final LongAdder APPENDED_MESSAGES = MetricsRegistry.counter(APPENDED);
+    private static final LongAdder RESET_PAIRS = MetricsRegistry.counter(RESETS);
+    private static final LongAdder EXPIRED_PAIRS = MetricsRegistry.counter(EXPIRED);
+    private static final LongAdder COMPACTED_SEGMENTS = MetricsRegistry.counter(COMPACTIONS);
+    private static final LongAdder RECLAIMED_BYTES = MetricsRegistry.counter(RECLAIMED);
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{8})\\.dat");
+
+    private final Path dir;
+    private final int segmentSize;
+    private final long maxAgeMillis;
+    private final long retentionMillis;
+    private final double compactThreshold;
+    private final LongSupplier clock;
+
+    /**
+     * 读锁下取快照，写锁下追加与压缩；视图在锁外读取，段映射不会被回收
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, Pair> pairs = new HashMap<>();
+    /**
+     * 已移出索引的用户对最后使用的纪元。它们的旧记录可能还留在未压缩的段中，
+     * 重新归档时必须使用更大的纪元，否则重启重放时旧记录会混进新的消息序列
+     */
+    private final Map<String, Integer> retiredEpochs = new HashMap<>();
+    private Segment active;
+    private int nextSegmentId = 1;
+    private long messages;
+
+    /**
+     * @param segmentSize      段文件大小（字节），单条记录不能超过段大小
+     * @param maxAge           同步后多久内直接使用归档、不再调用 Chat 服务，为 0 时只在 Chat 服务失败时使用
+     * @param retention        用户对多久没有同步后移出归档
+     * @param compactThreshold 段中无效记录的比例达到多少时压缩
+     */
+    public ChatArchive(Path dir, int segmentSize, Duration maxAge, Duration retention, double compactThreshold) {
+        this(dir, segmentSize, maxAge, retention, compactThreshold, System::currentTimeMillis);
+    }
+
+    ChatArchive(Path dir, int segmentSize, Duration maxAge, Duration retention, double compactThreshold,
+                LongSupplier clock) {
+        if (segmentSize < 1024 || maxAge.isNegative() || retention.isNegative()
+                || compactThreshold <= 0 || compactThreshold > 1) {
+            throw new IllegalArgumentException("聊天归档配置非法: segmentSize=" + segmentSize + ", maxAge=" + maxAge
+                    + ", retention=" + retention + ", compactThreshold=" + compactThreshold);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.retentionMillis = retention.toMillis();
+        this.compactThreshold = compactThreshold;
+        this.clock = clock;
+        try {
+            Files.createDirectories(dir);
+            recover();
+            if (active == null) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开聊天归档失败: dir=" + dir, e);
+        }
+        MetricsRegistry.gauge(PAIRS, () -> read(pairs::size));
+        MetricsRegistry.gauge(MESSAGES, () -> read(() -> messages));
+        MetricsRegistry.gauge(SEGMENTS, () -> read(segments::size));
+        MetricsRegistry.gauge(BYTES, this::getLiveBytes, "state", "live");
+        MetricsRegistry.gauge(BYTES, this::getWrittenBytes, "state", "written");
+    }
+
+    /**
+     * 同步时间在 max-age 内、且之后没有收到新消息事件时返回归档
+     *
+     * @return 未配置 max-age、没有归档或已过期时为 null，此时应调用 Chat 服务
+     */
+    public ArchivedHistory fresh(String providerId, String customerId) {
+        if (maxAgeMillis <= 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Pair pair = pairs.get(key(providerId, customerId));
+            if (pair == null) {
+                MISS.increment();
+                return null;
+            }
+            if (pair.stale || clock.getAsLong() - pair.syncedAt > maxAgeMillis) {
+                STALE.increment();
+                return null;
+            }
+            FRESH.increment();
+            return snapshot(pair);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Chat 服务失败时使用的归档，不论同步时间
+     *
+     * @return 没有归档时为 null
+     */
+    public ArchivedHistory fallback(String providerId, String customerId) {
+        ArchivedHistory history = history(providerId, customerId);
+        (history != null ? FALLBACK_HIT : FALLBACK_MISS).increment();
+        return history;
+    }
+
+    /**
+     * @return 没有归档时为 null
+     */
+    public ArchivedHistory history(String providerId, String customerId) {
+        lock.readLock().lock();
+        try {
+            Pair pair = pairs.get(key(providerId, customerId));
+            return pair != null ? snapshot(pair) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按 msg_seq 查找消息，有多条时取归档中靠后的一条
+     *
+     * @return 找不到时为 null
+     */
+    public ArchivedMessage find(String providerId, String customerId, long msgSeq) {
+        lock.readLock().lock();
+        try {
+            Pair pair = pairs.get(key(providerId, customerId));
+            int ordinal = pair != null ? pair.findSeq(msgSeq) : -1;
+            return ordinal >= 0 ? view(pair, pair.locations[ordinal]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 追加 Chat 服务返回的聊天记录中归档还没有的消息，并记录同步时间
+     * <p>
+     * 聊天记录中找不到归档的最后一条消息时（历史被清理或改写），纪元加一，整段重新归档
+     *
+     * @param messages Chat 服务返回的完整聊天记录，按时间顺序
+     * @return 追加的消息数
+     */
+    public int append(String providerId, String customerId, List<ChatHistoryData.ChatMessage> messages) {
+        if (messages == null) {
+            return 0;
+        }
+        String key = key(providerId, customerId);
+        lock.writeLock().lock();
+        try {
+            Pair pair = pairs.get(key);
+            int start = 0;
+            boolean reset = false;
+            if (pair != null && pair.size > 0) {
+                start = indexAfter(messages, pair.lastMsgKey);
+                reset = start < 0;
+                start = Math.max(start, 0);
+            }
+            Integer retired = pair == null ? retiredEpochs.get(key) : null;
+            int epoch = pair == null ? (retired == null ? 0 : retired + 1) : reset ? pair.epoch + 1 : pair.epoch;
+            int ordinal = pair == null || reset ? 0 : pair.size;
+
+            // 先全部编码，超过段大小的记录在写入任何记录之前拒绝
+            List<byte[]> records = new ArrayList<>(messages.size() - start);
+            for (int i = start; i < messages.size(); i++) {
+                records.add(encodeMessage(providerId, customerId, epoch, ordinal + records.size(), messages.get(i)));
+            }
+            byte[] sync = encodeSync(providerId, customerId, epoch, ordinal + records.size(), clock.getAsLong());
+            for (byte[] record : records) {
+                if (record.length > segmentSize - SEGMENT_HEADER) {
+                    LOGGER.warn("聊天消息超过归档段大小，不归档: providerId={}, customerId={}, length={}, segmentSize={}",
+                            providerId, customerId, record.length, segmentSize);
+                    return 0;
+                }
+            }
+
+            if (pair == null) {
+                pair = new Pair(providerId, customerId);
+                pair.epoch = epoch;
+                pairs.put(key, pair);
+                retiredEpochs.remove(key);
+            } else if (reset) {
+                LOGGER.info("聊天记录中找不到归档的最后一条消息，重新归档: providerId={}, customerId={}, lastMsgKey={}",
+                        providerId, customerId, pair.lastMsgKey);
+                RESET_PAIRS.increment();
+                drop(pair);
+                pair.reset(epoch);
+            }
+            for (int i = 0; i < records.size(); i++) {
+                ChatHistoryData.ChatMessage message = messages.get(start + i);
+                pair.set(ordinal + i, write(records.get(i)), message.getMsgSeq());
+                pair.lastMsgKey = message.getMsgKey();
+            }
+            markDead(pair.syncLocation);
+            pair.syncLocation = write(sync);
+            pair.syncedAt = ByteBuffer.wrap(sync).getLong(SYNCED_AT);
+            pair.stale = false;
+            this.messages += records.size();
+            APPENDED_MESSAGES.add(records.size());
+            return records.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 收到新消息事件后，这对用户的归档不再当作最新
+     */
+    public void invalidate(String providerId, String customerId) {
+        lock.readLock().lock();
+        try {
+            Pair pair = pairs.get(key(providerId, customerId));
+            if (pair != null) {
+                pair.stale = true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 移出超过 retention 未同步的用户对，再压缩无效比例达到阈值的段；当前写入的段不压缩
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            expire();
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                long written = segment.position - SEGMENT_HEADER;
+                if (segment == active || segment.liveBytes > written * (1 - compactThreshold)) {
+                    continue;
+                }
+                long live = segment.liveBytes;
+                relocate(segment);
+                segments.remove(segment.id);
+                segment.close();
+                Files.deleteIfExists(segment.path);
+                COMPACTED_SEGMENTS.increment();
+                RECLAIMED_BYTES.add(written - live);
+                LOGGER.info("聊天归档段已压缩: segment={}, written={}, live={}", segment.path.getFileName(), written, live);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("聊天归档压缩失败: dir={}, error={}", dir, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 刷盘并关闭段文件；已取得的视图仍然可读
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getPairCount() {
+        return read(pairs::size);
+    }
+
+    public long getMessageCount() {
+        return read(() -> messages);
+    }
+
+    public int getSegmentCount() {
+        return read(segments::size);
+    }
+
+    public long getLiveBytes() {
+        return read(() -> segments.values().stream().mapToLong(segment -> segment.liveBytes).sum());
+    }
+
+    public long getWrittenBytes() {
+        return read(() -> segments.values().stream().mapToLong(segment -> segment.position - SEGMENT_HEADER).sum());
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * @return msg_key 为 lastMsgKey 的消息之后的下标，找不到时为 -1
+     */
+    private static int indexAfter(List<ChatHistoryData.ChatMessage> messages, String lastMsgKey) {
+        if (lastMsgKey == null) {
+            return -1;
+        }
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (lastMsgKey.equals(messages.get(i).getMsgKey())) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static String key(String providerId, String customerId) {
+        return providerId + '\u0000' + customerId;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return (long) segmentId << 32 | offset;
+    }
+
+    private ArchivedHistory snapshot(Pair pair) {
+        ByteBuffer[] buffers = new ByteBuffer[pair.size];
+        int[] offsets = new int[pair.size];
+        for (int i = 0; i < pair.size; i++) {
+            buffers[i] = segments.get((int) (pair.locations[i] >>> 32)).buffer;
+            offsets[i] = (int) pair.locations[i];
+        }
+        return new ArchivedHistory(pair.providerId, pair.customerId, buffers, offsets, pair.syncedAt);
+    }
+
+    private ArchivedMessage view(Pair pair, long location) {
+        return new ArchivedMessage(segments.get((int) (location >>> 32)).buffer, (int) location,
+                pair.providerId, pair.customerId);
+    }
+
+    private long write(byte[] record) {
+        return write(ByteBuffer.wrap(record), 0, record.length);
+    }
+
+    private long write(ByteBuffer source, int offset, int length) {
+        if (active.position + length > active.buffer.capacity()) {
+            roll();
+        }
+        int position = active.position;
+        active.buffer.put(position, source, offset, length);
+        active.position += length;
+        // 恢复时在长度为 0 处停止，覆盖上次未写完的尾部留下的内容
+        if (active.position + RECORD_HEADER <= active.buffer.capacity()) {
+            active.buffer.putInt(active.position, 0);
+        }
+        active.liveBytes += length;
+        return location(active.id, position);
+    }
+
+    private void markDead(long location) {
+        if (location == 0) {
+            return;
+        }
+        Segment segment = segments.get((int) (location >>> 32));
+        if (segment != null) {
+            segment.liveBytes -= recordLength(segment.buffer, (int) location);
+        }
+    }
+
+    /**
+     * 这对用户的记录全部成为无效记录
+     */
+    private void drop(Pair pair) {
+        for (int i = 0; i < pair.size; i++) {
+            markDead(pair.locations[i]);
+        }
+        markDead(pair.syncLocation);
+        messages -= pair.size;
+    }
+
+    private void expire() {
+        long cutoff = clock.getAsLong() - retentionMillis;
+        Iterator<Pair> iterator = pairs.values().iterator();
+        while (iterator.hasNext()) {
+            Pair pair = iterator.next();
+            if (pair.syncedAt < cutoff) {
+                drop(pair);
+                retiredEpochs.put(key(pair.providerId, pair.customerId), pair.epoch);
+                iterator.remove();
+                EXPIRED_PAIRS.increment();
+            }
+        }
+    }
+
+    /**
+     * 把段中仍然有效的记录原样复制到当前段，记录中的纪元与序号不变
+     */
+    private void relocate(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = SEGMENT_HEADER;
+        while (offset < segment.position) {
+            int length = recordLength(buffer, offset);
+            byte type = buffer.get(offset + TYPE);
+            if (type == MESSAGE || type == SYNC) {
+                Pair pair = pairs.get(recordKey(buffer, offset));
+                long location = location(segment.id, offset);
+                if (pair != null && type == MESSAGE) {
+                    int ordinal = buffer.getInt(offset + ORDINAL);
+                    if (buffer.getInt(offset + MESSAGE_EPOCH) == pair.epoch && ordinal < pair.size
+                            && pair.locations[ordinal] == location) {
+                        pair.locations[ordinal] = write(buffer, offset, length);
+                    }
+                } else if (pair != null && pair.syncLocation == location) {
+                    pair.syncLocation = write(buffer, offset, length);
+                }
+            }
+            offset += length;
+        }
+    }
+
+    private static String recordKey(ByteBuffer buffer, int offset) {
+        int position = pairOffset(buffer, offset);
+        return key(readString(buffer, position), readString(buffer, skipString(buffer, position)));
+    }
+
+    /**
+     * 按段号顺序重放所有段文件，重建索引与各段的有效字节数
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(path -> SEGMENT_FILE.matcher(path.getFileName().toString()).matches()).sorted().toList();
+        }
+        for (Path path : files) {
+            Matcher matcher = SEGMENT_FILE.matcher(path.getFileName().toString());
+            matcher.matches();
+            int id = Integer.parseInt(matcher.group(1));
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            long size = Files.size(path);
+            if (size < SEGMENT_HEADER || size > Integer.MAX_VALUE) {
+                LOGGER.warn("聊天归档段文件大小异常，跳过: file={}, size={}", path, size);
+                continue;
+            }
+            Segment segment = Segment.open(id, path, (int) size);
+            if (segment.buffer.getInt(0) != MAGIC || segment.buffer.getInt(4) != VERSION) {
+                LOGGER.warn("聊天归档段文件头不匹配，跳过: file={}", path);
+                segment.close();
+                continue;
+            }
+            int offset = SEGMENT_HEADER;
+            int length;
+            while ((length = validate(segment.buffer, offset, segment.buffer.capacity())) > 0) {
+                replay(segment, offset);
+                offset += length;
+            }
+            if (offset + RECORD_HEADER <= segment.buffer.capacity() && segment.buffer.getInt(offset) != 0) {
+                LOGGER.warn("聊天归档段尾部记录不完整，从此处继续写入: file={}, offset={}", path, offset);
+            }
+            segment.position = offset;
+            segments.put(id, segment);
+            active = segment;
+        }
+
+        long cutoff = clock.getAsLong() - retentionMillis;
+        Iterator<Pair> iterator = pairs.values().iterator();
+        while (iterator.hasNext()) {
+            Pair pair = iterator.next();
+            if (pair.hasGap() || pair.syncedAt < cutoff) {
+                // 重放时取的是段中最大的纪元，记下后重新归档不会与任何旧记录重叠
+                retiredEpochs.put(key(pair.providerId, pair.customerId), pair.epoch);
+                iterator.remove();
+                continue;
+            }
+            for (int i = 0; i < pair.size; i++) {
+                ArchivedMessage message = view(pair, pair.locations[i]);
+                pair.indexSeq(i, message.getMsgSeq());
+                if (i == pair.size - 1) {
+                    pair.lastMsgKey = message.getMsgKey();
+                }
+                segments.get((int) (pair.locations[i] >>> 32)).liveBytes += message.getRecordLength();
+            }
+            if (pair.syncLocation != 0) {
+                Segment segment = segments.get((int) (pair.syncLocation >>> 32));
+                segment.liveBytes += recordLength(segment.buffer, (int) pair.syncLocation);
+            }
+            messages += pair.size;
+        }
+        if (!segments.isEmpty()) {
+            LOGGER.info("聊天归档已恢复: dir={}, segments={}, pairs={}, messages={}",
+                    dir, segments.size(), pairs.size(), messages);
+        }
+    }
+
+    private void replay(Segment segment, int offset) {
+        ByteBuffer buffer = segment.buffer;
+        byte type = buffer.get(offset + TYPE);
+        if (type != MESSAGE && type != SYNC) {
+            return;
+        }
+        int position = pairOffset(buffer, offset);
+        String providerId = readString(buffer, position);
+        String customerId = readString(buffer, skipString(buffer, position));
+        Pair pair = pairs.computeIfAbsent(key(providerId, customerId), k -> new Pair(providerId, customerId));
+        int epoch = buffer.getInt(offset + (type == MESSAGE ? MESSAGE_EPOCH : SYNC_EPOCH));
+        if (epoch < pair.epoch) {
+            return;
+        }
+        if (epoch > pair.epoch) {
+            pair.reset(epoch);
+        }
+        long location = location(segment.id, offset);
+        if (type == MESSAGE) {
+            // 压缩中断时同一条消息可能有两份，后扫描到的是新的一份
+            pair.set(buffer.getInt(offset + ORDINAL), location, null);
+        } else {
+            long syncedAt = buffer.getLong(offset + SYNCED_AT);
+            if (syncedAt >= pair.syncedAt) {
+                pair.syncedAt = syncedAt;
+                pair.syncLocation = location;
+            }
+        }
+    }
+
+    private void roll() {
+        Path path = dir.resolve(String.format("segment-%08d.dat", nextSegmentId));
+        try {
+            Segment segment = Segment.open(nextSegmentId, path, segmentSize);
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, VERSION);
+            segment.buffer.putLong(8, clock.getAsLong());
+            segment.position = SEGMENT_HEADER;
+            segments.put(nextSegmentId, segment);
+            nextSegmentId++;
+            active = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建聊天归档段失败: file=" + path, e);
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+        long liveBytes;
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(int id, Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * 映射在关闭通道后仍然有效，直到不再被引用
+         */
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("关闭聊天归档段失败: file={}, error={}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 一对用户的索引：位置以 段号 << 32 | 段内偏移 表示，0 表示没有
+     */
+    private static final class Pair {
+        final String providerId;
+        final String customerId;
+        int epoch;
+        long[] locations = new long[8];
+        int size;
+        long[] seqs = new long[8];
+        int[] seqOrdinals = new int[8];
+        int seqSize;
+        long syncLocation;
+        long syncedAt;
+        String lastMsgKey;
+        volatile boolean stale;
+
+        Pair(String providerId, String customerId) {
+            this.providerId = providerId;
+            this.customerId = customerId;
+        }
+
+        void reset(int epoch) {
+            this.epoch = epoch;
+            locations = new long[8];
+            size = 0;
+            seqSize = 0;
+            syncLocation = 0;
+            syncedAt = 0;
+            lastMsgKey = null;
+        }
+
+        void set(int ordinal, long location, Long msgSeq) {
+            if (ordinal >= locations.length) {
+                locations = Arrays.copyOf(locations, Math.max(ordinal + 1, locations.length * 2));
+            }
+            locations[ordinal] = location;
+            size = Math.max(size, ordinal + 1);
+            indexSeq(ordinal, msgSeq);
+        }
+
+        /**
+         * 恢复时消息序号中间有缺失（记录损坏后又追加过），这对用户整体丢弃，下次同步时重新归档
+         */
+        boolean hasGap() {
+            for (int i = 0; i < size; i++) {
+                if (locations[i] == 0) {
+                    LOGGER.warn("聊天归档中消息序号不连续，丢弃: providerId={}, customerId={}, size={}, gapAt={}",
+                            providerId, customerId, size, i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 按 msg_seq 有序插入，相同 msg_seq 的排在已有的之后；消息通常按 msg_seq 递增到达，插入在末尾
+         */
+        void indexSeq(int ordinal, Long msgSeq) {
+            if (msgSeq == null) {
+                return;
+            }
+            if (seqSize == seqs.length) {
+                seqs = Arrays.copyOf(seqs, seqSize * 2);
+                seqOrdinals = Arrays.copyOf(seqOrdinals, seqSize * 2);
+            }
+            int i = seqSize;
+            while (i > 0 && seqs[i - 1] > msgSeq) {
+                i--;
+            }
+            System.arraycopy(seqs, i, seqs, i + 1, seqSize - i);
+            System.arraycopy(seqOrdinals, i, seqOrdinals, i + 1, seqSize - i);
+            seqs[i] = msgSeq;
+            seqOrdinals[i] = ordinal;
+            seqSize++;
+        }
+
+        /**
+         * @return 消息序号，找不到时为 -1
+         */
+        int findSeq(long msgSeq) {
+            int i = Arrays.binarySearch(seqs, 0, seqSize, msgSeq);
+            if (i < 0) {
+                return -1;
+            }
+            while (i + 1 < seqSize && seqs[i + 1] == msgSeq) {
+                i++;
+            }
+            return seqOrdinals[i];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChatArchive{dir=" + dir + ", segmentSize=" + segmentSize + ", maxAge=" + maxAgeMillis
+                + "ms, retention=" + retentionMillis + "ms, compactThreshold=" + compactThreshold + "}";
+    }
+}
@@ -0,0 +1,327 @@
+package com.findu.negotiation.infrastructure.archive;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * 聊天归档的记录格式，整数均为大端
+ * <pre>
+ * 记录    = 正文长度(int) 正文的 CRC32C(int) 正文
+ * MESSAGE = 类型(byte) 存在位(byte) msgSeq(long) msgTime(long) msgRandom(long) isPeerRead(int)
+ *           from 角色(byte) to 角色(byte) 纪元(int) 序号(int) providerId customerId [from] [to] msgKey
+ *           内容数(ushort) 内容...
+ * SYNC    = 类型(byte) 纪元(int) 条数(int) 同步时间(long) providerId customerId
+ * 字符串  = 长度(ushort，0xFFFF 为 null) UTF-8
+ * 内容    = 种类(byte) 文本：长度(int) UTF-8；需求卡片 / 图片 / 自定义：长度(int) Smile；
+ *           其他：type 字符串 长度(int，-1 为 null) UTF-8
+ * </pre>
+ * 定长字段在前，视图按固定偏移直接读取；from / to 通常是这对用户之一，只记一个角色字节。
+ * 纪元在聊天记录与归档对不上（Chat 服务清理或改写了历史）时加一，恢复时只保留最大纪元的记录；
+ * 序号是消息在这一纪元内的位置，压缩把记录搬到新段后仍按序号还原顺序。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+final class ChatRecordCodec {
+
+    static final int MAGIC = 0x46434841;
+    static final int VERSION = 1;
+    /**
+     * 段文件头：MAGIC(int) VERSION(int) 创建时间(long)
+     */
+    static final int SEGMENT_HEADER = 16;
+    static final int RECORD_HEADER = 8;
+
+    static final byte MESSAGE = 1;
+    static final byte SYNC = 2;
+
+    static final int TYPE = RECORD_HEADER;
+
+    static final int PRESENCE = TYPE + 1;
+    static final int SEQ = PRESENCE + 1;
+    static final int TIME = SEQ + 8;
+    static final int RANDOM = TIME + 8;
+    static final int PEER_READ = RANDOM + 8;
+    static final int FROM_ROLE = PEER_READ + 4;
+    static final int TO_ROLE = FROM_ROLE + 1;
+    static final int MESSAGE_EPOCH = TO_ROLE + 1;
+    static final int ORDINAL = MESSAGE_EPOCH + 4;
+    static final int MESSAGE_PAIR = ORDINAL + 4;
+
+    static final int SYNC_EPOCH = TYPE + 1;
+    static final int SYNC_COUNT = SYNC_EPOCH + 4;
+    static final int SYNCED_AT = SYNC_COUNT + 4;
+    static final int SYNC_PAIR = SYNCED_AT + 8;
+
+    static final int HAS_SEQ = 1;
+    static final int HAS_TIME = 1 << 1;
+    static final int HAS_RANDOM = 1 << 2;
+    static final int HAS_PEER_READ = 1 << 3;
+
+    static final byte ROLE_PROVIDER = 0;
+    static final byte ROLE_CUSTOMER = 1;
+    static final byte ROLE_OTHER = 2;
+    static final byte ROLE_NULL = 3;
+
+    static final byte CONTENT_TEXT = 1;
+    static final byte CONTENT_DEMAND_CARD = 2;
+    static final byte CONTENT_IMAGE = 3;
+    static final byte CONTENT_CUSTOM = 4;
+    static final byte CONTENT_OTHER = 5;
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private ChatRecordCodec() {
+    }
+
+    static byte[] encodeMessage(String providerId, String customerId, int epoch, int ordinal,
+                                ChatHistoryData.ChatMessage message) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0);
+            out.writeByte(MESSAGE);
+            int presence = (message.getMsgSeq() != null ? HAS_SEQ : 0)
+                    | (message.getMsgTime() != null ? HAS_TIME : 0)
+                    | (message.getMsgRandom() != null ? HAS_RANDOM : 0)
+                    | (message.getIsPeerRead() != null ? HAS_PEER_READ : 0);
+            out.writeByte(presence);
+            out.writeLong(message.getMsgSeq() != null ? message.getMsgSeq() : 0);
+            out.writeLong(message.getMsgTime() != null ? message.getMsgTime() : 0);
+            out.writeLong(message.getMsgRandom() != null ? message.getMsgRandom() : 0);
+            out.writeInt(message.getIsPeerRead() != null ? message.getIsPeerRead() : 0);
+            byte fromRole = role(message.getFrom(), providerId, customerId);
+            byte toRole = role(message.getTo(), providerId, customerId);
+            out.writeByte(fromRole);
+            out.writeByte(toRole);
+            out.writeInt(epoch);
+            out.writeInt(ordinal);
+            writeString(out, providerId);
+            writeString(out, customerId);
+            if (fromRole == ROLE_OTHER) {
+                writeString(out, message.getFrom());
+            }
+            if (toRole == ROLE_OTHER) {
+                writeString(out, message.getTo());
+            }
+            writeString(out, message.getMsgKey());
+            int count = message.getContent() != null ? message.getContent().size() : 0;
+            if (count > 0xFFFF) {
+                throw new IllegalArgumentException("消息内容过多: msgKey=" + message.getMsgKey() + ", count=" + count);
+            }
+            out.writeShort(count);
+            for (int i = 0; i < count; i++) {
+                writeContent(out, message.getContent().get(i));
+            }
+            return seal(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] encodeSync(String providerId, String customerId, int epoch, int count, long syncedAt) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0);
+            out.writeByte(SYNC);
+            out.writeInt(epoch);
+            out.writeInt(count);
+            out.writeLong(syncedAt);
+            writeString(out, providerId);
+            writeString(out, customerId);
+            return seal(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 正文长度与 CRC 都有效时为整条记录的长度，否则为 -1
+     */
+    static int validate(ByteBuffer buffer, int offset, int limit) {
+        if (offset + RECORD_HEADER > limit) {
+            return -1;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > limit - offset - RECORD_HEADER) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + RECORD_HEADER, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? RECORD_HEADER + length : -1;
+    }
+
+    static int recordLength(ByteBuffer buffer, int offset) {
+        return RECORD_HEADER + buffer.getInt(offset);
+    }
+
+    /**
+     * @return 记录中 providerId 的位置
+     */
+    static int pairOffset(ByteBuffer buffer, int offset) {
+        return offset + (buffer.get(offset + TYPE) == MESSAGE ? MESSAGE_PAIR : SYNC_PAIR);
+    }
+
+    static String readString(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 字符串之后的位置
+     */
+    static int skipString(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        return position + 2 + (length == NULL_STRING ? 0 : length);
+    }
+
+    /**
+     * 按字节比较，不解码
+     */
+    static boolean stringEquals(ByteBuffer buffer, int position, String value) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING || value == null) {
+            return length == NULL_STRING && value == null;
+        }
+        byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+        return expected.length == length && buffer.slice(position + 2, length).equals(ByteBuffer.wrap(expected));
+    }
+
+    /**
+     * @return 内容之后的位置
+     */
+    static int skipContent(ByteBuffer buffer, int position) {
+        byte kind = buffer.get(position);
+        int next = position + 1;
+        if (kind == CONTENT_OTHER) {
+            next = skipString(buffer, next);
+            int length = buffer.getInt(next);
+            return next + 4 + Math.max(length, 0);
+        }
+        return next + 4 + buffer.getInt(next);
+    }
+
+    static String readText(ByteBuffer buffer, int position) {
+        int length = buffer.getInt(position + 1);
+        byte[] bytes = new byte[length];
+        buffer.get(position + 5, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static ChatHistoryData.MessageContent readContent(ByteBuffer buffer, int position) {
+        byte kind = buffer.get(position);
+        return switch (kind) {
+            case CONTENT_TEXT -> new ChatHistoryData.MessageContent("text", readText(buffer, position));
+            case CONTENT_DEMAND_CARD -> new ChatHistoryData.MessageContent("custom",
+                    readSmile(buffer, position, ChatHistoryData.DemandCardContent.class));
+            case CONTENT_IMAGE -> new ChatHistoryData.MessageContent("image",
+                    readSmile(buffer, position, ChatHistoryData.ImageContent.class));
+            case CONTENT_CUSTOM -> new ChatHistoryData.MessageContent("custom",
+                    readSmile(buffer, position, ChatHistoryData.CustomContent.class));
+            default -> {
+                String type = readString(buffer, position + 1);
+                int next = skipString(buffer, position + 1);
+                int length = buffer.getInt(next);
+                String content = null;
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(next + 4, bytes);
+                    content = new String(bytes, StandardCharsets.UTF_8);
+                }
+                yield new ChatHistoryData.MessageContent(type, content);
+            }
+        };
+    }
+
+    private static <T> T readSmile(ByteBuffer buffer, int position, Class<T> type) {
+        int length = buffer.getInt(position + 1);
+        try {
+            return WireFormat.smileMapper().readValue(
+                    new ByteBufferBackedInputStream(buffer.slice(position + 5, length)), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte role(String userId, String providerId, String customerId) {
+        if (userId == null) {
+            return ROLE_NULL;
+        }
+        if (userId.equals(providerId)) {
+            return ROLE_PROVIDER;
+        }
+        return userId.equals(customerId) ? ROLE_CUSTOMER : ROLE_OTHER;
+    }
+
+    private static void writeContent(DataOutputStream out, ChatHistoryData.MessageContent content) throws IOException {
+        Object value = content.getContent();
+        if (content.isTextContent()) {
+            out.writeByte(CONTENT_TEXT);
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (content.isDemandCardContent()) {
+            out.writeByte(CONTENT_DEMAND_CARD);
+            writeBytes(out, WireFormat.smileMapper().writeValueAsBytes(value));
+        } else if (content.isImageContent()) {
+            out.writeByte(CONTENT_IMAGE);
+            writeBytes(out, WireFormat.smileMapper().writeValueAsBytes(value));
+        } else if (content.isCustomContent()) {
+            out.writeByte(CONTENT_CUSTOM);
+            writeBytes(out, WireFormat.smileMapper().writeValueAsBytes(value));
+        } else {
+            // 反序列化时未识别的类型保存为字符串，原样写回
+            out.writeByte(CONTENT_OTHER);
+            writeString(out, content.getType());
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                writeBytes(out, Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("字符串过长: length=" + bytes.length);
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 填入记录头的正文长度与 CRC
+     */
+    private static byte[] seal(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        CRC32C crc = new CRC32C();
+        crc.update(record, RECORD_HEADER, record.length - RECORD_HEADER);
+        buffer.putInt(0, record.length - RECORD_HEADER);
+        buffer.putInt(4, (int) crc.getValue());
+        return record;
+    }
+}
@@ -0,0 +1,109 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.vo.NegotiationResultVO;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+
+/**
+ * Agent 协商结果缓存，以 {@link DraftKey} 为键
+ * <p>
+ * 用户反复打开同一个协商、期间没有新消息时，Agent 请求的输入完全相同，直接返回上次的结果，跳过数秒的补全调用。
+ * 只缓存 Agent 返回的结果，降级结果不缓存；写入后 ttl 过期，超过 maxSize 时按 Caffeine 的 W-TinyLFU 淘汰。
+ * <p>
+ * 未命中时不合并并发的相同请求：补全耗时数秒，不适合在缓存的加载函数中同步等待。
+ * <p>
+ * 配置了二级缓存时，进程内未命中再查二级缓存，命中后回填进程内缓存；写入同时写二级缓存并淘汰其他节点的同一个键。
+ * 命中率等 Caffeine 统计只反映进程内缓存，二级缓存另见 {@link L2Tier} 的指标。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class DraftCache {
+
+    public static final String REQUESTS = "findu_draft_cache_requests_total";
+    public static final String EVICTIONS = "findu_draft_cache_evictions_total";
+    public static final String SIZE = "findu_draft_cache_size";
+    public static final String HIT_RATIO = "findu_draft_cache_hit_ratio";
+
+    static {
+        MetricsRegistry.describe(REQUESTS, "counter", "协商草案缓存查询次数，result 为 hit / miss");
+        MetricsRegistry.describe(EVICTIONS, "counter", "因容量或过期被淘汰的草案数");
+        MetricsRegistry.describe(SIZE, "gauge", "缓存中的草案数（估计值）");
+        MetricsRegistry.describe(HIT_RATIO, "gauge", "启动以来的累计命中率");
+    }
+
+    private final Cache<DraftKey, NegotiationResultVO> cache;
+    private final L2Tier<NegotiationResultVO> l2;
+
+    /**
+     * @param maxSize 最多缓存的草案数
+     * @param ttl     写入后的有效期
+     */
+    public DraftCache(long maxSize, Duration ttl) {
+        this(maxSize, ttl, null);
+    }
+
+    /**
+     * @param l2 二级缓存，为 null 时只用进程内缓存
+     */
+    public DraftCache(long maxSize, Duration ttl, L2Cache l2) {
+        this(maxSize, ttl, l2, Ticker.systemTicker());
+    }
+
+    DraftCache(long maxSize, Duration ttl, L2Cache l2, Ticker ticker) {
+        if (maxSize < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("草案缓存配置非法: maxSize=" + maxSize + ", ttl=" + ttl);
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        if (l2 != null) {
+            this.l2 = new L2Tier<>(l2, "draft_cache", NegotiationResultVO.class, ttl);
+            this.l2.onInvalidate(key -> cache.invalidate(DraftKey.parse(key)));
+        } else {
+            this.l2 = null;
+        }
+        MetricsRegistry.gauge(REQUESTS, () -> cache.stats().hitCount(), "result", "hit");
+        MetricsRegistry.gauge(REQUESTS, () -> cache.stats().missCount(), "result", "miss");
+        MetricsRegistry.gauge(EVICTIONS, () -> cache.stats().evictionCount());
+        MetricsRegistry.gauge(SIZE, cache::estimatedSize);
+        MetricsRegistry.gauge(HIT_RATIO, () -> cache.stats().hitRate());
+    }
+
+    /**
+     * @return 未命中或已过期时为 null
+     */
+    public NegotiationResultVO get(DraftKey key) {
+        NegotiationResultVO result = cache.getIfPresent(key);
+        if (result == null && l2 != null) {
+            result = l2.get(key.toString());
+            if (result != null) {
+                cache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    public void put(DraftKey key, NegotiationResultVO result) {
+        cache.put(key, result);
+        if (l2 != null) {
+            l2.put(key.toString(), result);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,169 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 协商草案的内容地址：结果 Schema 版本、服务集合与归一化对话的 SHA-256 前 128 位
+ * <p>
+ * 由 {@link Builder} 在构造 Agent 请求的同时逐项写入，不需要先序列化整个请求：
+ * <ul>
+ *     <li>对话按顺序写入发送方与去掉首尾空白的内容，不含时间戳，重新拉取的同一段聊天记录得到相同的地址</li>
+ *     <li>服务逐个单独摘要后相加，与服务卡片的返回顺序无关</li>
+ * </ul>
+ * 字符串带长度前缀写入，相邻字段的边界不会混淆。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public record DraftKey(long high, long low) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final byte SCHEMA = 1;
+    private static final byte PRODUCTS = 2;
+    private static final byte CONVERSATION = 3;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 对象 JSON 的摘要，用于把结果 Schema 等启动时确定的内容折算为版本号
+     */
+    public static String fingerprint(Object value) {
+        try {
+            byte[] hash = sha256().digest(MAPPER.writeValueAsBytes(value));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("无法序列化: " + value.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * {@link #toString()} 的逆操作，用于从二级缓存的失效消息中还原键
+     *
+     * @param hex 32 位十六进制
+     */
+    public static DraftKey parse(String hex) {
+        if (hex.length() != 32) {
+            throw new IllegalArgumentException("草案键长度非法: " + hex);
+        }
+        return new DraftKey(HexFormat.fromHexDigitsToLong(hex, 0, 16), HexFormat.fromHexDigitsToLong(hex, 16, 32));
+    }
+
+    @Override
+    public String toString() {
+        return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 每个 JDK 都必须提供 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 逐项写入的摘要，非线程安全，一个请求一个
+     */
+    public static final class Builder {
+        private final MessageDigest digest = sha256();
+        private final MessageDigest productDigest = sha256();
+        private final ByteBuffer buffer = ByteBuffer.allocate(512);
+        private int productCount;
+        private long productHigh;
+        private long productLow;
+
+        private Builder() {
+        }
+
+        public Builder schema(String version) {
+            ensure(digest, 1);
+            buffer.put(SCHEMA);
+            putString(digest, version, false);
+            return this;
+        }
+
+        public Builder product(ProductInfoVO product) {
+            // 缓冲区与主摘要共用，先写出主摘要未写完的部分
+            flush(digest);
+            putString(productDigest, product.getId(), false);
+            putString(productDigest, product.getTitle(), false);
+            putString(productDigest, product.getDescription(), false);
+            ensure(productDigest, Integer.BYTES);
+            buffer.putInt(product.getPrice());
+            flush(productDigest);
+            byte[] hash = productDigest.digest();
+            productHigh += ByteBuffer.wrap(hash, 0, 8).getLong();
+            productLow += ByteBuffer.wrap(hash, 8, 8).getLong();
+            productCount++;
+            return this;
+        }
+
+        public Builder conversation(ConversationItem item) {
+            ensure(digest, 1);
+            buffer.put(CONVERSATION);
+            putString(digest, item.getSender(), false);
+            putString(digest, item.getContent(), true);
+            return this;
+        }
+
+        public DraftKey build() {
+            ensure(digest, 1 + Integer.BYTES + 2 * Long.BYTES);
+            buffer.put(PRODUCTS).putInt(productCount).putLong(productHigh).putLong(productLow);
+            flush(digest);
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new DraftKey(hash.getLong(), hash.getLong());
+        }
+
+        /**
+         * 写入长度与 UTF-16 编码单元，不经过字符集编码与中间数组
+         *
+         * @param strip 是否去掉首尾空白
+         */
+        private void putString(MessageDigest target, String value, boolean strip) {
+            ensure(target, Integer.BYTES);
+            if (value == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            int begin = 0;
+            int end = value.length();
+            if (strip) {
+                while (begin < end && Character.isWhitespace(value.charAt(begin))) {
+                    begin++;
+                }
+                while (end > begin && Character.isWhitespace(value.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            buffer.putInt(end - begin);
+            for (int i = begin; i < end; i++) {
+                ensure(target, Character.BYTES);
+                buffer.putChar(value.charAt(i));
+            }
+        }
+
+        private void ensure(MessageDigest target, int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush(target);
+            }
+        }
+
+        private void flush(MessageDigest target) {
+            buffer.flip();
+            target.update(buffer);
+            buffer.clear();
+        }
+    }
+}
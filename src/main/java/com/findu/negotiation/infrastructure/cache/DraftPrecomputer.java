@@ -0,0 +1,290 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * 按聊天消息事件在后台预生成协商草案，用户打开协商时直接返回
+ * <p>
+ * 每对服务方/需求方维护最新的 msg_key 与版本号，每条消息使版本号加一、已生成的草案随之失效：
+ * <ul>
+ *     <li>防抖：收到消息后等待 debounce，期间再有消息则重新计时，一段对话结束后只生成一次</li>
+ *     <li>限速：同一对用户两次生成的开始时间至少相隔 minInterval，生成中收到的消息在结束后再生成一次</li>
+ * </ul>
+ * 生成在虚拟线程上执行，Agent 调用的并发由 BACKGROUND 通道限制，不占用交互请求的容量。
+ * 生成开始后又有新消息时，结果对应的版本已过期，不会被返回。
+ * 生成时绑定最后一个事件的 traceId，不透传事件请求的 Authorization。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class DraftPrecomputer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DraftPrecomputer.class);
+
+    public static final String EVENTS = "findu_chat_events_total";
+    public static final String RUNS = "findu_precompute_runs_total";
+    public static final String LOOKUPS = "findu_precompute_lookups_total";
+    public static final String PENDING = "findu_precompute_pending";
+
+    static {
+        MetricsRegistry.describe(EVENTS, "counter", "收到的聊天消息事件数");
+        MetricsRegistry.describe(RUNS, "counter", "后台生成草案次数，result 为 success / empty / failure");
+        MetricsRegistry.describe(LOOKUPS, "counter", "/create 查询预生成草案次数，result 为 hit / stale / miss");
+        MetricsRegistry.describe(PENDING, "gauge", "等待防抖或限速结束的生成任务数");
+    }
+
+    private static final LongAdder EVENT_COUNT = MetricsRegistry.counter(EVENTS);
+    private static final LongAdder RUN_SUCCESS = MetricsRegistry.counter(RUNS, "result", "success");
+    private static final LongAdder RUN_EMPTY = MetricsRegistry.counter(RUNS, "result", "empty");
+    private static final LongAdder RUN_FAILURE = MetricsRegistry.counter(RUNS, "result", "failure");
+    private static final LongAdder LOOKUP_HIT = MetricsRegistry.counter(LOOKUPS, "result", "hit");
+    private static final LongAdder LOOKUP_STALE = MetricsRegistry.counter(LOOKUPS, "result", "stale");
+    private static final LongAdder LOOKUP_MISS = MetricsRegistry.counter(LOOKUPS, "result", "miss");
+
+    private final BiFunction<String, String, NegotiationEntity> generator;
+    private final long debounceNanos;
+    private final long minIntervalNanos;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Cache<String, Pair> pairs;
+    private final Timer timer;
+
+    /**
+     * @param generator   按服务方、需求方生成草案，没有草案ID的结果（降级结果）不保存
+     * @param debounce    最后一条消息之后的静默时间
+     * @param minInterval 同一对用户两次生成的最小间隔
+     * @param ttl         草案生成后的有效期，过期后即使没有新消息也不再返回
+     * @param maxPairs    最多跟踪的用户对数，超出时按 W-TinyLFU 淘汰
+     */
+    public DraftPrecomputer(BiFunction<String, String, NegotiationEntity> generator, Duration debounce,
+                            Duration minInterval, Duration ttl, long maxPairs) {
+        this(generator, debounce, minInterval, ttl, maxPairs, System::nanoTime, new ExecutorTimer());
+    }
+
+    /**
+     * @param clock 纳秒时钟，与 timer 的延迟使用同一时间基准
+     * @param timer 延迟执行生成任务
+     */
+    DraftPrecomputer(BiFunction<String, String, NegotiationEntity> generator, Duration debounce,
+                     Duration minInterval, Duration ttl, long maxPairs, LongSupplier clock, Timer timer) {
+        if (debounce.isNegative() || minInterval.isNegative() || ttl.isNegative() || ttl.isZero() || maxPairs < 1) {
+            throw new IllegalArgumentException("草案预生成配置非法: debounce=" + debounce + ", minInterval=" + minInterval
+                    + ", ttl=" + ttl + ", maxPairs=" + maxPairs);
+        }
+        this.generator = generator;
+        this.debounceNanos = debounce.toNanos();
+        this.minIntervalNanos = minInterval.toNanos();
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.pairs = Caffeine.newBuilder()
+                .maximumSize(maxPairs)
+                .expireAfterAccess(ttl)
+                .build();
+        this.timer = timer;
+        MetricsRegistry.gauge(PENDING, timer::pending);
+    }
+
+    /**
+     * 记录一条新消息，使已生成的草案失效并安排重新生成
+     *
+     * @param msgKey 消息的 msg_key，可为null
+     */
+    public void onMessage(String providerId, String customerId, String msgKey) {
+        EVENT_COUNT.increment();
+        Pair pair = pairs.get(key(providerId, customerId), k -> new Pair(providerId, customerId));
+        synchronized (pair) {
+            pair.version++;
+            pair.lastMsgKey = msgKey;
+            pair.traceId = RequestContextHolder.getTraceId();
+            schedule(pair);
+        }
+    }
+
+    /**
+     * 取预生成的草案
+     *
+     * @return 没有草案、生成后又有新消息或已过期时为 null
+     */
+    public NegotiationEntity get(String providerId, String customerId) {
+        Pair pair = pairs.getIfPresent(key(providerId, customerId));
+        if (pair == null) {
+            LOOKUP_MISS.increment();
+            return null;
+        }
+        synchronized (pair) {
+            if (pair.draft == null) {
+                LOOKUP_MISS.increment();
+                return null;
+            }
+            if (pair.draftVersion != pair.version || clock.getAsLong() - pair.draftNanos > ttlNanos) {
+                LOOKUP_STALE.increment();
+                return null;
+            }
+            LOOKUP_HIT.increment();
+            return pair.draft;
+        }
+    }
+
+    public void close() {
+        timer.close();
+    }
+
+    private static String key(String providerId, String customerId) {
+        return providerId + '\u0000' + customerId;
+    }
+
+    /**
+     * 重新开始防抖计时，不早于上次生成开始后 minInterval；调用方持有 pair 的锁
+     */
+    private void schedule(Pair pair) {
+        if (pair.pending != null) {
+            pair.pending.cancel(false);
+        }
+        long delay = debounceNanos;
+        if (pair.started) {
+            delay = Math.max(delay, pair.lastStartNanos + minIntervalNanos - clock.getAsLong());
+        }
+        pair.pending = timer.schedule(() -> run(pair), delay);
+    }
+
+    private void run(Pair pair) {
+        long version;
+        RequestContext context = new RequestContext();
+        synchronized (pair) {
+            if (pair.running) {
+                // 上一次生成还未结束，结束后再按最新版本生成
+                pair.rerun = true;
+                return;
+            }
+            pair.running = true;
+            pair.started = true;
+            pair.lastStartNanos = clock.getAsLong();
+            version = pair.version;
+            context.setTraceId(pair.traceId != null ? pair.traceId : TraceIds.newTraceId());
+        }
+        NegotiationEntity draft = null;
+        try {
+            draft = RequestContextHolder.callWithContext(context,
+                    () -> generator.apply(pair.providerId, pair.customerId));
+            if (draft != null && draft.getId() != null) {
+                RUN_SUCCESS.increment();
+            } else {
+                RUN_EMPTY.increment();
+                draft = null;
+            }
+        } catch (Exception e) {
+            RUN_FAILURE.increment();
+            LOGGER.warn("预生成草案失败: providerId={}, customerId={}, error={}",
+                    pair.providerId, pair.customerId, e.getMessage());
+        } finally {
+            synchronized (pair) {
+                pair.running = false;
+                if (draft != null) {
+                    pair.draft = draft;
+                    pair.draftVersion = version;
+                    pair.draftNanos = clock.getAsLong();
+                }
+                if (pair.rerun) {
+                    pair.rerun = false;
+                    schedule(pair);
+                }
+            }
+        }
+        LOGGER.info("预生成草案完成: providerId={}, customerId={}, lastMsgKey={}, draftId={}",
+                pair.providerId, pair.customerId, pair.lastMsgKey, draft != null ? draft.getId() : null);
+    }
+
+    /**
+     * 一对服务方/需求方的状态，字段由对象锁保护
+     */
+    private static final class Pair {
+        private final String providerId;
+        private final String customerId;
+        private long version;
+        private String lastMsgKey;
+        private String traceId;
+        private Future<?> pending;
+        private boolean running;
+        private boolean rerun;
+        private boolean started;
+        private long lastStartNanos;
+        private NegotiationEntity draft;
+        private long draftVersion;
+        private long draftNanos;
+
+        private Pair(String providerId, String customerId) {
+            this.providerId = providerId;
+            this.customerId = customerId;
+        }
+    }
+
+    /**
+     * 延迟执行生成任务的计时器
+     */
+    interface Timer {
+
+        /**
+         * @param delayNanos 延迟，不大于0时尽快执行
+         * @return 用于取消尚未开始的任务
+         */
+        Future<?> schedule(Runnable task, long delayNanos);
+
+        /**
+         * @return 尚未到期的任务数
+         */
+        int pending();
+
+        void close();
+    }
+
+    /**
+     * 单线程计时，到期后把生成任务交给虚拟线程执行
+     */
+    private static final class ExecutorTimer implements Timer {
+        private final ScheduledThreadPoolExecutor scheduler;
+        private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+        private ExecutorTimer() {
+            scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "draft-precompute-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 防抖时频繁取消，取消的任务立即移出队列
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+
+        @Override
+        public Future<?> schedule(Runnable task, long delayNanos) {
+            return scheduler.schedule(() -> workers.execute(task), delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int pending() {
+            return scheduler.getQueue().size();
+        }
+
+        @Override
+        public void close() {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 按草案 id 保存的协商草案，供增量更新按 id 取回上一版
+ * <p>
+ * 默认只在进程内保存，重启或被淘汰后按 id 取不到；调用方可以把 /create 返回的草案原样传回，不依赖这里。
+ * 配置了二级缓存时同时写入二级缓存，/update 落到其他节点也能按 id 取回。
+ * 写入后 ttl 过期，超过 maxSize 时按 Caffeine 的 W-TinyLFU 淘汰。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class DraftStore {
+
+    private final Cache<String, NegotiationEntity> drafts;
+    private final L2Tier<NegotiationEntity> l2;
+
+    /**
+     * @param maxSize 最多保存的草案数
+     * @param ttl     写入后的有效期
+     */
+    public DraftStore(long maxSize, Duration ttl) {
+        this(maxSize, ttl, null);
+    }
+
+    /**
+     * @param l2 二级缓存，为 null 时只在进程内保存
+     */
+    public DraftStore(long maxSize, Duration ttl, L2Cache l2) {
+        if (maxSize < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("草案存储配置非法: maxSize=" + maxSize + ", ttl=" + ttl);
+        }
+        this.drafts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        if (l2 != null) {
+            this.l2 = new L2Tier<>(l2, "draft_store", NegotiationEntity.class, ttl);
+            this.l2.onInvalidate(drafts::invalidate);
+        } else {
+            this.l2 = null;
+        }
+    }
+
+    /**
+     * @param draft id 不能为空
+     */
+    public void put(NegotiationEntity draft) {
+        String id = Objects.requireNonNull(draft.getId(), "草案 id 不能为空");
+        drafts.put(id, draft);
+        if (l2 != null) {
+            l2.put(id, draft);
+        }
+    }
+
+    /**
+     * 取回草案，服务方与需求方必须与生成草案时相同
+     *
+     * @return 不存在、已过期或不属于这对用户时为 null
+     */
+    public NegotiationEntity get(String id, String providerId, String customerId) {
+        NegotiationEntity draft = drafts.getIfPresent(id);
+        if (draft == null && l2 != null) {
+            draft = l2.get(id);
+            if (draft != null) {
+                drafts.put(id, draft);
+            }
+        }
+        if (draft == null || !draft.getProviderId().equals(providerId) || !draft.getCustomerId().equals(customerId)) {
+            return null;
+        }
+        return draft;
+    }
+
+    public long size() {
+        return drafts.estimatedSize();
+    }
+}
@@ -0,0 +1,40 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * 多实例共享的二级缓存，命令与 Redis 的 GET / SET PX / DEL / PUBLISH / SUBSCRIBE 一一对应
+ * <p>
+ * 实现见 {@link RespL2Cache}（Redis 协议）与 {@link InMemoryL2Cache}（进程内，用于测试与单实例）。
+ * 二级缓存只是优化，调用方应把异常当作未命中处理，不影响请求本身。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public interface L2Cache extends AutoCloseable {
+
+    /**
+     * @return 不存在或已过期时为 null
+     */
+    byte[] get(String key);
+
+    void set(String key, byte[] value, Duration ttl);
+
+    void delete(String key);
+
+    void publish(String channel, String message);
+
+    /**
+     * 订阅频道，消息在实现自己的线程上回调，listener 不应阻塞
+     */
+    void subscribe(String channel, Consumer<String> listener);
+
+    /**
+     * 实现名称，用于日志与指标
+     */
+    String name();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,131 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 一个进程内缓存在 {@link L2Cache} 上的二级层，值以 Smile 编码，键加 findu:&lt;cache&gt;: 前缀
+ * <p>
+ * 写入二级缓存后在 findu:invalidate:&lt;cache&gt; 频道发布“节点 id + 键”，其他节点收到后淘汰自己一级缓存中的同一个键，
+ * 下次读取时从二级缓存取到新值；自己发布的消息被忽略。
+ * 消息是尽力送达的，订阅断开期间错过的失效由一级缓存的 ttl 兜底。
+ * <p>
+ * 二级缓存的任何异常都按未命中或跳过写入处理，只计数和记录日志。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class L2Tier<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(L2Tier.class);
+
+    public static final String REQUESTS = "findu_l2_cache_requests_total";
+    public static final String WRITES = "findu_l2_cache_writes_total";
+    public static final String WRITTEN_BYTES = "findu_l2_cache_written_bytes_total";
+    public static final String INVALIDATIONS = "findu_l2_cache_invalidations_total";
+
+    static {
+        MetricsRegistry.describe(REQUESTS, "counter", "二级缓存查询次数，result 为 hit / miss / error");
+        MetricsRegistry.describe(WRITES, "counter", "二级缓存写入次数，result 为 success / error");
+        MetricsRegistry.describe(WRITTEN_BYTES, "counter", "写入二级缓存的值的字节数（Smile 编码后）");
+        MetricsRegistry.describe(INVALIDATIONS, "counter", "收到其他节点的失效消息后淘汰的一级缓存条目数");
+    }
+
+    private static final ObjectMapper MAPPER = WireFormat.smileMapper();
+
+    private final L2Cache l2;
+    private final String cache;
+    private final Class<V> type;
+    private final Duration ttl;
+    private final String prefix;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder readErrors;
+    private final LongAdder writes;
+    private final LongAdder writeErrors;
+    private final LongAdder writtenBytes;
+    private final LongAdder invalidations;
+
+    /**
+     * @param cache 缓存名，用于键前缀、失效频道与指标标签，各节点必须相同
+     * @param ttl   二级缓存中的有效期
+     */
+    public L2Tier(L2Cache l2, String cache, Class<V> type, Duration ttl) {
+        this.l2 = l2;
+        this.cache = cache;
+        this.type = type;
+        this.ttl = ttl;
+        this.prefix = "findu:" + cache + ":";
+        this.channel = "findu:invalidate:" + cache;
+        this.hits = MetricsRegistry.counter(REQUESTS, "cache", cache, "result", "hit");
+        this.misses = MetricsRegistry.counter(REQUESTS, "cache", cache, "result", "miss");
+        this.readErrors = MetricsRegistry.counter(REQUESTS, "cache", cache, "result", "error");
+        this.writes = MetricsRegistry.counter(WRITES, "cache", cache, "result", "success");
+        this.writeErrors = MetricsRegistry.counter(WRITES, "cache", cache, "result", "error");
+        this.writtenBytes = MetricsRegistry.counter(WRITTEN_BYTES, "cache", cache);
+        this.invalidations = MetricsRegistry.counter(INVALIDATIONS, "cache", cache);
+    }
+
+    /**
+     * @return 未命中、已过期或读取失败时为 null
+     */
+    public V get(String key) {
+        try {
+            byte[] bytes = l2.get(prefix + key);
+            if (bytes == null) {
+                misses.increment();
+                return null;
+            }
+            V value = MAPPER.readValue(bytes, type);
+            hits.increment();
+            return value;
+        } catch (Exception e) {
+            readErrors.increment();
+            LOGGER.warn("读取二级缓存失败: cache={}, key={}, error={}", cache, key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入二级缓存并通知其他节点淘汰同一个键
+     */
+    public void put(String key, V value) {
+        try {
+            byte[] bytes = MAPPER.writeValueAsBytes(value);
+            l2.set(prefix + key, bytes, ttl);
+            l2.publish(channel, nodeId + ' ' + key);
+            writes.increment();
+            writtenBytes.add(bytes.length);
+        } catch (Exception e) {
+            writeErrors.increment();
+            LOGGER.warn("写入二级缓存失败: cache={}, key={}, error={}", cache, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 订阅其他节点的写入，回调参数为被写入的键
+     */
+    public void onInvalidate(Consumer<String> evict) {
+        l2.subscribe(channel, message -> {
+            int space = message.indexOf(' ');
+            if (space < 0 || message.startsWith(nodeId) && space == nodeId.length()) {
+                return;
+            }
+            invalidations.increment();
+            evict.accept(message.substring(space + 1));
+        });
+    }
+
+    public String getCache() {
+        return cache;
+    }
+}
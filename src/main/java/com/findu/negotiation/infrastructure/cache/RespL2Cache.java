@@ -0,0 +1,386 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Redis 协议（RESP2）的二级缓存客户端，兼容 Redis / Valkey / KeyDB 等
+ * <p>
+ * 只实现 {@link L2Cache} 需要的几条命令，不引入完整的 Redis 客户端：
+ * <ul>
+ *     <li>命令连接放在固定大小的连接池中，一条命令借出一个连接；读写超时为 timeout，出错的连接直接关闭，下次按需重建</li>
+ *     <li>订阅使用一个单独的连接，在虚拟线程上阻塞读取；断开后每秒重连并重新订阅全部频道，断开期间的消息会丢失</li>
+ * </ul>
+ * 命令耗时与失败计入 downstream="l2" 的下游指标。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class RespL2Cache implements L2Cache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RespL2Cache.class);
+
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("l2");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("l2");
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final InetSocketAddress address;
+    private final String password;
+    private final int database;
+    private final int timeoutMillis;
+    private final Semaphore permits;
+    private final ArrayBlockingQueue<Connection> idle;
+
+    private final Map<String, List<Consumer<String>>> subscriptions = new ConcurrentHashMap<>();
+    private final Object subscriberLock = new Object();
+    private Thread subscriberThread;
+    private volatile Connection subscriber;
+    private volatile boolean closed;
+
+    /**
+     * @param password 为空时不认证
+     * @param database 为 0 时不执行 SELECT
+     * @param timeout  连接、读写与等待空闲连接的超时
+     * @param poolSize 命令连接数上限
+     */
+    public RespL2Cache(String host, int port, String password, int database, Duration timeout, int poolSize) {
+        if (poolSize < 1 || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("二级缓存配置非法: timeout=" + timeout + ", poolSize=" + poolSize);
+        }
+        this.address = InetSocketAddress.createUnresolved(host, port);
+        this.password = password;
+        this.database = database;
+        this.timeoutMillis = (int) timeout.toMillis();
+        this.permits = new Semaphore(poolSize);
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return (byte[]) execute("GET", key);
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        execute("SET", key, value, "PX", ttl.toMillis());
+    }
+
+    @Override
+    public void delete(String key) {
+        execute("DEL", key);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        execute("PUBLISH", channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        subscriptions.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+        synchronized (subscriberLock) {
+            if (subscriberThread == null) {
+                subscriberThread = Thread.ofVirtual().name("l2-subscriber").start(this::subscribeLoop);
+                return;
+            }
+            // 已连接时补订新频道；重复订阅同一频道是幂等的
+            Connection connection = subscriber;
+            if (connection != null) {
+                try {
+                    connection.write("SUBSCRIBE", channel);
+                } catch (IOException e) {
+                    // 订阅线程会重连并订阅全部频道
+                    LOGGER.warn("二级缓存补订频道失败: channel={}, error={}", channel, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "resp";
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection = subscriber;
+        if (connection != null) {
+            connection.close();
+        }
+        Connection idleConnection;
+        while ((idleConnection = idle.poll()) != null) {
+            idleConnection.close();
+        }
+    }
+
+    private Object execute(Object... args) {
+        long start = System.nanoTime();
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            connection.write(args);
+            Object reply = connection.read();
+            healthy = true;
+            if (reply instanceof Error error) {
+                ERRORS.increment();
+                throw new IllegalStateException("二级缓存返回错误: " + args[0] + " " + error.message());
+            }
+            return reply;
+        } catch (IOException e) {
+            ERRORS.increment();
+            throw new UncheckedIOException("二级缓存命令失败: " + args[0], e);
+        } finally {
+            release(connection, healthy);
+            LATENCY.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    private Connection borrow() {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                ERRORS.increment();
+                throw new IllegalStateException("等待二级缓存连接超时: " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待二级缓存连接被中断", e);
+        }
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            return connect(timeoutMillis);
+        } catch (IOException e) {
+            permits.release();
+            ERRORS.increment();
+            throw new UncheckedIOException("连接二级缓存失败: " + address, e);
+        } catch (RuntimeException e) {
+            // AUTH / SELECT 失败
+            permits.release();
+            ERRORS.increment();
+            throw e;
+        }
+    }
+
+    private void release(Connection connection, boolean healthy) {
+        if (!healthy || closed || !idle.offer(connection)) {
+            connection.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * @param readTimeoutMillis 读超时，0 表示不超时（订阅连接）
+     */
+    private Connection connect(int readTimeoutMillis) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), timeoutMillis);
+            socket.setSoTimeout(readTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            Connection connection = new Connection(socket);
+            if (password != null && !password.isEmpty()) {
+                connection.expectOk("AUTH", password);
+            }
+            if (database != 0) {
+                connection.expectOk("SELECT", database);
+            }
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void subscribeLoop() {
+        while (!closed) {
+            try (Connection connection = connect(0)) {
+                synchronized (subscriberLock) {
+                    Object[] command = new Object[subscriptions.size() + 1];
+                    command[0] = "SUBSCRIBE";
+                    int i = 1;
+                    for (String channel : subscriptions.keySet()) {
+                        command[i++] = channel;
+                    }
+                    connection.write(command);
+                    subscriber = connection;
+                }
+                LOGGER.info("二级缓存订阅已连接: address={}, channels={}", address, subscriptions.keySet());
+                while (!closed) {
+                    if (connection.read() instanceof Object[] push && push.length == 3
+                            && "message".equals(text(push[0]))) {
+                        dispatch(text(push[1]), text(push[2]));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (closed) {
+                    break;
+                }
+                LOGGER.warn("二级缓存订阅断开，{}ms 后重连: address={}, error={}", RECONNECT_DELAY_MILLIS, address, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } finally {
+                subscriber = null;
+            }
+        }
+    }
+
+    private void dispatch(String channel, String message) {
+        for (Consumer<String> listener : subscriptions.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                LOGGER.warn("二级缓存消息处理失败: channel={}, error={}", channel, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static String text(Object reply) {
+        return reply instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(reply);
+    }
+
+    /**
+     * 错误回复（-ERR ...）
+     */
+    private record Error(String message) {
+    }
+
+    /**
+     * 一条 RESP 连接，非线程安全；订阅连接的写入由 subscriberLock 保护
+     */
+    private static final class Connection implements Closeable {
+        private static final byte[] CRLF = {'\r', '\n'};
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void expectOk(Object... args) throws IOException {
+            write(args);
+            Object reply = read();
+            if (reply instanceof Error error) {
+                throw new IllegalStateException("二级缓存返回错误: " + args[0] + " " + error.message());
+            }
+        }
+
+        /**
+         * 以多条批量字符串组成的数组发送命令，byte[] 原样写入，其他参数按 UTF-8 字符串写入
+         */
+        private void write(Object... args) throws IOException {
+            writeHeader('*', args.length);
+            for (Object arg : args) {
+                byte[] bytes = arg instanceof byte[] b ? b : String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+                writeHeader('$', bytes.length);
+                out.write(bytes);
+                out.write(CRLF);
+            }
+            out.flush();
+        }
+
+        private void writeHeader(char type, int length) throws IOException {
+            out.write(type);
+            out.write(Integer.toString(length).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+
+        /**
+         * @return 简单字符串为 String，整数为 Long，批量字符串为 byte[]，数组为 Object[]，空值为 null，错误为 {@link Error}
+         */
+        private Object read() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                throw new EOFException("连接已关闭");
+            }
+            String line = readLine();
+            return switch (type) {
+                case '+' -> line;
+                case '-' -> new Error(line);
+                case ':' -> Long.parseLong(line);
+                case '$' -> {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        yield null;
+                    }
+                    byte[] bytes = in.readNBytes(length);
+                    if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("批量字符串不完整");
+                    }
+                    yield bytes;
+                }
+                case '*' -> {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        yield null;
+                    }
+                    Object[] items = new Object[count];
+                    for (int i = 0; i < count; i++) {
+                        items[i] = read();
+                    }
+                    yield items;
+                }
+                default -> throw new IOException("无法识别的回复类型: " + (char) type);
+            };
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException("连接已关闭");
+                }
+                line.write(b);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("回复行没有以 CRLF 结束");
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响后续重连
+            }
+        }
+    }
+}
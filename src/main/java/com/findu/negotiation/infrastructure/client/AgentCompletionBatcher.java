@@ -0,0 +1,275 @@
+package com.findu.negotiation.infrastructure.client;
+
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationBatchCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationBatchCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agent 补全请求的微批发送器
+ * <p>
+ * 调用方提交的请求先进入队列，收集线程从第一个请求到达起最多等待 maxDelay，
+ * 或凑满 maxSize 个请求后，合并为一次批量补全调用；响应按请求 id 分发回各自的调用方。
+ * 批量调用在虚拟线程中发送，收集线程不会被下游延迟阻塞，上一批未返回时下一批照常收集。
+ * <p>
+ * 整批失败（状态码异常、响应无法解析）时同一批的调用方都收到同一个异常；
+ * 响应中缺少某个 id 时只有对应的调用方失败。
+ * 调用方最多等待 maxDelay 加上 HTTP 读超时，批次迟迟不返回或请求在停止时未被发送，都以超时失败，
+ * 不会一直占着调用线程与 Agent 并发许可。
+ * <p>
+ * 发送线程没有请求上下文，每批生成自己的 traceId 绑定后再调用，出站请求与 http_client 日志都带这个值；
+ * 发送前以批次 traceId 输出一行日志，列出各调用方的 traceId，用于从调用方的链路找到所在批次。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class AgentCompletionBatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentCompletionBatcher.class);
+
+    public static final String BATCHES = "findu_agent_batches_total";
+    public static final String BATCHED_REQUESTS = "findu_agent_batched_requests_total";
+
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("agent_batch");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("agent_batch");
+
+    static {
+        MetricsRegistry.describe(BATCHES, "counter", "Agent 批量补全调用次数");
+        MetricsRegistry.describe(BATCHED_REQUESTS, "counter", "经批量补全发送的请求数，除以批次数即平均批大小");
+    }
+
+    private static final LongAdder BATCH_COUNT = MetricsRegistry.counter(BATCHES);
+    private static final LongAdder BATCHED_COUNT = MetricsRegistry.counter(BATCHED_REQUESTS);
+
+    private final String url;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread collector;
+    private ExecutorService sender;
+
+    /**
+     * @param url        批量补全接口地址
+     * @param maxSize    每批最多请求数
+     * @param maxDelayMs 第一个请求到达后最多等待的毫秒数
+     */
+    public AgentCompletionBatcher(String url, int maxSize, long maxDelayMs) {
+        this(url, maxSize, maxDelayMs, HttpUtil.READ_TIMEOUT);
+    }
+
+    /**
+     * @param timeout 批次发出后调用方最多再等待的时间
+     */
+    AgentCompletionBatcher(String url, int maxSize, long maxDelayMs, Duration timeout) {
+        if (maxSize < 1 || maxDelayMs < 0 || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("批量配置非法: maxSize=" + maxSize + ", maxDelayMs=" + maxDelayMs
+                    + ", timeout=" + timeout);
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.timeoutNanos = maxDelayNanos + timeout.toNanos();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        sender = Executors.newVirtualThreadPerTaskExecutor();
+        collector = Thread.ofPlatform().daemon().name("agent-batcher").start(this::collect);
+        LOGGER.info("Agent批量发送器已启动: url={}, maxSize={}, maxDelay={}ms",
+                url, maxSize, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos));
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        collector.interrupt();
+        collector.join();
+        sender.shutdown();
+        if (!sender.awaitTermination(30, TimeUnit.SECONDS)) {
+            LOGGER.warn("Agent批量发送器停止超时，仍有批次未返回");
+        }
+        // 已发出的批次返回后，收集线程退出时仍在队列中的请求直接失败
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量发送器已停止"));
+        LOGGER.info("Agent批量发送器已停止");
+    }
+
+    /**
+     * 提交请求并等待所在批次返回
+     *
+     * @throws BusinessException 批量调用失败、超时或响应中缺少该请求
+     */
+    public OrderNegotiationCompletionsResponse completions(OrderNegotiationCompletionsRequest request) {
+        try {
+            return submit(request).orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量调用超时: timeout="
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+            }
+            throw new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量调用失败: " + e.getCause());
+        }
+    }
+
+    /**
+     * 提交请求，返回在所在批次返回后完成的 future
+     */
+    public CompletableFuture<OrderNegotiationCompletionsResponse> submit(OrderNegotiationCompletionsRequest request) {
+        CompletableFuture<OrderNegotiationCompletionsResponse> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量发送器未启动"));
+            return future;
+        }
+        Pending pending = new Pending(request, future, RequestContextHolder.getTraceId());
+        queue.add(pending);
+        // 检查之后、入队之前 stop() 可能已经清空队列，收集线程也已退出，这个请求不会再被发送
+        if (!running && queue.remove(pending)) {
+            future.completeExceptionally(new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量发送器已停止"));
+        }
+        return future;
+    }
+
+    /**
+     * 进程内累计的批次数
+     */
+    public static long getBatches() {
+        return BATCH_COUNT.sum();
+    }
+
+    /**
+     * 进程内累计经批量发送的请求数
+     */
+    public static long getBatchedRequests() {
+        return BATCHED_COUNT.sum();
+    }
+
+    private void collect() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(maxSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    // 截止时间已过也要取走已在队列中的请求，直到凑满一批
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop() 中断收集线程，已取出的请求仍然发送
+                if (!batch.isEmpty()) {
+                    sender.execute(() -> send(batch));
+                }
+                return;
+            }
+            sender.execute(() -> send(batch));
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        List<OrderNegotiationCompletionsRequest> requests = new ArrayList<>(batch.size());
+        List<String> traceIds = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request);
+            traceIds.add(pending.traceId);
+        }
+        BATCH_COUNT.increment();
+        BATCHED_COUNT.add(batch.size());
+
+        RequestContext context = new RequestContext();
+        context.setTraceId(TraceIds.newTraceId());
+        HttpUtil.HttpResponse<OrderNegotiationBatchCompletionsResponse> response;
+        long startTime = System.nanoTime();
+        try {
+            response = RequestContextHolder.callWithContext(context, () -> {
+                LOGGER.info("Agent批量调用: size={}, traceIds={}", batch.size(), traceIds);
+                return HttpUtil.postJson(url, new OrderNegotiationBatchCompletionsRequest(requests),
+                        OrderNegotiationBatchCompletionsResponse.class);
+            });
+        } catch (RuntimeException e) {
+            ERRORS.increment();
+            fail(batch, e);
+            return;
+        } catch (Exception e) {
+            // postJson 不抛受检异常
+            ERRORS.increment();
+            fail(batch, new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent批量调用失败: " + e));
+            return;
+        } finally {
+            LATENCY.recordNanos(System.nanoTime() - startTime);
+        }
+        if (!response.isSuccessful() || response.body() == null || response.body().getResponses() == null) {
+            ERRORS.increment();
+            fail(batch, new BusinessException(ErrorCode.AGENT_SERVICE_ERROR,
+                    "Agent批量服务返回异常: statusCode=" + response.statusCode()));
+            return;
+        }
+
+        Map<String, OrderNegotiationCompletionsResponse> byId = new HashMap<>();
+        for (OrderNegotiationCompletionsResponse item : response.body().getResponses()) {
+            if (item != null && item.getId() != null) {
+                byId.put(item.getId(), item);
+            }
+        }
+        for (Pending pending : batch) {
+            OrderNegotiationCompletionsResponse item = byId.get(pending.request.getId());
+            if (item != null) {
+                pending.future.complete(item);
+            } else {
+                pending.future.completeExceptionally(new BusinessException(ErrorCode.AGENT_SERVICE_ERROR,
+                        "Agent批量响应缺少请求: id=" + pending.request.getId()));
+            }
+        }
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException e) {
+        for (Pending pending : batch) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @param traceId 提交时调用方的 traceId，没有上下文时为 null
+     */
+    private record Pending(OrderNegotiationCompletionsRequest request,
+                           CompletableFuture<OrderNegotiationCompletionsResponse> future, String traceId) {
+    }
+}
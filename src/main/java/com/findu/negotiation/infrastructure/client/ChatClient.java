@@ -3,6 +3,12 @@ package com.findu.negotiation.infrastructure.client;
 import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
 import com.findu.negotiation.infrastructure.exception.BusinessException;
 import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.Bulkhead;
+import com.findu.negotiation.infrastructure.resilience.BulkheadRegistry;
+import com.findu.negotiation.infrastructure.resilience.RetryPolicy;
+import com.findu.negotiation.infrastructure.resilience.RetryPolicyRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,19 +17,29 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.concurrent.atomic.LongAdder;
+
 
 @Component
 public class ChatClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatClient.class);
 
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("chat");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("chat");
+
     private final HttpClientWrapper httpClientWrapper;
+    private final Bulkhead bulkhead;
+    private final RetryPolicy retryPolicy;
 
     @Value("${findu.chat.base-url:http://localhost:8460}")
     private String baseUrl;
 
-    public ChatClient(HttpClientWrapper httpClientWrapper) {
+    public ChatClient(HttpClientWrapper httpClientWrapper, BulkheadRegistry bulkheadRegistry,
+                      RetryPolicyRegistry retryPolicyRegistry) {
         this.httpClientWrapper = httpClientWrapper;
+        this.bulkhead = bulkheadRegistry.get("chat");
+        this.retryPolicy = retryPolicyRegistry.get("chat");
     }
 
     public ChatHistoryResponse getChatHistory(String userA, String userB) {
@@ -34,8 +50,11 @@ public class ChatClient {
 
         LOGGER.info("调用Chat服务获取聊天记录: userA={}, userB={}, url={}", userA, userB, url);
 
+        bulkhead.acquire();
+        long startTime = System.nanoTime();
         try {
-            ResponseEntity<ChatHistoryResponse> response = httpClientWrapper.getJson(url, ChatHistoryResponse.class, true);
+            ResponseEntity<ChatHistoryResponse> response = retryPolicy.execute(
+                    () -> httpClientWrapper.getJson(url, ChatHistoryResponse.class, true));
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new BusinessException(ErrorCode.INTERNAL_ERROR,
                         "Chat服务返回异常状态码: " + response.getStatusCode());
@@ -47,8 +66,12 @@ public class ChatClient {
 
             return response.getBody();
         } catch (RestClientException e) {
+            ERRORS.increment();
             LOGGER.error("调用Chat服务失败: url={}", url, e);
             throw new BusinessException(ErrorCode.USER_SERVICE_ERROR, e);
+        } finally {
+            LATENCY.recordNanos(System.nanoTime() - startTime);
+            bulkhead.release();
         }
     }
 }
@@ -4,6 +4,10 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.findu.negotiation.infrastructure.exception.BusinessException;
 import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.Bulkhead;
+import com.findu.negotiation.infrastructure.resilience.BulkheadRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,19 +17,25 @@ import org.springframework.web.client.RestClientException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class DmsClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DmsClient.class);
 
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("dms");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("dms");
+
     private final HttpClientWrapper httpClientWrapper;
+    private final Bulkhead bulkhead;
 
     @Value("${findu.dms.base-url}")
     private String baseUrl;
 
-    public DmsClient(HttpClientWrapper httpClientWrapper) {
+    public DmsClient(HttpClientWrapper httpClientWrapper, BulkheadRegistry bulkheadRegistry) {
         this.httpClientWrapper = httpClientWrapper;
+        this.bulkhead = bulkheadRegistry.get("dms");
     }
 
     /**
@@ -54,6 +64,8 @@ public class DmsClient {
         formParams.put("userId", userId);
         formParams.put("demandId", demandId);
 
+        bulkhead.acquire();
+        long startTime = System.nanoTime();
         try {
             LOGGER.info("调用DMS服务获取需求详情: userId={}, demandId={}, passAuthorization={}",
                     userId, demandId, passAuthorization);
@@ -73,8 +85,12 @@ public class DmsClient {
                 LOGGER.warn("DMS服务返回失败: {}", response.getBody());
             }
         } catch (RestClientException e) {
+            ERRORS.increment();
             LOGGER.error("调用DMS服务失败", e);
             throw new BusinessException(ErrorCode.DMS_SERVICE_ERROR, e);
+        } finally {
+            LATENCY.recordNanos(System.nanoTime() - startTime);
+            bulkhead.release();
         }
 
         return null;
@@ -86,7 +102,7 @@ public class DmsClient {
      * @param markdown markdown 格式的描述文本
      * @return 服务类型内容，如果没有找到则返回原始描述或空字符串
      */
-    private String extractServiceTypeFromMarkdown(String markdown) {
+    static String extractServiceTypeFromMarkdown(String markdown) {
         if (markdown == null || markdown.isEmpty()) {
             return "";
         }
@@ -1,6 +1,11 @@
 package com.findu.negotiation.infrastructure.client;
 
 import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.logging.RequestLog;
+import com.findu.negotiation.infrastructure.logging.StructuredLogMessage;
+import com.findu.negotiation.infrastructure.warmup.WarmupRouting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
@@ -16,6 +21,10 @@ import java.util.Map;
 
 /**
  * HTTP客户端包装器，支持自动透传Authorization header
+ * <p>
+ * 每次调用都携带当前请求的 X-Trace-Id 和本次调用的 spanId（X-Request-Id），
+ * 并以 http_client 事件记录本次调用的耗时。
+ * 发往 {@link WireFormat} 中配置为 Smile 的下游时，POST 请求体以 Smile 编码
  *
  * @author timothy
  * @date 2025/12/17
@@ -60,21 +69,21 @@ public class HttpClientWrapper {
      */
     public <T> ResponseEntity<T> get(String url, Map<String, String> additionalHeaders,
                                       Class<T> responseType, boolean passAuthorization) {
-        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization);
+        url = WarmupRouting.rewrite(url);
+        String spanId = TraceIds.newSpanId();
+        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization, spanId);
         HttpEntity<Void> request = new HttpEntity<>(headers);
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             LOGGER.debug("发送GET请求: url={}, passAuthorization={}", url, passAuthorization);
             ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, request, responseType);
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.info("type=http_client, method=GET, uri={}, status={}, proc_time={}ms",
-                url, response.getStatusCode().value(), procTime);
+            logHttpClient("GET", url, spanId, response.getStatusCode().value(), System.nanoTime() - startTime, null);
             return response;
         } catch (RestClientException e) {
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.error("type=http_client, method=GET, uri={}, status=error, proc_time={}ms, error={}",
-                url, procTime, e.getMessage());
+            // 只输出结构化事件，异常堆栈由调用方记录一次
+            long elapsedNanos = System.nanoTime() - startTime;
+            logHttpClient("GET", url, spanId, -1, elapsedNanos, e.getMessage());
             throw e;
         }
     }
@@ -93,7 +102,7 @@ public class HttpClientWrapper {
     }
 
     /**
-     * 发送POST请求（JSON格式）
+     * 发送POST请求（JSON格式，下游配置为 Smile 且请求体不是字符串时使用 Smile）
      *
      * @param url               请求URL
      * @param body              请求体
@@ -104,23 +113,24 @@ public class HttpClientWrapper {
      */
     public <T> ResponseEntity<T> postJson(String url, Object body, Map<String, String> additionalHeaders,
                                            Class<T> responseType, boolean passAuthorization) {
-        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        url = WarmupRouting.rewrite(url);
+        String spanId = TraceIds.newSpanId();
+        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization, spanId);
+        headers.setContentType(!(body instanceof String) && WireFormat.isSmile(url)
+                ? MediaType.valueOf(WireFormat.SMILE_VALUE) : MediaType.APPLICATION_JSON);
 
         HttpEntity<Object> request = new HttpEntity<>(body, headers);
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             LOGGER.debug("发送POST JSON请求: url={}, passAuthorization={}", url, passAuthorization);
             ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.POST, request, responseType);
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.info("type=http_client, method=POST, uri={}, status={}, proc_time={}ms",
-                url, response.getStatusCode().value(), procTime);
+            logHttpClient("POST", url, spanId, response.getStatusCode().value(), System.nanoTime() - startTime, null);
             return response;
         } catch (RestClientException e) {
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.error("type=http_client, method=POST, uri={}, status=error, proc_time={}ms, error={}",
-                url, procTime, e.getMessage());
+            // 只输出结构化事件，异常堆栈由调用方记录一次
+            long elapsedNanos = System.nanoTime() - startTime;
+            logHttpClient("POST", url, spanId, -1, elapsedNanos, e.getMessage());
             throw e;
         }
     }
@@ -152,7 +162,9 @@ public class HttpClientWrapper {
     public <T> ResponseEntity<T> postForm(String url, Map<String, String> formParams,
                                            Map<String, String> additionalHeaders,
                                            Class<T> responseType, boolean passAuthorization) {
-        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization);
+        url = WarmupRouting.rewrite(url);
+        String spanId = TraceIds.newSpanId();
+        HttpHeaders headers = buildHeaders(additionalHeaders, passAuthorization, spanId);
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -162,32 +174,61 @@ public class HttpClientWrapper {
 
         HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             LOGGER.debug("发送POST FORM请求: url={}, passAuthorization={}", url, passAuthorization);
             ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.POST, request, responseType);
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.info("type=http_client, method=POST, uri={}, status={}, proc_time={}ms",
-                url, response.getStatusCode().value(), procTime);
+            logHttpClient("POST", url, spanId, response.getStatusCode().value(), System.nanoTime() - startTime, null);
             return response;
         } catch (RestClientException e) {
-            long procTime = System.currentTimeMillis() - startTime;
-            LOGGER.error("type=http_client, method=POST, uri={}, status=error, proc_time={}ms, error={}",
-                url, procTime, e.getMessage());
+            // 只输出结构化事件，异常堆栈由调用方记录一次
+            long elapsedNanos = System.nanoTime() - startTime;
+            logHttpClient("POST", url, spanId, -1, elapsedNanos, e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * 输出下游调用的结构化日志，duration 精确到微秒，proc_time 保留毫秒整数
+     *
+     * @param status 响应状态码，调用异常时为-1
+     */
+    private static void logHttpClient(String method, String url, String spanId, int status, long elapsedNanos, String error) {
+        if (!RequestLog.isEnabled()) {
+            return;
+        }
+        StructuredLogMessage message = RequestLog.begin("http_client")
+                .put("trace_id", RequestContextHolder.getTraceId())
+                .put("span_id", spanId)
+                .put("method", method)
+                .put("uri", url)
+                .put("status_code", status)
+                .put("proc_time", elapsedNanos / 1_000_000)
+                .putMillis("duration", elapsedNanos / 1_000);
+        if (error != null) {
+            message.put("error", error);
+        }
+        RequestLog.emit(message);
+    }
+
     /**
      * 构建请求头
      *
      * @param additionalHeaders 额外的请求头
      * @param passAuthorization 是否透传Authorization header
+     * @param spanId            本次调用的 spanId，作为 X-Request-Id 发送
      * @return HttpHeaders
      */
-    private HttpHeaders buildHeaders(Map<String, String> additionalHeaders, boolean passAuthorization) {
+    private HttpHeaders buildHeaders(Map<String, String> additionalHeaders, boolean passAuthorization, String spanId) {
         HttpHeaders headers = new HttpHeaders();
 
+        // 链路ID，额外的请求头中同名的值会覆盖这里的设置
+        String traceId = RequestContextHolder.getTraceId();
+        if (traceId != null) {
+            headers.set(TraceIds.TRACE_ID_HEADER, traceId);
+        }
+        headers.set(TraceIds.REQUEST_ID_HEADER, spanId);
+
         // 透传Authorization header
         if (passAuthorization) {
             String authorization = RequestContextHolder.getAuthorization();
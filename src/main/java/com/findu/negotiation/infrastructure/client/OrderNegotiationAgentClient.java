@@ -2,17 +2,28 @@ package com.findu.negotiation.infrastructure.client;
 
 import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
 import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationDeltaCompletionsRequest;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
 import com.findu.negotiation.infrastructure.exception.BusinessException;
 import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.Priority;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler;
 import com.findu.negotiation.infrastructure.util.HttpUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Order Negotiation Agent 服务客户端
- * 调用协商Agent服务生成协商草案
+ * 调用协商Agent服务生成协商草案，并发由 {@link PriorityLaneScheduler} 按优先级通道控制；
+ * 启用批量（findu.order-negotiation-agent.batch.enabled）时经 {@link AgentCompletionBatcher} 合并发送；
+ * 已有草案只追加了新消息时经增量接口发送，请求中只有新消息
  *
  * @author timothy
  * @date 2025/12/14
@@ -21,19 +32,60 @@ import org.springframework.stereotype.Component;
 public class OrderNegotiationAgentClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderNegotiationAgentClient.class);
 
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("agent");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("agent");
+    private static final LatencyHistogram DELTA_LATENCY = MetricsRegistry.downstream("agent_delta");
+    private static final LongAdder DELTA_ERRORS = MetricsRegistry.downstreamErrors("agent_delta");
+
+    public static final String INPUT_MESSAGES = "findu_agent_input_messages_total";
+
+    static {
+        MetricsRegistry.describe(INPUT_MESSAGES, "counter", "发给 Agent 的对话条数，mode 为 full（完整聊天记录）/ delta（增量）");
+    }
+
+    private static final LongAdder FULL_MESSAGES = MetricsRegistry.counter(INPUT_MESSAGES, "mode", "full");
+    private static final LongAdder DELTA_MESSAGES = MetricsRegistry.counter(INPUT_MESSAGES, "mode", "delta");
+
+    private final PriorityLaneScheduler scheduler;
+
+    /**
+     * 未启用批量时为 null
+     */
+    private final AgentCompletionBatcher batcher;
+
     @Value("${findu.order-negotiation-agent.base-url}")
     private String baseUrl;
 
     @Value("${findu.order-negotiation-agent.completions-endpoint:/api/v1/inner/order_negotiation/completions}")
     private String completionsEndpoint;
 
+    @Value("${findu.order-negotiation-agent.delta-endpoint:/api/v1/inner/order_negotiation/completions/delta}")
+    private String deltaEndpoint;
+
+    public OrderNegotiationAgentClient(PriorityLaneScheduler agentScheduler,
+                                       ObjectProvider<AgentCompletionBatcher> batcher) {
+        this.scheduler = agentScheduler;
+        this.batcher = batcher.getIfAvailable();
+    }
+
     /**
-     * 调用订单协商补全接口
+     * 以交互优先级调用订单协商补全接口
      *
      * @param request 订单协商补全请求
      * @return 订单协商补全响应
      */
     public OrderNegotiationCompletionsResponse completions(OrderNegotiationCompletionsRequest request) {
+        return completions(request, Priority.INTERACTIVE);
+    }
+
+    /**
+     * 调用订单协商补全接口
+     *
+     * @param request  订单协商补全请求
+     * @param priority 调用所在的优先级通道，预取、批量等后台任务使用 {@link Priority#BACKGROUND}
+     * @return 订单协商补全响应
+     */
+    public OrderNegotiationCompletionsResponse completions(OrderNegotiationCompletionsRequest request, Priority priority) {
         String url = baseUrl + completionsEndpoint;
 
         LOGGER.info("调用Order Negotiation Agent Completions服务: id={}, agentConversationsCount={}, humanConversationsCount={}, serviceCardTitle={}",
@@ -42,11 +94,59 @@ public class OrderNegotiationAgentClient {
                 request.getHumanConversations() != null ? request.getHumanConversations().size() : 0,
                 request.getProducts() != null ? request.getProducts().size() : 0);
 
-        HttpUtil.HttpResponse<OrderNegotiationCompletionsResponse> completionsResponse = HttpUtil.postJson(url, request, OrderNegotiationCompletionsResponse.class);
+        if (request.getHumanConversations() != null) {
+            FULL_MESSAGES.add(request.getHumanConversations().size());
+        }
+
+        HttpUtil.HttpResponse<OrderNegotiationCompletionsResponse> completionsResponse;
+        scheduler.acquire(priority);
+        long startTime = System.nanoTime();
+        try {
+            // 预热请求不经过批量发送器：批量调用在发送线程上执行，拿不到预热标记，无法转发到桩服务
+            if (batcher != null && !RequestContextHolder.isWarmup()) {
+                // 批量模式下耗时包含在批次中等待的时间，失败由批量发送器计数
+                return batcher.completions(request);
+            }
+            completionsResponse = HttpUtil.postJson(url, request, OrderNegotiationCompletionsResponse.class);
+        } finally {
+            LATENCY.recordNanos(System.nanoTime() - startTime);
+            scheduler.release(priority);
+        }
         if (!completionsResponse.isSuccessful()) {
+            ERRORS.increment();
             throw new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent服务返回异常状态码: " + completionsResponse.statusCode());
         }
 
         return completionsResponse.body();
     }
+
+    /**
+     * 以交互优先级调用增量补全接口，不经过批量发送器
+     *
+     * @param request 上一版结果与新消息
+     * @return 与完整补全相同的响应
+     */
+    public OrderNegotiationCompletionsResponse deltaCompletions(OrderNegotiationDeltaCompletionsRequest request) {
+        String url = baseUrl + deltaEndpoint;
+
+        LOGGER.info("调用Order Negotiation Agent增量补全服务: id={}, newConversationsCount={}",
+                request.getId(), request.getNewConversations().size());
+        DELTA_MESSAGES.add(request.getNewConversations().size());
+
+        HttpUtil.HttpResponse<OrderNegotiationCompletionsResponse> completionsResponse;
+        scheduler.acquire(Priority.INTERACTIVE);
+        long startTime = System.nanoTime();
+        try {
+            completionsResponse = HttpUtil.postJson(url, request, OrderNegotiationCompletionsResponse.class);
+        } finally {
+            DELTA_LATENCY.recordNanos(System.nanoTime() - startTime);
+            scheduler.release(Priority.INTERACTIVE);
+        }
+        if (!completionsResponse.isSuccessful()) {
+            DELTA_ERRORS.increment();
+            throw new BusinessException(ErrorCode.AGENT_SERVICE_ERROR, "Agent增量补全服务返回异常状态码: " + completionsResponse.statusCode());
+        }
+
+        return completionsResponse.body();
+    }
 }
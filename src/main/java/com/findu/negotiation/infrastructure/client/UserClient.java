@@ -4,6 +4,12 @@ import com.findu.negotiation.infrastructure.client.dto.user.ProviderUserResponse
 import com.findu.negotiation.infrastructure.client.dto.user.ProviderProduct;
 import com.findu.negotiation.infrastructure.exception.BusinessException;
 import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.Bulkhead;
+import com.findu.negotiation.infrastructure.resilience.BulkheadRegistry;
+import com.findu.negotiation.infrastructure.resilience.RetryPolicy;
+import com.findu.negotiation.infrastructure.resilience.RetryPolicyRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,19 +21,28 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class UserClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UserClient.class);
 
+    private static final LatencyHistogram LATENCY = MetricsRegistry.downstream("user");
+    private static final LongAdder ERRORS = MetricsRegistry.downstreamErrors("user");
+
     private final HttpClientWrapper httpClientWrapper;
+    private final Bulkhead bulkhead;
+    private final RetryPolicy retryPolicy;
 
     @Value("${findu.user.base-url}")
     private String baseUrl;
 
-    public UserClient(HttpClientWrapper httpClientWrapper) {
+    public UserClient(HttpClientWrapper httpClientWrapper, BulkheadRegistry bulkheadRegistry,
+                      RetryPolicyRegistry retryPolicyRegistry) {
         this.httpClientWrapper = httpClientWrapper;
+        this.bulkhead = bulkheadRegistry.get("user");
+        this.retryPolicy = retryPolicyRegistry.get("user");
     }
 
     /**
@@ -47,8 +62,12 @@ public class UserClient {
 
         LOGGER.info("调用User服务获取产品列表: providerId={}, url={}", providerId, url);
 
+        bulkhead.acquire();
+        long startTime = System.nanoTime();
         try {
-            ResponseEntity<ProviderUserResponse> response = httpClientWrapper.getJson(url, ProviderUserResponse.class, true);
+            // 幂等读请求，连接失败、超时与 5xx 按重试策略重试
+            ResponseEntity<ProviderUserResponse> response = retryPolicy.execute(
+                    () -> httpClientWrapper.getJson(url, ProviderUserResponse.class, true));
             LOGGER.info("User服务响应: statusCode={}, body={}", response.getStatusCode(), response.getBody());
 
             if (!response.getStatusCode().is2xxSuccessful()) {
@@ -66,8 +85,12 @@ public class UserClient {
 
             return response.getBody().getData().getItems();
         } catch (RestClientException e) {
+            ERRORS.increment();
             LOGGER.error("调用User服务失败: url={}", url, e);
             throw new BusinessException(ErrorCode.USER_SERVICE_ERROR, e);
+        } finally {
+            LATENCY.recordNanos(System.nanoTime() - startTime);
+            bulkhead.release();
         }
     }
 }
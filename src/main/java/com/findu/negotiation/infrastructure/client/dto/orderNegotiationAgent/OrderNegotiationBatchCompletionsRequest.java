@@ -0,0 +1,25 @@
+package com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Order Negotiation 批量 Completions 请求体，每个请求按 id 区分
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@ToString
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderNegotiationBatchCompletionsRequest {
+
+    @JsonProperty("requests")
+    private List<OrderNegotiationCompletionsRequest> requests;
+}
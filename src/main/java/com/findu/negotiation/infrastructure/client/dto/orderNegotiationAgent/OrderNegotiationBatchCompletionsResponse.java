@@ -0,0 +1,25 @@
+package com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Order Negotiation 批量 Completions 响应体，顺序不保证与请求一致，按 id 对应
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@ToString
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderNegotiationBatchCompletionsResponse {
+
+    @JsonProperty("responses")
+    private List<OrderNegotiationCompletionsResponse> responses;
+}
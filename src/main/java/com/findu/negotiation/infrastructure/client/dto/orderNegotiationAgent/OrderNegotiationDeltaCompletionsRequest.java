@@ -0,0 +1,39 @@
+package com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.findu.negotiation.domain.vo.NegotiationResultSchemaVO;
+import com.findu.negotiation.domain.vo.NegotiationResultVO;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Order Negotiation 增量补全请求体：上一版协商结果加上之后的新消息，不再携带完整的聊天记录
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@ToString
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderNegotiationDeltaCompletionsRequest {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("previous_result")
+    private NegotiationResultVO previousResult;
+
+    @JsonProperty("new_conversations")
+    private List<ConversationItem> newConversations;
+
+    private List<ProductInfoVO> products;
+
+    @JsonProperty("result_schema")
+    private NegotiationResultSchemaVO resultSchema;
+}
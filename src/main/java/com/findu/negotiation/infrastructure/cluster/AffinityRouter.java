@@ -0,0 +1,118 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按服务方/需求方把请求路由到一致性哈希环上的归属节点，同一对用户的草案缓存、草案存储与预生成状态集中在一个节点上
+ * <p>
+ * 响应头 {@link #OWNER_HEADER} 总是带上归属节点，网关可以据此做粘性路由；
+ * forward 模式下不是归属节点的请求转发过去，转发失败时在本节点处理。
+ * 转发的请求带 {@link #FORWARDED_HEADER}，收到的节点无论是否为归属节点都在本地处理，最多一跳。
+ * 归属节点响应中以 {@value #HEADER_PREFIX} 开头的头（如降级标记）原样回传给调用方。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class AffinityRouter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AffinityRouter.class);
+
+    public static final String OWNER_HEADER = "X-Findu-Owner";
+    public static final String FORWARDED_HEADER = "X-Findu-Forwarded-By";
+    private static final String HEADER_PREFIX = "X-Findu-";
+
+    public static final String REQUESTS = "findu_affinity_requests_total";
+
+    static {
+        MetricsRegistry.describe(REQUESTS, "counter", "按归属节点路由的请求数，result 为 owner / hint / forwarded / forward_failed / received");
+    }
+
+    private static final LongAdder OWNER = MetricsRegistry.counter(REQUESTS, "result", "owner");
+    private static final LongAdder HINT = MetricsRegistry.counter(REQUESTS, "result", "hint");
+    private static final LongAdder FORWARDED = MetricsRegistry.counter(REQUESTS, "result", "forwarded");
+    private static final LongAdder FORWARD_FAILED = MetricsRegistry.counter(REQUESTS, "result", "forward_failed");
+    private static final LongAdder RECEIVED = MetricsRegistry.counter(REQUESTS, "result", "received");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ClusterMembership membership;
+    private final boolean forward;
+
+    /**
+     * @param forward 为 false 时只返回归属节点的提示头
+     */
+    public AffinityRouter(ClusterMembership membership, boolean forward) {
+        this.membership = membership;
+        this.forward = forward;
+    }
+
+    /**
+     * 设置归属节点响应头，需要时转发到归属节点
+     *
+     * @param path        归属节点上的接口路径
+     * @param forwardedBy 请求中的 {@link #FORWARDED_HEADER}，可为 null
+     * @return 归属节点的响应；应在本节点处理时为 null
+     */
+    public <T> T route(String path, String providerId, String customerId, Object body, TypeReference<T> type,
+                       String forwardedBy, HttpServletResponse response) {
+        String owner = membership.owner(providerId, customerId);
+        if (owner == null) {
+            return null;
+        }
+        response.setHeader(OWNER_HEADER, owner);
+        if (forwardedBy != null) {
+            RECEIVED.increment();
+            return null;
+        }
+        if (membership.isSelf(owner)) {
+            OWNER.increment();
+            return null;
+        }
+        if (!forward) {
+            HINT.increment();
+            return null;
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", RequestContextHolder.getAuthorization());
+        headers.put("X-User-Id", RequestContextHolder.getUserId());
+        headers.put(FORWARDED_HEADER, membership.getSelf());
+        HttpUtil.HttpResponse<String> forwarded = HttpUtil.postJson("http://" + owner + path, body, headers, String.class);
+        if (forwarded.isSuccessful() && forwarded.body() != null) {
+            try {
+                T result = OBJECT_MAPPER.readValue(forwarded.body(), type);
+                for (String name : forwarded.headers().names()) {
+                    if (name.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())
+                            && !name.equalsIgnoreCase(OWNER_HEADER)) {
+                        response.setHeader(name, forwarded.headers().get(name));
+                    }
+                }
+                FORWARDED.increment();
+                return result;
+            } catch (Exception e) {
+                LOGGER.warn("解析归属节点响应失败: owner={}, path={}, error={}", owner, path, e.getMessage());
+            }
+        }
+        FORWARD_FAILED.increment();
+        LOGGER.warn("转发到归属节点失败，在本节点处理: owner={}, path={}, status={}", owner, path, forwarded.statusCode());
+        return null;
+    }
+
+    public ClusterMembership getMembership() {
+        return membership;
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+}
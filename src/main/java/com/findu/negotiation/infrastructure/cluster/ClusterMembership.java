@@ -0,0 +1,123 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * 集群成员与当前的一致性哈希环
+ * <p>
+ * 成员来自静态配置或成员文件（每行一个 host:port，# 开头为注释）。配置了文件时以文件为准，
+ * {@link #refresh()} 在文件修改时间变化后重新读取；文件不存在或读取失败时保留当前的环。
+ * 各节点的成员列表短时间不一致时，同一个 key 可能在两个节点间来回，转发请求只转发一跳，不会循环。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class ClusterMembership {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterMembership.class);
+
+    public static final String NODES = "findu_cluster_nodes";
+
+    static {
+        MetricsRegistry.describe(NODES, "gauge", "当前一致性哈希环中的节点数");
+    }
+
+    private final String self;
+    private final Path nodesFile;
+    private final int virtualNodes;
+    private volatile HashRing ring;
+    private FileTime lastModified;
+
+    /**
+     * @param self         本节点标识，与成员列表中的写法相同
+     * @param nodes        静态成员，配置了 nodesFile 时只在文件读取失败前使用
+     * @param nodesFile    成员文件，可为 null
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ClusterMembership(String self, List<String> nodes, Path nodesFile, int virtualNodes) {
+        if (self == null || self.isBlank()) {
+            throw new IllegalArgumentException("本节点标识不能为空");
+        }
+        this.self = self.strip();
+        this.nodesFile = nodesFile;
+        this.virtualNodes = virtualNodes;
+        this.ring = new HashRing(parse(nodes), virtualNodes);
+        if (nodesFile != null) {
+            refresh();
+        } else {
+            checkSelf();
+        }
+        MetricsRegistry.gauge(NODES, () -> ring.getNodes().size());
+    }
+
+    /**
+     * 成员文件的修改时间变化时重新读取
+     */
+    public synchronized void refresh() {
+        if (nodesFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(nodesFile);
+            if (modified.equals(lastModified)) {
+                return;
+            }
+            List<String> nodes = parse(Files.readAllLines(nodesFile));
+            ring = new HashRing(nodes, virtualNodes);
+            lastModified = modified;
+            LOGGER.info("集群成员已更新: file={}, nodes={}", nodesFile, ring.getNodes());
+            checkSelf();
+        } catch (IOException e) {
+            LOGGER.warn("读取集群成员文件失败，保留当前成员: file={}, nodes={}, error={}",
+                    nodesFile, ring.getNodes(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return 没有成员时为 null
+     */
+    public String owner(String providerId, String customerId) {
+        return ring.owner(providerId, customerId);
+    }
+
+    public boolean isSelf(String node) {
+        return self.equals(node);
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getNodes() {
+        return ring.getNodes();
+    }
+
+    /**
+     * 去掉空行、注释与首尾空白，逗号分隔的写法也按多个节点处理
+     */
+    static List<String> parse(List<String> lines) {
+        return lines.stream()
+                .map(line -> {
+                    int comment = line.indexOf('#');
+                    return comment >= 0 ? line.substring(0, comment) : line;
+                })
+                .flatMap(line -> List.of(line.split(",")).stream())
+                .map(String::strip)
+                .filter(node -> !node.isEmpty())
+                .toList();
+    }
+
+    private void checkSelf() {
+        if (!ring.getNodes().isEmpty() && !ring.getNodes().contains(self)) {
+            // 下线中的节点不在列表里是正常的，此时所有 key 都归属其他节点
+            LOGGER.warn("本节点不在集群成员中: self={}, nodes={}", self, ring.getNodes());
+        }
+    }
+}
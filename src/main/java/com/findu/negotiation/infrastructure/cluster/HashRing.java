@@ -0,0 +1,88 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 一致性哈希环，不可变，成员变化时整体替换
+ * <p>
+ * 每个节点在环上放 virtualNodes 个虚拟节点，key 归属于顺时针方向的第一个虚拟节点。
+ * 增加或移除一个节点时只有约 1/N 的 key 换了归属，其余 key 仍落在原节点，本地缓存不会整体失效。
+ * 哈希为 UTF-16 编码单元上的 FNV-1a 加 MurmurHash3 的 64 位终结混合，所有节点对同一个 key 算出相同的归属。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * @param nodes        节点标识（如 host:port），重复的只保留一个，与顺序无关
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("虚拟节点数必须大于 0: " + virtualNodes);
+        }
+        this.nodes = nodes.stream().distinct().sorted().toList();
+        int size = this.nodes.size() * virtualNodes;
+        // 按 (哈希, 节点下标) 排序后拆成两个数组，查找时只在哈希数组上二分
+        long[][] entries = new long[size][];
+        for (int n = 0; n < this.nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[n * virtualNodes + v] = new long[]{hash(this.nodes.get(n) + '#' + v), n};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * @return 环为空时为 null
+     */
+    public String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return nodes.get(owners[i == points.length ? 0 : i]);
+    }
+
+    /**
+     * 一对服务方/需求方的归属节点
+     */
+    public String owner(String providerId, String customerId) {
+        return owner(providerId + '\u0000' + customerId);
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // FNV-1a 的低位扩散不足，再做一次终结混合
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,37 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.client.AgentCompletionBatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Agent 补全微批配置，仅在 findu.order-negotiation-agent.batch.enabled=true 时启用
+ * <p>
+ * max-delay 直接叠加在每个请求的延迟上，只适合 Agent 自身耗时远大于该值、且批量接口能摊薄单次开销的场景
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.order-negotiation-agent.batch", name = "enabled", havingValue = "true")
+public class AgentBatchConfig {
+
+    @Value("${findu.order-negotiation-agent.base-url}")
+    private String baseUrl;
+
+    @Value("${findu.order-negotiation-agent.batch-endpoint:/api/v1/inner/order_negotiation/completions/batch}")
+    private String batchEndpoint;
+
+    @Value("${findu.order-negotiation-agent.batch.max-size:8}")
+    private int maxSize;
+
+    @Value("${findu.order-negotiation-agent.batch.max-delay:5}")
+    private long maxDelay;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AgentCompletionBatcher agentCompletionBatcher() {
+        return new AgentCompletionBatcher(baseUrl + batchEndpoint, maxSize, maxDelay);
+    }
+}
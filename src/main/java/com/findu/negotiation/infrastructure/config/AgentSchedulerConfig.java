@@ -0,0 +1,65 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.resilience.Priority;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler.LaneConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Agent 补全调用的优先级通道配置
+ * <p>
+ * background.max-concurrent 应明显小于 max-concurrent，差额即始终为交互请求保留的并发
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class AgentSchedulerConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentSchedulerConfig.class);
+
+    @Value("${findu.agent.scheduler.max-concurrent:100}")
+    private int maxConcurrent;
+
+    @Value("${findu.agent.scheduler.interactive.weight:8}")
+    private int interactiveWeight;
+
+    @Value("${findu.agent.scheduler.interactive.max-concurrent:100}")
+    private int interactiveMaxConcurrent;
+
+    @Value("${findu.agent.scheduler.interactive.max-queued:200}")
+    private int interactiveMaxQueued;
+
+    @Value("${findu.agent.scheduler.interactive.queue-timeout:200}")
+    private long interactiveQueueTimeout;
+
+    @Value("${findu.agent.scheduler.background.weight:1}")
+    private int backgroundWeight;
+
+    @Value("${findu.agent.scheduler.background.max-concurrent:30}")
+    private int backgroundMaxConcurrent;
+
+    @Value("${findu.agent.scheduler.background.max-queued:1000}")
+    private int backgroundMaxQueued;
+
+    @Value("${findu.agent.scheduler.background.queue-timeout:10000}")
+    private long backgroundQueueTimeout;
+
+    @Bean
+    public PriorityLaneScheduler agentScheduler() {
+        Map<Priority, LaneConfig> lanes = new EnumMap<>(Priority.class);
+        lanes.put(Priority.INTERACTIVE, new LaneConfig(interactiveWeight, interactiveMaxConcurrent,
+                interactiveMaxQueued, interactiveQueueTimeout));
+        lanes.put(Priority.BACKGROUND, new LaneConfig(backgroundWeight, backgroundMaxConcurrent,
+                backgroundMaxQueued, backgroundQueueTimeout));
+        LOGGER.info("Agent调度通道配置: maxConcurrent={}, lanes={}", maxConcurrent, lanes);
+        return new PriorityLaneScheduler("agent", maxConcurrent, lanes);
+    }
+}
@@ -0,0 +1,57 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.archive.ChatArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 本地聊天记录归档配置，仅在 findu.chat-archive.enabled=true 时启用
+ * <p>
+ * 段文件在 dir 下，同一目录只能由一个实例使用；段文件占用页缓存而不是 JVM 堆
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.chat-archive", name = "enabled", havingValue = "true")
+public class ChatArchiveConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatArchiveConfig.class);
+
+    @Value("${findu.chat-archive.dir:data/chat-archive}")
+    private String dir;
+
+    @Value("${findu.chat-archive.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${findu.chat-archive.max-age:0}")
+    private long maxAge;
+
+    @Value("${findu.chat-archive.retention:604800}")
+    private long retention;
+
+    @Value("${findu.chat-archive.compact-threshold:0.5}")
+    private double compactThreshold;
+
+    @Bean(destroyMethod = "close")
+    public ChatArchive chatArchive() {
+        ChatArchive archive = new ChatArchive(Path.of(dir), segmentSize, Duration.ofMillis(maxAge),
+                Duration.ofSeconds(retention), compactThreshold);
+        LOGGER.info("聊天归档配置: {}, pairs={}, messages={}", archive, archive.getPairCount(), archive.getMessageCount());
+        return archive;
+    }
+
+    @Scheduled(fixedDelayString = "${findu.chat-archive.compact-interval:60000}")
+    public void compact() {
+        // 配置类由 CGLIB 代理，这里取到的是同一个单例
+        chatArchive().compact();
+    }
+}
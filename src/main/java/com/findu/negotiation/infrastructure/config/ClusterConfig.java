@@ -0,0 +1,66 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.cluster.AffinityRouter;
+import com.findu.negotiation.infrastructure.cluster.ClusterMembership;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 集群成员与归属节点路由配置，仅在 findu.cluster.enabled=true 时启用
+ * <p>
+ * 各节点的 self 必须与成员列表中的写法一致（host:port），否则本节点永远不是归属节点
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterConfig.class);
+
+    private static final String FORWARD_MODE = "forward";
+
+    @Value("${findu.cluster.self:}")
+    private String self;
+
+    @Value("${findu.cluster.nodes:}")
+    private List<String> nodes;
+
+    @Value("${findu.cluster.nodes-file:}")
+    private String nodesFile;
+
+    @Value("${findu.cluster.virtual-nodes:160}")
+    private int virtualNodes;
+
+    @Value("${findu.cluster.affinity.mode:hint}")
+    private String mode;
+
+    @Bean
+    public ClusterMembership clusterMembership() {
+        ClusterMembership membership = new ClusterMembership(self, nodes,
+                nodesFile.isBlank() ? null : Path.of(nodesFile), virtualNodes);
+        LOGGER.info("集群成员配置: self={}, nodes={}, nodesFile={}, mode={}",
+                self, membership.getNodes(), nodesFile, mode);
+        return membership;
+    }
+
+    @Bean
+    public AffinityRouter affinityRouter(ClusterMembership clusterMembership) {
+        return new AffinityRouter(clusterMembership, FORWARD_MODE.equals(mode));
+    }
+
+    @Scheduled(fixedDelayString = "${findu.cluster.refresh-interval:10000}")
+    public void refreshMembership() {
+        // 配置类由 CGLIB 代理，这里取到的是同一个单例
+        clusterMembership().refresh();
+    }
+}
@@ -0,0 +1,51 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.resilience.AdaptiveConcurrencyLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * /create 自适应并发限制配置
+ * <p>
+ * max-limit 应小于 Tomcat 最大线程数，保证 /create 全部阻塞时仍有线程处理健康检查等请求
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimitConfig.class);
+
+    @Value("${findu.limiter.create.enabled:true}")
+    private boolean enabled;
+
+    @Value("${findu.limiter.create.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${findu.limiter.create.min-limit:4}")
+    private int minLimit;
+
+    @Value("${findu.limiter.create.max-limit:150}")
+    private int maxLimit;
+
+    @Value("${findu.limiter.create.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${findu.limiter.create.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${findu.limiter.create.long-window:600}")
+    private int longWindow;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter createConcurrencyLimiter() {
+        LOGGER.info("/create并发限制配置: enabled={}, initialLimit={}, minLimit={}, maxLimit={}, tolerance={}",
+                enabled, initialLimit, minLimit, maxLimit, tolerance);
+        return new AdaptiveConcurrencyLimiter("create", enabled, initialLimit, minLimit, maxLimit,
+                tolerance, smoothing, longWindow);
+    }
+}
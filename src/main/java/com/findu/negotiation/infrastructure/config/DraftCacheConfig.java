@@ -0,0 +1,35 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.cache.DraftCache;
+import com.findu.negotiation.infrastructure.cache.L2Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 协商草案缓存配置，仅在 findu.draft-cache.enabled=true 时启用
+ * <p>
+ * ttl 决定下游 Agent 升级后旧草案最多还会返回多久，结果 Schema 变化时缓存键随之变化，不受 ttl 影响
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.draft-cache", name = "enabled", havingValue = "true")
+public class DraftCacheConfig {
+
+    @Value("${findu.draft-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${findu.draft-cache.ttl:1800}")
+    private long ttl;
+
+    @Bean
+    public DraftCache draftCache(ObjectProvider<L2Cache> l2Cache) {
+        return new DraftCache(maxSize, Duration.ofSeconds(ttl), l2Cache.getIfAvailable());
+    }
+}
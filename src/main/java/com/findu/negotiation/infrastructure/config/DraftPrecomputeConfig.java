@@ -0,0 +1,41 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.application.NegotiationBizService;
+import com.findu.negotiation.infrastructure.cache.DraftPrecomputer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 草案预生成配置，仅在 findu.precompute.enabled=true 时启用
+ * <p>
+ * 每次预生成都是一次完整的 Agent 调用，开启前确认 Agent 的容量与 BACKGROUND 通道的并发上限
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.precompute", name = "enabled", havingValue = "true")
+public class DraftPrecomputeConfig {
+
+    @Value("${findu.precompute.debounce:5000}")
+    private long debounce;
+
+    @Value("${findu.precompute.min-interval:30000}")
+    private long minInterval;
+
+    @Value("${findu.precompute.ttl:600}")
+    private long ttl;
+
+    @Value("${findu.precompute.max-pairs:10000}")
+    private long maxPairs;
+
+    @Bean(destroyMethod = "close")
+    public DraftPrecomputer draftPrecomputer(NegotiationBizService negotiationBizService) {
+        return new DraftPrecomputer(negotiationBizService::precomputeNegotiation, Duration.ofMillis(debounce),
+                Duration.ofMillis(minInterval), Duration.ofSeconds(ttl), maxPairs);
+    }
+}
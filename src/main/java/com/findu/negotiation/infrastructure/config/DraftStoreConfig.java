@@ -0,0 +1,31 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.cache.DraftStore;
+import com.findu.negotiation.infrastructure.cache.L2Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 协商草案存储配置，增量更新按草案 id 取回上一版
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class DraftStoreConfig {
+
+    @Value("${findu.draft-store.max-size:10000}")
+    private long maxSize;
+
+    @Value("${findu.draft-store.ttl:86400}")
+    private long ttl;
+
+    @Bean
+    public DraftStore draftStore(ObjectProvider<L2Cache> l2Cache) {
+        return new DraftStore(maxSize, Duration.ofSeconds(ttl), l2Cache.getIfAvailable());
+    }
+}
@@ -0,0 +1,48 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.http.BodyCompression;
+import com.findu.negotiation.infrastructure.http.CompressionInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 下游调用的请求体/响应体压缩配置，同时作用于 RestTemplate 与 HttpUtil（OkHttp）
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class HttpCompressionConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCompressionConfig.class);
+
+    @Value("${findu.http.compression.accept-gzip:true}")
+    private boolean acceptGzip;
+
+    @Value("${findu.http.compression.request-urls:}")
+    private String requestUrls;
+
+    @Value("${findu.http.compression.min-size:2048}")
+    private int minSize;
+
+    @Value("${findu.http.compression.level:1}")
+    private int level;
+
+    @Bean
+    public CompressionInterceptor compressionInterceptor() {
+        List<String> urls = Arrays.stream(requestUrls.split(","))
+                .map(String::trim)
+                .filter(Predicate.not(String::isEmpty))
+                .toList();
+        BodyCompression.configure(acceptGzip, urls, minSize, level);
+        LOGGER.info("下游压缩配置: acceptGzip={}, requestUrls={}, minSize={}, level={}", acceptGzip, urls, minSize, level);
+        return new CompressionInterceptor();
+    }
+}
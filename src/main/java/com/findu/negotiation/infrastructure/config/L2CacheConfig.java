@@ -0,0 +1,63 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.cache.InMemoryL2Cache;
+import com.findu.negotiation.infrastructure.cache.L2Cache;
+import com.findu.negotiation.infrastructure.cache.RespL2Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 多实例共享的二级缓存配置，仅在 findu.l2-cache.enabled=true 时启用
+ * <p>
+ * type=resp 连接 Redis 协议兼容的服务；type=memory 为进程内实现，只用于本地调试
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.l2-cache", name = "enabled", havingValue = "true")
+public class L2CacheConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(L2CacheConfig.class);
+
+    @Value("${findu.l2-cache.type:resp}")
+    private String type;
+
+    @Value("${findu.l2-cache.resp.host:localhost}")
+    private String host;
+
+    @Value("${findu.l2-cache.resp.port:6379}")
+    private int port;
+
+    @Value("${findu.l2-cache.resp.password:}")
+    private String password;
+
+    @Value("${findu.l2-cache.resp.database:0}")
+    private int database;
+
+    @Value("${findu.l2-cache.resp.timeout:100}")
+    private long timeout;
+
+    @Value("${findu.l2-cache.resp.pool-size:8}")
+    private int poolSize;
+
+    @Bean(destroyMethod = "close")
+    public L2Cache l2Cache() {
+        if ("memory".equals(type)) {
+            LOGGER.info("二级缓存配置: type=memory");
+            return new InMemoryL2Cache();
+        }
+        if (!"resp".equals(type)) {
+            throw new IllegalArgumentException("未知的二级缓存类型: " + type);
+        }
+        LOGGER.info("二级缓存配置: type=resp, address={}:{}, database={}, timeout={}ms, poolSize={}",
+                host, port, database, timeout, poolSize);
+        return new RespL2Cache(host, port, password, database, Duration.ofMillis(timeout), poolSize);
+    }
+}
@@ -0,0 +1,137 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.findu.negotiation.domain.vo.NegotiationResultSchemaVO;
+import com.findu.negotiation.domain.vo.NegotiationResultVO;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.chat.MessageContentDeserializer;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.AgentProductInfo;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationBatchCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationBatchCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationDeltaCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ResultSchema;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ServiceCard;
+import com.findu.negotiation.infrastructure.client.dto.user.ExtendInfo;
+import com.findu.negotiation.infrastructure.client.dto.user.PoiInfo;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderData;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderProduct;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderUserResponse;
+import com.findu.negotiation.infrastructure.logging.CountingDiscardPolicy;
+import com.findu.negotiation.interfaces.dto.ApiResponse;
+import com.findu.negotiation.interfaces.dto.ChatEventRequest;
+import com.findu.negotiation.interfaces.dto.CreateNegotiationRequest;
+import com.findu.negotiation.interfaces.dto.CreateNegotiationResponse;
+import com.findu.negotiation.interfaces.dto.ProductInfo;
+import com.findu.negotiation.interfaces.dto.UpdateNegotiationRequest;
+import org.apache.logging.log4j.core.config.plugins.util.PluginRegistry;
+import org.apache.logging.log4j.core.config.plugins.util.PluginType;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GraalVM native-image 的反射与资源元数据
+ * <p>
+ * Spring AOT 只为控制器的 @RequestBody / 返回值生成 Jackson 绑定元数据，下游客户端经 RestTemplate、OkHttp
+ * 手动反序列化的 DTO 需要在这里登记。{@link BindingReflectionHintsRegistrar} 会沿字段、getter/setter 与泛型参数递归登记，
+ * 但 {@code ChatHistoryData.MessageContent#content} 声明为 Object，实际类型由 {@link MessageContentDeserializer}
+ * 按消息类型选择，这些目标类型需逐个列出。
+ * <p>
+ * Log4j2 通过插件注册表反射创建 Appender、Layout、Filter、PatternConverter 等，
+ * 这里按构建期类路径上的插件清单登记，log4j2.xml 新增插件时不需要同步修改。
+ * <p>
+ * 新增下游 DTO 时需加入 {@link #BINDING_TYPES}，NativeImageHintsTest 会检查 dto 包下的类是否都已登记。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> BINDING_TYPES = List.of(
+            // chat
+            ChatHistoryResponse.class,
+            ChatHistoryData.class,
+            ChatHistoryData.ChatMessage.class,
+            ChatHistoryData.MessageContent.class,
+            ChatHistoryData.ImageContent.class,
+            ChatHistoryData.ImageInfo.class,
+            ChatHistoryData.CustomContent.class,
+            ChatHistoryData.DemandCardContent.class,
+            // order negotiation agent
+            OrderNegotiationCompletionsRequest.class,
+            OrderNegotiationCompletionsResponse.class,
+            OrderNegotiationBatchCompletionsRequest.class,
+            OrderNegotiationBatchCompletionsResponse.class,
+            OrderNegotiationDeltaCompletionsRequest.class,
+            AgentProductInfo.class,
+            ConversationItem.class,
+            ResultSchema.class,
+            ServiceCard.class,
+            // user
+            ProviderUserResponse.class,
+            ProviderData.class,
+            ProviderProduct.class,
+            ExtendInfo.class,
+            PoiInfo.class,
+            // 接口与领域对象
+            ApiResponse.class,
+            CreateNegotiationRequest.class,
+            ChatEventRequest.class,
+            CreateNegotiationResponse.class,
+            UpdateNegotiationRequest.class,
+            ProductInfo.class,
+            ProductInfoVO.class,
+            NegotiationEntity.class,
+            NegotiationResultVO.class,
+            NegotiationResultSchemaVO.class
+    );
+
+    /**
+     * log4j2.xml 用到的插件类别：配置节点（Appender / Layout / Filter / 滚动策略等）、
+     * PatternLayout 转换器、${sys:...} 等变量查找、属性类型转换
+     */
+    private static final Set<String> LOG4J_PLUGIN_CATEGORIES = Set.of("core", "converter", "lookup", "typeconverter");
+
+    private static final MemberCategory[] PLUGIN_MEMBERS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        binding.registerReflectionHints(hints.reflection(), BINDING_TYPES.toArray(Class<?>[]::new));
+        hints.reflection().registerType(MessageContentDeserializer.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        registerLog4j(hints);
+    }
+
+    private static void registerLog4j(RuntimeHints hints) {
+        // log4j2.component.properties 中 log4j2.asyncQueueFullPolicy 指定的类，按类名反射创建
+        hints.reflection().registerType(CountingDiscardPolicy.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("log4j2.component.properties");
+        hints.resources().registerPattern("META-INF/org/apache/logging/log4j/core/config/plugins/Log4j2Plugins.dat");
+
+        // 注册表加载插件清单时已跳过依赖可选组件（Kafka、JMS 等）而无法加载的插件类
+        Map<String, List<PluginType<?>>> plugins = PluginRegistry.getInstance().loadFromMainClassLoader();
+        for (Map.Entry<String, List<PluginType<?>>> category : plugins.entrySet()) {
+            if (!LOG4J_PLUGIN_CATEGORIES.contains(category.getKey().toLowerCase())) {
+                continue;
+            }
+            for (PluginType<?> plugin : category.getValue()) {
+                hints.reflection().registerType(plugin.getPluginClass(), PLUGIN_MEMBERS);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.resilience.KeyedRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * /create、/update 按调用方限速配置：customer 维度按 X-User-Id，provider 维度按请求中的 providerId
+ * <p>
+ * 限速针对少数高频调用方（如脚本化的服务方），上限应远高于正常用户的操作频率
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class RateLimitConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    @Value("${findu.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${findu.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${findu.rate-limit.customer.rate:0.5}")
+    private double customerRate;
+
+    @Value("${findu.rate-limit.customer.burst:10}")
+    private int customerBurst;
+
+    @Value("${findu.rate-limit.provider.rate:5}")
+    private double providerRate;
+
+    @Value("${findu.rate-limit.provider.burst:50}")
+    private int providerBurst;
+
+    @Bean
+    public KeyedRateLimiter customerRateLimiter() {
+        LOGGER.info("调用方限速配置: enabled={}, customer={}/s burst {}, provider={}/s burst {}, maxKeys={}",
+                enabled, customerRate, customerBurst, providerRate, providerBurst, maxKeys);
+        return new KeyedRateLimiter("customer", enabled, customerRate, customerBurst, maxKeys);
+    }
+
+    @Bean
+    public KeyedRateLimiter providerRateLimiter() {
+        return new KeyedRateLimiter("provider", enabled, providerRate, providerBurst, maxKeys);
+    }
+}
@@ -1,10 +1,12 @@
 package com.findu.negotiation.infrastructure.config;
 
+import com.findu.negotiation.infrastructure.http.CompressionInterceptor;
+import com.findu.negotiation.infrastructure.http.InstrumentedConnectionManager;
+import com.findu.negotiation.infrastructure.http.WireFormatInterceptor;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
@@ -24,7 +26,7 @@ public class RestTemplateConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(RestTemplateConfig.class);
 
     private CloseableHttpClient httpClient;
-    private PoolingHttpClientConnectionManager connectionManager;
+    private InstrumentedConnectionManager connectionManager;
 
     @Value("${spring.http.client.connection-timeout:5000}")
     private long connectionTimeout;
@@ -42,8 +44,8 @@ public class RestTemplateConfig {
     private long timeToLive;
 
     @Bean
-    public PoolingHttpClientConnectionManager connectionManager() {
-        connectionManager = new PoolingHttpClientConnectionManager();
+    public InstrumentedConnectionManager connectionManager() {
+        connectionManager = new InstrumentedConnectionManager("resttemplate");
         connectionManager.setMaxTotal(maxTotal);
         connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
 
@@ -59,7 +61,7 @@ public class RestTemplateConfig {
     }
 
     @Bean
-    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+    public CloseableHttpClient httpClient(InstrumentedConnectionManager connectionManager) {
         RequestConfig requestConfig = RequestConfig.custom()
                 .setResponseTimeout(Timeout.of(readTimeout, TimeUnit.MILLISECONDS))
                 .setConnectionRequestTimeout(Timeout.of(connectionTimeout, TimeUnit.MILLISECONDS))
@@ -70,6 +72,8 @@ public class RestTemplateConfig {
                 .setDefaultRequestConfig(requestConfig)
                 .evictIdleConnections(Timeout.of(timeToLive, TimeUnit.MILLISECONDS))
                 .evictExpiredConnections()
+                // 响应解压由 CompressionInterceptor 处理，以便统计传输字节数
+                .disableContentCompression()
                 .build();
 
         LOGGER.info("HttpClient创建完成: connectTimeout={}ms, responseTimeout={}ms, timeToLive={}ms",
@@ -79,10 +83,13 @@ public class RestTemplateConfig {
     }
 
     @Bean
-    public RestTemplate restTemplate(HttpClient httpClient) {
+    public RestTemplate restTemplate(HttpClient httpClient, WireFormatInterceptor wireFormatInterceptor,
+                                     CompressionInterceptor compressionInterceptor) {
         HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
         factory.setHttpClient(httpClient);
         RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(wireFormatInterceptor);
+        restTemplate.getInterceptors().add(compressionInterceptor);
 
         LOGGER.info("RestTemplate创建完成，已启用连接池管理");
 
@@ -0,0 +1,15 @@
+package com.findu.negotiation.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,33 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.stub.DownstreamStubServer;
+import com.findu.negotiation.infrastructure.stub.StubEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 下游桩服务配置，仅在 findu.stub.enabled=true 时启用（见 application-stub.properties）
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "findu.stub", name = "enabled", havingValue = "true")
+public class StubServerConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public DownstreamStubServer downstreamStubServer(Environment environment) {
+        return new DownstreamStubServer(
+                environment.getProperty("findu.stub.port", Integer.class, 18800),
+                environment.getProperty("findu.order-negotiation-agent.completions-endpoint",
+                        "/api/v1/inner/order_negotiation/completions"),
+                environment.getProperty("findu.order-negotiation-agent.batch-endpoint",
+                        "/api/v1/inner/order_negotiation/completions/batch"),
+                StubEndpoint.from(environment, "user", "lognormal:15:60", 10),
+                StubEndpoint.from(environment, "chat", "lognormal:20:80", 200),
+                StubEndpoint.from(environment, "dms", "lognormal:10:40", 0),
+                StubEndpoint.from(environment, "agent", "lognormal:800:3000", 4));
+    }
+}
@@ -1,10 +1,15 @@
 package com.findu.negotiation.infrastructure.config;
 
 import com.findu.negotiation.infrastructure.interceptor.RequestContextInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web MVC 配置
  *
@@ -16,6 +21,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
     private final RequestContextInterceptor requestContextInterceptor;
 
+    /**
+     * 是否接受内部调用方以 Smile 发送请求体、按 Accept 返回 Smile；JSON 始终可用，Accept 为通配时优先 JSON
+     */
+    @Value("${findu.http.smile-inbound.enabled:true}")
+    private boolean smileInbound;
+
     public WebMvcConfig(RequestContextInterceptor requestContextInterceptor) {
         this.requestContextInterceptor = requestContextInterceptor;
     }
@@ -26,5 +37,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addPathPatterns("/**")
                 .order(0); // 确保最先执行
     }
-}
 
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Smile 在类路径上时 Spring MVC 默认注册其转换器，排在 JSON 之后
+        if (!smileInbound) {
+            converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.http.WireFormatInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 下游调用的 Smile 内容协商配置，同时作用于 RestTemplate 与 HttpUtil（OkHttp）；入站见 WebMvcConfig
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Configuration
+public class WireFormatConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WireFormatConfig.class);
+
+    @Value("${findu.http.smile-urls:}")
+    private String smileUrls;
+
+    @Bean
+    public WireFormatInterceptor wireFormatInterceptor() {
+        List<String> urls = Arrays.stream(smileUrls.split(","))
+                .map(String::trim)
+                .filter(Predicate.not(String::isEmpty))
+                .toList();
+        WireFormat.configure(urls);
+        LOGGER.info("下游Smile配置: smileUrls={}", urls);
+        return new WireFormatInterceptor();
+    }
+}
@@ -0,0 +1,177 @@
+package com.findu.negotiation.infrastructure.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 跨线程传递请求上下文
+ * <p>
+ * 包装时捕获当前线程的上下文，任务执行时在目标线程上绑定，执行完恢复目标线程原来的状态，
+ * 因此线程池线程不会残留上一个任务的上下文，没有上下文的任务也不会读到别人的上下文。
+ * <p>
+ * CompletableFuture 的后续阶段在前一阶段完成的线程上提交，只包装 Executor 时捕获的是完成线程的上下文，
+ * 所以 thenApply / thenAccept 等阶段的函数需要在创建阶段时用 {@link #function} / {@link #consumer} 包装。
+ * 传递的是同一个 {@link RequestContext} 对象，其中的 {@link StageTimer} 不是线程安全的，并行任务中不应记录阶段。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class ContextPropagation {
+
+    private ContextPropagation() {
+    }
+
+    public static Runnable runnable(Runnable task) {
+        RequestContext context = RequestContextHolder.getContext();
+        return () -> RequestContextHolder.runWithContext(context, task);
+    }
+
+    public static <T> Callable<T> callable(Callable<T> task) {
+        RequestContext context = RequestContextHolder.getContext();
+        return () -> RequestContextHolder.callWithContext(context, task);
+    }
+
+    public static <T> Supplier<T> supplier(Supplier<T> task) {
+        RequestContext context = RequestContextHolder.getContext();
+        return () -> call(context, task::get);
+    }
+
+    public static <T, R> Function<T, R> function(Function<T, R> task) {
+        RequestContext context = RequestContextHolder.getContext();
+        return value -> call(context, () -> task.apply(value));
+    }
+
+    public static <T> Consumer<T> consumer(Consumer<T> task) {
+        RequestContext context = RequestContextHolder.getContext();
+        return value -> RequestContextHolder.runWithContext(context, () -> task.accept(value));
+    }
+
+    /**
+     * 以当前上下文异步执行，等价于 CompletableFuture.supplyAsync(supplier(task), executor)
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(supplier(task), executor);
+    }
+
+    /**
+     * 以当前上下文异步执行，等价于 CompletableFuture.runAsync(runnable(task), executor)
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(runnable(task), executor);
+    }
+
+    /**
+     * 包装 Executor，每个任务在提交时捕获提交线程的上下文
+     */
+    public static Executor executor(Executor delegate) {
+        return task -> delegate.execute(runnable(task));
+    }
+
+    /**
+     * 包装 ExecutorService，每个任务在提交时捕获提交线程的上下文，生命周期方法直接委托
+     */
+    public static ExecutorService executorService(ExecutorService delegate) {
+        return new PropagatingExecutorService(delegate);
+    }
+
+    private static <T> T call(RequestContext context, Callable<T> task) {
+        try {
+            return RequestContextHolder.callWithContext(context, task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Supplier / Function 不会抛出受检异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> List<Callable<T>> callables(Collection<? extends Callable<T>> tasks) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(callable(task));
+        }
+        return wrapped;
+    }
+
+    private record PropagatingExecutorService(ExecutorService delegate) implements ExecutorService {
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(runnable(command));
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return delegate.submit(runnable(task));
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return delegate.submit(runnable(task), result);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return delegate.submit(callable(task));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+            return delegate.invokeAll(callables(tasks));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.invokeAll(callables(tasks), timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+            return delegate.invokeAny(callables(tasks));
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.invokeAny(callables(tasks), timeout, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.findu.negotiation.infrastructure.context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 请求上下文的存储方式
+ * <p>
+ * set / clear 供拦截器在 Tomcat 线程上使用，生命周期与请求一致；
+ * callWith 在一段代码的执行期间绑定上下文，结束后恢复原值，供异步任务与显式作用域使用。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+interface ContextStorage {
+
+    RequestContext get();
+
+    void set(RequestContext context);
+
+    void clear();
+
+    /**
+     * 在 operation 执行期间绑定 context（可以为 null，表示显式无上下文），返回 operation 的结果
+     */
+    <T> T callWith(RequestContext context, Callable<T> operation) throws Exception;
+
+    /**
+     * 存储方式名称，用于启动日志
+     */
+    String name();
+
+    /**
+     * 按配置选择存储方式
+     *
+     * @param mode auto：JDK 25 及以上（ScopedValue 正式发布）使用 ScopedValue，否则使用 ThreadLocal；
+     *             scoped：强制使用 ScopedValue，JDK 21 中为预览 API，通过反射调用；
+     *             threadlocal：强制使用 ThreadLocal
+     */
+    static ContextStorage create(String mode) {
+        boolean scoped = switch (mode) {
+            case "scoped" -> true;
+            case "threadlocal" -> false;
+            default -> Runtime.version().feature() >= 25;
+        };
+        if (scoped && ScopedValueContextStorage.isAvailable()) {
+            return new ScopedValueContextStorage();
+        }
+        return new ThreadLocalContextStorage();
+    }
+}
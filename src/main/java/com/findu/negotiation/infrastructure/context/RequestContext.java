@@ -14,6 +14,8 @@ public class RequestContext {
     private String userId;
     private String traceId;
     private Map<String, String> customHeaders;
+    private StageTimer stageTimer;
+    private boolean warmup;
 
     public RequestContext() {
         this.customHeaders = new HashMap<>();
@@ -55,6 +57,25 @@ public class RequestContext {
         this.customHeaders = customHeaders;
     }
 
+    public StageTimer getStageTimer() {
+        return stageTimer;
+    }
+
+    public void setStageTimer(StageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    /**
+     * 是否为启动预热发起的合成请求，下游调用会被转发到本地桩服务
+     */
+    public boolean isWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(boolean warmup) {
+        this.warmup = warmup;
+    }
+
     @Override
     public String toString() {
         return "RequestContext{" +
@@ -1,10 +1,21 @@
 package com.findu.negotiation.infrastructure.context;
 
+import org.apache.logging.log4j.ThreadContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Callable;
+
 /**
- * 请求上下文持有者，使用ThreadLocal管理请求上下文
+ * 请求上下文持有者
+ * <p>
+ * 拦截器通过 setContext / clearContext 在 Tomcat 线程上设置上下文；
+ * 切换到其他线程执行时，用 {@link ContextPropagation} 包装任务，或用 runWithContext / callWithContext
+ * 在指定范围内绑定上下文，范围结束后恢复原值。存储方式由系统属性 findu.context.storage 选择，
+ * 见 {@link ContextStorage#create(String)}。
+ * <p>
+ * 绑定上下文的同时把 traceId 写入 MDC（{@link TraceIds#MDC_TRACE_ID}），解除时恢复，
+ * 日志格式中的 %X{traceId} 因此在异步任务中也能输出正确的值。
  *
  * @author timothy
  * @date 2025/12/17
@@ -13,7 +24,11 @@ public class RequestContextHolder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestContextHolder.class);
 
-    private static final ThreadLocal<RequestContext> CONTEXT_HOLDER = new ThreadLocal<>();
+    private static final ContextStorage STORAGE = ContextStorage.create(System.getProperty("findu.context.storage", "auto"));
+
+    static {
+        LOGGER.info("请求上下文存储方式: {}", STORAGE.name());
+    }
 
     private RequestContextHolder() {
     }
@@ -24,7 +39,7 @@ public class RequestContextHolder {
      * @return 请求上下文，如果不存在则返回null
      */
     public static RequestContext getContext() {
-        return CONTEXT_HOLDER.get();
+        return STORAGE.get();
     }
 
     /**
@@ -33,7 +48,8 @@ public class RequestContextHolder {
      * @param context 请求上下文
      */
     public static void setContext(RequestContext context) {
-        CONTEXT_HOLDER.set(context);
+        STORAGE.set(context);
+        putMdc(context != null ? context.getTraceId() : null);
         LOGGER.debug("设置请求上下文: {}", context);
     }
 
@@ -42,7 +58,50 @@ public class RequestContextHolder {
      */
     public static void clearContext() {
         LOGGER.debug("清除请求上下文");
-        CONTEXT_HOLDER.remove();
+        STORAGE.clear();
+        ThreadContext.remove(TraceIds.MDC_TRACE_ID);
+    }
+
+    /**
+     * 在 task 执行期间绑定上下文，结束后恢复原值
+     *
+     * @param context 要绑定的上下文，null 表示在无上下文的状态下执行
+     */
+    public static void runWithContext(RequestContext context, Runnable task) {
+        try {
+            STORAGE.callWith(context, () -> {
+                task.run();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Runnable 不会抛出受检异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 在 task 执行期间绑定上下文，结束后恢复原值，返回 task 的结果
+     *
+     * @param context 要绑定的上下文，null 表示在无上下文的状态下执行
+     */
+    public static <T> T callWithContext(RequestContext context, Callable<T> task) throws Exception {
+        String previousTraceId = ThreadContext.get(TraceIds.MDC_TRACE_ID);
+        putMdc(context != null ? context.getTraceId() : null);
+        try {
+            return STORAGE.callWith(context, task);
+        } finally {
+            putMdc(previousTraceId);
+        }
+    }
+
+    private static void putMdc(String traceId) {
+        if (traceId != null) {
+            ThreadContext.put(TraceIds.MDC_TRACE_ID, traceId);
+        } else {
+            ThreadContext.remove(TraceIds.MDC_TRACE_ID);
+        }
     }
 
     /**
@@ -74,5 +133,12 @@ public class RequestContextHolder {
         RequestContext context = getContext();
         return context != null ? context.getTraceId() : null;
     }
-}
 
+    /**
+     * 当前请求是否为启动预热请求
+     */
+    public static boolean isWarmup() {
+        RequestContext context = getContext();
+        return context != null && context.isWarmup();
+    }
+}
@@ -0,0 +1,121 @@
+package com.findu.negotiation.infrastructure.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * 基于 ScopedValue 的上下文存储
+ * <p>
+ * ScopedValue 在 JDK 21 中是预览 API，项目不开启 --enable-preview 编译，因此通过 MethodHandle 调用，
+ * 只使用 JDK 21 与 JDK 25 签名一致的方法（newInstance / where / Carrier.run / isBound / get）。
+ * 绑定只在 callWith 的执行范围内有效，离开作用域自动解除，不存在忘记清理导致的泄漏；
+ * 拦截器在 Tomcat 线程上仍通过 set / clear 使用 ThreadLocal，作用域内的绑定优先。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+class ScopedValueContextStorage extends ThreadLocalContextStorage {
+
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle IS_BOUND;
+    private static final MethodHandle GET;
+    private static final Object KEY;
+
+    static {
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        Object key = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+            Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+            where = lookup.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedValue, "isBound", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            get = lookup.findVirtual(scopedValue, "get", MethodType.methodType(Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (Throwable e) {
+            // 运行时没有 ScopedValue，由 ContextStorage.create 回退到 ThreadLocal
+            key = null;
+        }
+        WHERE = where;
+        RUN = run;
+        IS_BOUND = isBound;
+        GET = get;
+        KEY = key;
+    }
+
+    static boolean isAvailable() {
+        return KEY != null;
+    }
+
+    @Override
+    public RequestContext get() {
+        try {
+            if ((boolean) IS_BOUND.invokeExact(KEY)) {
+                return (RequestContext) (Object) GET.invokeExact(KEY);
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("读取ScopedValue失败", e);
+        }
+        return super.get();
+    }
+
+    @Override
+    public <T> T callWith(RequestContext context, Callable<T> operation) throws Exception {
+        Scope<T> scope = new Scope<>(operation);
+        try {
+            Object carrier = (Object) WHERE.invokeExact(KEY, (Object) context);
+            RUN.invokeExact(carrier, (Runnable) scope);
+        } catch (Throwable e) {
+            throw new IllegalStateException("绑定ScopedValue失败", e);
+        }
+        return scope.result();
+    }
+
+    @Override
+    public String name() {
+        return "scoped";
+    }
+
+    /**
+     * Carrier.run 只接受 Runnable，在其中执行 Callable 并暂存结果与异常
+     */
+    private static final class Scope<T> implements Runnable {
+        private final Callable<T> operation;
+        private T value;
+        private Throwable failure;
+
+        private Scope(Callable<T> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                value = operation.call();
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        private T result() throws Exception {
+            if (failure instanceof Exception e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.findu.negotiation.infrastructure.context;
+
+import com.findu.negotiation.infrastructure.logging.StructuredLogMessage;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+/**
+ * 请求级阶段计时器
+ * <p>
+ * 每次 {@link #mark(Stage)} 记录距上一次标记（或创建时刻）的耗时，阶段按调用顺序首尾相接。
+ * 由 {@link com.findu.negotiation.infrastructure.interceptor.RequestContextInterceptor} 创建并放入
+ * {@link RequestContext}，最终由 HttpLoggingFilter 输出为 Server-Timing 响应头和 request_out 日志字段。
+ * 数组预分配、每次标记只有一次 System.nanoTime()，可常开。实例不是线程安全的，只在请求线程内使用。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class StageTimer {
+
+    /**
+     * 存放计时器的请求属性名
+     */
+    public static final String REQUEST_ATTRIBUTE = StageTimer.class.getName();
+
+    private static final int MAX_STAGES = 16;
+
+    private static final StageTimer NOOP = new StageTimer() {
+        @Override
+        public void mark(Stage stage) {
+        }
+    };
+
+    private final Stage[] stages = new Stage[MAX_STAGES];
+    private final long[] durations = new long[MAX_STAGES];
+    private int size;
+    private long last;
+
+    public StageTimer() {
+        this.last = System.nanoTime();
+    }
+
+    /**
+     * 当前请求的计时器，没有请求上下文时返回不做任何记录的空实现
+     */
+    public static StageTimer current() {
+        RequestContext context = RequestContextHolder.getContext();
+        StageTimer timer = context != null ? context.getStageTimer() : null;
+        return timer != null ? timer : NOOP;
+    }
+
+    /**
+     * 当前请求的计时器，没有请求上下文时新建一个（只记录指标，不输出响应头）
+     */
+    public static StageTimer currentOrNew() {
+        StageTimer timer = current();
+        return timer != NOOP ? timer : new StageTimer();
+    }
+
+    /**
+     * 结束一个阶段，同时写入该阶段的延迟直方图
+     */
+    public void mark(Stage stage) {
+        long now = System.nanoTime();
+        long elapsed = now - last;
+        last = now;
+        stage.histogram.recordNanos(elapsed);
+        if (size < MAX_STAGES) {
+            stages[size] = stage;
+            durations[size] = elapsed;
+            size++;
+        }
+    }
+
+    /**
+     * 已记录的阶段数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按 Server-Timing 规范输出，例如 {@code user_works;dur=12.345, agent;dur=803.002, total;dur=830.113}
+     *
+     * @param totalNanos 整个请求的耗时，作为最后一项 total 输出
+     */
+    public void appendServerTiming(StringBuilder sb, long totalNanos) {
+        for (int i = 0; i < size; i++) {
+            sb.append(stages[i].name).append(";dur=");
+            appendMillis(sb, durations[i] / 1000);
+            sb.append(", ");
+        }
+        sb.append("total;dur=");
+        appendMillis(sb, totalNanos / 1000);
+    }
+
+    /**
+     * 以 stage_xxx 字段写入结构化日志，单位毫秒
+     */
+    public void appendTo(StructuredLogMessage message) {
+        for (int i = 0; i < size; i++) {
+            message.putMillis(stages[i].logKey, durations[i] / 1000);
+        }
+    }
+
+    private static void appendMillis(StringBuilder sb, long micros) {
+        sb.append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    /**
+     * 阶段定义，应声明为常量复用
+     */
+    public static final class Stage {
+        private final String name;
+        private final String logKey;
+        private final LatencyHistogram histogram;
+
+        private Stage(String name) {
+            this.name = name;
+            this.logKey = "stage_" + name;
+            this.histogram = MetricsRegistry.stage(name);
+        }
+
+        public static Stage of(String name) {
+            return new Stage(name);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.findu.negotiation.infrastructure.context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 基于 ThreadLocal 的上下文存储，callWith 结束时恢复调用前的值，线程池复用线程时不会残留上下文
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+class ThreadLocalContextStorage implements ContextStorage {
+
+    private final ThreadLocal<RequestContext> holder = new ThreadLocal<>();
+
+    @Override
+    public RequestContext get() {
+        return holder.get();
+    }
+
+    @Override
+    public void set(RequestContext context) {
+        holder.set(context);
+    }
+
+    @Override
+    public void clear() {
+        holder.remove();
+    }
+
+    @Override
+    public <T> T callWith(RequestContext context, Callable<T> operation) throws Exception {
+        RequestContext previous = holder.get();
+        bind(context);
+        try {
+            return operation.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    private void bind(RequestContext context) {
+        if (context != null) {
+            holder.set(context);
+        } else {
+            holder.remove();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "threadlocal";
+    }
+}
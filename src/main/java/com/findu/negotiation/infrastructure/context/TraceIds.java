@@ -0,0 +1,98 @@
+package com.findu.negotiation.infrastructure.context;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 链路 ID 的生成与解析
+ * <p>
+ * 入站请求的 traceId 取自 X-Trace-Id，没有时取 X-Request-Id，都没有则生成一个，
+ * 解析结果缓存在请求属性中，过滤器与拦截器拿到的是同一个值。
+ * 入站的 ID 只接受不超过 64 个字符的 [0-9A-Za-z_-]，其他的视为没有：它会原样写入 MDC、日志
+ * 和出站请求头，OkHttp 遇到非 ASCII 的请求头直接抛异常，会让所有下游调用失败。
+ * 出站调用携带 X-Trace-Id（整条链路不变）与 X-Request-Id（每次调用一个 spanId），
+ * 下游日志可以按 traceId 串起整条链路，再按 spanId 对应到具体的一次调用。
+ * <p>
+ * ID 为小写十六进制（traceId 32 位、spanId 16 位，与 W3C Trace Context 的长度一致），
+ * 由 ThreadLocalRandom 生成，不经过 UUID 的 SecureRandom；按 Latin-1 构造字符串，只做一次数组拷贝。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class TraceIds {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * MDC（Log4j2 ThreadContext）中的 key，日志格式中以 %X{traceId} 输出
+     */
+    public static final String MDC_TRACE_ID = "traceId";
+
+    private static final String REQUEST_ATTRIBUTE = TraceIds.class.getName();
+
+    private static final int MAX_INBOUND_LENGTH = 64;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    private TraceIds() {
+    }
+
+    /**
+     * 当前入站请求的 traceId
+     */
+    public static String resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof String traceId) {
+            return traceId;
+        }
+        String traceId = request.getHeader(TRACE_ID_HEADER);
+        if (!isValid(traceId)) {
+            traceId = request.getHeader(REQUEST_ID_HEADER);
+        }
+        if (!isValid(traceId)) {
+            traceId = newTraceId();
+        }
+        request.setAttribute(REQUEST_ATTRIBUTE, traceId);
+        return traceId;
+    }
+
+    /**
+     * 入站 ID 是否可以直接使用：非空、不超过 64 个字符、只含字母数字与 _ -
+     */
+    static boolean isValid(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_INBOUND_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] buffer = new byte[32];
+        writeHex(buffer, 0, random.nextLong());
+        writeHex(buffer, 16, random.nextLong());
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    public static String newSpanId() {
+        byte[] buffer = new byte[16];
+        writeHex(buffer, 0, ThreadLocalRandom.current().nextLong());
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeHex(byte[] buffer, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            buffer[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -11,7 +11,9 @@ public enum ErrorCode {
     CUSTOMER_ID_REQUIRED(40002, "customerId不能为空"),
     DMS_SERVICE_ERROR(50001, "调用DMS服务失败"),
     USER_SERVICE_ERROR(50002, "调用User服务失败"),
-    AGENT_SERVICE_ERROR(50003, "调用协商Agent服务失败");
+    AGENT_SERVICE_ERROR(50003, "调用协商Agent服务失败"),
+    SERVICE_OVERLOADED(50301, "服务繁忙，请稍后重试"),
+    DOWNSTREAM_BUSY(50302, "下游服务并发已满");
 
     private final int code;
     private final String message;
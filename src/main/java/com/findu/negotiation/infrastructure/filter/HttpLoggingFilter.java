@@ -3,11 +3,19 @@ package com.findu.negotiation.infrastructure.filter;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.findu.negotiation.infrastructure.context.StageTimer;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.logging.RequestLog;
+import com.findu.negotiation.infrastructure.logging.StructuredLogMessage;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.warmup.WarmupRouting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
@@ -19,6 +27,7 @@ import java.util.*;
 /**
  * HTTP请求响应日志过滤器
  * 记录请求路径、方法、请求头、请求体、响应体、处理时间
+ * 请求日志以单行 JSON 写入专用的请求日志（见 {@link RequestLog}）
  *
  * @author timothy
  * @date 2026/01/05
@@ -30,8 +39,13 @@ public class HttpLoggingFilter implements Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpLoggingFilter.class);
 
     private static final int MAX_PAYLOAD_LENGTH = 10000; // 最大记录长度
-    private static final String REQUEST_ID_HEADER = "X-Request-Id";
-    private static final String TRACE_ID_HEADER = "X-Trace-Id";
+    private static final String REQUEST_ID_HEADER = TraceIds.REQUEST_ID_HEADER;
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    /**
+     * 最后一个业务阶段结束到过滤器返回之间的耗时，主要是响应序列化
+     */
+    private static final StageTimer.Stage RESPOND_STAGE = StageTimer.Stage.of("respond");
 
     // 不需要记录body的路径
     private static final Set<String> EXCLUDED_PATHS = new HashSet<>(Arrays.asList(
@@ -59,20 +73,42 @@ public class HttpLoggingFilter implements Filter {
         ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(httpRequest);
         ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(httpResponse);
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+
+        // 启动预热的合成请求照常走完过滤器，但不写请求日志、不计入接口耗时
+        boolean warmup = WarmupRouting.isWarmupRequest(httpRequest);
+
+        // 回写 traceId，调用方没有传入时也能按它查日志
+        responseWrapper.setHeader(TraceIds.TRACE_ID_HEADER, TraceIds.resolve(httpRequest));
 
         try {
             // 记录请求信息
-            logRequest(requestWrapper);
+            if (!warmup) {
+                logRequest(requestWrapper);
+            }
 
             // 继续执行
             chain.doFilter(requestWrapper, responseWrapper);
 
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
+            long elapsedNanos = System.nanoTime() - startTime;
+            long duration = elapsedNanos / 1_000_000;
+
+            if (!warmup) {
+                recordEndpointLatency(requestWrapper, elapsedNanos);
+            }
+
+            // 输出阶段耗时，必须在响应体写回之前设置响应头
+            StageTimer stageTimer = (StageTimer) requestWrapper.getAttribute(StageTimer.REQUEST_ATTRIBUTE);
+            if (stageTimer != null) {
+                stageTimer.mark(RESPOND_STAGE);
+                writeServerTiming(responseWrapper, stageTimer, elapsedNanos);
+            }
 
             // 记录响应信息
-            logResponse(requestWrapper, responseWrapper, duration);
+            if (!warmup) {
+                logResponse(requestWrapper, responseWrapper, duration, stageTimer);
+            }
 
             // 将响应体写回客户端（重要！）
             responseWrapper.copyBodyToResponse();
@@ -83,55 +119,81 @@ public class HttpLoggingFilter implements Filter {
      * 记录请求信息
      */
     private void logRequest(ContentCachingRequestWrapper request) {
-        String method = request.getMethod();
-        String path = request.getRequestURI();
-        String queryString = request.getQueryString();
-        String requestId = request.getHeader(REQUEST_ID_HEADER);
-        String traceId = request.getHeader(TRACE_ID_HEADER);
-        String ipAddr = getClientIpAddress(request);
-
-//        Map<String, String> headers = getHeaders(request);
-        String requestBody = getRequestBody(request);
-
-        StringBuilder logMessage = new StringBuilder("type=request_in||");
-        logMessage.append("request_id=").append(requestId).append("||");
-        logMessage.append("trace_id=").append(traceId).append("||");
-        logMessage.append("ip=").append(ipAddr).append("||");
-        logMessage.append("method=").append(method).append("||");
-        logMessage.append("path=").append(path).append("||");
-        logMessage.append("args=").append(queryString).append("||");
-//        logMessage.append("headers=").append(formatHeaders(headers)).append("||");
-        logMessage.append("body=").append(requestBody);
-
-        LOGGER.info(logMessage.toString());
+        if (!RequestLog.isEnabled()) {
+            return;
+        }
+
+        StructuredLogMessage message = RequestLog.begin("request_in")
+                .put("request_id", request.getHeader(REQUEST_ID_HEADER))
+                .put("trace_id", TraceIds.resolve(request))
+                .put("ip", getClientIpAddress(request))
+                .put("method", request.getMethod())
+                .put("path", request.getRequestURI())
+                .put("args", request.getQueryString());
+        if (WireFormat.isSmileContentType(request.getContentType())) {
+            // 二进制请求体不按 UTF-8 输出，只记录声明的长度
+            message.put("body", null).put("body_format", "smile").put("body_bytes", request.getContentLengthLong());
+        } else {
+            appendPayload(message, "body", request.getContentAsByteArray());
+        }
+
+        RequestLog.emit(message);
     }
 
     /**
      * 记录响应信息
      */
-    private void logResponse(ContentCachingRequestWrapper request, ContentCachingResponseWrapper response, long duration) {
-        int status = response.getStatus();
-        String responseBody = getResponseBody(response);
-        String requestId = request.getHeader(REQUEST_ID_HEADER);
-        String traceId = request.getHeader(TRACE_ID_HEADER);
-        String method = request.getMethod();
-        String path = request.getRequestURI();
-        String ipAddr = getClientIpAddress(request);
-
-//        Map<String, String> headers = getResponseHeaders(response);
-
-        StringBuilder logMessage = new StringBuilder("type=request_out||");
-        logMessage.append("request_id=").append(requestId).append("||");
-        logMessage.append("trace_id=").append(traceId).append("||");
-        logMessage.append("ip=").append(ipAddr).append("||");
-        logMessage.append("method=").append(method).append("||");
-        logMessage.append("path=").append(path).append("||");
-        logMessage.append("status_code=").append(status).append("||");
-//        logMessage.append("headers=").append(formatHeaders(headers)).append("||");
-//        logMessage.append("resp=").append(responseBody).append("||");
-        logMessage.append("proc_time=").append(duration);
-
-        LOGGER.info(logMessage.toString());
+    private void logResponse(ContentCachingRequestWrapper request, ContentCachingResponseWrapper response, long duration,
+                             StageTimer stageTimer) {
+        if (!RequestLog.isEnabled()) {
+            return;
+        }
+
+        StructuredLogMessage message = RequestLog.begin("request_out")
+                .put("request_id", request.getHeader(REQUEST_ID_HEADER))
+                .put("trace_id", TraceIds.resolve(request))
+                .put("ip", getClientIpAddress(request))
+                .put("method", request.getMethod())
+                .put("path", request.getRequestURI())
+                .put("status_code", response.getStatus())
+                .put("proc_time", duration);
+        if (stageTimer != null) {
+            stageTimer.appendTo(message);
+        }
+
+        RequestLog.emit(message);
+    }
+
+    /**
+     * 设置 Server-Timing 响应头，末尾追加整个请求的 total
+     */
+    private void writeServerTiming(HttpServletResponse response, StageTimer stageTimer, long elapsedNanos) {
+        StringBuilder sb = new StringBuilder(32 + stageTimer.size() * 24);
+        stageTimer.appendServerTiming(sb, elapsedNanos);
+        response.setHeader(SERVER_TIMING_HEADER, sb.toString());
+    }
+
+    /**
+     * 按路由模板记录接口耗时，未匹配到路由的请求（如404）归为 UNMATCHED
+     */
+    private void recordEndpointLatency(HttpServletRequest request, long elapsedNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : "UNMATCHED";
+        MetricsRegistry.endpoint(request.getMethod(), endpoint).recordNanos(elapsedNanos);
+    }
+
+    /**
+     * 写入请求/响应体，超过 {@link #MAX_PAYLOAD_LENGTH} 的部分截断
+     */
+    private void appendPayload(StructuredLogMessage message, String key, byte[] buf) {
+        if (buf.length == 0) {
+            message.put(key, null);
+            return;
+        }
+        message.putUtf8(key, buf, MAX_PAYLOAD_LENGTH);
+        if (buf.length > MAX_PAYLOAD_LENGTH) {
+            message.put("truncated", true);
+        }
     }
 
     /**
@@ -194,23 +256,6 @@ public class HttpLoggingFilter implements Filter {
         return sb.toString();
     }
 
-    /**
-     * 获取请求体内容
-     */
-    private String getRequestBody(ContentCachingRequestWrapper request) {
-        byte[] buf = request.getContentAsByteArray();
-        if (buf.length == 0) {
-            return null;
-        }
-
-        int length = Math.min(buf.length, MAX_PAYLOAD_LENGTH);
-        String payload = new String(buf, 0, length, StandardCharsets.UTF_8);
-        if (buf.length > MAX_PAYLOAD_LENGTH) {
-            payload += "... (truncated)";
-        }
-        return payload;
-    }
-
     /**
      * 获取响应体内容
      */
@@ -263,8 +308,9 @@ public class HttpLoggingFilter implements Filter {
             String ip = request.getHeader(header);
             if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
                 // X-Forwarded-For 可能包含多个IP，取第一个
-                if (ip.contains(",")) {
-                    ip = ip.split(",")[0].trim();
+                int comma = ip.indexOf(',');
+                if (comma >= 0) {
+                    ip = ip.substring(0, comma).trim();
                 }
                 return ip;
             }
@@ -0,0 +1,311 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 下游调用的请求体压缩与响应体解压，HttpUtil（OkHttp）与 {@link CompressionInterceptor}（RestTemplate）共用
+ * <p>
+ * 请求体：目标地址以 request-urls 中某一项开头、且不小于 min-size 字节时按 gzip 压缩并加 Content-Encoding，
+ * 下游需支持解压请求体，因此按地址逐个开启。
+ * 响应体：发送 Accept-Encoding: gzip，响应为 gzip 时由 {@link #decoding} 包装为流，边读边解压，直接交给 Jackson 解析，
+ * 不在内存中先还原完整的响应字符串。
+ * <p>
+ * 按路由（host:port）与方向（request / response）记录原始字节数、传输字节数、压缩比与每个消息体的压缩/解压 CPU 耗时。
+ * 与 HttpUtil 一样为静态工具，配置由 HttpCompressionConfig 在启动时写入。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class BodyCompression {
+
+    public static final String GZIP = "gzip";
+
+    public static final String RAW_BYTES = "findu_http_compression_raw_bytes_total";
+    public static final String WIRE_BYTES = "findu_http_compression_wire_bytes_total";
+    public static final String RATIO = "findu_http_compression_ratio";
+    public static final String CPU = "findu_http_compression_seconds";
+
+    public static final String REQUEST = "request";
+    public static final String RESPONSE = "response";
+
+    static final int DEFAULT_MIN_SIZE = 2048;
+    static final int DEFAULT_LEVEL = 1;
+
+    private static volatile boolean acceptGzip = true;
+    private static volatile List<String> requestUrls = List.of();
+    private static volatile int minSize = DEFAULT_MIN_SIZE;
+    private static volatile int level = DEFAULT_LEVEL;
+
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        MetricsRegistry.describe(RAW_BYTES, "counter", "下游消息体压缩前（解压后）字节数");
+        MetricsRegistry.describe(WIRE_BYTES, "counter", "下游消息体实际传输字节数");
+        MetricsRegistry.describe(RATIO, "gauge", "下游消息体累计压缩比（传输字节数/原始字节数）");
+        MetricsRegistry.describe(CPU, "summary", "单个消息体的压缩/解压耗时");
+    }
+
+    private BodyCompression() {
+    }
+
+    /**
+     * @param acceptGzip  是否向下游声明接受 gzip 响应
+     * @param requestUrls 压缩请求体的下游地址前缀
+     * @param minSize     请求体压缩阈值（字节），过小的消息体压缩收益抵不过 CPU 与 gzip 头开销
+     * @param level       gzip 压缩级别 1~9
+     */
+    public static void configure(boolean acceptGzip, List<String> requestUrls, int minSize, int level) {
+        if (level < 1 || level > 9) {
+            throw new IllegalArgumentException("gzip 压缩级别应为 1~9: " + level);
+        }
+        BodyCompression.acceptGzip = acceptGzip;
+        BodyCompression.requestUrls = List.copyOf(requestUrls);
+        BodyCompression.minSize = minSize;
+        BodyCompression.level = level;
+    }
+
+    public static boolean isAcceptGzip() {
+        return acceptGzip;
+    }
+
+    /**
+     * 发往 url 的 length 字节请求体是否需要压缩
+     */
+    public static boolean shouldCompress(String url, int length) {
+        if (length < minSize) {
+            return false;
+        }
+        for (String prefix : requestUrls) {
+            if (url.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    /**
+     * gzip 压缩请求体并记录压缩比与耗时
+     */
+    public static byte[] gzip(String url, byte[] raw) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new LeveledGzipOutputStream(out, level)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            // 只写内存，不会发生
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        stats(url, REQUEST).record(raw.length, compressed.length, System.nanoTime() - start);
+        return compressed;
+    }
+
+    /**
+     * 把 gzip 响应流包装为解压流，关闭时记录压缩比与解压耗时
+     * <p>
+     * 解压耗时为读取解压流的总耗时减去其中等待网络读取的时间，不包含调用方（Jackson）的解析耗时。
+     */
+    public static InputStream decoding(String url, InputStream wire) throws IOException {
+        return new DecodingInputStream(stats(url, RESPONSE), wire);
+    }
+
+    /**
+     * 各路由、方向的累计统计，供 /metrics/compression 输出
+     */
+    public static Collection<Stats> stats() {
+        List<Stats> result = new ArrayList<>(STATS.values());
+        result.sort((a, b) -> a.key().compareTo(b.key()));
+        return result;
+    }
+
+    private static Stats stats(String url, String direction) {
+        String route = route(url);
+        return STATS.computeIfAbsent(route + " " + direction, k -> new Stats(route, direction));
+    }
+
+    static String route(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * 一个路由、一个方向的累计值，计数器与直方图来自 MetricsRegistry，/metrics 同步输出
+     */
+    public static final class Stats {
+        private final String route;
+        private final String direction;
+        private final LongAdder raw;
+        private final LongAdder wire;
+        private final LatencyHistogram cpu;
+
+        private Stats(String route, String direction) {
+            this.route = route;
+            this.direction = direction;
+            this.raw = MetricsRegistry.counter(RAW_BYTES, "route", route, "direction", direction);
+            this.wire = MetricsRegistry.counter(WIRE_BYTES, "route", route, "direction", direction);
+            this.cpu = MetricsRegistry.histogram(CPU, "route", route, "direction", direction);
+            MetricsRegistry.gauge(RATIO, this::getRatio, "route", route, "direction", direction);
+        }
+
+        void record(long rawBytes, long wireBytes, long cpuNanos) {
+            raw.add(rawBytes);
+            wire.add(wireBytes);
+            cpu.recordNanos(cpuNanos);
+        }
+
+        private String key() {
+            return route + " " + direction;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public long getRawBytes() {
+            return raw.sum();
+        }
+
+        public long getWireBytes() {
+            return wire.sum();
+        }
+
+        /**
+         * 传输字节数/原始字节数，没有数据时为 1
+         */
+        public double getRatio() {
+            long rawBytes = raw.sum();
+            return rawBytes == 0 ? 1.0 : (double) wire.sum() / rawBytes;
+        }
+
+        public LatencyHistogram.Snapshot getCpu() {
+            return cpu.snapshot();
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+
+    /**
+     * 统计网络读取字节数与耗时的底层流
+     */
+    private static final class WireInputStream extends FilterInputStream {
+        private long bytes;
+        private long nanos;
+
+        private WireInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int n = super.read(buffer, off, len);
+            nanos += System.nanoTime() - start;
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+    }
+
+    private static final class DecodingInputStream extends InputStream {
+        private final Stats stats;
+        private final WireInputStream wire;
+        private final GZIPInputStream gzip;
+        private long bytes;
+        private long nanos;
+        private boolean closed;
+
+        private DecodingInputStream(Stats stats, InputStream wire) throws IOException {
+            this.stats = stats;
+            this.wire = new WireInputStream(wire);
+            long start = System.nanoTime();
+            // 构造时即读取 gzip 头
+            this.gzip = new GZIPInputStream(this.wire, 8192);
+            this.nanos = System.nanoTime() - start;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = gzip.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int n = gzip.read(buffer, off, len);
+            nanos += System.nanoTime() - start;
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return gzip.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                gzip.close();
+            } finally {
+                stats.record(bytes, wire.bytes, Math.max(0, nanos - wire.nanos));
+            }
+        }
+    }
+}
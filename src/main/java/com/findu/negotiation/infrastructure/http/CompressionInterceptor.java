@@ -0,0 +1,97 @@
+package com.findu.negotiation.infrastructure.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * RestTemplate 的请求体压缩与响应体解压，规则见 {@link BodyCompression}
+ * <p>
+ * HttpClient 自带的解压（ContentCompressionExec）需在 RestTemplateConfig 中关闭，
+ * 由这里统一处理，才能拿到传输字节数并记录压缩比。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String url = request.getURI().toString();
+        HttpHeaders headers = request.getHeaders();
+        if (BodyCompression.isAcceptGzip() && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, BodyCompression.GZIP);
+        }
+        if (!headers.containsKey(HttpHeaders.CONTENT_ENCODING) && BodyCompression.shouldCompress(url, body.length)) {
+            body = BodyCompression.gzip(url, body);
+            headers.set(HttpHeaders.CONTENT_ENCODING, BodyCompression.GZIP);
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        if (BodyCompression.isGzip(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return new DecodingResponse(response, url);
+        }
+        return response;
+    }
+
+    /**
+     * 以解压流作为响应体，去掉 Content-Encoding 与 Content-Length，消息转换器看到的是未压缩的响应
+     */
+    private static final class DecodingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final String url;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        private DecodingResponse(ClientHttpResponse delegate, String url) {
+            this.delegate = delegate;
+            this.url = url;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = BodyCompression.decoding(url, delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } catch (IOException e) {
+                // 与 ClientHttpResponse#close 一致，关闭失败不影响调用方
+            } finally {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.findu.negotiation.infrastructure.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按 Little 定律调整 HttpClient 连接池的单路由上限
+ * <p>
+ * 每个周期内，路由上"想要连接"的平均并发 L = λ·W = (占用时长 + 等待时长) / 周期时长，
+ * 等待时长计入是为了让排队的请求也体现为需求。目标上限为 L × headroom，并限制在 [min, max] 之间：
+ * 需要扩容时一次到位，缩容每周期最多收缩 shrink-ratio，样本数不足的周期保持不变。
+ * <p>
+ * 默认关闭，通过 findu.http.pool.adaptive.enabled=true 开启。单路由上限之和受 max-total 约束，
+ * 开启时应同时调大 spring.http.client.pool.max-total。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Component
+@ConditionalOnProperty(prefix = "findu.http.pool.adaptive", name = "enabled", havingValue = "true")
+public class ConnectionPoolResizer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolResizer.class);
+
+    private final InstrumentedConnectionManager connectionManager;
+    private final Map<String, Sample> lastSamples = new HashMap<>();
+
+    @Value("${findu.http.pool.adaptive.min-per-route:8}")
+    private int minPerRoute;
+
+    @Value("${findu.http.pool.adaptive.max-per-route:100}")
+    private int maxPerRoute;
+
+    @Value("${findu.http.pool.adaptive.headroom:2.0}")
+    private double headroom;
+
+    @Value("${findu.http.pool.adaptive.shrink-ratio:0.25}")
+    private double shrinkRatio;
+
+    @Value("${findu.http.pool.adaptive.min-samples:20}")
+    private long minSamples;
+
+    public ConnectionPoolResizer(InstrumentedConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Scheduled(fixedDelayString = "${findu.http.pool.adaptive.interval:10000}")
+    public void resize() {
+        long now = System.nanoTime();
+        for (InstrumentedConnectionManager.RouteStats stats : connectionManager.routeStats()) {
+            Sample current = new Sample(now, stats.getReleased(), stats.getHoldNanos() + stats.getWaitNanos());
+            Sample last = lastSamples.put(stats.getName(), current);
+            if (last == null || current.released - last.released < minSamples) {
+                continue;
+            }
+            double concurrency = (double) (current.busyNanos - last.busyNanos) / (current.nanos - last.nanos);
+            int limit = connectionManager.getMaxPerRoute(stats.getRoute());
+            int target = computeLimit(limit, concurrency, headroom, shrinkRatio, minPerRoute, maxPerRoute);
+            if (target != limit) {
+                connectionManager.setMaxPerRoute(stats.getRoute(), target);
+                LOGGER.info("调整连接池路由上限: pool={}, route={}, concurrency={}, limit={} -> {}",
+                        connectionManager.getPool(), stats.getName(), String.format("%.2f", concurrency), limit, target);
+            }
+        }
+    }
+
+    /**
+     * 计算新的路由上限
+     *
+     * @param current     当前上限
+     * @param concurrency 周期内的平均并发
+     */
+    static int computeLimit(int current, double concurrency, double headroom, double shrinkRatio, int min, int max) {
+        int target = (int) Math.ceil(concurrency * headroom);
+        if (target < current) {
+            // 缓慢收缩，避免一次低谷后连接数骤降
+            target = Math.max(target, (int) Math.floor(current * (1 - shrinkRatio)));
+        }
+        return Math.max(min, Math.min(max, target));
+    }
+
+    private record Sample(long nanos, long released, long busyNanos) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+import java.util.function.IntSupplier;
+
+/**
+ * 连接池连接数指标，HttpClient 与 OkHttp 连接池共用同一组指标名，以 pool / route 标签区分
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class HttpPoolGauges {
+
+    public static final String LEASED = "findu_http_pool_leased";
+    public static final String AVAILABLE = "findu_http_pool_available";
+    public static final String PENDING = "findu_http_pool_pending";
+    public static final String MAX = "findu_http_pool_max";
+
+    private HttpPoolGauges() {
+    }
+
+    static void describe() {
+        MetricsRegistry.describe(LEASED, "gauge", "连接池已租出连接数");
+        MetricsRegistry.describe(AVAILABLE, "gauge", "连接池空闲连接数");
+        MetricsRegistry.describe(PENDING, "gauge", "等待连接的请求数");
+        MetricsRegistry.describe(MAX, "gauge", "连接池连接数上限");
+    }
+
+    /**
+     * 注册一组连接数指标，route 为 * 表示整个连接池；不支持的项传 null
+     */
+    public static void register(String pool, String route, IntSupplier leased, IntSupplier available,
+                                IntSupplier pending, IntSupplier max) {
+        describe();
+        if (leased != null) {
+            MetricsRegistry.gauge(LEASED, leased::getAsInt, "pool", pool, "route", route);
+        }
+        if (available != null) {
+            MetricsRegistry.gauge(AVAILABLE, available::getAsInt, "pool", pool, "route", route);
+        }
+        if (pending != null) {
+            MetricsRegistry.gauge(PENDING, pending::getAsInt, "pool", pool, "route", route);
+        }
+        if (max != null) {
+            MetricsRegistry.gauge(MAX, max::getAsInt, "pool", pool, "route", route);
+        }
+    }
+}
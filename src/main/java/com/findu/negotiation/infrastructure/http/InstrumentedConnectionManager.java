@@ -0,0 +1,185 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的 HttpClient 连接池
+ * <p>
+ * 在租借/归还连接时按路由记录：租借等待耗时（直方图）、等待超时次数、累计等待时长与占用时长。
+ * 连接数（leased / available / pending / max）以 gauge 形式注册到 {@link MetricsRegistry}，
+ * 取值时才读取连接池状态。累计时长供 {@link ConnectionPoolResizer} 按 Little 定律估算并发。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    public static final String LEASE_WAIT = "findu_http_pool_lease_wait_seconds";
+    public static final String LEASE_TIMEOUTS = "findu_http_pool_lease_timeouts_total";
+
+    static {
+        MetricsRegistry.describe(LEASE_WAIT, "summary", "连接池租借等待耗时");
+        MetricsRegistry.describe(LEASE_TIMEOUTS, "counter", "连接池租借等待超时次数");
+        HttpPoolGauges.describe();
+    }
+
+    private final String pool;
+    private final Map<HttpRoute, RouteStats> routeStats = new ConcurrentHashMap<>();
+    private final Map<ConnectionEndpoint, Lease> leases = new ConcurrentHashMap<>();
+
+    public InstrumentedConnectionManager(String pool) {
+        this.pool = pool;
+        HttpPoolGauges.register(pool, "*",
+                () -> getTotalStats().getLeased(),
+                () -> getTotalStats().getAvailable(),
+                () -> getTotalStats().getPending(),
+                () -> getTotalStats().getMax());
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        RouteStats stats = routeStats.computeIfAbsent(route, this::newRouteStats);
+        long start = System.nanoTime();
+        LeaseRequest delegate = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                ConnectionEndpoint endpoint;
+                try {
+                    endpoint = delegate.get(timeout);
+                } catch (TimeoutException e) {
+                    stats.leaseTimeouts.increment();
+                    stats.waitNanos.add(System.nanoTime() - start);
+                    throw e;
+                }
+                long leasedAt = System.nanoTime();
+                long wait = leasedAt - start;
+                stats.leaseWait.recordNanos(wait);
+                stats.waitNanos.add(wait);
+                leases.put(endpoint, new Lease(stats, leasedAt));
+                return endpoint;
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object state, TimeValue keepAlive) {
+        Lease lease = leases.remove(endpoint);
+        if (lease != null) {
+            lease.stats.holdNanos.add(System.nanoTime() - lease.leasedAt);
+            lease.stats.released.increment();
+        }
+        super.release(endpoint, state, keepAlive);
+    }
+
+    /**
+     * 已出现过的路由统计
+     */
+    public Collection<RouteStats> routeStats() {
+        return routeStats.values();
+    }
+
+    private RouteStats newRouteStats(HttpRoute route) {
+        String name = route.getTargetHost().toHostString();
+        HttpPoolGauges.register(pool, name,
+                () -> getStats(route).getLeased(),
+                () -> getStats(route).getAvailable(),
+                () -> getStats(route).getPending(),
+                () -> getMaxPerRoute(route));
+        return new RouteStats(this, route, name,
+                MetricsRegistry.histogram(LEASE_WAIT, "pool", pool, "route", name),
+                MetricsRegistry.counter(LEASE_TIMEOUTS, "pool", pool, "route", name));
+    }
+
+    private record Lease(RouteStats stats, long leasedAt) {
+    }
+
+    /**
+     * 单个路由的租借统计，累计值只增不减，使用方自行计算区间差值
+     */
+    public static final class RouteStats {
+        private final InstrumentedConnectionManager manager;
+        private final HttpRoute route;
+        private final String name;
+        private final LatencyHistogram leaseWait;
+        private final LongAdder leaseTimeouts;
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder holdNanos = new LongAdder();
+        private final LongAdder released = new LongAdder();
+
+        private RouteStats(InstrumentedConnectionManager manager, HttpRoute route, String name,
+                           LatencyHistogram leaseWait, LongAdder leaseTimeouts) {
+            this.manager = manager;
+            this.route = route;
+            this.name = name;
+            this.leaseWait = leaseWait;
+            this.leaseTimeouts = leaseTimeouts;
+        }
+
+        public HttpRoute getRoute() {
+            return route;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public PoolStats getPoolStats() {
+            return manager.getStats(route);
+        }
+
+        public LatencyHistogram getLeaseWait() {
+            return leaseWait;
+        }
+
+        public long getLeaseTimeouts() {
+            return leaseTimeouts.sum();
+        }
+
+        /**
+         * 累计等待连接的时长（含超时的等待）
+         */
+        public long getWaitNanos() {
+            return waitNanos.sum();
+        }
+
+        /**
+         * 累计占用连接的时长
+         */
+        public long getHoldNanos() {
+            return holdNanos.sum();
+        }
+
+        /**
+         * 累计归还次数
+         */
+        public long getReleased() {
+            return released.sum();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import java.util.List;
+
+/**
+ * 服务间调用的消息体格式：JSON 或 Jackson Smile（二进制 JSON）
+ * <p>
+ * 发往 smile-urls 中地址的调用按内容协商使用 Smile：请求体以 {@value #SMILE_VALUE} 编码，
+ * 同时发送 {@value #SMILE_ACCEPT}，下游不支持时按 JSON 返回，客户端依据响应的 Content-Type 选择解码器。
+ * 其他地址的调用不声明 Smile，与之前完全相同。响应类型为 String 或请求体为预先序列化的 JSON 字符串时始终使用 JSON。
+ * <p>
+ * 与 {@link BodyCompression} 一样为静态工具，HttpUtil 直接使用，RestTemplate 经 {@link WireFormatInterceptor}；
+ * 配置由 WireFormatConfig 在启动时写入。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class WireFormat {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * 优先 Smile，JSON 兜底
+     */
+    public static final String SMILE_ACCEPT = SMILE_VALUE + ", application/json;q=0.9";
+
+    private static final ObjectMapper SMILE_MAPPER = new SmileMapper();
+
+    private static volatile List<String> smileUrls = List.of();
+
+    private WireFormat() {
+    }
+
+    /**
+     * @param smileUrls 使用 Smile 的下游地址前缀
+     */
+    public static void configure(List<String> smileUrls) {
+        WireFormat.smileUrls = List.copyOf(smileUrls);
+    }
+
+    public static boolean isSmile(String url) {
+        for (String prefix : smileUrls) {
+            if (url.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Content-Type 是否为 Smile，忽略参数
+     */
+    public static boolean isSmileContentType(String contentType) {
+        return contentType != null && contentType.regionMatches(true, 0, SMILE_VALUE, 0, SMILE_VALUE.length());
+    }
+
+    /**
+     * 与 HttpUtil 的 JSON ObjectMapper 配置相同的 Smile 编解码器
+     */
+    public static ObjectMapper smileMapper() {
+        return SMILE_MAPPER;
+    }
+}
@@ -0,0 +1,42 @@
+package com.findu.negotiation.infrastructure.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * RestTemplate 的 Smile 内容协商，规则见 {@link WireFormat}
+ * <p>
+ * 类路径上有 Smile 时 RestTemplate 默认带有 Smile 转换器，会在 Accept 中列出 Smile。
+ * 这里只对配置的下游保留并优先 Smile，其他下游从 Accept 中去掉，避免下游自行选择二进制格式。
+ * 响应的解码仍由 RestTemplate 按 Content-Type 选择转换器完成。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class WireFormatInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final MediaType SMILE = MediaType.valueOf(WireFormat.SMILE_VALUE);
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        List<MediaType> accept = headers.getAccept();
+        // 响应类型可由 Smile 转换器读取时 Accept 中才会有 Smile，String 等类型不受影响
+        if (accept.stream().anyMatch(SMILE::equalsTypeAndSubtype)) {
+            if (WireFormat.isSmile(request.getURI().toString())) {
+                headers.set(HttpHeaders.ACCEPT, WireFormat.SMILE_ACCEPT);
+            } else {
+                headers.setAccept(accept.stream().filter(type -> !SMILE.equalsTypeAndSubtype(type)).toList());
+            }
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -2,6 +2,9 @@ package com.findu.negotiation.infrastructure.interceptor;
 
 import com.findu.negotiation.infrastructure.context.RequestContext;
 import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.StageTimer;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.warmup.WarmupRouting;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
@@ -9,8 +12,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.UUID;
-
 /**
  * 请求上下文拦截器，用于在请求开始时设置上下文，请求结束时清理上下文
  *
@@ -24,7 +25,6 @@ public class RequestContextInterceptor implements HandlerInterceptor {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String USER_ID_HEADER = "X-User-Id";
-    private static final String TRACE_ID_HEADER = "X-Trace-Id";
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
@@ -42,13 +42,20 @@ public class RequestContextInterceptor implements HandlerInterceptor {
             context.setUserId(userId);
         }
 
-        // 设置TraceId，如果请求中没有则生成一个
-        String traceId = request.getHeader(TRACE_ID_HEADER);
-        if (traceId == null || traceId.isEmpty()) {
-            traceId = UUID.randomUUID().toString();
-        }
+        // 设置TraceId，如果请求中没有则生成一个（与 HttpLoggingFilter 日志中的值一致）
+        String traceId = TraceIds.resolve(request);
         context.setTraceId(traceId);
 
+        // 启动预热的合成请求，只接受本机发起且令牌正确的请求
+        if (WarmupRouting.isWarmupRequest(request)) {
+            context.setWarmup(true);
+        }
+
+        // 阶段计时器，同时放入请求属性，供 HttpLoggingFilter 在请求结束后输出
+        StageTimer stageTimer = new StageTimer();
+        context.setStageTimer(stageTimer);
+        request.setAttribute(StageTimer.REQUEST_ATTRIBUTE, stageTimer);
+
         RequestContextHolder.setContext(context);
 
         LOGGER.debug("请求上下文已设置: uri={}, traceId={}, hasAuth={}",
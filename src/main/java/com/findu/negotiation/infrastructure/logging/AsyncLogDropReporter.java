@@ -0,0 +1,35 @@
+package com.findu.negotiation.infrastructure.logging;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定期检查异步日志丢弃计数，有新增丢弃时输出告警；计数同时以 findu_log_discarded_total 暴露在 /metrics
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Component
+public class AsyncLogDropReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLogDropReporter.class);
+
+    private long lastReported;
+
+    public AsyncLogDropReporter() {
+        MetricsRegistry.describe("findu_log_discarded_total", "counter", "异步日志环形缓冲区满时丢弃的事件数");
+        MetricsRegistry.gauge("findu_log_discarded_total", CountingDiscardPolicy::getDiscardedCount);
+    }
+
+    @Scheduled(fixedDelayString = "${findu.log.drop-report-interval:60000}")
+    public void report() {
+        long discarded = CountingDiscardPolicy.getDiscardedCount();
+        if (discarded > lastReported) {
+            LOGGER.warn("异步日志环形缓冲区已满，丢弃日志事件: recent={}, total={}", discarded - lastReported, discarded);
+            lastReported = discarded;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.findu.negotiation.infrastructure.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.DiscardingAsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步日志环形缓冲区满时的丢弃策略，在 Discard 语义上增加全局丢弃计数
+ * <p>
+ * 通过 log4j2.component.properties 中的 log4j2.asyncQueueFullPolicy 启用，由 Log4j2 反射创建。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class CountingDiscardPolicy extends DiscardingAsyncQueueFullPolicy {
+
+    private static final LongAdder DISCARDED = new LongAdder();
+
+    public CountingDiscardPolicy() {
+        super(Level.toLevel(PropertiesUtil.getProperties().getStringProperty("log4j2.discardThreshold"), Level.INFO));
+    }
+
+    @Override
+    public EventRoute getRoute(long backgroundThreadId, Level level) {
+        EventRoute route = super.getRoute(backgroundThreadId, level);
+        if (route == EventRoute.DISCARD) {
+            DISCARDED.increment();
+        }
+        return route;
+    }
+
+    /**
+     * 进程启动以来被丢弃的日志事件数
+     */
+    public static long getDiscardedCount() {
+        return DISCARDED.sum();
+    }
+}
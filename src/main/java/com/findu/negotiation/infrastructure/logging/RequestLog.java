@@ -0,0 +1,60 @@
+package com.findu.negotiation.infrastructure.logging;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 结构化请求/指标日志入口
+ * <p>
+ * 写入专用的 {@value #LOGGER_NAME} 日志器（见 log4j2.xml 中的 RequestLogFile），每个事件一行 JSON。
+ * 用法：
+ * <pre>
+ * RequestLog.emit(RequestLog.begin("request_out")
+ *         .put("path", path)
+ *         .put("status_code", status));
+ * </pre>
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class RequestLog {
+
+    public static final String LOGGER_NAME = "findu.request";
+
+    private static final Logger LOGGER = LogManager.getLogger(LOGGER_NAME);
+
+    private static final ThreadLocal<StructuredLogMessage> MESSAGE = ThreadLocal.withInitial(StructuredLogMessage::new);
+
+    private RequestLog() {
+    }
+
+    /**
+     * 是否启用请求日志，未启用时调用方可以跳过字段收集
+     */
+    public static boolean isEnabled() {
+        return LOGGER.isInfoEnabled();
+    }
+
+    /**
+     * 取当前线程复用的消息并写入公共字段
+     *
+     * @param type 事件类型，如 request_in、request_out、http_client
+     * @return 已清空的消息
+     */
+    public static StructuredLogMessage begin(String type) {
+        return MESSAGE.get().reset()
+                .put("ts", System.currentTimeMillis())
+                .put("type", type);
+    }
+
+    /**
+     * 输出消息，调用后消息即被清空，不可继续使用
+     */
+    public static void emit(StructuredLogMessage message) {
+        try {
+            LOGGER.info(message);
+        } finally {
+            message.reset();
+        }
+    }
+}
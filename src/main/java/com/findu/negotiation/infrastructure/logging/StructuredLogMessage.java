@@ -0,0 +1,281 @@
+package com.findu.negotiation.infrastructure.logging;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+
+import java.util.Arrays;
+
+/**
+ * 可复用的结构化日志消息，以单行 JSON 输出
+ * <p>
+ * 字段只保存引用和基本类型，JSON 编码在 {@link #formatTo(StringBuilder)} 中直接写入
+ * Log4j2 环形缓冲区自带的 StringBuilder，整个过程不产生中间字符串。
+ * 实例按线程复用（见 {@link RequestLog#begin(String)}），不可跨线程持有。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class StructuredLogMessage implements ReusableMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 预分配的字段容量，超出后按倍数扩容（只发生在首次）
+     */
+    private static final int INITIAL_CAPACITY = 24;
+
+    private static final byte KIND_STRING = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_UTF8 = 2;
+    private static final byte KIND_DECIMAL = 3;
+    private static final byte KIND_BOOLEAN = 4;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private CharSequence[] texts = new CharSequence[INITIAL_CAPACITY];
+    private byte[][] bytes = new byte[INITIAL_CAPACITY][];
+    private long[] numbers = new long[INITIAL_CAPACITY];
+    private int size;
+
+    StructuredLogMessage() {
+    }
+
+    /**
+     * 清空所有字段，释放对值对象的引用
+     */
+    StructuredLogMessage reset() {
+        Arrays.fill(texts, 0, size, null);
+        Arrays.fill(bytes, 0, size, null);
+        size = 0;
+        return this;
+    }
+
+    /**
+     * 添加字符串字段，null 输出为 JSON null
+     */
+    public StructuredLogMessage put(String key, CharSequence value) {
+        int i = next(key, KIND_STRING);
+        texts[i] = value;
+        return this;
+    }
+
+    /**
+     * 添加整数字段
+     */
+    public StructuredLogMessage put(String key, long value) {
+        int i = next(key, KIND_LONG);
+        numbers[i] = value;
+        return this;
+    }
+
+    /**
+     * 添加布尔字段
+     */
+    public StructuredLogMessage put(String key, boolean value) {
+        int i = next(key, KIND_BOOLEAN);
+        numbers[i] = value ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * 添加毫秒字段，参数为微秒，输出保留三位小数，例如 12345 输出为 12.345
+     */
+    public StructuredLogMessage putMillis(String key, long micros) {
+        int i = next(key, KIND_DECIMAL);
+        numbers[i] = micros;
+        return this;
+    }
+
+    /**
+     * 添加 UTF-8 字节字段，编码时直接解码，避免先构造 String
+     *
+     * @param length 最多输出的字节数
+     */
+    public StructuredLogMessage putUtf8(String key, byte[] value, int length) {
+        int i = next(key, KIND_UTF8);
+        bytes[i] = value;
+        numbers[i] = value == null ? 0 : Math.min(length, value.length);
+        return this;
+    }
+
+    private int next(String key, byte kind) {
+        if (size == keys.length) {
+            int capacity = keys.length << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            bytes = Arrays.copyOf(bytes, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+        }
+        int i = size++;
+        keys[i] = key;
+        kinds[i] = kind;
+        return i;
+    }
+
+    @Override
+    public void formatTo(StringBuilder buffer) {
+        buffer.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            buffer.append('"').append(keys[i]).append("\":");
+            switch (kinds[i]) {
+                case KIND_LONG -> buffer.append(numbers[i]);
+                case KIND_DECIMAL -> appendDecimal(buffer, numbers[i]);
+                case KIND_BOOLEAN -> buffer.append(numbers[i] != 0);
+                case KIND_UTF8 -> appendUtf8(buffer, bytes[i], (int) numbers[i]);
+                default -> appendString(buffer, texts[i]);
+            }
+        }
+        buffer.append('}');
+    }
+
+    private static void appendDecimal(StringBuilder buffer, long value) {
+        if (value < 0) {
+            buffer.append('-');
+            value = -value;
+        }
+        buffer.append(value / 1000).append('.');
+        long fraction = value % 1000;
+        if (fraction < 100) {
+            buffer.append('0');
+        }
+        if (fraction < 10) {
+            buffer.append('0');
+        }
+        buffer.append(fraction);
+    }
+
+    private static void appendString(StringBuilder buffer, CharSequence value) {
+        if (value == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            appendEscaped(buffer, value.charAt(i));
+        }
+        buffer.append('"');
+    }
+
+    /**
+     * 按 UTF-8 解码字节并转义写入，非法序列输出为替换字符
+     */
+    private static void appendUtf8(StringBuilder buffer, byte[] value, int length) {
+        if (value == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('"');
+        int i = 0;
+        while (i < length) {
+            int b = value[i] & 0xFF;
+            if (b < 0x80) {
+                appendEscaped(buffer, (char) b);
+                i++;
+                continue;
+            }
+            int extra;
+            int codePoint;
+            if ((b & 0xE0) == 0xC0) {
+                extra = 1;
+                codePoint = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                extra = 2;
+                codePoint = b & 0x0F;
+            } else if ((b & 0xF8) == 0xF0) {
+                extra = 3;
+                codePoint = b & 0x07;
+            } else {
+                buffer.append('\uFFFD');
+                i++;
+                continue;
+            }
+            if (i + extra >= length) {
+                // 被截断的多字节序列
+                buffer.append('\uFFFD');
+                break;
+            }
+            boolean valid = true;
+            for (int k = 1; k <= extra; k++) {
+                int c = value[i + k] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    valid = false;
+                    break;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+            if (!valid) {
+                buffer.append('\uFFFD');
+                i++;
+                continue;
+            }
+            buffer.appendCodePoint(codePoint);
+            i += extra + 1;
+        }
+        buffer.append('"');
+    }
+
+    private static void appendEscaped(StringBuilder buffer, char c) {
+        switch (c) {
+            case '"' -> buffer.append("\\\"");
+            case '\\' -> buffer.append("\\\\");
+            case '\n' -> buffer.append("\\n");
+            case '\r' -> buffer.append("\\r");
+            case '\t' -> buffer.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    buffer.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                } else {
+                    buffer.append(c);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        StringBuilder buffer = new StringBuilder(256);
+        formatTo(buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * 没有格式串，Log4j2 已废弃该方法，只为实现接口保留
+     */
+    @Deprecated
+    @Override
+    public String getFormat() {
+        return null;
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return null;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return null;
+    }
+
+    @Override
+    public Object[] swapParameters(Object[] emptyReplacement) {
+        return emptyReplacement;
+    }
+
+    @Override
+    public short getParameterCount() {
+        return 0;
+    }
+
+    @Override
+    public Message memento() {
+        return new SimpleMessage(getFormattedMessage());
+    }
+}
@@ -0,0 +1,213 @@
+package com.findu.negotiation.infrastructure.metrics;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 进程内指标注册表
+ * <p>
+ * 与 {@link com.findu.negotiation.infrastructure.context.RequestContextHolder} 一样使用静态方法，
+ * 便于 {@link com.findu.negotiation.infrastructure.util.HttpUtil} 等非 Spring 管理的代码直接使用。
+ * 指标按 名称 + 标签 唯一，热路径上应把返回的直方图/计数器缓存为常量，避免每次查表。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class MetricsRegistry {
+
+    public static final String DOWNSTREAM_LATENCY = "findu_downstream_latency_seconds";
+    public static final String DOWNSTREAM_ERRORS = "findu_downstream_errors_total";
+    public static final String STAGE_LATENCY = "findu_stage_latency_seconds";
+    public static final String ENDPOINT_LATENCY = "findu_endpoint_latency_seconds";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * 指标族，按名称排序输出
+     */
+    private static final Map<String, Family> FAMILIES = new ConcurrentSkipListMap<>();
+
+    static {
+        describe(DOWNSTREAM_LATENCY, "summary", "下游服务调用耗时");
+        describe(DOWNSTREAM_ERRORS, "counter", "下游服务调用失败次数");
+        describe(STAGE_LATENCY, "summary", "协商流程各阶段耗时");
+        describe(ENDPOINT_LATENCY, "summary", "入站接口耗时");
+    }
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * 下游服务调用耗时，downstream 取 user / chat / dms / agent
+     */
+    public static LatencyHistogram downstream(String downstream) {
+        return histogram(DOWNSTREAM_LATENCY, "downstream", downstream);
+    }
+
+    /**
+     * 下游服务调用失败次数
+     */
+    public static LongAdder downstreamErrors(String downstream) {
+        return counter(DOWNSTREAM_ERRORS, "downstream", downstream);
+    }
+
+    /**
+     * 协商流程阶段耗时
+     */
+    public static LatencyHistogram stage(String stage) {
+        return histogram(STAGE_LATENCY, "stage", stage);
+    }
+
+    /**
+     * 入站接口耗时，endpoint 使用路由模板而不是实际路径，避免标签基数膨胀
+     */
+    public static LatencyHistogram endpoint(String method, String endpoint) {
+        return histogram(ENDPOINT_LATENCY, "method", method, "endpoint", endpoint);
+    }
+
+    /**
+     * 登记指标族的类型与说明，重复登记以第一次为准
+     *
+     * @param type summary / counter / gauge
+     */
+    public static void describe(String name, String type, String help) {
+        FAMILIES.computeIfAbsent(name, n -> new Family(type, help));
+    }
+
+    /**
+     * 获取或创建直方图
+     *
+     * @param labels 标签，按 key, value 交替排列
+     */
+    public static LatencyHistogram histogram(String name, String... labels) {
+        return (LatencyHistogram) family(name, "summary").series
+                .computeIfAbsent(renderLabels(labels), l -> new LatencyHistogram());
+    }
+
+    /**
+     * 获取或创建计数器
+     *
+     * @param labels 标签，按 key, value 交替排列
+     */
+    public static LongAdder counter(String name, String... labels) {
+        return (LongAdder) family(name, "counter").series
+                .computeIfAbsent(renderLabels(labels), l -> new LongAdder());
+    }
+
+    /**
+     * 注册由回调取值的指标，重复注册时覆盖；累计值类指标应先用 {@link #describe} 登记为 counter
+     *
+     * @param labels 标签，按 key, value 交替排列
+     */
+    public static void gauge(String name, DoubleSupplier supplier, String... labels) {
+        family(name, "gauge").series.put(renderLabels(labels), supplier);
+    }
+
+    /**
+     * 所有直方图的快照，key 为 名称 + 标签
+     */
+    public static Map<String, LatencyHistogram.Snapshot> histogramSnapshots() {
+        Map<String, LatencyHistogram.Snapshot> result = new LinkedHashMap<>();
+        FAMILIES.forEach((name, family) -> family.series.forEach((labels, metric) -> {
+            if (metric instanceof LatencyHistogram histogram) {
+                result.put(name + labels, histogram.snapshot());
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * 清空所有直方图，计数器与回调指标不受影响；Prometheus 把计数下降视为重置
+     */
+    public static void resetHistograms() {
+        FAMILIES.forEach((name, family) -> family.series.forEach((labels, metric) -> {
+            if (metric instanceof LatencyHistogram histogram) {
+                histogram.reset();
+            }
+        }));
+    }
+
+    /**
+     * 按 Prometheus 文本格式（0.0.4）输出全部指标，延迟以秒为单位
+     */
+    public static void writePrometheus(Appendable out) throws IOException {
+        for (Map.Entry<String, Family> entry : FAMILIES.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            if (family.series.isEmpty()) {
+                continue;
+            }
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                writeSeries(out, name, series.getKey(), series.getValue());
+            }
+        }
+    }
+
+    private static void writeSeries(Appendable out, String name, String labels, Object metric) throws IOException {
+        if (metric instanceof LatencyHistogram histogram) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            for (double q : QUANTILES) {
+                out.append(name).append(withLabel(labels, "quantile", Double.toString(q))).append(' ')
+                        .append(Double.toString(snapshot.valueAtPercentile(q * 100) / 1e6)).append('\n');
+            }
+            out.append(name).append("_sum").append(labels).append(' ')
+                    .append(Double.toString(snapshot.getSumMicros() / 1e6)).append('\n');
+            out.append(name).append("_count").append(labels).append(' ')
+                    .append(Long.toString(snapshot.getCount())).append('\n');
+        } else if (metric instanceof LongAdder counter) {
+            out.append(name).append(labels).append(' ').append(Long.toString(counter.sum())).append('\n');
+        } else if (metric instanceof DoubleSupplier supplier) {
+            out.append(name).append(labels).append(' ').append(Double.toString(supplier.getAsDouble())).append('\n');
+        }
+    }
+
+    private static Family family(String name, String type) {
+        return FAMILIES.computeIfAbsent(name, n -> new Family(type, n));
+    }
+
+    private static String renderLabels(String... labels) {
+        if (labels == null || labels.length == 0) {
+            return "";
+        }
+        if ((labels.length & 1) != 0) {
+            throw new IllegalArgumentException("标签必须按 key, value 成对出现");
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String withLabel(String labels, String key, String value) {
+        String label = key + "=\"" + value + "\"";
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        private final String type;
+        private final String help;
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+}
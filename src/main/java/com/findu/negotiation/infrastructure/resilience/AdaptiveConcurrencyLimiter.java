@@ -0,0 +1,148 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限制（梯度算法）
+ * <p>
+ * 维护长期 RTT（慢速指数平均，近似无排队时的基线）与短期 RTT（快速指数平均）。
+ * 每次请求结束时按 gradient = clamp(tolerance × 长期RTT / 短期RTT, 0.5, 1.0) 计算新上限：
+ * newLimit = limit × gradient + sqrt(limit)，再与旧值做平滑。延迟稳定时 gradient 为 1，
+ * 上限按 sqrt(limit) 缓慢增长；下游变慢、请求开始排队时短期 RTT 上升，上限随之收缩。
+ * 实际并发不到上限一半时不增长，避免空闲期把上限推高到无意义的值。
+ * 长期 RTT 远高于短期 RTT 时（持续变慢后恢复）加速衰减长期值，使基线能跟上恢复后的延迟。
+ * <p>
+ * 获取许可是无锁的 CAS，只有采样更新在锁内，/create 的请求速率下锁竞争可以忽略。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static final String LIMIT = "findu_concurrency_limit";
+    public static final String IN_FLIGHT = "findu_concurrency_in_flight";
+    public static final String REJECTED = "findu_concurrency_rejected_total";
+
+    private static final int SHORT_WINDOW = 10;
+
+    static {
+        MetricsRegistry.describe(LIMIT, "gauge", "自适应并发上限");
+        MetricsRegistry.describe(IN_FLIGHT, "gauge", "当前并发请求数");
+        MetricsRegistry.describe(REJECTED, "counter", "超出并发上限被拒绝的请求数");
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected;
+
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+
+    /**
+     * @param enabled       关闭时不限流，仍统计并发数
+     * @param initialLimit  初始上限
+     * @param tolerance     允许短期 RTT 超出长期 RTT 的倍数，超出后开始收缩
+     * @param smoothing     新上限的平滑系数，0~1，越大调整越快
+     * @param longWindow    长期 RTT 的平均窗口（样本数）
+     */
+    public AdaptiveConcurrencyLimiter(String name, boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("并发上限区间非法: [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.name = name;
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.rejected = MetricsRegistry.counter(REJECTED, "limiter", name);
+        MetricsRegistry.gauge(LIMIT, this::getLimit, "limiter", name);
+        MetricsRegistry.gauge(IN_FLIGHT, inFlight::get, "limiter", name);
+    }
+
+    /**
+     * 尝试获取许可，成功后必须调用 {@link #release(long)}
+     *
+     * @return 超出上限时返回 false
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * 归还许可并提交一次 RTT 样本
+     *
+     * @param rttNanos 从获取许可到处理完成的耗时
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (enabled && rttNanos > 0) {
+            onSample(rttNanos, current);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int concurrency) {
+        double rtt = rttNanos;
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+        } else {
+            longRtt += (rtt - longRtt) / longWindow;
+            shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        }
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        if (concurrency < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,98 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个下游的舱壁：限制同时调用该下游的线程数
+ * <p>
+ * 许可用完后调用方最多排队 queueTimeout，超时抛出 {@link ErrorCode#DOWNSTREAM_BUSY}，
+ * 由业务层按下游失败处理（降级）。某个下游卡住时，最多只有 maxConcurrent 个 Tomcat 线程阻塞在它上面，
+ * 其余线程仍可完成不依赖它的请求。信号量为公平模式，排队按先后顺序获得许可。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class Bulkhead {
+
+    public static final String AVAILABLE = "findu_bulkhead_available";
+    public static final String REJECTED = "findu_bulkhead_rejected_total";
+    public static final String WAIT = "findu_bulkhead_wait_seconds";
+
+    static {
+        MetricsRegistry.describe(AVAILABLE, "gauge", "舱壁剩余许可数");
+        MetricsRegistry.describe(REJECTED, "counter", "舱壁排队超时被拒绝的调用数");
+        MetricsRegistry.describe(WAIT, "summary", "舱壁排队等待耗时");
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final LatencyHistogram wait;
+    private final LongAdder rejected;
+
+    public Bulkhead(String name, int maxConcurrent, long queueTimeoutMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("舱壁许可数必须大于0: " + name + "=" + maxConcurrent);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.wait = MetricsRegistry.histogram(WAIT, "downstream", name);
+        this.rejected = MetricsRegistry.counter(REJECTED, "downstream", name);
+        MetricsRegistry.gauge(AVAILABLE, permits::availablePermits, "downstream", name);
+    }
+
+    /**
+     * 获取许可，成功后必须在 finally 中调用 {@link #release()}
+     *
+     * @throws BusinessException 排队超时或等待被中断
+     */
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            wait.recordNanos(0);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        wait.recordNanos(System.nanoTime() - start);
+        if (!acquired) {
+            rejected.increment();
+            throw new BusinessException(ErrorCode.DOWNSTREAM_BUSY, name + "服务并发已满");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,44 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按下游名称创建舱壁，配置项为 findu.bulkhead.&lt;name&gt;.max-concurrent / queue-timeout（毫秒），
+ * 未配置时使用 findu.bulkhead.default.*
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Component
+public class BulkheadRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    private final Environment environment;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    public Bulkhead get(String name) {
+        return bulkheads.computeIfAbsent(name, this::create);
+    }
+
+    private Bulkhead create(String name) {
+        int maxConcurrent = property(name, "max-concurrent", Integer.class, 50);
+        long queueTimeout = property(name, "queue-timeout", Long.class, 100L);
+        LOGGER.info("舱壁配置: downstream={}, maxConcurrent={}, queueTimeout={}ms", name, maxConcurrent, queueTimeout);
+        return new Bulkhead(name, maxConcurrent, queueTimeout);
+    }
+
+    private <T> T property(String name, String key, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty("findu.bulkhead.default." + key, type, defaultValue);
+        return environment.getProperty("findu.bulkhead." + name + "." + key, type, fallback);
+    }
+}
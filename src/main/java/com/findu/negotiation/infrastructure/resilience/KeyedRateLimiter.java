@@ -0,0 +1,186 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 按 key 限速的令牌桶，每个 key 每秒 rate 个请求，最多积攒 burst 个
+ * <p>
+ * 令牌桶以 GCRA 实现：每个 key 只保存一个“理论到达时间” tat，一次 CAS 完成补充与扣减，不需要锁和定时补充。
+ * 请求到达时 tat 超前当前时间不超过 (burst - 1) 个间隔即放行，并把 tat 推后一个间隔。
+ * <p>
+ * 桶保存在有容量上限的 Caffeine 中，空闲超过 burst 个间隔（此时桶已满，淘汰与保留等价）后过期，
+ * key 的基数很高时内存也有上限。每个桶另记被拒绝的次数，用于列出拒绝最多的 key；桶过期后计数随之清零。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class KeyedRateLimiter {
+
+    public static final String REQUESTS = "findu_rate_limit_requests_total";
+    public static final String KEYS = "findu_rate_limit_keys";
+
+    static {
+        MetricsRegistry.describe(REQUESTS, "counter", "按 key 限速的请求数，dimension 为限速维度，result 为 allowed / rejected");
+        MetricsRegistry.describe(KEYS, "gauge", "限速维度当前跟踪的 key 数（估计值）");
+    }
+
+    private final String dimension;
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+    private final Cache<String, Bucket> buckets;
+    private final LongAdder allowed;
+    private final LongAdder rejected;
+
+    /**
+     * @param dimension 限速维度，如 customer / provider，用作指标标签
+     * @param enabled   关闭时全部放行
+     * @param rate      每秒补充的令牌数
+     * @param burst     桶容量，空闲后最多连续放行的请求数
+     * @param maxKeys   最多跟踪的 key 数
+     */
+    public KeyedRateLimiter(String dimension, boolean enabled, double rate, int burst, long maxKeys) {
+        this(dimension, enabled, rate, burst, maxKeys, System::nanoTime);
+    }
+
+    KeyedRateLimiter(String dimension, boolean enabled, double rate, int burst, long maxKeys, LongSupplier clock) {
+        if (rate <= 0 || burst < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("限速配置非法: dimension=" + dimension + ", rate=" + rate
+                    + ", burst=" + burst + ", maxKeys=" + maxKeys);
+        }
+        this.dimension = dimension;
+        this.enabled = enabled;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(intervalNanos * burst, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+        this.allowed = MetricsRegistry.counter(REQUESTS, "dimension", dimension, "result", "allowed");
+        this.rejected = MetricsRegistry.counter(REQUESTS, "dimension", dimension, "result", "rejected");
+        MetricsRegistry.gauge(KEYS, buckets::estimatedSize, "dimension", dimension);
+    }
+
+    /**
+     * 取一个令牌
+     *
+     * @param key 为 null 或空时不限速
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            // 只在新 key 上创建捕获 now 的函数对象
+            bucket = buckets.get(key, k -> new Bucket(k, now));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            if (base - now > toleranceNanos) {
+                Bucket.REJECTED.incrementAndGet(bucket);
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(tat, base + intervalNanos)) {
+                allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 退还 {@link #tryAcquire} 取到的令牌，用于多个维度依次取令牌、后面的维度拒绝时撤销前面的扣减；
+     * 退还不改变 allowed 计数，计数器保持单调
+     *
+     * @param key 与取令牌时相同
+     */
+    public void refund(String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return;
+        }
+        Bucket bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * 被拒绝次数最多的 key，遍历全部桶，只用于指标接口
+     *
+     * @param limit 最多返回的个数
+     * @return 按拒绝次数从多到少排列，不含从未被拒绝的 key
+     */
+    public List<Offender> topOffenders(int limit) {
+        PriorityQueue<Offender> top = new PriorityQueue<>(Comparator.comparingLong(Offender::rejected));
+        for (Bucket bucket : buckets.asMap().values()) {
+            long count = bucket.rejected;
+            if (count == 0 || limit < 1) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(new Offender(bucket.key, count));
+            } else if (count > top.peek().rejected()) {
+                top.poll();
+                top.add(new Offender(bucket.key, count));
+            }
+        }
+        List<Offender> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(Offender::rejected).reversed());
+        return result;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public record Offender(String key, long rejected) {
+    }
+
+    /**
+     * 一个 key 的桶，自身的值为理论到达时间，继承 AtomicLong 省去一个对象
+     */
+    private static final class Bucket extends AtomicLong {
+        private static final AtomicLongFieldUpdater<Bucket> REJECTED =
+                AtomicLongFieldUpdater.newUpdater(Bucket.class, "rejected");
+
+        private final String key;
+        private volatile long rejected;
+
+        private Bucket(String key, long now) {
+            super(now);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+/**
+ * 下游调用的优先级通道
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public enum Priority {
+
+    /**
+     * 用户正在等待结果的请求，例如 /create
+     */
+    INTERACTIVE("interactive"),
+
+    /**
+     * 预取、批量、重新生成等后台任务，只使用交互请求剩下的容量
+     */
+    BACKGROUND("background");
+
+    private final String label;
+
+    Priority(String label) {
+        this.label = label;
+    }
+
+    /**
+     * 指标标签与配置项中使用的名称
+     */
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,285 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 按优先级通道调度同一个下游的调用
+ * <p>
+ * 调度器有总并发上限，每个通道另有自己的并发上限、权重、排队上限和排队超时。
+ * 有空闲许可时按平滑加权轮询从各通道队首取出等待者，权重高的通道获得更多的派发机会；
+ * 后台通道的并发上限小于总上限，差额始终留给交互通道，因此后台任务再多也不会让交互请求排队。
+ * 排队超过通道的 queueTimeout 或队列已满时抛出 {@link ErrorCode#DOWNSTREAM_BUSY}。
+ * <p>
+ * 所有状态由一把锁保护，每个等待者持有独立的 Condition，派发时只唤醒被选中的线程。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class PriorityLaneScheduler {
+
+    public static final String QUEUED = "findu_lane_queued";
+    public static final String IN_FLIGHT = "findu_lane_in_flight";
+    public static final String WAIT = "findu_lane_wait_seconds";
+    public static final String REJECTED = "findu_lane_rejected_total";
+
+    static {
+        MetricsRegistry.describe(QUEUED, "gauge", "通道排队中的调用数");
+        MetricsRegistry.describe(IN_FLIGHT, "gauge", "通道执行中的调用数");
+        MetricsRegistry.describe(WAIT, "summary", "通道排队等待耗时");
+        MetricsRegistry.describe(REJECTED, "counter", "通道拒绝的调用数，reason 为 queue_full 或 deadline");
+    }
+
+    /**
+     * 单个通道的配置
+     *
+     * @param weight        派发权重，多个通道同时有等待者时按权重比例分配空闲许可
+     * @param maxConcurrent 通道并发上限
+     * @param maxQueued     通道排队上限
+     * @param queueTimeout  排队超时（毫秒）
+     */
+    public record LaneConfig(int weight, int maxConcurrent, int maxQueued, long queueTimeout) {
+
+        public LaneConfig {
+            if (weight < 1 || maxConcurrent < 1 || maxQueued < 0 || queueTimeout < 0) {
+                throw new IllegalArgumentException("通道配置非法: weight=" + weight + ", maxConcurrent=" + maxConcurrent
+                        + ", maxQueued=" + maxQueued + ", queueTimeout=" + queueTimeout);
+            }
+        }
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Lane[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int inFlight;
+
+    /**
+     * @param lanes 每个优先级的通道配置，必须覆盖全部 {@link Priority}
+     */
+    public PriorityLaneScheduler(String name, int maxConcurrent, Map<Priority, LaneConfig> lanes) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("调度器并发上限必须大于0: " + name + "=" + maxConcurrent);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.lanes = new Lane[Priority.values().length];
+        for (Priority priority : Priority.values()) {
+            LaneConfig config = lanes.get(priority);
+            if (config == null) {
+                throw new IllegalArgumentException("缺少通道配置: " + name + "." + priority.label());
+            }
+            this.lanes[priority.ordinal()] = new Lane(name, priority, config);
+        }
+    }
+
+    /**
+     * 在指定通道中执行调用
+     */
+    public <T> T execute(Priority priority, Supplier<T> call) {
+        acquire(priority);
+        try {
+            return call.get();
+        } finally {
+            release(priority);
+        }
+    }
+
+    /**
+     * 获取指定通道的许可，成功后必须在 finally 中调用 {@link #release(Priority)}
+     *
+     * @throws BusinessException 队列已满、排队超时或等待被中断
+     */
+    public void acquire(Priority priority) {
+        Lane lane = lanes[priority.ordinal()];
+        Waiter waiter;
+        lock.lock();
+        try {
+            // 同通道已有人排队时不插队，保证通道内先到先得
+            if (lane.queue.isEmpty() && canRun(lane)) {
+                grant(lane);
+                lane.wait.recordNanos(0);
+                return;
+            }
+            if (lane.queue.size() >= lane.config.maxQueued()) {
+                lane.queueFull.increment();
+                throw new BusinessException(ErrorCode.DOWNSTREAM_BUSY, name + "服务" + priority.label() + "通道队列已满");
+            }
+            waiter = new Waiter(lock.newCondition());
+            lane.queue.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+        await(lane, waiter);
+    }
+
+    private void await(Lane lane, Waiter waiter) {
+        long start = System.nanoTime();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(lane.config.queueTimeout());
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (!waiter.granted && remaining > 0) {
+                try {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+            lane.wait.recordNanos(System.nanoTime() - start);
+            if (waiter.granted) {
+                if (interrupted) {
+                    // 已拿到许可但线程被中断，归还许可后按失败处理
+                    releaseLocked(lane);
+                } else {
+                    return;
+                }
+            } else {
+                lane.queue.remove(waiter);
+                lane.deadline.increment();
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        throw new BusinessException(ErrorCode.DOWNSTREAM_BUSY, name + "服务" + lane.priority.label() + "通道排队超时");
+    }
+
+    public void release(Priority priority) {
+        lock.lock();
+        try {
+            releaseLocked(lanes[priority.ordinal()]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(Lane lane) {
+        inFlight--;
+        lane.inFlight--;
+        dispatch();
+    }
+
+    /**
+     * 把空闲许可按平滑加权轮询分给有等待者且未达通道上限的通道
+     */
+    private void dispatch() {
+        while (inFlight < maxConcurrent) {
+            Lane selected = null;
+            int totalWeight = 0;
+            for (Lane lane : lanes) {
+                if (lane.queue.isEmpty() || lane.inFlight >= lane.config.maxConcurrent()) {
+                    continue;
+                }
+                lane.currentWeight += lane.config.weight();
+                totalWeight += lane.config.weight();
+                if (selected == null || lane.currentWeight > selected.currentWeight) {
+                    selected = lane;
+                }
+            }
+            if (selected == null) {
+                return;
+            }
+            selected.currentWeight -= totalWeight;
+            Waiter waiter = selected.queue.pollFirst();
+            grant(selected);
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    private boolean canRun(Lane lane) {
+        return inFlight < maxConcurrent && lane.inFlight < lane.config.maxConcurrent();
+    }
+
+    private void grant(Lane lane) {
+        inFlight++;
+        lane.inFlight++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 通道被拒绝的调用数（队列已满与排队超时之和）
+     */
+    public long getRejected(Priority priority) {
+        Lane lane = lanes[priority.ordinal()];
+        return lane.queueFull.sum() + lane.deadline.sum();
+    }
+
+    private final class Lane {
+        private final Priority priority;
+        private final LaneConfig config;
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private final LatencyHistogram wait;
+        private final LongAdder queueFull;
+        private final LongAdder deadline;
+        private int inFlight;
+        private int currentWeight;
+
+        private Lane(String scheduler, Priority priority, LaneConfig config) {
+            this.priority = priority;
+            this.config = config;
+            this.wait = MetricsRegistry.histogram(WAIT, "scheduler", scheduler, "lane", priority.label());
+            this.queueFull = MetricsRegistry.counter(REJECTED, "scheduler", scheduler, "lane", priority.label(), "reason", "queue_full");
+            this.deadline = MetricsRegistry.counter(REJECTED, "scheduler", scheduler, "lane", priority.label(), "reason", "deadline");
+            MetricsRegistry.gauge(QUEUED, () -> getQueued(priority), "scheduler", scheduler, "lane", priority.label());
+            MetricsRegistry.gauge(IN_FLIGHT, () -> getInFlight(priority), "scheduler", scheduler, "lane", priority.label());
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 单个下游幂等读请求的重试策略
+ * <p>
+ * 只重试连接失败、超时与 5xx（501 除外），4xx 与舱壁拒绝不重试。重试前依次检查：
+ * <ul>
+ *     <li>次数：一次调用最多 maxAttempts 次尝试</li>
+ *     <li>退避：decorrelated jitter，sleep = min(maxDelay, random(baseDelay, 上次 sleep × 3))，多个调用方的重试在时间上错开</li>
+ *     <li>期限：从第一次尝试开始，退避后已超过 maxElapsed 时不再重试，给后续的 Agent 调用留出时间</li>
+ *     <li>预算：令牌桶，每次调用存入 budgetRatio 个令牌，每次重试取出一个，最多积攒 budgetMax 个；
+ *     长期看重试数不超过调用数的 budgetRatio，下游整体故障时重试不会成倍放大流量</li>
+ * </ul>
+ * 重试在舱壁许可内进行，退避期间仍占用许可，下游的并发不会因重试超过舱壁上限。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class RetryPolicy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicy.class);
+
+    public static final String RETRIES = "findu_retry_attempts_total";
+    public static final String OUTCOMES = "findu_retry_outcomes_total";
+    public static final String BUDGET = "findu_retry_budget_tokens";
+
+    static {
+        MetricsRegistry.describe(RETRIES, "counter", "下游读请求的重试次数（不含第一次尝试）");
+        MetricsRegistry.describe(OUTCOMES, "counter", "发生过失败的调用的结果，result 为 recovered / attempts / deadline / budget / not_retryable");
+        MetricsRegistry.describe(BUDGET, "gauge", "重试预算剩余令牌数");
+    }
+
+    /**
+     * 令牌以千分之一为单位保存，避免浮点 CAS
+     */
+    private static final long SCALE = 1000;
+
+    private final String name;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long maxElapsedNanos;
+    private final long depositMilli;
+    private final long capacityMilli;
+    private final AtomicLong tokens;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+
+    private final LongAdder retries;
+    private final LongAdder recovered;
+    private final LongAdder attemptsExhausted;
+    private final LongAdder deadlineExceeded;
+    private final LongAdder budgetExhausted;
+    private final LongAdder notRetryable;
+
+    /**
+     * @param maxAttempts 最多尝试次数，1 表示不重试
+     * @param baseDelay   最小退避（毫秒）
+     * @param maxDelay    最大退避（毫秒）
+     * @param maxElapsed  一次调用含重试的最长耗时（毫秒）
+     * @param budgetRatio 每次调用存入的重试令牌数，即重试占调用的比例上限
+     * @param budgetMax   最多积攒的重试令牌数，也是启动时的令牌数
+     */
+    public RetryPolicy(String name, int maxAttempts, long baseDelay, long maxDelay, long maxElapsed,
+                       double budgetRatio, int budgetMax) {
+        this(name, maxAttempts, baseDelay, maxDelay, maxElapsed, budgetRatio, budgetMax,
+                System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    RetryPolicy(String name, int maxAttempts, long baseDelay, long maxDelay, long maxElapsed,
+                double budgetRatio, int budgetMax, LongSupplier clock, Sleeper sleeper) {
+        if (maxAttempts < 1 || baseDelay < 0 || maxDelay < baseDelay || maxElapsed < 0
+                || budgetRatio < 0 || budgetMax < 0) {
+            throw new IllegalArgumentException("重试配置非法: downstream=" + name + ", maxAttempts=" + maxAttempts
+                    + ", baseDelay=" + baseDelay + ", maxDelay=" + maxDelay + ", maxElapsed=" + maxElapsed
+                    + ", budgetRatio=" + budgetRatio + ", budgetMax=" + budgetMax);
+        }
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(baseDelay);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelay);
+        this.maxElapsedNanos = TimeUnit.MILLISECONDS.toNanos(maxElapsed);
+        this.depositMilli = Math.round(budgetRatio * SCALE);
+        this.capacityMilli = budgetMax * SCALE;
+        this.tokens = new AtomicLong(capacityMilli);
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.retries = MetricsRegistry.counter(RETRIES, "downstream", name);
+        this.recovered = MetricsRegistry.counter(OUTCOMES, "downstream", name, "result", "recovered");
+        this.attemptsExhausted = MetricsRegistry.counter(OUTCOMES, "downstream", name, "result", "attempts");
+        this.deadlineExceeded = MetricsRegistry.counter(OUTCOMES, "downstream", name, "result", "deadline");
+        this.budgetExhausted = MetricsRegistry.counter(OUTCOMES, "downstream", name, "result", "budget");
+        this.notRetryable = MetricsRegistry.counter(OUTCOMES, "downstream", name, "result", "not_retryable");
+        MetricsRegistry.gauge(BUDGET, () -> (double) tokens.get() / SCALE, "downstream", name);
+    }
+
+    /**
+     * 执行一次幂等读调用，可重试的异常按策略重试，最后一次的异常原样抛出
+     */
+    public <T> T execute(Supplier<T> attempt) {
+        deposit();
+        long start = clock.getAsLong();
+        long sleepNanos = baseDelayNanos;
+        for (int n = 1; ; n++) {
+            try {
+                T result = attempt.get();
+                if (n > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    if (n > 1) {
+                        notRetryable.increment();
+                    }
+                    throw e;
+                }
+                if (n >= maxAttempts) {
+                    attemptsExhausted.increment();
+                    throw e;
+                }
+                sleepNanos = nextDelay(sleepNanos);
+                if (clock.getAsLong() - start + sleepNanos > maxElapsedNanos) {
+                    deadlineExceeded.increment();
+                    throw e;
+                }
+                if (!withdraw()) {
+                    budgetExhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                LOGGER.warn("下游调用失败，{}ms 后第 {} 次重试: downstream={}, error={}",
+                        TimeUnit.NANOSECONDS.toMillis(sleepNanos), n, name, e.getMessage());
+                try {
+                    sleeper.sleep(sleepNanos);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 连接失败、读超时与 5xx（501 除外）可以重试；4xx 说明请求本身有问题，重试也不会成功
+     */
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        return e instanceof HttpServerErrorException serverError
+                && serverError.getStatusCode().value() != HttpStatus.NOT_IMPLEMENTED.value();
+    }
+
+    /**
+     * decorrelated jitter：在 [baseDelay, 上次 × 3] 中均匀取值，不超过 maxDelay
+     */
+    long nextDelay(long previousNanos) {
+        long upper = Math.min(maxDelayNanos, Math.max(previousNanos, baseDelayNanos) * 3);
+        if (upper <= baseDelayNanos) {
+            return upper;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayNanos, upper + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getBudgetTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+
+    private void deposit() {
+        if (depositMilli == 0 || tokens.get() >= capacityMilli) {
+            return;
+        }
+        tokens.accumulateAndGet(depositMilli, (current, add) -> Math.min(capacityMilli, current + add));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 退避等待，测试中替换为不真正休眠的实现
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+}
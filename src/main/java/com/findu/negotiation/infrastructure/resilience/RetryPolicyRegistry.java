@@ -0,0 +1,49 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按下游名称创建重试策略，配置项为 findu.retry.&lt;name&gt;.max-attempts / base-delay / max-delay / max-elapsed（毫秒）
+ * / budget-ratio / budget-max，未配置时使用 findu.retry.default.*
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Component
+public class RetryPolicyRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicyRegistry.class);
+
+    private final Environment environment;
+    private final Map<String, RetryPolicy> policies = new ConcurrentHashMap<>();
+
+    public RetryPolicyRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    public RetryPolicy get(String name) {
+        return policies.computeIfAbsent(name, this::create);
+    }
+
+    private RetryPolicy create(String name) {
+        int maxAttempts = property(name, "max-attempts", Integer.class, 3);
+        long baseDelay = property(name, "base-delay", Long.class, 20L);
+        long maxDelay = property(name, "max-delay", Long.class, 200L);
+        long maxElapsed = property(name, "max-elapsed", Long.class, 1000L);
+        double budgetRatio = property(name, "budget-ratio", Double.class, 0.1);
+        int budgetMax = property(name, "budget-max", Integer.class, 10);
+        LOGGER.info("重试配置: downstream={}, maxAttempts={}, delay={}~{}ms, maxElapsed={}ms, budget={} (max {})",
+                name, maxAttempts, baseDelay, maxDelay, maxElapsed, budgetRatio, budgetMax);
+        return new RetryPolicy(name, maxAttempts, baseDelay, maxDelay, maxElapsed, budgetRatio, budgetMax);
+    }
+
+    private <T> T property(String name, String key, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty("findu.retry.default." + key, type, defaultValue);
+        return environment.getProperty("findu.retry." + name + "." + key, type, fallback);
+    }
+}
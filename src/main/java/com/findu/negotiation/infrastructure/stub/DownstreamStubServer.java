@@ -0,0 +1,229 @@
+package com.findu.negotiation.infrastructure.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 进程内下游桩服务，模拟 User / Chat / DMS / Agent 四个接口，Agent 另有批量补全接口
+ * <p>
+ * 每个接口监听独立端口（基础端口依次加 0~3），与线上一样各自对应连接池中的一个路由，
+ * 避免因共用 host:port 而相互争抢同一路由的连接配额。
+ * <p>
+ * 基于 JDK 自带的 HttpServer，每个请求一个虚拟线程，延迟通过 sleep 模拟，不占用 Tomcat 线程，
+ * 也不会因为桩自身的线程数限制而压低下游并发。响应体在启动时按配置生成一次，之后只做字节拷贝。
+ * 批量补全接口按请求中的 id 逐个回填响应，整批只采样一次延迟，模拟下游批量推理摊薄单次开销。
+ * 增量补全接口（补全接口路径加 /delta）由补全接口的上下文按前缀匹配处理，返回同一份补全结果。
+ * 与线上下游一样支持 gzip：Content-Encoding: gzip 的请求体先解压，请求带 Accept-Encoding: gzip 时返回预先压缩的响应体。
+ * Accept 中有 Smile 时以 Smile 返回，Smile 请求体按 Content-Type 解码，用于对比两种格式的链路开销。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public class DownstreamStubServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownstreamStubServer.class);
+
+    public static final int USER_OFFSET = 0;
+    public static final int CHAT_OFFSET = 1;
+    public static final int DMS_OFFSET = 2;
+    public static final int AGENT_OFFSET = 3;
+
+    static final String USER_WORKS_PATH = "/api/v1/inner/user-admin/works/";
+    static final String CHAT_HISTORY_PATH = "/api/v1/inner/chat_history/";
+    static final String DMS_DEMAND_PATH = "/api/v1/inner/demand/detail";
+
+    private static final byte[] ERROR_BODY = "{\"code\":500,\"message\":\"stub injected error\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectMapper SMILE_MAPPER = new SmileMapper();
+
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private final int port;
+    private final String agentPath;
+    private final String agentBatchPath;
+    private final StubEndpoint user;
+    private final StubEndpoint chat;
+    private final StubEndpoint dms;
+    private final StubEndpoint agent;
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private ExecutorService executor;
+
+    public DownstreamStubServer(int port, String agentPath, String agentBatchPath,
+                                StubEndpoint user, StubEndpoint chat, StubEndpoint dms, StubEndpoint agent) {
+        this.port = port;
+        this.agentPath = agentPath;
+        this.agentBatchPath = agentBatchPath;
+        this.user = user;
+        this.chat = chat;
+        this.dms = dms;
+        this.agent = agent;
+    }
+
+    public synchronized void start() throws IOException {
+        if (!servers.isEmpty()) {
+            return;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        serve(USER_OFFSET, USER_WORKS_PATH, user, StubPayloads.providerWorks(user.payloadSize()));
+        serve(CHAT_OFFSET, CHAT_HISTORY_PATH, chat,
+                StubPayloads.chatHistory(StubPayloads.PROVIDER_ID, StubPayloads.CUSTOMER_ID, chat.payloadSize(), 42));
+        serve(DMS_OFFSET, DMS_DEMAND_PATH, dms, StubPayloads.demandDetail(dms.payloadSize()));
+        String completion = StubPayloads.agentCompletion(agent.payloadSize());
+        HttpServer agentServer = serve(AGENT_OFFSET, agentPath, agent, completion);
+        JsonNode result = MAPPER.readTree(completion).get("result");
+        agentServer.createContext(agentBatchPath, exchange -> handleBatch(exchange, agent, result));
+        LOGGER.info("下游桩服务已启动: user=:{} {}, chat=:{} {}, dms=:{} {}, agent=:{} {}",
+                getPort(USER_OFFSET), user, getPort(CHAT_OFFSET), chat, getPort(DMS_OFFSET), dms, getPort(AGENT_OFFSET), agent);
+    }
+
+    public synchronized void stop() {
+        if (servers.isEmpty()) {
+            return;
+        }
+        servers.forEach(server -> server.stop(0));
+        servers.clear();
+        executor.shutdownNow();
+        executor = null;
+        LOGGER.info("下游桩服务已停止");
+    }
+
+    /**
+     * 实际监听端口，基础端口配置为 0 时由系统分配
+     *
+     * @param offset 见 USER_OFFSET 等常量
+     */
+    public int getPort(int offset) {
+        return servers.get(offset).getAddress().getPort();
+    }
+
+    private HttpServer serve(int offset, String path, StubEndpoint endpoint, String payload) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port == 0 ? 0 : port + offset), 1024);
+        server.setExecutor(executor);
+        Body body = Body.of(payload);
+        server.createContext(path, exchange -> handle(exchange, endpoint, body));
+        server.start();
+        servers.add(server);
+        return server;
+    }
+
+    private static void handle(HttpExchange exchange, StubEndpoint endpoint, Body body) throws IOException {
+        try (exchange) {
+            try (InputStream in = requestBody(exchange)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            boolean smile = acceptsSmile(exchange);
+            respond(exchange, endpoint, smile ? body.smile() : body.json(), smile ? body.smileGzip() : body.jsonGzip(), smile);
+        }
+    }
+
+    /**
+     * 批量补全：为请求中的每个 id 返回同一份补全结果
+     */
+    private static void handleBatch(HttpExchange exchange, StubEndpoint endpoint, JsonNode result) throws IOException {
+        try (exchange) {
+            JsonNode request;
+            boolean smileRequest = WireFormat.isSmileContentType(exchange.getRequestHeaders().getFirst("Content-Type"));
+            try (InputStream in = requestBody(exchange)) {
+                request = (smileRequest ? SMILE_MAPPER : MAPPER).readTree(in);
+            }
+            ObjectNode root = MAPPER.createObjectNode();
+            ArrayNode responses = root.putArray("responses");
+            for (JsonNode item : request.path("requests")) {
+                ObjectNode response = responses.addObject();
+                response.set("id", item.get("id"));
+                response.set("result", result);
+            }
+            boolean smile = acceptsSmile(exchange);
+            byte[] body = (smile ? SMILE_MAPPER : MAPPER).writeValueAsBytes(root);
+            respond(exchange, endpoint, body, acceptsGzip(exchange) ? gzip(body) : null, smile);
+        }
+    }
+
+    private static InputStream requestBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        return "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(in) : in;
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    private static boolean acceptsSmile(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains(WireFormat.SMILE_VALUE);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param gzipBody body 的 gzip 压缩结果，请求接受 gzip 时返回；为 null 时总是返回未压缩的 body
+     * @param smile    body 是否为 Smile 编码
+     */
+    private static void respond(HttpExchange exchange, StubEndpoint endpoint, byte[] body, byte[] gzipBody,
+                                boolean smile) throws IOException {
+        long delay = endpoint.latency().sampleNanos();
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        boolean fail = endpoint.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < endpoint.errorRate();
+        byte[] response = fail ? ERROR_BODY : body;
+        if (!fail && gzipBody != null && acceptsGzip(exchange)) {
+            response = gzipBody;
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", !fail && smile ? WireFormat.SMILE_VALUE : JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(fail ? 500 : 200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    /**
+     * 启动时生成的固定响应体：JSON 与 Smile 两种编码，各有未压缩与 gzip 两份
+     */
+    private record Body(byte[] json, byte[] jsonGzip, byte[] smile, byte[] smileGzip) {
+        static Body of(String payload) throws IOException {
+            byte[] json = payload.getBytes(StandardCharsets.UTF_8);
+            byte[] smile = SMILE_MAPPER.writeValueAsBytes(MAPPER.readTree(json));
+            return new Body(json, gzip(json), smile, gzip(smile));
+        }
+    }
+}
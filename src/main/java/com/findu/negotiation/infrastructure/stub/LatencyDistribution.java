@@ -0,0 +1,131 @@
+package com.findu.negotiation.infrastructure.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 桩服务响应延迟分布，单位毫秒
+ * <p>
+ * 配置格式：
+ * <ul>
+ *     <li>{@code fixed:<ms>} 固定延迟</li>
+ *     <li>{@code uniform:<min>:<max>} 均匀分布</li>
+ *     <li>{@code lognormal:<p50>:<p99>} 对数正态分布，由中位数和 p99 确定形状，适合模拟长尾</li>
+ * </ul>
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public abstract class LatencyDistribution {
+
+    /**
+     * 标准正态分布的 99 分位点
+     */
+    private static final double Z_99 = 2.326347874;
+
+    /**
+     * 单次延迟上限，防止长尾参数配置不当导致请求长时间挂起
+     */
+    private static final long MAX_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    public static final LatencyDistribution NONE = fixed(0);
+
+    /**
+     * 采样一次延迟
+     *
+     * @return 纳秒
+     */
+    public final long sampleNanos() {
+        double millis = sampleMillis(ThreadLocalRandom.current());
+        if (millis <= 0) {
+            return 0;
+        }
+        return Math.min(MAX_NANOS, (long) (millis * 1_000_000));
+    }
+
+    protected abstract double sampleMillis(ThreadLocalRandom random);
+
+    public static LatencyDistribution fixed(double millis) {
+        return new LatencyDistribution() {
+            @Override
+            protected double sampleMillis(ThreadLocalRandom random) {
+                return millis;
+            }
+
+            @Override
+            public String toString() {
+                return "fixed:" + millis;
+            }
+        };
+    }
+
+    public static LatencyDistribution uniform(double minMillis, double maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("uniform 上限小于下限: " + minMillis + ":" + maxMillis);
+        }
+        return new LatencyDistribution() {
+            @Override
+            protected double sampleMillis(ThreadLocalRandom random) {
+                return minMillis + random.nextDouble() * (maxMillis - minMillis);
+            }
+
+            @Override
+            public String toString() {
+                return "uniform:" + minMillis + ":" + maxMillis;
+            }
+        };
+    }
+
+    public static LatencyDistribution lognormal(double p50Millis, double p99Millis) {
+        if (p50Millis <= 0 || p99Millis < p50Millis) {
+            throw new IllegalArgumentException("lognormal 参数需满足 0 < p50 <= p99: " + p50Millis + ":" + p99Millis);
+        }
+        double mu = Math.log(p50Millis);
+        double sigma = (Math.log(p99Millis) - mu) / Z_99;
+        return new LatencyDistribution() {
+            @Override
+            protected double sampleMillis(ThreadLocalRandom random) {
+                return Math.exp(mu + sigma * random.nextGaussian());
+            }
+
+            @Override
+            public String toString() {
+                return "lognormal:" + p50Millis + ":" + p99Millis;
+            }
+        };
+    }
+
+    /**
+     * 解析配置字符串，空值表示无延迟
+     */
+    public static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return NONE;
+        }
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed":
+                    if (parts.length == 2) {
+                        return fixed(Double.parseDouble(parts[1]));
+                    }
+                    break;
+                case "uniform":
+                    if (parts.length == 3) {
+                        return uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    }
+                    break;
+                case "lognormal":
+                    if (parts.length == 3) {
+                        return lognormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无法解析延迟分布: " + spec, e);
+        }
+        throw new IllegalArgumentException("无法解析延迟分布: " + spec);
+    }
+}
@@ -0,0 +1,34 @@
+package com.findu.negotiation.infrastructure.stub;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * 单个桩接口的行为配置，从 {@code findu.stub.<name>.*} 读取
+ * <ul>
+ *     <li>{@code latency}：延迟分布，见 {@link LatencyDistribution}</li>
+ *     <li>{@code error-rate}：返回 500 的概率，0~1</li>
+ *     <li>{@code payload-size}：响应规模，含义由接口决定（服务卡片数、消息条数等）</li>
+ * </ul>
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public record StubEndpoint(String name, LatencyDistribution latency, double errorRate, int payloadSize) {
+
+    public StubEndpoint {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("error-rate 需在 0~1 之间: " + name + "=" + errorRate);
+        }
+        if (payloadSize < 0) {
+            throw new IllegalArgumentException("payload-size 不能为负数: " + name + "=" + payloadSize);
+        }
+    }
+
+    public static StubEndpoint from(Environment environment, String name, String defaultLatency, int defaultPayloadSize) {
+        String prefix = "findu.stub." + name + ".";
+        return new StubEndpoint(name,
+                LatencyDistribution.parse(environment.getProperty(prefix + "latency", defaultLatency)),
+                environment.getProperty(prefix + "error-rate", Double.class, 0.0),
+                environment.getProperty(prefix + "payload-size", Integer.class, defaultPayloadSize));
+    }
+}
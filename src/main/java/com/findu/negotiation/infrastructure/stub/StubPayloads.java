@@ -0,0 +1,219 @@
+package com.findu.negotiation.infrastructure.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Random;
+
+/**
+ * 桩服务响应体构造，结构与线上 User / Chat / DMS / Agent 服务返回一致
+ * <p>
+ * 使用固定随机种子，同样的参数每次生成的内容相同，基准测试和压测结果可以横向比较
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class StubPayloads {
+
+    public static final String PROVIDER_ID = "provider-10001";
+    public static final String CUSTOMER_ID = "customer-20002";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String[] TEXTS = {
+            "你好，请问周六下午可以上门吗？",
+            "可以的，大概几点方便？",
+            "下午两点左右，地址在朝阳区望京SOHO T3",
+            "好的，三室一厅深度保洁的话大概需要4个小时",
+            "价格能便宜一点吗，预算在500以内",
+            "可以给您按450算，包含厨房油烟机清洗",
+            "那就这么定了，需要我准备什么工具吗？",
+            "不用，我们自带全部工具和清洁剂 😊"
+    };
+
+    private static final String[] PRICES = {"300元/小时", "450元", "99.9元", "面议"};
+
+    private StubPayloads() {
+    }
+
+    /**
+     * 聊天记录，文本、图片、需求卡片、普通自定义消息按约 7:1:1:1 混合，由 userB 先发言、双方交替
+     *
+     * @param messageCount 消息条数
+     */
+    public static String chatHistory(String userA, String userB, int messageCount, long seed) {
+        Random random = new Random(seed);
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("success", true);
+        root.put("message", "ok");
+        ObjectNode data = root.putObject("data");
+        data.put("user_a", userA);
+        data.put("user_b", userB);
+        data.put("msg_count", messageCount);
+        data.put("complete", true);
+        ArrayNode messages = data.putArray("messages");
+        long time = 1_767_000_000L;
+        for (int i = 0; i < messageCount; i++) {
+            boolean fromA = (i & 1) == 1;
+            ObjectNode msg = messages.addObject();
+            msg.put("from", fromA ? userA : userB);
+            msg.put("to", fromA ? userB : userA);
+            msg.put("msg_time", time + i * 37L);
+            msg.put("msg_random", random.nextInt(Integer.MAX_VALUE));
+            msg.put("msg_seq", i + 1);
+            msg.put("msg_key", (i + 1) + "_" + random.nextInt(1_000_000) + "_" + (time + i * 37L));
+            msg.put("is_peer_read", 1);
+            ArrayNode content = msg.putArray("content");
+            int kind = random.nextInt(10);
+            if (kind == 7) {
+                content.add(imageContent(random));
+            } else if (kind == 8) {
+                content.add(demandCardContent(i));
+            } else if (kind == 9) {
+                ObjectNode custom = content.addObject();
+                custom.put("type", "custom");
+                ObjectNode body = custom.putObject("content");
+                body.put("type", "order_card");
+                body.put("data", "{\"orderId\":\"" + i + "\"}");
+                body.put("desc", "订单卡片");
+            } else {
+                ObjectNode text = content.addObject();
+                text.put("type", "text");
+                text.put("content", TEXTS[random.nextInt(TEXTS.length)]);
+            }
+        }
+        data.put("last_msg_key", messageCount + "_last");
+        return root.toString();
+    }
+
+    private static ObjectNode imageContent(Random random) {
+        ObjectNode image = MAPPER.createObjectNode();
+        image.put("type", "image");
+        ObjectNode body = image.putObject("content");
+        body.put("UUID", Long.toHexString(random.nextLong()));
+        body.put("ImageFormat", 1);
+        ArrayNode infos = body.putArray("ImageInfoArray");
+        for (int t = 1; t <= 3; t++) {
+            ObjectNode info = infos.addObject();
+            info.put("Type", t);
+            info.put("Size", 100_000 / t);
+            info.put("Width", 1080 / t);
+            info.put("Height", 1920 / t);
+            info.put("URL", "https://cos.findu.work/im/" + Long.toHexString(random.nextLong()) + ".jpg");
+        }
+        return image;
+    }
+
+    private static ObjectNode demandCardContent(int i) {
+        ObjectNode card = MAPPER.createObjectNode();
+        card.put("type", "custom");
+        ObjectNode body = card.putObject("content");
+        body.put("type", "demand_card");
+        ObjectNode demand = MAPPER.createObjectNode();
+        demand.put("type", "demand_card");
+        demand.put("version", "1");
+        demand.put("demandId", "demand-" + i);
+        demand.put("nickname", "小王");
+        demand.put("demandTitle", "三室一厅深度保洁");
+        demand.put("budget", "500元");
+        demand.put("schedule", "周六下午");
+        demand.put("location", "北京市朝阳区望京");
+        demand.put("rawDescription", "需要深度保洁，包括厨房油烟机和卫生间");
+        body.put("data", demand.toString());
+        body.put("desc", "需求卡片");
+        return card;
+    }
+
+    /**
+     * 服务方公开服务卡片列表（User 服务 works 接口）
+     *
+     * @param count 服务卡片数量，ID 依次为 works-0、works-1 ...
+     */
+    public static String providerWorks(int count) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("code", 200);
+        root.put("message", "success");
+        ArrayNode items = root.putObject("data").putArray("items");
+        for (int i = 0; i < count; i++) {
+            ObjectNode item = items.addObject();
+            item.put("worksId", "works-" + i);
+            item.put("title", "家庭保洁服务 " + i);
+            item.put("content", "专业保洁团队，自带工具，覆盖厨房、卫生间、卧室等全屋清洁，服务编号 " + i);
+            ObjectNode extendInfo = item.putObject("extendInfo");
+            extendInfo.put("expectedPrice", PRICES[i % PRICES.length]);
+            extendInfo.put("serviceLocation", "北京市朝阳区");
+            extendInfo.put("serviceMethod", "上门服务");
+            ArrayNode pois = extendInfo.putArray("pois");
+            ObjectNode poi = pois.addObject();
+            poi.put("poiId", "poi-" + i);
+            poi.put("poiName", "望京SOHO");
+            poi.put("address", "北京市朝阳区望京街10号");
+            poi.put("longitude", 116.4808);
+            poi.put("latitude", 39.9962);
+        }
+        return root.toString();
+    }
+
+    /**
+     * DMS 需求描述，服务类型位于表格中间
+     */
+    public static String demandMarkdown() {
+        return """
+                ## 需求详情
+
+                | 字段 | 内容 |
+                |:---|:---|
+                | **需求标题** | 三室一厅深度保洁 |
+                | **服务地点** | 北京市朝阳区望京 |
+                | **服务类型** |
+                |:---|:---|
+                | 服务类型 | 家庭保洁 |
+                | **预算** | 500元 |
+                | **时间** | 周六下午 |
+
+                补充说明：需要自带工具，厨房油烟机需要拆洗。
+                """;
+    }
+
+    /**
+     * DMS 需求详情
+     *
+     * @param paddingChars 追加在描述末尾的补充说明字符数，用于模拟长描述
+     */
+    public static String demandDetail(int paddingChars) {
+        StringBuilder description = new StringBuilder(demandMarkdown());
+        for (int i = 0; i < paddingChars; i++) {
+            description.append(TEXTS[0].charAt(i % TEXTS[0].length()));
+        }
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("code", 200);
+        root.put("message", "success");
+        root.putObject("data").put("description", description.toString());
+        return root.toString();
+    }
+
+    /**
+     * Agent 协商补全结果，选中 works-0
+     *
+     * @param contentFields 协商条款字段数
+     */
+    public static String agentCompletion(int contentFields) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("id", "stub-completion");
+        ObjectNode result = root.putObject("result");
+        result.put("id", "stub-result");
+        result.put("title", "三室一厅深度保洁");
+        result.put("price", 45000);
+        ObjectNode content = result.putObject("content");
+        for (int i = 0; i < contentFields; i++) {
+            content.put("term_" + i, TEXTS[i % TEXTS.length]);
+        }
+        ObjectNode product = result.putArray("products").addObject();
+        product.put("id", "works-0");
+        product.put("title", "家庭保洁服务 0");
+        product.put("price", 45000);
+        product.put("is_selected", true);
+        return root.toString();
+    }
+}
@@ -1,6 +1,18 @@
 package com.findu.negotiation.infrastructure.util;
 
+import com.fasterxml.jackson.core.JacksonException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.StageTimer;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.http.BodyCompression;
+import com.findu.negotiation.infrastructure.http.HttpPoolGauges;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.logging.RequestLog;
+import com.findu.negotiation.infrastructure.logging.StructuredLogMessage;
+import com.findu.negotiation.infrastructure.warmup.WarmupRouting;
+import okhttp3.ConnectionPool;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -12,12 +24,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP 工具包
+ * <p>
+ * 请求体与响应体压缩见 {@link BodyCompression}：显式发送 Accept-Encoding 后 OkHttp 不再透明解压，
+ * 由这里统计传输字节数，成功的 gzip 响应直接以解压流交给 Jackson 解析。
+ * 发往 {@link WireFormat} 中配置为 Smile 的下游时请求体以 Smile 编码，响应按 Content-Type 选择 Smile 或 JSON 解码。
  *
  * @author timothy
  * @date 2025/12/14
@@ -26,16 +45,41 @@ public class HttpUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpUtil.class);
 
-    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json");
+    /**
+     * 与 RequestBody.create(String, MediaType) 自动补全的类型一致
+     */
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    private static final MediaType SMILE_MEDIA_TYPE = MediaType.get(WireFormat.SMILE_VALUE);
+
+    /**
+     * 与 OkHttp 默认值相同（最多 5 个空闲连接，保活 5 分钟），显式创建以便输出连接数指标
+     */
+    /**
+     * 读超时，等待下游响应的调用方以此为上限
+     */
+    public static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(5, 5, TimeUnit.MINUTES);
 
     private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+            .connectionPool(CONNECTION_POOL)
             .connectTimeout(Duration.ofSeconds(10))
-            .readTimeout(Duration.ofSeconds(30))
+            .readTimeout(READ_TIMEOUT)
             .writeTimeout(Duration.ofSeconds(30))
             .build();
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final StageTimer.Stage SERIALIZE_STAGE = StageTimer.Stage.of("serialize");
+
+    static {
+        // OkHttp 同步调用不限制连接数，没有等待队列，只输出总连接数与空闲连接数
+        HttpPoolGauges.register("okhttp", "*",
+                () -> CONNECTION_POOL.connectionCount() - CONNECTION_POOL.idleConnectionCount(),
+                CONNECTION_POOL::idleConnectionCount, null, null);
+    }
+
     private HttpUtil() {
     }
 
@@ -52,44 +96,78 @@ public class HttpUtil {
     }
 
     public static <T> HttpResponse<T> postJson(String url, Object payload, Map<String, String> headers, Class<T> responseType) {
-        String body;
+        url = WarmupRouting.rewrite(url);
+        // 预先序列化的字符串与 String 响应只能走 JSON
+        boolean smile = !(payload instanceof String) && responseType != String.class && WireFormat.isSmile(url);
+        String body = null;
+        byte[] bodyBytes;
         try {
-            body = payload instanceof String ? (String) payload : OBJECT_MAPPER.writeValueAsString(payload);
+            if (smile) {
+                bodyBytes = WireFormat.smileMapper().writeValueAsBytes(payload);
+            } else {
+                body = payload instanceof String ? (String) payload : OBJECT_MAPPER.writeValueAsString(payload);
+                bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+            }
         } catch (Exception e) {
             LOGGER.error("Failed to serialize request payload", e);
             return new HttpResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), null);
         }
-        
-        RequestBody requestBody = RequestBody.create(body, JSON_MEDIA_TYPE);
+        StageTimer.current().mark(SERIALIZE_STAGE);
+
+        boolean compressed = BodyCompression.shouldCompress(url, bodyBytes.length);
+        RequestBody requestBody = RequestBody.create(compressed ? BodyCompression.gzip(url, bodyBytes) : bodyBytes,
+                smile ? SMILE_MEDIA_TYPE : JSON_MEDIA_TYPE);
 
+        String spanId = TraceIds.newSpanId();
         Request.Builder requestBuilder = new Request.Builder()
                 .url(url)
-                .post(requestBody);
+                .post(requestBody)
+                .header(TraceIds.REQUEST_ID_HEADER, spanId);
+        if (compressed) {
+            requestBuilder.header("Content-Encoding", BodyCompression.GZIP);
+        }
+        if (BodyCompression.isAcceptGzip()) {
+            requestBuilder.header("Accept-Encoding", BodyCompression.GZIP);
+        }
+        if (smile) {
+            requestBuilder.header("Accept", WireFormat.SMILE_ACCEPT);
+        }
+        String traceId = RequestContextHolder.getTraceId();
+        if (traceId != null) {
+            requestBuilder.header(TraceIds.TRACE_ID_HEADER, traceId);
+        }
 
         if (headers != null) {
             headers.forEach((key, value) -> {
                 if (value != null) {
-                    requestBuilder.addHeader(key, value);
+                    requestBuilder.header(key, value);
                 }
             });
         }
 
         Request request = requestBuilder.build();
-        try {
+        if (smile) {
+            LOGGER.info("request url:{}, format=smile, bytes={}", url, bodyBytes.length);
+        } else {
             LOGGER.info("request url:{}, body:{}", url, body);
-        } catch (Exception e) {
-            LOGGER.info("request url:{}", url);
         }
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try (Response response = CLIENT.newCall(request).execute()) {
-            long procTime = System.currentTimeMillis() - startTime;
+            long elapsedNanos = System.nanoTime() - startTime;
             ResponseBody responseBody = response.body();
-            String responseString = responseBody != null ? responseBody.string() : null;
+            boolean gzip = responseBody != null && BodyCompression.isGzip(response.header("Content-Encoding"));
+            boolean smileResponse = responseBody != null && WireFormat.isSmileContentType(response.header("Content-Type"));
+            if ((gzip || smileResponse) && response.isSuccessful() && responseType != String.class) {
+                T parsedBody = readStreaming(url, response.code(), responseBody, responseType, gzip, smileResponse);
+                logHttpClient(url, spanId, response.code(), elapsedNanos, null);
+                return new HttpResponse<>(response.code(), parsedBody, response.headers());
+            }
+            String responseString = responseBody == null ? null
+                    : gzip || smileResponse ? readString(url, responseBody, gzip, smileResponse) : responseBody.string();
 
             LOGGER.info("HTTP响应: statusCode={}, body={}", response.code(), responseString);
-            LOGGER.info("type=http_client, method=POST, uri={}, status={}, proc_time={}ms",
-                url, response.code(), procTime);
+            logHttpClient(url, spanId, response.code(), elapsedNanos, null);
 
             T parsedBody = null;
             // 只有在成功状态码时才尝试解析响应体为目标类型
@@ -107,17 +185,93 @@ public class HttpUtil {
                 LOGGER.warn("HTTP请求失败: statusCode={}, response={}", response.code(), responseString);
             }
 
-            return new HttpResponse<>(response.code(), parsedBody);
+            return new HttpResponse<>(response.code(), parsedBody, response.headers());
         } catch (IOException e) {
-            long procTime = System.currentTimeMillis() - startTime;
+            long elapsedNanos = System.nanoTime() - startTime;
             LOGGER.error("HTTP POST request failed: {}", url, e);
-            LOGGER.error("type=http_client, method=POST, uri={}, status=error, proc_time={}ms, error={}",
-                url, procTime, e.getMessage());
+            logHttpClient(url, spanId, -1, elapsedNanos, e.getMessage());
             return new HttpResponse<>(HttpStatus.INTERNAL_SERVER_ERROR.value(), null);
         }
     }
 
-    public record HttpResponse<T>(int statusCode, T body) {
+    /**
+     * gzip 或 Smile 响应边读边解析，不在内存中还原完整的响应字符串，因此响应体不再输出到日志
+     *
+     * @return 解析失败时为 null
+     * @throws IOException 读取响应时网络异常
+     */
+    private static <T> T readStreaming(String url, int statusCode, ResponseBody responseBody, Class<T> responseType,
+                                       boolean gzip, boolean smile) throws IOException {
+        ObjectMapper mapper = smile ? WireFormat.smileMapper() : OBJECT_MAPPER;
+        try (InputStream in = gzip ? BodyCompression.decoding(url, responseBody.byteStream()) : responseBody.byteStream()) {
+            T parsedBody = mapper.readValue(in, responseType);
+            LOGGER.info("HTTP响应: statusCode={}, format={}, contentEncoding={}", statusCode,
+                    smile ? "smile" : "json", gzip ? BodyCompression.GZIP : "identity");
+            return parsedBody;
+        } catch (JacksonException e) {
+            LOGGER.warn("解析响应体失败: url={}, format={}", url, smile ? "smile" : "json", e);
+            return null;
+        }
+    }
+
+    /**
+     * 失败响应等需要输出到日志的场景，解压后按 UTF-8 还原；Smile 响应转为等价的 JSON 文本
+     */
+    private static String readString(String url, ResponseBody responseBody, boolean gzip, boolean smile)
+            throws IOException {
+        try (InputStream in = gzip ? BodyCompression.decoding(url, responseBody.byteStream()) : responseBody.byteStream()) {
+            return smile ? WireFormat.smileMapper().readTree(in).toString()
+                    : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 输出下游调用的结构化日志，duration 精确到微秒，proc_time 保留毫秒整数
+     *
+     * @param status 响应状态码，调用异常时为-1
+     */
+    private static void logHttpClient(String url, String spanId, int status, long elapsedNanos, String error) {
+        if (!RequestLog.isEnabled()) {
+            return;
+        }
+        StructuredLogMessage message = RequestLog.begin("http_client")
+                .put("trace_id", RequestContextHolder.getTraceId())
+                .put("span_id", spanId)
+                .put("method", "POST")
+                .put("uri", url)
+                .put("status_code", status)
+                .put("proc_time", elapsedNanos / 1_000_000)
+                .putMillis("duration", elapsedNanos / 1_000);
+        if (error != null) {
+            message.put("error", error);
+        }
+        RequestLog.emit(message);
+    }
+
+    /**
+     * 预先建立到 url 的连接并放回连接池，任何响应状态都视为成功
+     *
+     * @return 连接是否建立成功
+     */
+    public static boolean preconnect(String url) {
+        Request request = new Request.Builder().url(url).head().build();
+        try (Response response = CLIENT.newCall(request).execute()) {
+            LOGGER.debug("预建连接完成: url={}, statusCode={}", url, response.code());
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("预建连接失败: url={}, error={}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param headers 响应头，请求未发出或未收到响应时为空
+     */
+    public record HttpResponse<T>(int statusCode, T body, Headers headers) {
+        public HttpResponse(int statusCode, T body) {
+            this(statusCode, body, Headers.of());
+        }
+
         public boolean isSuccessful() {
             return statusCode >= 200 && statusCode < 300;
         }
@@ -0,0 +1,99 @@
+package com.findu.negotiation.infrastructure.warmup;
+
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 预热请求的下游转发
+ * <p>
+ * 预热期间 {@link WarmupRunner} 向本机发送带 {@value #HEADER} 头的合成请求，拦截器校验令牌后把请求上下文标记为预热；
+ * HttpClientWrapper 与 HttpUtil 发出调用前经 {@link #rewrite(String)} 把配置的下游地址前缀替换为本地桩服务地址，
+ * 请求因此走完完整的链路（Tomcat、过滤器、Jackson、业务流程、连接池），却不会打到真实下游。
+ * <p>
+ * 令牌每次预热随机生成、只存在于进程内，预热结束即失效；非预热请求的 rewrite 只有一次上下文读取。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+public final class WarmupRouting {
+
+    public static final String HEADER = "X-Findu-Warmup";
+
+    /**
+     * 预热请求的请求属性，HttpLoggingFilter 在拦截器清理请求上下文之后仍能据此识别预热请求
+     */
+    public static final String REQUEST_ATTRIBUTE = WarmupRouting.class.getName() + ".WARMUP";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile String token;
+    private static volatile Map<String, String> routes = Map.of();
+
+    private WarmupRouting() {
+    }
+
+    /**
+     * 开始转发，返回本次预热的令牌
+     *
+     * @param routes 下游地址前缀到桩服务地址前缀的映射
+     */
+    static synchronized String install(Map<String, String> routes) {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        WarmupRouting.routes = new LinkedHashMap<>(routes);
+        token = HexFormat.of().formatHex(bytes);
+        return token;
+    }
+
+    static synchronized void uninstall() {
+        token = null;
+        routes = Map.of();
+    }
+
+    /**
+     * 请求头中的令牌是否为当前预热的令牌
+     */
+    public static boolean isValidToken(String value) {
+        String current = token;
+        return current != null && current.equals(value);
+    }
+
+    /**
+     * 是否为预热的合成请求：只接受本机发起且令牌正确的请求，结果记入请求属性，同一请求只校验一次
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        Object marked = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (marked != null) {
+            return (Boolean) marked;
+        }
+        boolean warmup = isLoopback(request.getRemoteAddr()) && isValidToken(request.getHeader(HEADER));
+        request.setAttribute(REQUEST_ATTRIBUTE, warmup);
+        return warmup;
+    }
+
+    private static boolean isLoopback(String remoteAddr) {
+        return "127.0.0.1".equals(remoteAddr) || "0:0:0:0:0:0:0:1".equals(remoteAddr) || "::1".equals(remoteAddr);
+    }
+
+    /**
+     * 预热请求返回桩服务地址，其他请求原样返回
+     *
+     * @throws IllegalStateException 预热请求的地址不在转发表中，宁可失败也不把合成数据发给真实下游
+     */
+    public static String rewrite(String url) {
+        if (!RequestContextHolder.isWarmup()) {
+            return url;
+        }
+        for (Map.Entry<String, String> route : routes.entrySet()) {
+            if (url.startsWith(route.getKey())) {
+                return route.getValue() + url.substring(route.getKey().length());
+            }
+        }
+        throw new IllegalStateException("预热请求的下游地址没有对应的桩服务: " + url);
+    }
+}
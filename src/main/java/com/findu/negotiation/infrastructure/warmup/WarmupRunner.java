@@ -0,0 +1,311 @@
+package com.findu.negotiation.infrastructure.warmup;
+
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.stub.DownstreamStubServer;
+import com.findu.negotiation.infrastructure.stub.LatencyDistribution;
+import com.findu.negotiation.infrastructure.stub.StubEndpoint;
+import com.findu.negotiation.infrastructure.stub.StubPayloads;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 启动预热
+ * <p>
+ * 应用就绪（Tomcat 已监听）后在后台依次执行：
+ * <ol>
+ *     <li>解析各下游域名并预先建立连接：RestTemplate 与 OkHttp 各自的连接池中每个下游放入若干条空闲连接</li>
+ *     <li>启动一个零延迟的本地桩服务，向本机 /create 发送合成请求，经 {@link WarmupRouting} 把下游调用转发到桩服务，
+ *     让 Tomcat、过滤器、Jackson 反序列化、业务流程等热点代码在接真实流量前完成 JIT 编译</li>
+ * </ol>
+ * 预热完成、失败或超出时间预算后 {@link #isReady()} 才返回 true，/health/ready 据此返回 200，
+ * 部署平台在此之前不会把流量切过来。超出预算时中断预热线程，已完成的部分仍然有效。
+ * <p>
+ * 合成请求不写请求日志、不计入接口耗时（见 {@link WarmupRouting#REQUEST_ATTRIBUTE}），
+ * 就绪前清空所有直方图，阶段、下游、连接池等耗时分布只反映真实流量。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@Component
+public class WarmupRunner implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String CREATE_PATH = "/api/v1/orders_negotiation/create";
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED, DISABLED
+    }
+
+    private final Environment environment;
+    private final RestTemplate restTemplate;
+
+    @Value("${findu.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${findu.warmup.timeout:60000}")
+    private long timeout;
+
+    @Value("${findu.warmup.connections-per-url:4}")
+    private int connectionsPerUrl;
+
+    @Value("${findu.warmup.resttemplate-urls:}")
+    private String restTemplateUrls;
+
+    @Value("${findu.warmup.okhttp-urls:}")
+    private String okHttpUrls;
+
+    @Value("${findu.warmup.requests:2000}")
+    private int requests;
+
+    @Value("${findu.warmup.concurrency:8}")
+    private int concurrency;
+
+    private volatile Status status = Status.PENDING;
+    private volatile long elapsedMillis;
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+    private final AtomicInteger requestsSent = new AtomicInteger();
+
+    public WarmupRunner(Environment environment, RestTemplate restTemplate) {
+        this.environment = environment;
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            status = Status.DISABLED;
+            LOGGER.info("启动预热未启用，直接就绪");
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext webContext)) {
+            status = Status.DISABLED;
+            return;
+        }
+        int port = webContext.getWebServer().getPort();
+        Thread.ofPlatform().daemon().name("warmup-supervisor").start(() -> runWithBudget(port));
+    }
+
+    public boolean isReady() {
+        Status current = status;
+        return current != Status.PENDING && current != Status.RUNNING;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public int getRequestsSent() {
+        return requestsSent.get();
+    }
+
+    private void runWithBudget(int port) {
+        status = Status.RUNNING;
+        long start = System.nanoTime();
+        LOGGER.info("启动预热开始: timeout={}ms, requests={}, concurrency={}", timeout, requests, concurrency);
+        Status result = Status.COMPLETED;
+        Thread worker = Thread.ofPlatform().name("warmup").start(() -> {
+            try {
+                preconnect();
+                exercisePipeline(port);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.warn("启动预热失败: {}", e.getMessage(), e);
+                status = Status.FAILED;
+            }
+        });
+        try {
+            worker.join(Duration.ofMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+            result = Status.TIMED_OUT;
+        } else if (status == Status.FAILED) {
+            result = Status.FAILED;
+        }
+        elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 就绪前没有真实流量，清空预热留下的桩服务耗时
+        MetricsRegistry.resetHistograms();
+        status = result;
+        LOGGER.info("启动预热结束: status={}, elapsed={}ms, connections={}, requests={}",
+                result, elapsedMillis, connectionsOpened.get(), requestsSent.get());
+    }
+
+    /**
+     * 解析域名并为每个下游建立 connectionsPerUrl 条连接，同时发起以便各占一条连接
+     */
+    private void preconnect() throws InterruptedException {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (String url : split(restTemplateUrls)) {
+            resolve(url);
+            for (int i = 0; i < connectionsPerUrl; i++) {
+                tasks.add(() -> {
+                    try {
+                        restTemplate.headForHeaders(url);
+                    } catch (RestClientException e) {
+                        // 4xx/5xx 也说明连接已建立；连接失败时 cause 为 IOException
+                        return !(e.getMostSpecificCause() instanceof java.io.IOException);
+                    }
+                    return true;
+                });
+            }
+        }
+        for (String url : split(okHttpUrls)) {
+            resolve(url);
+            for (int i = 0; i < connectionsPerUrl; i++) {
+                tasks.add(() -> HttpUtil.preconnect(url));
+            }
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                try {
+                    if (future.get()) {
+                        connectionsOpened.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("预建连接异常: {}", e.getMessage());
+                }
+            }
+        }
+        LOGGER.info("预建连接完成: {}/{}", connectionsOpened.get(), tasks.size());
+    }
+
+    private static void resolve(String url) {
+        String host = URI.create(url).getHost();
+        try {
+            InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            LOGGER.warn("下游域名解析失败: host={}", host);
+        }
+    }
+
+    /**
+     * 启动零延迟桩服务，把合成请求发给本机的 /create
+     */
+    private void exercisePipeline(int port) throws Exception {
+        if (requests <= 0) {
+            return;
+        }
+        DownstreamStubServer stub = new DownstreamStubServer(0,
+                environment.getProperty("findu.order-negotiation-agent.completions-endpoint",
+                        "/api/v1/inner/order_negotiation/completions"),
+                environment.getProperty("findu.order-negotiation-agent.batch-endpoint",
+                        "/api/v1/inner/order_negotiation/completions/batch"),
+                new StubEndpoint("user", LatencyDistribution.NONE, 0, 10),
+                new StubEndpoint("chat", LatencyDistribution.NONE, 0, 200),
+                new StubEndpoint("dms", LatencyDistribution.NONE, 0, 0),
+                new StubEndpoint("agent", LatencyDistribution.NONE, 0, 4));
+        stub.start();
+        try {
+            Map<String, String> routes = new LinkedHashMap<>();
+            route(routes, "findu.user.base-url", stub, DownstreamStubServer.USER_OFFSET);
+            route(routes, "findu.chat.base-url", stub, DownstreamStubServer.CHAT_OFFSET);
+            route(routes, "findu.dms.base-url", stub, DownstreamStubServer.DMS_OFFSET);
+            route(routes, "findu.order-negotiation-agent.base-url", stub, DownstreamStubServer.AGENT_OFFSET);
+            String token = WarmupRouting.install(routes);
+            sendRequests(port, token);
+        } finally {
+            WarmupRouting.uninstall();
+            stub.stop();
+        }
+    }
+
+    private void route(Map<String, String> routes, String property, DownstreamStubServer stub, int offset) {
+        String baseUrl = environment.getProperty(property);
+        if (baseUrl != null && !baseUrl.isEmpty()) {
+            routes.put(baseUrl, "http://127.0.0.1:" + stub.getPort(offset));
+        }
+    }
+
+    private void sendRequests(int port, String token) throws InterruptedException {
+        String body = "{\"providerId\":\"" + StubPayloads.PROVIDER_ID + "\",\"customerId\":\"" + StubPayloads.CUSTOMER_ID
+                + "\",\"demandId\":\"warmup\",\"productId\":\"works-0\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + CREATE_PATH))
+                .header("Content-Type", "application/json")
+                .header(WarmupRouting.HEADER, token)
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().executor(executor).build()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0 && !Thread.currentThread().isInterrupted()) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                            requestsSent.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            try {
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                // 超出时间预算，停止所有发送线程
+                executor.shutdownNow();
+                throw e;
+            } catch (Exception e) {
+                LOGGER.warn("预热请求异常: {}", e.getMessage());
+            }
+        }
+        LOGGER.info("预热请求完成: sent={}, failures={}", requestsSent.get(), failures.get());
+    }
+
+    private static List<String> split(String urls) {
+        return Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(Predicate.not(String::isEmpty))
+                .toList();
+    }
+}
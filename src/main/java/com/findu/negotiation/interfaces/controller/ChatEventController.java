@@ -0,0 +1,77 @@
+package com.findu.negotiation.interfaces.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.findu.negotiation.infrastructure.archive.ChatArchive;
+import com.findu.negotiation.infrastructure.cache.DraftPrecomputer;
+import com.findu.negotiation.infrastructure.cluster.AffinityRouter;
+import com.findu.negotiation.interfaces.dto.ApiResponse;
+import com.findu.negotiation.interfaces.dto.ChatEventRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 聊天服务回调接口，每条新消息调用一次
+ * <p>
+ * 只记录事件并安排后台预生成，立即返回；未启用预生成（findu.precompute.enabled=false）时直接返回成功，
+ * 聊天服务可以先接入再开启。
+ * 启用集群路由的 forward 模式时，事件转发到这对用户的归属节点，在那里预生成，/create 也会路由到那里。
+ * 启用本地聊天归档时，这对用户的归档不再当作最新，下次生成草案重新调用 Chat 服务
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@RestController
+@RequestMapping("/api/v1/inner/orders_negotiation")
+public class ChatEventController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatEventController.class);
+
+    private static final TypeReference<ApiResponse<Void>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * 未启用时为 null
+     */
+    @Autowired(required = false)
+    private DraftPrecomputer draftPrecomputer;
+
+    /**
+     * 未启用集群路由时为 null
+     */
+    @Autowired(required = false)
+    private AffinityRouter affinityRouter;
+
+    /**
+     * 未启用本地聊天归档时为 null
+     */
+    @Autowired(required = false)
+    private ChatArchive chatArchive;
+
+    @PostMapping("/chat_events")
+    public ApiResponse<Void> chatEvent(@Valid @RequestBody ChatEventRequest request,
+                                       @RequestHeader(value = AffinityRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+                                       HttpServletResponse servletResponse) {
+        LOGGER.debug("收到聊天消息事件: request={}", request);
+        if (affinityRouter != null && draftPrecomputer != null) {
+            ApiResponse<Void> routed = affinityRouter.route("/api/v1/inner/orders_negotiation/chat_events",
+                    request.getProviderId(), request.getCustomerId(), request, RESPONSE_TYPE, forwardedBy, servletResponse);
+            if (routed != null) {
+                return routed;
+            }
+        }
+        if (chatArchive != null) {
+            chatArchive.invalidate(request.getProviderId(), request.getCustomerId());
+        }
+        if (draftPrecomputer != null) {
+            draftPrecomputer.onMessage(request.getProviderId(), request.getCustomerId(), request.getMsgKey());
+        }
+        return ApiResponse.success(null);
+    }
+}
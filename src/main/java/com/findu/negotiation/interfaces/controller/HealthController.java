@@ -0,0 +1,45 @@
+package com.findu.negotiation.interfaces.controller;
+
+import com.findu.negotiation.infrastructure.warmup.WarmupRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 健康检查接口
+ * <p>
+ * /health 为存活探针，进程能处理请求即返回 UP；
+ * /health/ready 为就绪探针，启动预热结束（完成、失败、超时或未启用）前返回 503，之后返回 200。
+ * 两个路径均在 HttpLoggingFilter 的排除列表中。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@RestController
+public class HealthController {
+
+    @Autowired
+    private WarmupRunner warmupRunner;
+
+    @GetMapping("/health")
+    public Map<String, Object> health() {
+        return Map.of("status", "UP");
+    }
+
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        boolean ready = warmupRunner.isReady();
+        body.put("status", ready ? "UP" : "WARMING_UP");
+        body.put("warmup", warmupRunner.getStatus().name());
+        body.put("warmupElapsedMs", warmupRunner.getElapsedMillis());
+        body.put("connectionsOpened", warmupRunner.getConnectionsOpened());
+        body.put("requestsSent", warmupRunner.getRequestsSent());
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+}
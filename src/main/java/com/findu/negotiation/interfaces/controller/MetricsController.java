@@ -0,0 +1,146 @@
+package com.findu.negotiation.interfaces.controller;
+
+import com.findu.negotiation.infrastructure.cluster.AffinityRouter;
+import com.findu.negotiation.infrastructure.cluster.ClusterMembership;
+import com.findu.negotiation.infrastructure.http.BodyCompression;
+import com.findu.negotiation.infrastructure.http.InstrumentedConnectionManager;
+import com.findu.negotiation.infrastructure.metrics.LatencyHistogram;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.resilience.KeyedRateLimiter;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内指标接口
+ * <p>
+ * /metrics 输出 Prometheus 文本格式，/metrics/latency 输出便于人工查看的百分位表，
+ * /metrics/pools 输出 HttpClient 连接池各路由的连接数与租借等待，/metrics/compression 输出各下游消息体的压缩比与压缩/解压耗时，
+ * /metrics/rate_limit 输出各限速维度被拒绝最多的调用方，/metrics/cluster 输出集群成员与指定用户对的归属节点。
+ * 以上路径均在 HttpLoggingFilter 的排除列表中，不会产生请求日志。
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@RestController
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    @Autowired
+    private InstrumentedConnectionManager connectionManager;
+
+    @Autowired
+    private List<KeyedRateLimiter> rateLimiters;
+
+    /**
+     * 未启用集群路由时为 null
+     */
+    @Autowired(required = false)
+    private AffinityRouter affinityRouter;
+
+    @GetMapping(value = "/metrics", produces = PROMETHEUS_CONTENT_TYPE)
+    public String prometheus() throws IOException {
+        StringBuilder sb = new StringBuilder(8192);
+        MetricsRegistry.writePrometheus(sb);
+        return sb.toString();
+    }
+
+    @GetMapping(value = "/metrics/latency", produces = TEXT_CONTENT_TYPE)
+    public String latency() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append(String.format("%-90s %10s %10s %10s %10s %10s %10s %10s%n",
+                "metric", "count", "mean(ms)", "p50", "p90", "p99", "p999", "max"));
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : MetricsRegistry.histogramSnapshots().entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue();
+            sb.append(String.format("%-90s %10d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    entry.getKey(), s.getCount(), s.getMeanMicros() / 1000.0,
+                    s.valueAtPercentile(50) / 1000.0, s.valueAtPercentile(90) / 1000.0,
+                    s.valueAtPercentile(99) / 1000.0, s.valueAtPercentile(99.9) / 1000.0,
+                    s.getMaxMicros() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    @GetMapping(value = "/metrics/pools", produces = TEXT_CONTENT_TYPE)
+    public String pools() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format("%-14s %-40s %8s %10s %8s %6s %10s %12s %12s %10s%n",
+                "pool", "route", "leased", "available", "pending", "max", "leases", "wait_p50ms", "wait_p99ms", "timeouts"));
+        PoolStats total = connectionManager.getTotalStats();
+        sb.append(String.format("%-14s %-40s %8d %10d %8d %6d%n", connectionManager.getPool(), "*",
+                total.getLeased(), total.getAvailable(), total.getPending(), total.getMax()));
+        for (InstrumentedConnectionManager.RouteStats route : connectionManager.routeStats()) {
+            PoolStats stats = route.getPoolStats();
+            LatencyHistogram.Snapshot wait = route.getLeaseWait().snapshot();
+            sb.append(String.format("%-14s %-40s %8d %10d %8d %6d %10d %12.3f %12.3f %10d%n",
+                    connectionManager.getPool(), route.getName(), stats.getLeased(), stats.getAvailable(),
+                    stats.getPending(), stats.getMax(), wait.getCount(),
+                    wait.valueAtPercentile(50) / 1000.0, wait.valueAtPercentile(99) / 1000.0,
+                    route.getLeaseTimeouts()));
+        }
+        return sb.toString();
+    }
+
+    @GetMapping(value = "/metrics/compression", produces = TEXT_CONTENT_TYPE)
+    public String compression() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format("%-40s %-10s %10s %14s %14s %8s %12s %12s%n",
+                "route", "direction", "bodies", "raw_kb", "wire_kb", "ratio", "cpu_mean_us", "cpu_p99_us"));
+        for (BodyCompression.Stats stats : BodyCompression.stats()) {
+            LatencyHistogram.Snapshot cpu = stats.getCpu();
+            sb.append(String.format("%-40s %-10s %10d %14.1f %14.1f %8.3f %12.1f %12d%n",
+                    stats.getRoute(), stats.getDirection(), cpu.getCount(),
+                    stats.getRawBytes() / 1024.0, stats.getWireBytes() / 1024.0, stats.getRatio(),
+                    cpu.getMeanMicros(), cpu.valueAtPercentile(99)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param top 每个维度最多列出的调用方数
+     */
+    @GetMapping(value = "/metrics/rate_limit", produces = TEXT_CONTENT_TYPE)
+    public String rateLimit(@RequestParam(defaultValue = "20") int top) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format("%-10s %-8s %12s %12s%n", "dimension", "enabled", "allowed", "rejected"));
+        for (KeyedRateLimiter limiter : rateLimiters) {
+            sb.append(String.format("%-10s %-8s %12d %12d%n", limiter.getDimension(), limiter.isEnabled(),
+                    limiter.getAllowed(), limiter.getRejected()));
+        }
+        sb.append(String.format("%n%-10s %-40s %12s%n", "dimension", "key", "rejected"));
+        for (KeyedRateLimiter limiter : rateLimiters) {
+            for (KeyedRateLimiter.Offender offender : limiter.topOffenders(top)) {
+                sb.append(String.format("%-10s %-40s %12d%n", limiter.getDimension(), offender.key(), offender.rejected()));
+            }
+        }
+        return sb.toString();
+    }
+
+    @GetMapping(value = "/metrics/cluster", produces = TEXT_CONTENT_TYPE)
+    public String cluster(@RequestParam(required = false) String providerId,
+                          @RequestParam(required = false) String customerId) {
+        if (affinityRouter == null) {
+            return "cluster routing disabled\n";
+        }
+        ClusterMembership membership = affinityRouter.getMembership();
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(String.format("self: %s%nmode: %s%nnodes:%n", membership.getSelf(),
+                affinityRouter.isForward() ? "forward" : "hint"));
+        for (String node : membership.getNodes()) {
+            sb.append("  ").append(node).append(membership.isSelf(node) ? " (self)" : "").append('\n');
+        }
+        if (providerId != null && customerId != null) {
+            sb.append(String.format("owner(%s, %s): %s%n", providerId, customerId,
+                    membership.owner(providerId, customerId)));
+        }
+        return sb.toString();
+    }
+}
@@ -1,16 +1,26 @@
 package com.findu.negotiation.interfaces.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.findu.negotiation.application.NegotiationBizService;
 import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.findu.negotiation.infrastructure.cache.DraftPrecomputer;
+import com.findu.negotiation.infrastructure.cluster.AffinityRouter;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.StageTimer;
 import com.findu.negotiation.infrastructure.exception.BusinessException;
 import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.resilience.AdaptiveConcurrencyLimiter;
+import com.findu.negotiation.infrastructure.resilience.KeyedRateLimiter;
 import com.findu.negotiation.interfaces.dto.CreateNegotiationRequest;
 import com.findu.negotiation.interfaces.dto.ApiResponse;
 import com.findu.negotiation.interfaces.dto.CreateNegotiationResponse;
+import com.findu.negotiation.interfaces.dto.UpdateNegotiationRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -18,13 +28,102 @@ import org.springframework.web.bind.annotation.*;
 public class NegotiationController {
     private static final Logger LOGGER = LoggerFactory.getLogger(NegotiationController.class);
 
+    /**
+     * 请求进入到控制器之间的耗时，主要是请求体反序列化与参数校验
+     */
+    private static final StageTimer.Stage DISPATCH_STAGE = StageTimer.Stage.of("dispatch");
+
+    /**
+     * 命中预生成草案时查询的耗时
+     */
+    private static final StageTimer.Stage PRECOMPUTED_STAGE = StageTimer.Stage.of("precomputed");
+
+    private static final String FALLBACK_MODE = "fallback";
+
+    /**
+     * 降级结果的响应头，值为降级原因：rate_limited 超出调用方限速，overloaded 超出并发上限；正常结果不带该头
+     * <p>
+     * 降级的 /create 不调用 Chat、User、Agent 服务，返回的是只有用户ID、demandId、productId 的空白草案，
+     * 没有标题、内容与产品，调用方应按该头区分，而不是当作生成结果展示；
+     * 降级的 /update 返回已保存或调用方传入的上一版草案，都没有时才返回空白草案
+     */
+    public static final String DEGRADED_HEADER = "X-Findu-Degraded";
+    private static final String RATE_LIMITED = "rate_limited";
+    private static final String OVERLOADED = "overloaded";
+
+    private static final TypeReference<ApiResponse<CreateNegotiationResponse>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
     @Autowired
     private NegotiationBizService negotiationBizService;
 
+    @Autowired
+    private AdaptiveConcurrencyLimiter createConcurrencyLimiter;
+
+    @Autowired
+    private KeyedRateLimiter customerRateLimiter;
+
+    @Autowired
+    private KeyedRateLimiter providerRateLimiter;
+
+    /**
+     * 未启用草案预生成时为 null
+     */
+    @Autowired(required = false)
+    private DraftPrecomputer draftPrecomputer;
+
+    /**
+     * 未启用集群路由时为 null
+     */
+    @Autowired(required = false)
+    private AffinityRouter affinityRouter;
+
+    /**
+     * 超出并发上限时的处理：reject 直接返回 SERVICE_OVERLOADED，fallback 返回不调用下游的降级结果
+     */
+    @Value("${findu.limiter.create.mode:reject}")
+    private String overloadMode;
+
     @PostMapping("/create")
-    public ApiResponse<CreateNegotiationResponse> create(@Valid @RequestBody CreateNegotiationRequest request) {
+    public ApiResponse<CreateNegotiationResponse> create(@Valid @RequestBody CreateNegotiationRequest request,
+                                                         @RequestHeader(value = AffinityRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+                                                         HttpServletResponse servletResponse) {
+        StageTimer.current().mark(DISPATCH_STAGE);
         LOGGER.info("创建协商请求: request={}", request);
 
+        // 归属节点上有这对用户的草案缓存与预生成草案
+        ApiResponse<CreateNegotiationResponse> routed = route("/create", request.getProviderId(),
+                request.getCustomerId(), request, forwardedBy, servletResponse);
+        if (routed != null) {
+            return routed;
+        }
+
+        // 预生成的草案不调用下游，不计入并发限制
+        if (draftPrecomputer != null) {
+            NegotiationEntity precomputed = draftPrecomputer.get(request.getProviderId(), request.getCustomerId());
+            StageTimer.current().mark(PRECOMPUTED_STAGE);
+            if (precomputed != null) {
+                precomputed = negotiationBizService.adoptPrecomputedNegotiation(precomputed,
+                        request.getDemandId(), request.getProductId());
+                LOGGER.info("返回预生成的协商草案: draftId={}", precomputed.getId());
+                return ApiResponse.success(CreateNegotiationResponse.createByDomain(precomputed));
+            }
+        }
+
+        // 预热请求访问的是本地桩服务，不计入并发限制，避免极低的 RTT 成为限流基线
+        boolean limited = !RequestContextHolder.isWarmup();
+        if (limited && rateLimited(request.getProviderId())) {
+            servletResponse.setHeader(DEGRADED_HEADER, RATE_LIMITED);
+            return ApiResponse.success(CreateNegotiationResponse.createByDomain(negotiationBizService.createFallbackNegotiation(
+                    request.getProviderId(),
+                    request.getCustomerId(),
+                    request.getDemandId(),
+                    request.getProductId())));
+        }
+        if (limited && !createConcurrencyLimiter.tryAcquire()) {
+            return overloaded(request, servletResponse);
+        }
+        long start = System.nanoTime();
         try {
             NegotiationEntity negotiationEntity = negotiationBizService.createNegotiation(
                     request.getProviderId(),
@@ -42,6 +141,122 @@ public class NegotiationController {
         } catch (Exception e) {
             LOGGER.error("创建协商失败，未知错误", e);
             return ApiResponse.error(ErrorCode.INTERNAL_ERROR.getCode(), "创建协商异常，请稍后重试");
+        } finally {
+            if (limited) {
+                createConcurrencyLimiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * 增量更新协商草案，只把上一版草案之后的新消息发给 Agent
+     */
+    @PostMapping("/update")
+    public ApiResponse<CreateNegotiationResponse> update(@Valid @RequestBody UpdateNegotiationRequest request,
+                                                         @RequestHeader(value = AffinityRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+                                                         HttpServletResponse servletResponse) {
+        StageTimer.current().mark(DISPATCH_STAGE);
+        LOGGER.info("更新协商请求: request={}", request);
+        if (request.getDraftId() == null && request.getDraft() == null) {
+            return ApiResponse.error(ErrorCode.PARAM_ERROR.getCode(), "draftId与draft不能同时为空");
+        }
+
+        ApiResponse<CreateNegotiationResponse> routed = route("/update", request.getProviderId(),
+                request.getCustomerId(), request, forwardedBy, servletResponse);
+        if (routed != null) {
+            return routed;
+        }
+
+        // 超出限速时返回上一版草案：先按草案ID取本地保存的，再用传入的，都没有时返回空白草案
+        if (rateLimited(request.getProviderId())) {
+            servletResponse.setHeader(DEGRADED_HEADER, RATE_LIMITED);
+            NegotiationEntity draft = negotiationBizService.getDraft(
+                    request.getProviderId(), request.getCustomerId(), request.getDraftId());
+            if (draft == null && request.getDraft() != null) {
+                draft = request.getDraft().toDomain(request.getProviderId(), request.getCustomerId());
+            }
+            if (draft == null) {
+                draft = negotiationBizService.createFallbackNegotiation(
+                        request.getProviderId(), request.getCustomerId(), null, null);
+            }
+            return ApiResponse.success(CreateNegotiationResponse.createByDomain(draft));
+        }
+
+        // 与创建共用并发限制；超出上限时直接拒绝，调用方手上仍有上一版草案
+        if (!createConcurrencyLimiter.tryAcquire()) {
+            LOGGER.warn("并发超出上限，拒绝请求: limit={}, providerId={}",
+                    createConcurrencyLimiter.getLimit(), request.getProviderId());
+            return ApiResponse.error(ErrorCode.SERVICE_OVERLOADED);
+        }
+        long start = System.nanoTime();
+        try {
+            NegotiationEntity negotiationEntity = negotiationBizService.updateNegotiation(
+                    request.getProviderId(),
+                    request.getCustomerId(),
+                    request.getDraftId(),
+                    request.getDraft() != null
+                            ? request.getDraft().toDomain(request.getProviderId(), request.getCustomerId()) : null);
+
+            LOGGER.info("协商更新成功: entity={}", negotiationEntity);
+
+            return ApiResponse.success(CreateNegotiationResponse.createByDomain(negotiationEntity));
+        } catch (BusinessException e) {
+            LOGGER.error("更新协商失败，系统错误", e);
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("更新协商失败，未知错误", e);
+            return ApiResponse.error(ErrorCode.INTERNAL_ERROR.getCode(), "更新协商异常，请稍后重试");
+        } finally {
+            createConcurrencyLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 转发到归属节点，预热请求与未启用集群路由时在本节点处理
+     *
+     * @return 应在本节点处理时为 null
+     */
+    private ApiResponse<CreateNegotiationResponse> route(String path, String providerId, String customerId,
+                                                         Object request, String forwardedBy,
+                                                         HttpServletResponse servletResponse) {
+        if (affinityRouter == null || RequestContextHolder.isWarmup()) {
+            return null;
+        }
+        return affinityRouter.route("/api/v1/orders_negotiation" + path, providerId, customerId, request,
+                RESPONSE_TYPE, forwardedBy, servletResponse);
+    }
+
+    /**
+     * 按 X-User-Id 与 providerId 限速，两个维度都要取到令牌；服务方维度拒绝时退还调用方维度的令牌，
+     * 被拒绝的请求不消耗任何一个维度的额度
+     */
+    private boolean rateLimited(String providerId) {
+        String userId = RequestContextHolder.getUserId();
+        if (customerRateLimiter.tryAcquire(userId)) {
+            if (providerRateLimiter.tryAcquire(providerId)) {
+                return false;
+            }
+            customerRateLimiter.refund(userId);
+        }
+        LOGGER.warn("调用方超出限速，返回降级结果: userId={}, providerId={}", userId, providerId);
+        return true;
+    }
+
+    private ApiResponse<CreateNegotiationResponse> overloaded(CreateNegotiationRequest request,
+                                                              HttpServletResponse servletResponse) {
+        if (FALLBACK_MODE.equals(overloadMode)) {
+            servletResponse.setHeader(DEGRADED_HEADER, OVERLOADED);
+            LOGGER.warn("并发超出上限，返回降级结果: limit={}, providerId={}",
+                    createConcurrencyLimiter.getLimit(), request.getProviderId());
+            NegotiationEntity fallback = negotiationBizService.createFallbackNegotiation(
+                    request.getProviderId(),
+                    request.getCustomerId(),
+                    request.getDemandId(),
+                    request.getProductId());
+            return ApiResponse.success(CreateNegotiationResponse.createByDomain(fallback));
         }
+        LOGGER.warn("并发超出上限，拒绝请求: limit={}, providerId={}",
+                createConcurrencyLimiter.getLimit(), request.getProviderId());
+        return ApiResponse.error(ErrorCode.SERVICE_OVERLOADED);
     }
 }
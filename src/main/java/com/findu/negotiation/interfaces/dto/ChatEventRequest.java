@@ -0,0 +1,32 @@
+package com.findu.negotiation.interfaces.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * 聊天服务推送的新消息事件
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@ToString
+@Data
+public class ChatEventRequest {
+    /**
+     * 服务方ID
+     */
+    @NotBlank(message = "providerId不能为空")
+    private String providerId;
+
+    /**
+     * 需求方ID
+     */
+    @NotBlank(message = "customerId不能为空")
+    private String customerId;
+
+    /**
+     * 新消息的 msg_key
+     */
+    private String msgKey;
+}
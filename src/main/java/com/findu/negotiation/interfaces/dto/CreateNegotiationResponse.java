@@ -17,6 +17,16 @@ import java.util.Map;
 @AllArgsConstructor
 @NoArgsConstructor
 public class CreateNegotiationResponse {
+    /**
+     * 草案ID，增量更新时传回；降级结果没有草案ID
+     */
+    private String draftId;
+
+    /**
+     * 生成草案时最后一条消息的 msg_key，增量更新只处理之后的消息
+     */
+    private String lastMsgKey;
+
     /**
      * 标题
      */
@@ -49,6 +59,8 @@ public class CreateNegotiationResponse {
 
     public static CreateNegotiationResponse createByDomain(NegotiationEntity entity) {
         CreateNegotiationResponse response = new CreateNegotiationResponse();
+        response.setDraftId(entity.getId());
+        response.setLastMsgKey(entity.getLastMsgKey());
         response.setTitle(entity.getTitle());
         response.setContent(entity.getContent());
         response.setProducts(entity.getProducts());
@@ -57,4 +69,22 @@ public class CreateNegotiationResponse {
         response.setGmtModify(entity.getGmtModify());
         return response;
     }
+
+    /**
+     * 调用方传回的草案转换为领域对象
+     */
+    public NegotiationEntity toDomain(String providerId, String customerId) {
+        return NegotiationEntity.builder()
+                .id(draftId)
+                .providerId(providerId)
+                .customerId(customerId)
+                .title(title)
+                .content(content)
+                .price(price)
+                .products(products)
+                .lastMsgKey(lastMsgKey)
+                .gmtCreate(gmtCreate)
+                .gmtModify(gmtModify)
+                .build();
+    }
 }
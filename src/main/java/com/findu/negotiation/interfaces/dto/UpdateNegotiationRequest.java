@@ -0,0 +1,39 @@
+package com.findu.negotiation.interfaces.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * 增量更新协商草案的请求，draftId 与 draft 二选一，同时提供时优先按 draftId 查找
+ *
+ * @author timothy
+ * @date 2026/10/19
+ */
+@ToString
+@Data
+public class UpdateNegotiationRequest {
+    /**
+     * 服务方ID
+     */
+    @NotBlank(message = "providerId不能为空")
+    private String providerId;
+
+    /**
+     * 需求方ID
+     */
+    @NotBlank(message = "customerId不能为空")
+    private String customerId;
+
+    /**
+     * 上一版草案的ID
+     */
+    private String draftId;
+
+    /**
+     * 上一版草案，/create 或 /update 的返回结果原样传回
+     */
+    @Valid
+    private CreateNegotiationResponse draft;
+}
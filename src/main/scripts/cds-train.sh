@@ -0,0 +1,55 @@
+#!/bin/bash
+
+# AppCDS 训练：以与 start.sh 相同的类路径启动一次应用，容器刷新完成后退出，
+# 把加载过的类写入 cds/app.jsa，之后 start.sh 自动使用该归档。
+# 归档与 JDK 版本、lib 下的 JAR 绑定，每次部署新版本或升级 JDK 后需重新执行（可在 stop.sh 之后、start.sh 之前）。
+
+# 应用名称
+APP_NAME="findu-negotiation-service"
+
+# 当前目录
+BASE_DIR=$(cd "$(dirname "$0")/.." || exit; pwd)
+
+CDS_DIR="$BASE_DIR/cds"
+CDS_ARCHIVE="$CDS_DIR/app.jsa"
+TRAIN_LOG_DIR="$CDS_DIR/train-logs"
+
+mkdir -p "$CDS_DIR" "$TRAIN_LOG_DIR"
+if [ $? -ne 0 ]; then
+    echo "Failed to create CDS directory: $CDS_DIR"
+    exit 1
+fi
+
+# 堆与 GC 参数与 start.sh 保持一致
+JAVA_OPTS="-Xms512m -Xmx512m -XX:+UseG1GC -Dapp.log.dir=$TRAIN_LOG_DIR"
+
+SPRING_AOT="@spring.aot.enabled@"
+if [ "$SPRING_AOT" = "true" ]; then
+    JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+fi
+
+# 类路径必须与 start.sh 完全一致（顺序说明见 start.sh），否则运行时校验失败、归档不生效
+LC_COLLATE=C
+CLASSPATH=""
+for jar in "$BASE_DIR/lib"/*.jar; do
+    if [ -f "$jar" ]; then
+        CLASSPATH="$CLASSPATH$jar:"
+    fi
+done
+CLASSPATH="$CLASSPATH$BASE_DIR/conf"
+
+echo "Training CDS archive for $APP_NAME..."
+rm -f "$CDS_ARCHIVE.tmp"
+# spring.context.exit=onRefresh：Bean 全部创建后即退出，不对外提供服务，也不执行启动预热
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$CDS_ARCHIVE.tmp" -Dspring.context.exit=onRefresh \
+    -cp "$CLASSPATH" com.findu.negotiation.FinduNegotiationApplication \
+    --server.port=0 > "$TRAIN_LOG_DIR/console.log" 2>&1
+
+if [ ! -s "$CDS_ARCHIVE.tmp" ]; then
+    echo "CDS training failed, see $TRAIN_LOG_DIR/console.log"
+    rm -f "$CDS_ARCHIVE.tmp"
+    exit 1
+fi
+
+mv -f "$CDS_ARCHIVE.tmp" "$CDS_ARCHIVE"
+echo "CDS archive created: $CDS_ARCHIVE ($(du -h "$CDS_ARCHIVE" | cut -f1))"
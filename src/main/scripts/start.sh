@@ -38,6 +38,18 @@ fi
 # JVM参数
 JAVA_OPTS="-Xms512m -Xmx512m -XX:+UseG1GC -XX:MaxGCPauseMillis=200 -XX:+UseStringDeduplication -XX:+OptimizeStringConcat -XX:+HeapDumpOnOutOfMemoryError -XX:HeapDumpPath=$LOG_DIR/heapdump.hprof -XX:+UseCompressedOops -Xlog:gc*:file=$LOG_DIR/gc.log -Dapp.log.dir=$LOG_DIR"
 
+# Spring AOT：使用 aot profile 打包时为 true，启动时加载构建期生成的 Bean 定义
+SPRING_AOT="@spring.aot.enabled@"
+if [ "$SPRING_AOT" = "true" ]; then
+    JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+fi
+
+# AppCDS：存在 bin/cds-train.sh 生成的归档时使用，归档与 JDK 或 lib 不匹配时 JVM 忽略归档正常启动
+CDS_ARCHIVE="$BASE_DIR/cds/app.jsa"
+if [ -f "$CDS_ARCHIVE" ]; then
+    JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=$CDS_ARCHIVE -Xshare:auto"
+fi
+
 # 检查是否启用debug模式
 if [[ "$*" == *"--debug"* ]]; then
     JAVA_OPTS="$JAVA_OPTS -agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=*:5005"
@@ -51,12 +63,16 @@ if [ $? -ne 0 ]; then
 fi
 
 # 构建类路径
-CLASSPATH="$BASE_DIR/conf"
+# conf 放在 JAR 之后：CDS 不允许类路径中在 JAR 之前出现非空目录，conf 中的文件在 JAR 中均不存在，顺序不影响配置加载。
+# 按字节序展开 lib/*.jar，保证与 CDS 训练及启动基准的类路径顺序一致
+LC_COLLATE=C
+CLASSPATH=""
 for jar in "$BASE_DIR/lib"/*.jar; do
     if [ -f "$jar" ]; then
-        CLASSPATH="$CLASSPATH:$jar"
+        CLASSPATH="$CLASSPATH$jar:"
     fi
 done
+CLASSPATH="$CLASSPATH$BASE_DIR/conf"
 
 # 启动应用
 echo "Starting $APP_NAME..."
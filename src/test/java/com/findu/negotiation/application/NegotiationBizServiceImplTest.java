@@ -0,0 +1,289 @@
+package com.findu.negotiation.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.cache.DraftStore;
+import com.findu.negotiation.infrastructure.client.AgentCompletionBatcher;
+import com.findu.negotiation.infrastructure.client.ChatClient;
+import com.findu.negotiation.infrastructure.client.OrderNegotiationAgentClient;
+import com.findu.negotiation.infrastructure.client.UserClient;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderProduct;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderUserResponse;
+import com.findu.negotiation.infrastructure.resilience.BulkheadRegistry;
+import com.findu.negotiation.infrastructure.resilience.Priority;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler.LaneConfig;
+import com.findu.negotiation.infrastructure.resilience.RetryPolicyRegistry;
+import com.findu.negotiation.infrastructure.stub.StubPayloads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 协商草案增量更新测试
+ * <p>
+ * Chat 与 User 服务由测试内的子类直接返回数据，Agent 调用经真实的 HTTP 客户端发往本地桩接口，
+ * 桩接口记录收到的请求路径与请求体
+ */
+class NegotiationBizServiceImplTest {
+
+    private static final String COMPLETIONS_PATH = "/api/v1/inner/order_negotiation/completions";
+    private static final String DELTA_PATH = COMPLETIONS_PATH + "/delta";
+    private static final String PROVIDER_ID = StubPayloads.PROVIDER_ID;
+    private static final String CUSTOMER_ID = StubPayloads.CUSTOMER_ID;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<String> agentPaths = new ArrayList<>();
+    private final List<JsonNode> agentBodies = new ArrayList<>();
+    private volatile int agentStatus = 200;
+    private volatile String agentResponse = StubPayloads.agentCompletion(2);
+
+    private HttpServer agentServer;
+    private DraftStore draftStore;
+    private NegotiationBizServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agentServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        agentServer.createContext(COMPLETIONS_PATH, this::handleAgent);
+        agentServer.start();
+
+        MockEnvironment environment = new MockEnvironment();
+        BulkheadRegistry bulkheads = new BulkheadRegistry(environment);
+        RetryPolicyRegistry retryPolicies = new RetryPolicyRegistry(environment);
+
+        Map<Priority, LaneConfig> lanes = new EnumMap<>(Priority.class);
+        lanes.put(Priority.INTERACTIVE, new LaneConfig(4, 4, 16, 1000));
+        lanes.put(Priority.BACKGROUND, new LaneConfig(1, 4, 16, 1000));
+        OrderNegotiationAgentClient agentClient = new OrderNegotiationAgentClient(
+                new PriorityLaneScheduler("agent-test", 4, lanes),
+                new StaticListableBeanFactory().getBeanProvider(AgentCompletionBatcher.class));
+        ReflectionTestUtils.setField(agentClient, "baseUrl", "http://127.0.0.1:" + agentServer.getAddress().getPort());
+        ReflectionTestUtils.setField(agentClient, "completionsEndpoint", COMPLETIONS_PATH);
+        ReflectionTestUtils.setField(agentClient, "deltaEndpoint", DELTA_PATH);
+
+        draftStore = new DraftStore(100, Duration.ofMinutes(5));
+        service = new NegotiationBizServiceImpl();
+        ReflectionTestUtils.setField(service, "agentClient", agentClient);
+        ReflectionTestUtils.setField(service, "chatClient", new FixedChatClient(bulkheads, retryPolicies));
+        ReflectionTestUtils.setField(service, "userClient", new FixedUserClient(bulkheads, retryPolicies));
+        ReflectionTestUtils.setField(service, "draftStore", draftStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        agentServer.stop(0);
+    }
+
+    @Test
+    void testDeltaContainsOnlyMessagesAfterLastMsgKey() {
+        NegotiationEntity previous = storedDraft("m-2");
+
+        NegotiationEntity updated = service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, previous.getId(), null);
+
+        assertEquals(List.of(DELTA_PATH), agentPaths);
+        JsonNode request = agentBodies.getFirst();
+        // m-3 只有图片，对话中只有 m-4
+        JsonNode conversations = request.get("new_conversations");
+        assertEquals(1, conversations.size());
+        assertEquals("周日也可以，能便宜点吗", conversations.get(0).get("content").asText());
+        assertEquals("用户", conversations.get(0).get("sender").asText());
+        assertEquals(previous.getId(), request.get("previous_result").get("id").asText());
+        assertEquals("works-1", request.get("previous_result").get("products").get(0).get("id").asText());
+        assertEquals(2, request.get("products").size());
+
+        assertNotEquals(previous.getId(), updated.getId());
+        assertEquals("m-4", updated.getLastMsgKey());
+        assertEquals(45000, updated.getPrice());
+        assertTrue(updated.getProducts().getFirst().isSelected());
+        assertSame(updated, draftStore.get(updated.getId(), PROVIDER_ID, CUSTOMER_ID));
+    }
+
+    @Test
+    void testUnknownLastMsgKeyFallsBackToCreate() {
+        NegotiationEntity previous = storedDraft("m-gone");
+
+        NegotiationEntity created = service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, previous.getId(), null);
+
+        assertEquals(List.of(COMPLETIONS_PATH), agentPaths);
+        assertEquals(3, agentBodies.getFirst().get("human_conversations").size());
+        assertNotEquals(previous.getId(), created.getId());
+        assertEquals("m-4", created.getLastMsgKey());
+    }
+
+    @Test
+    void testNoNewTextMessagesReturnsPreviousDraft() {
+        NegotiationEntity previous = storedDraft("m-4");
+
+        assertSame(previous, service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, previous.getId(), null));
+        assertTrue(agentPaths.isEmpty());
+    }
+
+    @Test
+    void testAgentFailureReturnsPreviousDraft() {
+        NegotiationEntity previous = storedDraft("m-2");
+        agentStatus = 500;
+
+        assertSame(previous, service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, previous.getId(), null));
+        assertEquals(List.of(DELTA_PATH), agentPaths);
+    }
+
+    @Test
+    void testEmptyAgentResultReturnsPreviousDraft() {
+        NegotiationEntity previous = storedDraft("m-2");
+        agentResponse = "{\"id\":\"stub-completion\",\"result\":null}";
+
+        assertSame(previous, service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, previous.getId(), null));
+        assertEquals(List.of(DELTA_PATH), agentPaths);
+        assertEquals(1, draftStore.size());
+    }
+
+    @Test
+    void testDraftIdOfOtherPairIsIgnored() {
+        NegotiationEntity stored = storedDraft("m-2");
+
+        // 草案ID不属于这对用户时按请求中的草案更新
+        NegotiationEntity passed = draft("passed-draft", "other-customer", "m-2");
+        service.updateNegotiation(PROVIDER_ID, "other-customer", stored.getId(), passed);
+        assertEquals(List.of(DELTA_PATH), agentPaths);
+        assertEquals("passed-draft", agentBodies.getFirst().get("previous_result").get("id").asText());
+
+        // 也没有传草案时按创建处理
+        service.updateNegotiation(PROVIDER_ID, "other-customer", stored.getId(), null);
+        assertEquals(List.of(DELTA_PATH, COMPLETIONS_PATH), agentPaths);
+    }
+
+    @Test
+    void testAdoptedPrecomputedDraftKeepsRequestIds() {
+        // 预生成的草案没有 demandId/productId
+        NegotiationEntity precomputed = storedDraft("m-2");
+
+        NegotiationEntity adopted = service.adoptPrecomputedNegotiation(precomputed, "demand-1", "product-1");
+
+        assertNotEquals(precomputed.getId(), adopted.getId());
+        assertEquals("demand-1", adopted.getDemandId());
+        assertEquals("product-1", adopted.getProductId());
+        assertEquals("m-2", adopted.getLastMsgKey());
+        assertNull(precomputed.getDemandId());
+        assertSame(adopted, draftStore.get(adopted.getId(), PROVIDER_ID, CUSTOMER_ID));
+        assertSame(precomputed, service.adoptPrecomputedNegotiation(precomputed, null, null));
+
+        // 之后按新草案ID增量更新时沿用请求的值
+        NegotiationEntity updated = service.updateNegotiation(PROVIDER_ID, CUSTOMER_ID, adopted.getId(), null);
+        assertEquals(List.of(DELTA_PATH), agentPaths);
+        assertEquals("demand-1", updated.getDemandId());
+        assertEquals("product-1", updated.getProductId());
+    }
+
+    private NegotiationEntity storedDraft(String lastMsgKey) {
+        NegotiationEntity draft = draft("draft-" + lastMsgKey, CUSTOMER_ID, lastMsgKey);
+        draftStore.put(draft);
+        return draft;
+    }
+
+    private static NegotiationEntity draft(String id, String customerId, String lastMsgKey) {
+        List<ProductInfoVO> products = new ArrayList<>();
+        products.add(new ProductInfoVO("works-0", "家庭保洁服务 0", null, 45000, false));
+        products.add(new ProductInfoVO("works-1", "家庭保洁服务 1", null, 38000, true));
+        return NegotiationEntity.builder()
+                .id(id)
+                .providerId(PROVIDER_ID)
+                .customerId(customerId)
+                .title("两室一厅保洁")
+                .price(38000)
+                .content(Map.of("time", "周六上午"))
+                .products(products)
+                .lastMsgKey(lastMsgKey)
+                .build();
+    }
+
+    private void handleAgent(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        synchronized (agentPaths) {
+            agentPaths.add(exchange.getRequestURI().getPath());
+            agentBodies.add(mapper.readTree(in));
+        }
+        byte[] body = agentResponse.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(agentStatus, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 固定的四条消息：m-1、m-2、m-4 为文本，m-3 只有图片；任意一对用户都返回同样的消息
+     */
+    private static final class FixedChatClient extends ChatClient {
+
+        FixedChatClient(BulkheadRegistry bulkheads, RetryPolicyRegistry retryPolicies) {
+            super(null, bulkheads, retryPolicies);
+        }
+
+        @Override
+        public ChatHistoryResponse getChatHistory(String userA, String userB) {
+            List<ChatHistoryData.ChatMessage> messages = List.of(
+                    text(userB, userA, 1, "想约周六上午打扫两室一厅"),
+                    text(userA, userB, 2, "可以，两室一厅380"),
+                    new ChatHistoryData.ChatMessage(userB, userA, 3000L, 3L, 3L, "m-3", 1,
+                            List.of(new ChatHistoryData.MessageContent("image", new ChatHistoryData.ImageContent()))),
+                    text(userB, userA, 4, "周日也可以，能便宜点吗"));
+            ChatHistoryData data = new ChatHistoryData();
+            data.setProviderId(userA);
+            data.setCustomerId(userB);
+            data.setMessages(messages);
+            ChatHistoryResponse response = new ChatHistoryResponse();
+            response.setSuccess(true);
+            response.setData(data);
+            return response;
+        }
+
+        private static ChatHistoryData.ChatMessage text(String from, String to, long seq, String text) {
+            return new ChatHistoryData.ChatMessage(from, to, seq * 1000, seq, seq, "m-" + seq, 1,
+                    List.of(new ChatHistoryData.MessageContent("text", text)));
+        }
+    }
+
+    private static final class FixedUserClient extends UserClient {
+
+        FixedUserClient(BulkheadRegistry bulkheads, RetryPolicyRegistry retryPolicies) {
+            super(null, bulkheads, retryPolicies);
+        }
+
+        @Override
+        public List<ProviderProduct> getProviderWorks(String providerId) {
+            try {
+                return new ObjectMapper().readValue(StubPayloads.providerWorks(2), ProviderUserResponse.class)
+                        .getData().getItems();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.findu.negotiation.infrastructure.archive;
+
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatArchiveTest {
+
+    private static final String PROVIDER = "provider-1";
+    private static final String CUSTOMER = "customer-1";
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong now = new AtomicLong(1_800_000_000_000L);
+    private final List<ChatArchive> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() {
+        opened.forEach(ChatArchive::close);
+    }
+
+    @Test
+    void roundTripsAllContentKinds() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        ChatHistoryData.DemandCardContent card = new ChatHistoryData.DemandCardContent();
+        card.setType("demand_card");
+        card.setDemandTitle("婚礼跟拍");
+        card.setLocation("上海");
+        card.setBudget("3000");
+        ChatHistoryData.ImageContent image = new ChatHistoryData.ImageContent("uuid-1", 1,
+                List.of(new ChatHistoryData.ImageInfo(1, 1000, 100, 200, "https://img/1.jpg")));
+        List<ChatHistoryData.ChatMessage> messages = List.of(
+                message(CUSTOMER, PROVIDER, 1, new ChatHistoryData.MessageContent("text", "你好，想约拍")),
+                message(PROVIDER, CUSTOMER, 2, new ChatHistoryData.MessageContent("custom", card),
+                        new ChatHistoryData.MessageContent("image", image)),
+                message(PROVIDER, CUSTOMER, 3, new ChatHistoryData.MessageContent("custom",
+                        new ChatHistoryData.CustomContent("order_card", "{\"orderId\":\"1\"}", "订单卡片"))),
+                message("system", null, 4, new ChatHistoryData.MessageContent("sound", "{\"second\":3}"),
+                        new ChatHistoryData.MessageContent("text", null)),
+                new ChatHistoryData.ChatMessage(CUSTOMER, PROVIDER, null, null, null, null, null, List.of()));
+
+        assertEquals(5, archive.append(PROVIDER, CUSTOMER, messages));
+
+        ArchivedHistory history = archive.history(PROVIDER, CUSTOMER);
+        assertEquals(messages, history.toChatMessages());
+        ArchivedMessage first = history.get(0);
+        assertTrue(first.isFrom(CUSTOMER));
+        assertFalse(first.isFrom(PROVIDER));
+        assertTrue(first.isTextContent(0));
+        assertEquals("你好，想约拍", first.getText(0));
+        ArchivedMessage other = history.get(3);
+        assertTrue(other.isFrom("system"));
+        assertNull(other.getTo());
+        assertNull(other.getText(0));
+        assertEquals("sound", other.getContent(0).getType());
+        assertNull(history.lastMsgKey());
+        assertEquals(2, history.indexAfter("key-2"));
+        assertEquals(-1, history.indexAfter("missing"));
+    }
+
+    @Test
+    void appendsOnlyNewMessagesAndIndexesBySeq() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        List<ChatHistoryData.ChatMessage> messages = texts(1, 3);
+        assertEquals(3, archive.append(PROVIDER, CUSTOMER, messages));
+        assertEquals(0, archive.append(PROVIDER, CUSTOMER, messages));
+
+        List<ChatHistoryData.ChatMessage> more = new ArrayList<>(messages);
+        more.addAll(texts(4, 5));
+        assertEquals(2, archive.append(PROVIDER, CUSTOMER, more));
+
+        ArchivedHistory history = archive.history(PROVIDER, CUSTOMER);
+        assertEquals(more, history.toChatMessages());
+        assertEquals("key-5", history.lastMsgKey());
+        assertEquals("文本 4", archive.find(PROVIDER, CUSTOMER, 4).getText(0));
+        assertNull(archive.find(PROVIDER, CUSTOMER, 6));
+        assertEquals(5, archive.getMessageCount());
+    }
+
+    @Test
+    void rearchivesWhenHistoryNoLongerContainsLastMessage() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 3));
+
+        // Chat 服务清理了历史，归档的最后一条已不在返回结果中
+        List<ChatHistoryData.ChatMessage> rewritten = texts(10, 11);
+        assertEquals(2, archive.append(PROVIDER, CUSTOMER, rewritten));
+
+        assertEquals(rewritten, archive.history(PROVIDER, CUSTOMER).toChatMessages());
+        assertNull(archive.find(PROVIDER, CUSTOMER, 1));
+        assertEquals(2, archive.getMessageCount());
+
+        ChatArchive reopened = reopen(archive, 64 * 1024);
+        assertEquals(rewritten, reopened.history(PROVIDER, CUSTOMER).toChatMessages());
+    }
+
+    @Test
+    void survivesRestart() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 3));
+        archive.append("provider-2", CUSTOMER, texts(1, 2));
+        long syncedAt = archive.history(PROVIDER, CUSTOMER).getSyncedAt();
+
+        ChatArchive reopened = reopen(archive, 64 * 1024);
+        assertEquals(2, reopened.getPairCount());
+        assertEquals(5, reopened.getMessageCount());
+        ArchivedHistory history = reopened.history(PROVIDER, CUSTOMER);
+        assertEquals(texts(1, 3), history.toChatMessages());
+        assertEquals(syncedAt, history.getSyncedAt());
+        assertEquals("文本 2", reopened.find(PROVIDER, CUSTOMER, 2).getText(0));
+
+        // 恢复后从上次的位置继续追加
+        List<ChatHistoryData.ChatMessage> more = texts(1, 4);
+        assertEquals(1, reopened.append(PROVIDER, CUSTOMER, more));
+        assertEquals(more, reopen(reopened, 64 * 1024).history(PROVIDER, CUSTOMER).toChatMessages());
+    }
+
+    @Test
+    void dropsTornTailOnRecovery() throws IOException {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 3));
+        archive.append("provider-2", CUSTOMER, texts(1, 2));
+        long written = archive.getWrittenBytes();
+        archive.close();
+
+        // 最后一条是 provider-2 的同步记录，改坏它的最后一个字节
+        Path segment = segmentFiles().getFirst();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = ChatRecordCodec.SEGMENT_HEADER + written - 1;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x5A));
+            one.rewind();
+            channel.write(one, position);
+        }
+
+        ChatArchive reopened = open(64 * 1024, Duration.ZERO);
+        assertEquals(texts(1, 3), reopened.history(PROVIDER, CUSTOMER).toChatMessages());
+        // 没有同步记录的用户对不可信，丢弃后下次同步重新归档
+        assertNull(reopened.history("provider-2", CUSTOMER));
+        assertEquals(2, reopened.append("provider-2", CUSTOMER, texts(1, 2)));
+        assertEquals(texts(1, 2), reopen(reopened, 64 * 1024).history("provider-2", CUSTOMER).toChatMessages());
+    }
+
+    @Test
+    void compactionReclaimsDeadRecordsAndKeepsOrder() {
+        ChatArchive archive = open(2048, Duration.ZERO);
+        List<ChatHistoryData.ChatMessage> messages = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            messages.addAll(texts(i, i));
+            archive.append(PROVIDER, CUSTOMER, messages);
+            // 另一对用户反复同步，只产生被替换的同步记录
+            for (int sync = 0; sync < 3; sync++) {
+                archive.append("provider-2", CUSTOMER, texts(1, 1));
+            }
+        }
+        int segmentsBefore = archive.getSegmentCount();
+        assertTrue(segmentsBefore > 3, "segments=" + segmentsBefore);
+        ArchivedHistory before = archive.history(PROVIDER, CUSTOMER);
+
+        archive.compact();
+
+        assertTrue(archive.getSegmentCount() < segmentsBefore, "segments=" + archive.getSegmentCount());
+        assertEquals(segmentFiles().size(), archive.getSegmentCount());
+        assertEquals(messages, archive.history(PROVIDER, CUSTOMER).toChatMessages());
+        assertEquals("文本 30", archive.find(PROVIDER, CUSTOMER, 30).getText(0));
+        // 压缩前取得的视图在旧段删除后仍然可读
+        assertEquals(messages, before.toChatMessages());
+
+        ChatArchive reopened = reopen(archive, 2048);
+        assertEquals(messages, reopened.history(PROVIDER, CUSTOMER).toChatMessages());
+        assertEquals(texts(1, 1), reopened.history("provider-2", CUSTOMER).toChatMessages());
+        assertEquals(archive.getLiveBytes(), reopened.getLiveBytes());
+    }
+
+    @Test
+    void expiresPairsNotSyncedWithinRetention() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 3));
+        now.addAndGet(Duration.ofDays(6).toMillis());
+        archive.append("provider-2", CUSTOMER, texts(1, 2));
+        now.addAndGet(Duration.ofDays(2).toMillis());
+
+        archive.compact();
+
+        assertNull(archive.history(PROVIDER, CUSTOMER));
+        assertNotNull(archive.history("provider-2", CUSTOMER));
+        assertEquals(2, archive.getMessageCount());
+        // 记录仍在当前段中，重启时按同步时间再次移出
+        assertNull(reopen(archive, 64 * 1024).history(PROVIDER, CUSTOMER));
+    }
+
+    @Test
+    void rearchivesExpiredPairWithNewEpoch() {
+        ChatArchive archive = open(64 * 1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 5));
+        now.addAndGet(Duration.ofDays(8).toMillis());
+        archive.compact();
+        assertNull(archive.history(PROVIDER, CUSTOMER));
+
+        // 旧记录仍在当前段中，重新归档的消息不能与它们混在一起
+        assertEquals(2, archive.append(PROVIDER, CUSTOMER, texts(10, 11)));
+        assertEquals(texts(10, 11), archive.history(PROVIDER, CUSTOMER).toChatMessages());
+        ChatArchive reopened = reopen(archive, 64 * 1024);
+        assertEquals(texts(10, 11), reopened.history(PROVIDER, CUSTOMER).toChatMessages());
+
+        // 重启后再次过期、重新归档，纪元仍然高于段中所有旧记录
+        now.addAndGet(Duration.ofDays(8).toMillis());
+        reopened = reopen(reopened, 64 * 1024);
+        assertNull(reopened.history(PROVIDER, CUSTOMER));
+        assertEquals(1, reopened.append(PROVIDER, CUSTOMER, texts(20, 20)));
+        assertEquals(texts(20, 20), reopen(reopened, 64 * 1024).history(PROVIDER, CUSTOMER).toChatMessages());
+    }
+
+    @Test
+    void rearchivesPairWithGapWithNewEpoch() throws IOException {
+        ChatArchive archive = open(1024, Duration.ZERO);
+        archive.append(PROVIDER, CUSTOMER, texts(1, 12));
+        int segments = archive.getSegmentCount();
+        assertTrue(segments > 1, "segments=" + segments);
+        archive.close();
+
+        // 第一个段丢失后前面的消息序号缺失，这对用户在恢复时整体丢弃
+        Files.delete(segmentFiles().getFirst());
+        ChatArchive reopened = open(1024, Duration.ZERO);
+        assertNull(reopened.history(PROVIDER, CUSTOMER));
+
+        assertEquals(2, reopened.append(PROVIDER, CUSTOMER, texts(20, 21)));
+        assertEquals(texts(20, 21), reopen(reopened, 1024).history(PROVIDER, CUSTOMER).toChatMessages());
+    }
+
+    @Test
+    void freshWithinMaxAgeUntilInvalidated() {
+        ChatArchive archive = open(64 * 1024, Duration.ofSeconds(30));
+        assertNull(archive.fresh(PROVIDER, CUSTOMER));
+        archive.append(PROVIDER, CUSTOMER, texts(1, 2));
+
+        assertEquals(2, archive.fresh(PROVIDER, CUSTOMER).size());
+        now.addAndGet(31_000);
+        assertNull(archive.fresh(PROVIDER, CUSTOMER));
+        assertNotNull(archive.fallback(PROVIDER, CUSTOMER));
+
+        archive.append(PROVIDER, CUSTOMER, texts(1, 2));
+        assertNotNull(archive.fresh(PROVIDER, CUSTOMER));
+        archive.invalidate(PROVIDER, CUSTOMER);
+        assertNull(archive.fresh(PROVIDER, CUSTOMER));
+    }
+
+    private ChatArchive open(int segmentSize, Duration maxAge) {
+        ChatArchive archive = new ChatArchive(dir, segmentSize, maxAge, Duration.ofDays(7), 0.5, now::get);
+        opened.add(archive);
+        return archive;
+    }
+
+    private ChatArchive reopen(ChatArchive archive, int segmentSize) {
+        archive.close();
+        return open(segmentSize, Duration.ZERO);
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<ChatHistoryData.ChatMessage> texts(int from, int to) {
+        List<ChatHistoryData.ChatMessage> messages = new ArrayList<>();
+        for (int seq = from; seq <= to; seq++) {
+            messages.add(message((seq & 1) == 1 ? CUSTOMER : PROVIDER, (seq & 1) == 1 ? PROVIDER : CUSTOMER, seq,
+                    new ChatHistoryData.MessageContent("text", "文本 " + seq)));
+        }
+        return messages;
+    }
+
+    private static ChatHistoryData.ChatMessage message(String from, String to, long seq,
+                                                       ChatHistoryData.MessageContent... content) {
+        return new ChatHistoryData.ChatMessage(from, to, 1_767_000_000L + seq, 1000L + seq, seq,
+                "key-" + seq, 1, List.of(content));
+    }
+}
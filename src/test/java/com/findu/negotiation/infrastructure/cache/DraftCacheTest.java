@@ -0,0 +1,143 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.vo.NegotiationResultSchemaVO;
+import com.findu.negotiation.domain.vo.NegotiationResultVO;
+import com.findu.negotiation.domain.vo.ProductInfoVO;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.ConversationItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 草案缓存键与缓存测试
+ */
+class DraftCacheTest {
+
+    private static final String SCHEMA = DraftKey.fingerprint(NegotiationResultSchemaVO.buildDefault());
+
+    private static final List<ProductInfoVO> PRODUCTS = List.of(
+            new ProductInfoVO("works-0", "深度保洁", "三室一厅", 45000, false),
+            new ProductInfoVO("works-1", "日常保洁", "两小时", 12000, false));
+
+    private static final List<ConversationItem> CONVERSATION = List.of(
+            new ConversationItem("用户", "你好，周六下午可以上门吗？", 1L),
+            new ConversationItem("服务方", "可以的，大概几点方便？", 2L));
+
+    private static DraftKey key(String schema, List<ProductInfoVO> products, List<ConversationItem> conversation) {
+        DraftKey.Builder builder = DraftKey.builder().schema(schema);
+        products.forEach(builder::product);
+        conversation.forEach(builder::conversation);
+        return builder.build();
+    }
+
+    @Test
+    void testKeyIgnoresProductOrderTimestampsAndSurroundingWhitespace() {
+        DraftKey key = key(SCHEMA, PRODUCTS, CONVERSATION);
+
+        assertEquals(key, key(SCHEMA, PRODUCTS.reversed(), CONVERSATION));
+        assertEquals(key, key(SCHEMA, PRODUCTS, List.of(
+                new ConversationItem("用户", "  你好，周六下午可以上门吗？\n", 100L),
+                new ConversationItem("服务方", "可以的，大概几点方便？", 200L))));
+        assertEquals(32, key.toString().length());
+    }
+
+    @Test
+    void testKeyChangesWithInputs() {
+        DraftKey key = key(SCHEMA, PRODUCTS, CONVERSATION);
+
+        // 新消息、顺序或发送方变化、服务价格变化、Schema 变化都得到新的键
+        assertNotEquals(key, key(SCHEMA, PRODUCTS, List.of(CONVERSATION.get(0), CONVERSATION.get(1),
+                new ConversationItem("用户", "两点", 3L))));
+        assertNotEquals(key, key(SCHEMA, PRODUCTS, CONVERSATION.reversed()));
+        assertNotEquals(key, key(SCHEMA, PRODUCTS, List.of(
+                new ConversationItem("服务方", "你好，周六下午可以上门吗？", 1L), CONVERSATION.get(1))));
+        assertNotEquals(key, key(SCHEMA, List.of(PRODUCTS.get(0),
+                new ProductInfoVO("works-1", "日常保洁", "两小时", 13000, false)), CONVERSATION));
+        assertNotEquals(key, key("other", PRODUCTS, CONVERSATION));
+        // 字段边界：内容移动到相邻字段不会得到相同的键
+        assertNotEquals(key(SCHEMA, List.of(), List.of(new ConversationItem("用户a", "b", 1L))),
+                key(SCHEMA, List.of(), List.of(new ConversationItem("用户", "ab", 1L))));
+    }
+
+    @Test
+    void testLongContentSpansBufferFlushes() {
+        String content = "协商".repeat(1000);
+        DraftKey key = key(SCHEMA, PRODUCTS, List.of(new ConversationItem("用户", content, 1L)));
+
+        assertEquals(key, key(SCHEMA, PRODUCTS, List.of(new ConversationItem("用户", content, 2L))));
+        assertNotEquals(key, key(SCHEMA, PRODUCTS, List.of(new ConversationItem("用户", content + "。", 1L))));
+    }
+
+    @Test
+    void testExpiresAfterTtlAndRecordsHitRatio() {
+        AtomicLong now = new AtomicLong();
+        DraftCache cache = new DraftCache(100, Duration.ofSeconds(60), null, now::get);
+        DraftKey key = key(SCHEMA, PRODUCTS, CONVERSATION);
+        NegotiationResultVO result = new NegotiationResultVO();
+        result.setTitle("深度保洁");
+
+        assertNull(cache.get(key));
+        cache.put(key, result);
+        assertSame(result, cache.get(key));
+        assertSame(result, cache.get(key));
+        assertEquals(2.0 / 3, cache.stats().hitRate(), 1e-9);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void testParseIsInverseOfToString() {
+        DraftKey key = key(SCHEMA, PRODUCTS, CONVERSATION);
+        assertEquals(key, DraftKey.parse(key.toString()));
+        assertThrows(IllegalArgumentException.class, () -> DraftKey.parse("abc"));
+    }
+
+    @Test
+    void testL2SharesResultsAndInvalidatesOtherNodes() {
+        InMemoryL2Cache l2 = new InMemoryL2Cache();
+        DraftCache node1 = new DraftCache(100, Duration.ofSeconds(60), l2);
+        DraftCache node2 = new DraftCache(100, Duration.ofSeconds(60), l2);
+        DraftKey key = key(SCHEMA, PRODUCTS, CONVERSATION);
+        NegotiationResultVO first = new NegotiationResultVO();
+        first.setTitle("深度保洁");
+        first.setPrice(45000);
+        first.setProducts(PRODUCTS);
+
+        node1.put(key, first);
+        NegotiationResultVO shared = node2.get(key);
+        assertEquals(first, shared);
+        // 回填到 node2 的进程内缓存
+        assertSame(shared, node2.get(key));
+
+        // node1 写入新结果后 node2 的进程内副本被淘汰，再读取时拿到新值
+        NegotiationResultVO second = new NegotiationResultVO();
+        second.setTitle("日常保洁");
+        node1.put(key, second);
+        assertEquals("日常保洁", node2.get(key).getTitle());
+        assertSame(second, node1.get(key));
+    }
+
+    @Test
+    void testL2FailureIsTreatedAsMiss() {
+        InMemoryL2Cache l2 = new InMemoryL2Cache() {
+            @Override
+            public byte[] get(String key) {
+                throw new IllegalStateException("连接失败");
+            }
+        };
+        DraftCache cache = new DraftCache(100, Duration.ofSeconds(60), l2);
+        assertNull(cache.get(key(SCHEMA, PRODUCTS, CONVERSATION)));
+    }
+
+    @Test
+    void testRejectsInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> new DraftCache(0, Duration.ofSeconds(60)));
+        assertThrows(IllegalArgumentException.class, () -> new DraftCache(100, Duration.ZERO));
+    }
+}
@@ -0,0 +1,225 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 草案预生成的防抖、限速与失效测试
+ * <p>
+ * 时钟与计时器都由测试手动推进，生成任务在推进时间的线程上同步执行
+ */
+class DraftPrecomputerTest {
+
+    private static final String PROVIDER = "provider-10001";
+    private static final String CUSTOMER = "customer-20002";
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final ManualTimer timer = new ManualTimer();
+    /**
+     * 每次生成的开始时间，相对于测试开始
+     */
+    private final List<Long> runs = new ArrayList<>();
+    private int drafts;
+    private DraftPrecomputer precomputer;
+
+    @AfterEach
+    void tearDown() {
+        if (precomputer != null) {
+            precomputer.close();
+        }
+    }
+
+    private DraftPrecomputer start(Duration debounce, Duration minInterval,
+                                   BiFunction<String, String, NegotiationEntity> generator) {
+        precomputer = new DraftPrecomputer((providerId, customerId) -> {
+            runs.add(timer.now - ManualTimer.START);
+            return generator.apply(providerId, customerId);
+        }, debounce, minInterval, TTL, 100, () -> timer.now, timer);
+        return precomputer;
+    }
+
+    private NegotiationEntity draft(String providerId, String customerId) {
+        return NegotiationEntity.builder()
+                .id("draft-" + ++drafts)
+                .providerId(providerId)
+                .customerId(customerId)
+                .build();
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void testBurstGeneratesOnceAndNewMessageInvalidates() {
+        start(Duration.ofMillis(100), Duration.ZERO, this::draft);
+
+        // 每条消息都重新开始防抖计时
+        for (int i = 0; i < 5; i++) {
+            precomputer.onMessage(PROVIDER, CUSTOMER, i + "_key");
+            timer.advance(millis(99));
+        }
+        assertTrue(runs.isEmpty());
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+        assertEquals(1, timer.pending());
+
+        timer.advance(millis(1));
+        assertEquals(List.of(millis(5 * 99 + 1)), runs);
+        assertEquals("draft-1", precomputer.get(PROVIDER, CUSTOMER).getId());
+        assertNull(precomputer.get(PROVIDER, "customer-30003"));
+        timer.advance(millis(1000));
+        assertEquals(1, runs.size());
+
+        // 新消息到达后，上一版草案不再返回
+        precomputer.onMessage(PROVIDER, CUSTOMER, "5_key");
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+        timer.advance(millis(100));
+        assertEquals(2, runs.size());
+        assertEquals("draft-2", precomputer.get(PROVIDER, CUSTOMER).getId());
+    }
+
+    @Test
+    void testRunsAreSpacedByMinInterval() {
+        start(Duration.ofMillis(10), Duration.ofMillis(300), this::draft);
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "1_key");
+        timer.advance(millis(10));
+        assertEquals(1, runs.size());
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "2_key");
+        timer.advance(millis(299));
+        assertEquals(1, runs.size());
+        timer.advance(millis(1));
+        assertEquals(List.of(millis(10), millis(310)), runs);
+
+        // 间隔已经足够时只等待防抖
+        timer.advance(millis(1000));
+        precomputer.onMessage(PROVIDER, CUSTOMER, "3_key");
+        timer.advance(millis(10));
+        assertEquals(3, runs.size());
+    }
+
+    @Test
+    void testMessageDuringRunSchedulesAnotherRun() {
+        start(Duration.ofMillis(10), Duration.ZERO, (providerId, customerId) -> {
+            if (runs.size() == 1) {
+                // 生成过程中收到新消息，防抖结束时上一次生成还未返回
+                precomputer.onMessage(PROVIDER, CUSTOMER, "2_key");
+                timer.advance(millis(10));
+            }
+            return draft(providerId, customerId);
+        });
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "1_key");
+        timer.advance(millis(10));
+        assertEquals(1, runs.size());
+        // 第一次的结果对应的版本已过期
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+
+        timer.advance(millis(10));
+        assertEquals(2, runs.size());
+        assertEquals("draft-2", precomputer.get(PROVIDER, CUSTOMER).getId());
+    }
+
+    @Test
+    void testDraftExpiresAfterTtl() {
+        start(Duration.ofMillis(10), Duration.ZERO, this::draft);
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "1_key");
+        timer.advance(millis(10));
+        assertNotNull(precomputer.get(PROVIDER, CUSTOMER));
+
+        timer.advance(TTL.toNanos() + 1);
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+    }
+
+    @Test
+    void testFailedAndFallbackResultsAreNotServed() {
+        start(Duration.ofMillis(10), Duration.ZERO, (providerId, customerId) -> {
+            if (runs.size() == 1) {
+                throw new IllegalStateException("agent down");
+            }
+            // 降级结果没有草案ID
+            return NegotiationEntity.builder().providerId(providerId).customerId(customerId).build();
+        });
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "1_key");
+        timer.advance(millis(10));
+        assertEquals(1, runs.size());
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+
+        precomputer.onMessage(PROVIDER, CUSTOMER, "2_key");
+        timer.advance(millis(10));
+        assertEquals(2, runs.size());
+        assertNull(precomputer.get(PROVIDER, CUSTOMER));
+    }
+
+    @Test
+    void testRejectsInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> new DraftPrecomputer(this::draft,
+                Duration.ofMillis(-1), Duration.ZERO, TTL, 100));
+        assertThrows(IllegalArgumentException.class, () -> new DraftPrecomputer(this::draft,
+                Duration.ZERO, Duration.ZERO, Duration.ZERO, 100));
+    }
+
+    /**
+     * 手动推进的计时器，到期的任务按到期时间依次在推进的线程上执行
+     */
+    private static final class ManualTimer implements DraftPrecomputer.Timer {
+        private static final long START = TimeUnit.SECONDS.toNanos(1000);
+
+        private final List<Scheduled> tasks = new ArrayList<>();
+        private long now = START;
+
+        @Override
+        public Future<?> schedule(Runnable task, long delayNanos) {
+            Scheduled scheduled = new Scheduled(now + Math.max(delayNanos, 0), new FutureTask<>(task, null));
+            tasks.add(scheduled);
+            return scheduled.future;
+        }
+
+        @Override
+        public int pending() {
+            tasks.removeIf(task -> task.future.isCancelled());
+            return tasks.size();
+        }
+
+        @Override
+        public void close() {
+            tasks.clear();
+        }
+
+        void advance(long nanos) {
+            long target = now + nanos;
+            while (true) {
+                Scheduled next = tasks.stream()
+                        .filter(task -> task.due <= target)
+                        .min(Comparator.comparingLong(Scheduled::due))
+                        .orElse(null);
+                if (next == null) {
+                    break;
+                }
+                tasks.remove(next);
+                now = Math.max(now, next.due);
+                // 已取消的任务 run 时不执行
+                next.future.run();
+            }
+            now = Math.max(now, target);
+        }
+
+        private record Scheduled(long due, FutureTask<?> future) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 草案存储测试
+ */
+class DraftStoreTest {
+
+    private static NegotiationEntity draft(String id) {
+        return NegotiationEntity.builder()
+                .id(id)
+                .providerId("provider-10001")
+                .customerId("customer-20002")
+                .lastMsgKey("20_rand_time")
+                .build();
+    }
+
+    @Test
+    void testGetChecksOwner() {
+        DraftStore store = new DraftStore(100, Duration.ofSeconds(60));
+        NegotiationEntity draft = draft("d1");
+        store.put(draft);
+
+        assertSame(draft, store.get("d1", "provider-10001", "customer-20002"));
+        // 其他用户拿到草案ID也取不到
+        assertNull(store.get("d1", "provider-10001", "customer-30003"));
+        assertNull(store.get("d1", "provider-30003", "customer-20002"));
+        assertNull(store.get("d2", "provider-10001", "customer-20002"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testSharesDraftsAcrossNodesThroughL2() {
+        InMemoryL2Cache l2 = new InMemoryL2Cache();
+        DraftStore node1 = new DraftStore(100, Duration.ofSeconds(60), l2);
+        DraftStore node2 = new DraftStore(100, Duration.ofSeconds(60), l2);
+        NegotiationEntity draft = draft("d1");
+        draft.setTitle("深度保洁");
+        node1.put(draft);
+
+        // 另一个节点从二级缓存取回，经过序列化后是副本，归属检查同样生效
+        NegotiationEntity copy = node2.get("d1", "provider-10001", "customer-20002");
+        assertNotSame(draft, copy);
+        assertEquals(draft, copy);
+        assertNull(node2.get("d1", "provider-10001", "customer-30003"));
+        assertEquals(1, node2.size());
+    }
+
+    @Test
+    void testRejectsDraftWithoutIdAndInvalidConfig() {
+        DraftStore store = new DraftStore(100, Duration.ofSeconds(60));
+        assertThrows(NullPointerException.class, () -> store.put(draft(null)));
+        assertThrows(IllegalArgumentException.class, () -> new DraftStore(0, Duration.ofSeconds(60)));
+        assertThrows(IllegalArgumentException.class, () -> new DraftStore(100, Duration.ZERO));
+    }
+}
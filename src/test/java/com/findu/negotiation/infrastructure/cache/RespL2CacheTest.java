@@ -0,0 +1,325 @@
+package com.findu.negotiation.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis 协议二级缓存客户端测试，服务端为只支持用到的命令的进程内实现
+ */
+class RespL2CacheTest {
+
+    private FakeRespServer server;
+    private RespL2Cache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeRespServer("secret");
+        cache = new RespL2Cache("127.0.0.1", server.port(), "secret", 0, Duration.ofSeconds(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.close();
+        server.close();
+    }
+
+    @Test
+    void testGetSetDeleteWithTtl() throws InterruptedException {
+        byte[] value = {0, '\r', '\n', (byte) 0xff, 42};
+
+        assertNull(cache.get("k"));
+        cache.set("k", value, Duration.ofSeconds(60));
+        assertArrayEquals(value, cache.get("k"));
+        cache.delete("k");
+        assertNull(cache.get("k"));
+
+        cache.set("short", value, Duration.ofMillis(50));
+        Thread.sleep(100);
+        assertNull(cache.get("short"));
+    }
+
+    @Test
+    void testReusesPooledConnections() {
+        for (int i = 0; i < 20; i++) {
+            cache.set("k" + i, new byte[]{(byte) i}, Duration.ofSeconds(60));
+            assertArrayEquals(new byte[]{(byte) i}, cache.get("k" + i));
+        }
+        assertEquals(1, server.connections());
+    }
+
+    @Test
+    void testErrorReplyAndAuthFailure() throws IOException {
+        assertThrows(IllegalStateException.class, () -> cache.set("k", new byte[1], Duration.ZERO));
+        // 错误回复后连接仍可用
+        cache.set("k", new byte[1], Duration.ofSeconds(60));
+        assertEquals(1, server.connections());
+
+        try (RespL2Cache wrongPassword = new RespL2Cache("127.0.0.1", server.port(), "wrong", 0,
+                Duration.ofSeconds(1), 1)) {
+            assertThrows(IllegalStateException.class, () -> wrongPassword.get("k"));
+        }
+        try (RespL2Cache unreachable = new RespL2Cache("127.0.0.1", 1, null, 0, Duration.ofMillis(100), 1)) {
+            assertThrows(UncheckedIOException.class, () -> unreachable.get("k"));
+        }
+    }
+
+    @Test
+    void testPublishSubscribeAndResubscribeAfterDisconnect() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        cache.subscribe("findu:invalidate:test", received::add);
+        server.awaitSubscribers("findu:invalidate:test", 1);
+
+        cache.publish("findu:invalidate:test", "node-1 key-1");
+        assertEquals("node-1 key-1", received.poll(1, TimeUnit.SECONDS));
+
+        // 服务端断开订阅连接后自动重连并重新订阅
+        server.dropSubscribers();
+        server.awaitSubscribers("findu:invalidate:test", 1);
+        cache.publish("findu:invalidate:test", "node-1 key-2");
+        assertEquals("node-1 key-2", received.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testTierRoundTripsThroughResp() {
+        L2Tier<Map> tier = new L2Tier<>(cache, "test", Map.class, Duration.ofSeconds(60));
+        tier.put("k", Map.of("title", "深度保洁", "price", 45000));
+        assertEquals(Map.of("title", "深度保洁", "price", 45000), tier.get("k"));
+        assertNull(tier.get("missing"));
+    }
+
+    /**
+     * 只支持 AUTH / PING / GET / SET PX / DEL / PUBLISH / SUBSCRIBE 的 RESP2 服务端，一个连接一个线程
+     */
+    private static final class FakeRespServer implements AutoCloseable {
+        private record Entry(byte[] value, long expireAtNanos) {
+        }
+
+        private final String password;
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+        private FakeRespServer(String password) throws IOException {
+            this.password = password;
+            Thread.ofVirtual().start(this::accept);
+        }
+
+        private int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        /**
+         * 处理过命令的非订阅连接数
+         */
+        private long connections() {
+            return clients.stream().filter(c -> !c.subscriber).count();
+        }
+
+        private void awaitSubscribers(String channel, int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (subscribers.getOrDefault(channel, Set.of()).size() < count) {
+                assertTrue(System.nanoTime() < deadline, "订阅超时");
+                Thread.sleep(10);
+            }
+        }
+
+        private void dropSubscribers() {
+            for (Set<Client> set : subscribers.values()) {
+                for (Client client : set) {
+                    client.close();
+                }
+                set.clear();
+            }
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Client client = new Client(serverSocket.accept());
+                    clients.add(client);
+                    Thread.ofVirtual().start(client::serve);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            clients.forEach(Client::close);
+        }
+
+        private final class Client {
+            private final Socket socket;
+            private final InputStream in;
+            private final OutputStream out;
+            private boolean authenticated;
+            private volatile boolean subscriber;
+
+            private Client(Socket socket) throws IOException {
+                this.socket = socket;
+                this.in = new BufferedInputStream(socket.getInputStream());
+                this.out = socket.getOutputStream();
+            }
+
+            private void serve() {
+                try {
+                    List<byte[]> command;
+                    while ((command = readCommand()) != null) {
+                        handle(command);
+                    }
+                } catch (IOException e) {
+                    // 连接关闭
+                } finally {
+                    close();
+                }
+            }
+
+            private void handle(List<byte[]> command) throws IOException {
+                String name = text(command.get(0)).toUpperCase();
+                if (name.equals("AUTH")) {
+                    authenticated = text(command.get(1)).equals(password);
+                    write(authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n");
+                    return;
+                }
+                if (!authenticated) {
+                    write("-NOAUTH Authentication required.\r\n");
+                    return;
+                }
+                switch (name) {
+                    case "PING" -> write("+PONG\r\n");
+                    case "GET" -> {
+                        Entry entry = entries.get(text(command.get(1)));
+                        if (entry == null || System.nanoTime() - entry.expireAtNanos() >= 0) {
+                            write("$-1\r\n");
+                        } else {
+                            writeBulk(List.of(entry.value()), false);
+                        }
+                    }
+                    case "SET" -> {
+                        long ttlMillis = Long.parseLong(text(command.get(4)));
+                        if (ttlMillis <= 0) {
+                            write("-ERR invalid expire time in 'set' command\r\n");
+                            return;
+                        }
+                        entries.put(text(command.get(1)), new Entry(command.get(2),
+                                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+                        write("+OK\r\n");
+                    }
+                    case "DEL" -> write(":" + (entries.remove(text(command.get(1))) != null ? 1 : 0) + "\r\n");
+                    case "PUBLISH" -> {
+                        Set<Client> set = subscribers.getOrDefault(text(command.get(1)), Set.of());
+                        for (Client client : set) {
+                            client.writeBulk(List.of(bytes("message"), command.get(1), command.get(2)), true);
+                        }
+                        write(":" + set.size() + "\r\n");
+                    }
+                    case "SUBSCRIBE" -> {
+                        subscriber = true;
+                        for (int i = 1; i < command.size(); i++) {
+                            String channel = text(command.get(i));
+                            writeBulk(List.of(bytes("subscribe"), command.get(i)), true);
+                            subscribers.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet()).add(this);
+                        }
+                    }
+                    default -> write("-ERR unknown command '" + name + "'\r\n");
+                }
+            }
+
+            private List<byte[]> readCommand() throws IOException {
+                String header = readLine();
+                if (header == null) {
+                    return null;
+                }
+                int count = Integer.parseInt(header.substring(1));
+                List<byte[]> args = new CopyOnWriteArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    int length = Integer.parseInt(readLine().substring(1));
+                    args.add(in.readNBytes(length));
+                    in.readNBytes(2);
+                }
+                return args;
+            }
+
+            private String readLine() throws IOException {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) != '\r') {
+                    if (b == -1) {
+                        return null;
+                    }
+                    line.write(b);
+                }
+                in.read();
+                return line.toString(StandardCharsets.UTF_8);
+            }
+
+            /**
+             * @param array 为 true 时写成数组（订阅确认多一个订阅数的整数）
+             */
+            private synchronized void writeBulk(List<byte[]> items, boolean array) throws IOException {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                boolean confirm = array && text(items.get(0)).equals("subscribe");
+                if (array) {
+                    buffer.writeBytes(bytes("*" + (items.size() + (confirm ? 1 : 0)) + "\r\n"));
+                }
+                for (byte[] item : items) {
+                    buffer.writeBytes(bytes("$" + item.length + "\r\n"));
+                    buffer.writeBytes(item);
+                    buffer.writeBytes(bytes("\r\n"));
+                }
+                if (confirm) {
+                    buffer.writeBytes(bytes(":1\r\n"));
+                }
+                out.write(buffer.toByteArray());
+                out.flush();
+            }
+
+            private synchronized void write(String reply) throws IOException {
+                out.write(bytes(reply));
+                out.flush();
+            }
+
+            private void close() {
+                subscribers.values().forEach(set -> set.remove(this));
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // 测试服务端
+                }
+            }
+        }
+
+        private static String text(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static byte[] bytes(String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.findu.negotiation.infrastructure.client;
+
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.stub.DownstreamStubServer;
+import com.findu.negotiation.infrastructure.stub.LatencyDistribution;
+import com.findu.negotiation.infrastructure.stub.StubEndpoint;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agent 补全微批测试，批量接口由进程内桩服务提供
+ */
+class AgentCompletionBatcherTest {
+
+    private static final String AGENT_PATH = "/api/v1/inner/order_negotiation/completions";
+    private static final String BATCH_PATH = AGENT_PATH + "/batch";
+
+    private DownstreamStubServer stub;
+    private AgentCompletionBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (batcher != null) {
+            batcher.stop();
+        }
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+
+    private void start(double errorRate, int maxSize, long maxDelayMs) throws Exception {
+        StubEndpoint none = new StubEndpoint("none", LatencyDistribution.NONE, 0, 1);
+        stub = new DownstreamStubServer(0, AGENT_PATH, BATCH_PATH, none, none, none,
+                new StubEndpoint("agent", LatencyDistribution.fixed(20), errorRate, 2));
+        stub.start();
+        batcher = new AgentCompletionBatcher("http://localhost:" + stub.getPort(DownstreamStubServer.AGENT_OFFSET) + BATCH_PATH,
+                maxSize, maxDelayMs);
+        batcher.start();
+    }
+
+    private static OrderNegotiationCompletionsRequest request(String id) {
+        return new OrderNegotiationCompletionsRequest(id, List.of(), List.of(), List.of(), null);
+    }
+
+    @Test
+    void testResponsesAreDemultiplexedById() throws Exception {
+        start(0, 4, 50);
+        long batches = AgentCompletionBatcher.getBatches();
+        long batched = AgentCompletionBatcher.getBatchedRequests();
+
+        List<CompletableFuture<OrderNegotiationCompletionsResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.submit(request("req-" + i)));
+        }
+        for (int i = 0; i < 10; i++) {
+            OrderNegotiationCompletionsResponse response = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals("req-" + i, response.getId());
+            assertEquals("三室一厅深度保洁", response.getResult().getTitle());
+        }
+        // 10 个请求几乎同时到达，每批最多 4 个
+        assertEquals(3, AgentCompletionBatcher.getBatches() - batches);
+        assertEquals(10, AgentCompletionBatcher.getBatchedRequests() - batched);
+    }
+
+    @Test
+    void testSingleRequestIsSentAfterMaxDelay() throws Exception {
+        start(0, 8, 30);
+        long batches = AgentCompletionBatcher.getBatches();
+
+        long start = System.nanoTime();
+        OrderNegotiationCompletionsResponse response = batcher.completions(request("lonely"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("lonely", response.getId());
+        // 等待 30ms 凑批 + 桩延迟 20ms
+        assertTrue(elapsedMs >= 45, "elapsed=" + elapsedMs);
+        assertEquals(1, AgentCompletionBatcher.getBatches() - batches);
+    }
+
+    @Test
+    void testBatchFailureReachesEveryCaller() throws Exception {
+        start(1.0, 4, 20);
+
+        List<CompletableFuture<OrderNegotiationCompletionsResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(batcher.submit(request("fail-" + i)));
+        }
+        for (CompletableFuture<OrderNegotiationCompletionsResponse> future : futures) {
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            BusinessException cause = assertInstanceOf(BusinessException.class, e.getCause());
+            assertEquals(ErrorCode.AGENT_SERVICE_ERROR, cause.getErrorCode());
+        }
+    }
+
+    @Test
+    void testBatchIsSentWithItsOwnTraceId() throws Exception {
+        List<String> traceIds = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext(BATCH_PATH, exchange -> {
+            try (exchange) {
+                traceIds.add(exchange.getRequestHeaders().getFirst(TraceIds.TRACE_ID_HEADER));
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = "{\"responses\":[]}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        try {
+            batcher = new AgentCompletionBatcher("http://localhost:" + server.getAddress().getPort() + BATCH_PATH, 4, 5);
+            batcher.start();
+            RequestContext context = new RequestContext();
+            context.setTraceId("caller-trace");
+            RequestContextHolder.setContext(context);
+
+            // 桩服务不返回任何 id，调用方失败，只检查出站的链路ID
+            assertThrows(BusinessException.class, () -> batcher.completions(request("traced")));
+
+            assertEquals(1, traceIds.size());
+            assertTrue(traceIds.getFirst().matches("[0-9a-f]{32}"), traceIds.getFirst());
+        } finally {
+            RequestContextHolder.clearContext();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testCallerGivesUpAfterTimeout() throws Exception {
+        StubEndpoint none = new StubEndpoint("none", LatencyDistribution.NONE, 0, 1);
+        stub = new DownstreamStubServer(0, AGENT_PATH, BATCH_PATH, none, none, none,
+                new StubEndpoint("agent", LatencyDistribution.fixed(2000), 0, 2));
+        stub.start();
+        batcher = new AgentCompletionBatcher("http://localhost:" + stub.getPort(DownstreamStubServer.AGENT_OFFSET) + BATCH_PATH,
+                4, 5, Duration.ofMillis(200));
+        batcher.start();
+
+        long start = System.nanoTime();
+        BusinessException e = assertThrows(BusinessException.class, () -> batcher.completions(request("slow")));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(ErrorCode.AGENT_SERVICE_ERROR, e.getErrorCode());
+        assertTrue(elapsedMs >= 200 && elapsedMs < 2000, "elapsed=" + elapsedMs);
+    }
+
+    @Test
+    void testSubmitAfterStopFails() throws Exception {
+        start(0, 4, 5);
+        batcher.stop();
+
+        BusinessException e = assertThrows(BusinessException.class, () -> batcher.completions(request("late")));
+        assertEquals(ErrorCode.AGENT_SERVICE_ERROR, e.getErrorCode());
+        batcher = null;
+    }
+}
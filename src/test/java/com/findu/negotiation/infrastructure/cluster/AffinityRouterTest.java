@@ -0,0 +1,117 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.interfaces.dto.ApiResponse;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 归属节点路由测试，另一个节点由 JDK HttpServer 模拟
+ */
+class AffinityRouterTest {
+
+    private static final TypeReference<ApiResponse<Map<String, Object>>> TYPE = new TypeReference<>() {
+    };
+
+    private final List<Headers> received = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String remote;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/create", exchange -> {
+            try (exchange) {
+                received.add(exchange.getRequestHeaders());
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = "{\"code\":200,\"message\":\"success\",\"data\":{\"draftId\":\"remote\"}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.getResponseHeaders().set("X-Findu-Degraded", "rate_limited");
+                exchange.getResponseHeaders().set(AffinityRouter.OWNER_HEADER, "remote-owner");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        remote = "127.0.0.1:" + server.getAddress().getPort();
+
+        RequestContext context = new RequestContext();
+        context.setAuthorization("Bearer token");
+        context.setUserId("customer-20002");
+        RequestContextHolder.setContext(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.clearContext();
+        server.stop(0);
+    }
+
+    @Test
+    void testOwnerHandlesLocally() {
+        AffinityRouter router = new AffinityRouter(new ClusterMembership("self:1", List.of("self:1"), null, 16), true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(router.route("/create", "p", "c", Map.of(), TYPE, null, response));
+        assertEquals("self:1", response.getHeader(AffinityRouter.OWNER_HEADER));
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testHintModeOnlySetsHeader() {
+        AffinityRouter router = new AffinityRouter(new ClusterMembership("self:1", List.of(remote), null, 16), false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(router.route("/create", "p", "c", Map.of(), TYPE, null, response));
+        assertEquals(remote, response.getHeader(AffinityRouter.OWNER_HEADER));
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testForwardsToOwnerOnce() {
+        AffinityRouter router = new AffinityRouter(new ClusterMembership("self:1", List.of(remote), null, 16), true);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ApiResponse<Map<String, Object>> forwarded = router.route("/create", "p", "c", Map.of("providerId", "p"),
+                TYPE, null, response);
+        assertEquals("remote", forwarded.getData().get("draftId"));
+        // 归属节点的降级标记原样回传，归属节点头仍为本节点的判断
+        assertEquals("rate_limited", response.getHeader("X-Findu-Degraded"));
+        assertEquals(remote, response.getHeader(AffinityRouter.OWNER_HEADER));
+        assertNull(response.getHeader("Content-Type"));
+        assertEquals(1, received.size());
+        assertEquals("self:1", received.get(0).getFirst(AffinityRouter.FORWARDED_HEADER));
+        assertEquals("Bearer token", received.get(0).getFirst("Authorization"));
+        assertEquals("customer-20002", received.get(0).getFirst("X-User-Id"));
+
+        // 已经转发过的请求在本节点处理，不再转发
+        assertNull(router.route("/create", "p", "c", Map.of(), TYPE, "other:1", new MockHttpServletResponse()));
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void testForwardFailureFallsBackToLocal() {
+        AffinityRouter router = new AffinityRouter(new ClusterMembership("self:1", List.of(remote), null, 16), true);
+
+        assertNull(router.route("/missing", "p", "c", Map.of(), TYPE, null, new MockHttpServletResponse()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 集群成员测试
+ */
+class ClusterMembershipTest {
+
+    @Test
+    void testParseSkipsCommentsAndBlankLines() {
+        assertEquals(List.of("a:1", "b:2", "c:3"),
+                ClusterMembership.parse(List.of("# 成员", " a:1 ", "", "b:2, c:3 # 新增")));
+    }
+
+    @Test
+    void testStaticNodes() {
+        ClusterMembership membership = new ClusterMembership("b:2", List.of("a:1", "b:2"), null, 16);
+
+        assertEquals(List.of("a:1", "b:2"), membership.getNodes());
+        assertTrue(membership.isSelf("b:2"));
+        assertNotNull(membership.owner("provider", "customer"));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterMembership(" ", List.of(), null, 16));
+    }
+
+    @Test
+    void testReloadsFileWhenModifiedAndKeepsRingOnFailure(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("nodes");
+        Files.writeString(file, "a:1\nb:2\n");
+        ClusterMembership membership = new ClusterMembership("a:1", List.of("static:1"), file, 16);
+        assertEquals(List.of("a:1", "b:2"), membership.getNodes());
+
+        Files.writeString(file, "a:1\nb:2\nc:3\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        membership.refresh();
+        assertEquals(List.of("a:1", "b:2", "c:3"), membership.getNodes());
+
+        // 文件被删除时保留当前成员
+        Files.delete(file);
+        membership.refresh();
+        assertEquals(List.of("a:1", "b:2", "c:3"), membership.getNodes());
+    }
+}
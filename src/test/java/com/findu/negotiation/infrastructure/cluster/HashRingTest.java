@@ -0,0 +1,66 @@
+package com.findu.negotiation.infrastructure.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 一致性哈希环测试
+ */
+class HashRingTest {
+
+    private static final List<String> NODES = List.of("10.0.0.1:8810", "10.0.0.2:8810", "10.0.0.3:8810");
+    private static final int KEYS = 30000;
+
+    @Test
+    void testOwnerIsIndependentOfNodeOrderAndDuplicates() {
+        HashRing ring = new HashRing(NODES, 160);
+        HashRing reordered = new HashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1), NODES.get(0)), 160);
+
+        assertEquals(NODES, reordered.getNodes());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.owner("provider-" + i, "customer-" + i), reordered.owner("provider-" + i, "customer-" + i));
+        }
+    }
+
+    @Test
+    void testKeysAreSpreadEvenly() {
+        HashRing ring = new HashRing(NODES, 160);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.owner("provider-" + (i % 100), "customer-" + i), 1, Integer::sum);
+        }
+        for (String node : NODES) {
+            // 160 个虚拟节点时各节点的份额偏差在 ±15% 以内
+            assertEquals(KEYS / 3.0, counts.get(node), KEYS / 3.0 * 0.15, node);
+        }
+    }
+
+    @Test
+    void testAddingNodeMovesOnlyItsShare() {
+        HashRing before = new HashRing(NODES, 160);
+        HashRing after = new HashRing(List.of(NODES.get(0), NODES.get(1), NODES.get(2), "10.0.0.4:8810"), 160);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = before.owner("provider-" + (i % 100), "customer-" + i);
+            String newOwner = after.owner("provider-" + (i % 100), "customer-" + i);
+            if (!owner.equals(newOwner)) {
+                // 换了归属的 key 只会移到新节点
+                assertEquals("10.0.0.4:8810", newOwner);
+                moved++;
+            }
+        }
+        assertEquals(KEYS / 4.0, moved, KEYS / 4.0 * 0.2);
+    }
+
+    @Test
+    void testEmptyRingAndInvalidConfig() {
+        assertNull(new HashRing(List.of(), 160).owner("provider", "customer"));
+        assertEquals("only", new HashRing(List.of("only"), 1).owner("provider", "customer"));
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(NODES, 0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.findu.negotiation.infrastructure.config;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.client.dto.chat.MessageContentDeserializer;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsRequest;
+import com.findu.negotiation.infrastructure.logging.CountingDiscardPolicy;
+import org.apache.logging.log4j.core.appender.RollingFileAppender;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.pattern.MdcPatternConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * native-image 元数据测试：DTO 绑定、反序列化器与 Log4j2 插件均已登记
+ */
+class NativeImageHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testAllDtoClassesRegistered() throws Exception {
+        List<String> missing = new ArrayList<>();
+        for (Class<?> type : dtoClasses()) {
+            if (!RuntimeHintsPredicates.reflection().onType(type).test(hints)) {
+                missing.add(type.getName());
+            }
+        }
+        assertTrue(missing.isEmpty(), "未登记到 NativeImageHints.BINDING_TYPES: " + missing);
+    }
+
+    @Test
+    void testBindingMembersRegistered() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ChatHistoryData.DemandCardContent.class.getMethod("setDemandTitle", String.class))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(OrderNegotiationCompletionsRequest.class.getMethod("getHumanConversations"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(MessageContentDeserializer.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void testLog4jPluginsRegistered() {
+        for (Class<?> plugin : List.of(RollingFileAppender.class, PatternLayout.class, MdcPatternConverter.class)) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(plugin)
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints), plugin.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CountingDiscardPolicy.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("log4j2.component.properties").test(hints));
+    }
+
+    /**
+     * 主代码 dto 包下除反序列化器与 Lombok builder 以外的所有类（不含同包下的测试类）
+     */
+    private static List<Class<?>> dtoClasses() throws IOException, ClassNotFoundException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        CachingMetadataReaderFactory readers = new CachingMetadataReaderFactory(resolver);
+        List<Class<?>> types = new ArrayList<>();
+        String classesRoot = NativeImageHints.class.getProtectionDomain().getCodeSource().getLocation().toString();
+        for (Resource resource : resolver.getResources(classesRoot + "com/findu/negotiation/**/dto/**/*.class")) {
+            MetadataReader reader = readers.getMetadataReader(resource);
+            Class<?> type = Class.forName(reader.getClassMetadata().getClassName());
+            if (JsonDeserializer.class.isAssignableFrom(type) || type.getSimpleName().endsWith("Builder")) {
+                continue;
+            }
+            types.add(type);
+        }
+        assertFalse(types.isEmpty());
+        return types;
+    }
+}
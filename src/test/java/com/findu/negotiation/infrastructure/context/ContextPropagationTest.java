@@ -0,0 +1,169 @@
+package com.findu.negotiation.infrastructure.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求上下文跨线程传递测试
+ */
+class ContextPropagationTest {
+
+    private static final int THREADS = 8;
+    private static final int TASKS = 20_000;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.clearContext();
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        RequestContextHolder.clearContext();
+        pool.shutdownNow();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static RequestContext context(String id) {
+        RequestContext context = new RequestContext();
+        context.setAuthorization("Bearer " + id);
+        context.setTraceId(id);
+        return context;
+    }
+
+    /**
+     * 固定大小线程池上的每个线程都不应残留上下文
+     */
+    private void assertPoolClean() throws Exception {
+        CountDownLatch barrier = new CountDownLatch(THREADS);
+        List<Future<RequestContext>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                // 让每个线程都领到一个任务
+                barrier.countDown();
+                barrier.await();
+                return RequestContextHolder.getContext();
+            }));
+        }
+        for (Future<RequestContext> future : futures) {
+            assertNull(future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testEachTaskSeesItsOwnContextUnderConcurrency() throws Exception {
+        ExecutorService propagating = ContextPropagation.executorService(pool);
+        ExecutorService submitters = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < TASKS; i++) {
+                String id = "trace-" + i;
+                // 从不同的虚拟线程提交，每个提交线程有自己的上下文
+                futures.add(submitters.submit(() -> RequestContextHolder.runWithContext(context(id), () -> {
+                    try {
+                        String seen = propagating.submit(RequestContextHolder::getTraceId).get();
+                        if (!id.equals(seen) || !("Bearer " + id).equals(RequestContextHolder.getAuthorization())) {
+                            mismatches.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            submitters.shutdown();
+        }
+        assertEquals(0, mismatches.get());
+        assertPoolClean();
+    }
+
+    @Test
+    void testTaskWithoutContextDoesNotInheritPreviousOne() throws Exception {
+        ExecutorService propagating = ContextPropagation.executorService(pool);
+        // 先用带上下文的任务占满线程池，再提交无上下文的任务
+        RequestContextHolder.runWithContext(context("first"), () -> {
+            for (int i = 0; i < THREADS * 4; i++) {
+                propagating.execute(() -> assertEquals("first", RequestContextHolder.getTraceId()));
+            }
+        });
+        assertNull(propagating.submit(RequestContextHolder::getContext).get(5, TimeUnit.SECONDS));
+        assertPoolClean();
+    }
+
+    @Test
+    void testCompletableFutureStages() throws Exception {
+        RequestContextHolder.setContext(context("cf"));
+
+        CompletableFuture<String> future = ContextPropagation.supplyAsync(RequestContextHolder::getTraceId, pool)
+                .thenApplyAsync(ContextPropagation.function(trace -> trace + ":" + RequestContextHolder.getTraceId()), pool)
+                .thenCombineAsync(ContextPropagation.supplyAsync(RequestContextHolder::getAuthorization, pool),
+                        (left, right) -> left + ":" + right, pool);
+
+        assertEquals("cf:cf:Bearer cf", future.get(5, TimeUnit.SECONDS));
+
+        List<String> seen = new ArrayList<>();
+        ContextPropagation.runAsync(() -> seen.add(RequestContextHolder.getTraceId()), pool)
+                .thenAcceptAsync(ContextPropagation.consumer(ignored -> seen.add(RequestContextHolder.getTraceId())), pool)
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("cf", "cf"), seen);
+        assertPoolClean();
+    }
+
+    @Test
+    void testThreadLocalStorageRestoresPreviousValue() throws Exception {
+        assertNestedScopes(new ThreadLocalContextStorage());
+    }
+
+    @Test
+    void testScopedValueStorageRestoresPreviousValue() throws Exception {
+        assertTrue(ScopedValueContextStorage.isAvailable());
+        ContextStorage storage = new ScopedValueContextStorage();
+        assertNestedScopes(storage);
+
+        // 作用域内显式绑定 null 时不回退到 ThreadLocal
+        storage.set(context("outer"));
+        assertNull(storage.callWith(null, storage::get));
+        assertEquals("outer", storage.get().getTraceId());
+        storage.clear();
+    }
+
+    private static void assertNestedScopes(ContextStorage storage) throws Exception {
+        assertNull(storage.get());
+        String result = storage.callWith(context("a"), () -> {
+            assertEquals("a", storage.get().getTraceId());
+            storage.callWith(context("b"), () -> {
+                assertEquals("b", storage.get().getTraceId());
+                return null;
+            });
+            assertEquals("a", storage.get().getTraceId());
+            return storage.get().getTraceId();
+        });
+        assertEquals("a", result);
+        assertNull(storage.get());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> storage.callWith(context("c"), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("boom", e.getMessage());
+        assertNull(storage.get());
+    }
+}
@@ -1,8 +1,10 @@
 package com.findu.negotiation.infrastructure.context;
 
+import org.apache.logging.log4j.ThreadContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,6 +104,55 @@ class RequestContextTest {
         assertEquals("Bearer main-token", RequestContextHolder.getAuthorization());
     }
 
+    @Test
+    void testMdcFollowsContext() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setTraceId("trace-mdc");
+        RequestContextHolder.setContext(context);
+        assertEquals("trace-mdc", ThreadContext.get(TraceIds.MDC_TRACE_ID));
+
+        RequestContext inner = new RequestContext();
+        inner.setTraceId("trace-inner");
+        String seen = RequestContextHolder.callWithContext(inner, () -> ThreadContext.get(TraceIds.MDC_TRACE_ID));
+        assertEquals("trace-inner", seen);
+        // 作用域结束后恢复外层的值
+        assertEquals("trace-mdc", ThreadContext.get(TraceIds.MDC_TRACE_ID));
+
+        RequestContextHolder.clearContext();
+        assertNull(ThreadContext.get(TraceIds.MDC_TRACE_ID));
+    }
+
+    @Test
+    void testGeneratedIds() {
+        String traceId = TraceIds.newTraceId();
+        String spanId = TraceIds.newSpanId();
+        assertTrue(traceId.matches("[0-9a-f]{32}"), traceId);
+        assertTrue(spanId.matches("[0-9a-f]{16}"), spanId);
+        assertNotEquals(traceId, TraceIds.newTraceId());
+    }
+
+    @Test
+    void testResolveRejectsInvalidInboundIds() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TraceIds.TRACE_ID_HEADER, "abc-DEF_123");
+        assertEquals("abc-DEF_123", TraceIds.resolve(request));
+
+        // 非 ASCII 的 X-Trace-Id 不用，退到 X-Request-Id
+        request = new MockHttpServletRequest();
+        request.addHeader(TraceIds.TRACE_ID_HEADER, "追踪-1");
+        request.addHeader(TraceIds.REQUEST_ID_HEADER, "req-1");
+        assertEquals("req-1", TraceIds.resolve(request));
+
+        // 两个都不合法时生成新的
+        request = new MockHttpServletRequest();
+        request.addHeader(TraceIds.TRACE_ID_HEADER, "a".repeat(65));
+        request.addHeader(TraceIds.REQUEST_ID_HEADER, "id with spaces");
+        String generated = TraceIds.resolve(request);
+        assertTrue(generated.matches("[0-9a-f]{32}"), generated);
+        // 同一请求内解析结果不变
+        assertEquals(generated, TraceIds.resolve(request));
+    }
+
     @Test
     void testToString() {
         RequestContext context = new RequestContext();
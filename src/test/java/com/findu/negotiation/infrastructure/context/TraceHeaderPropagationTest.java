@@ -0,0 +1,93 @@
+package com.findu.negotiation.infrastructure.context;
+
+import com.findu.negotiation.infrastructure.client.HttpClientWrapper;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 出站调用携带链路ID测试，覆盖 RestTemplate（HttpClientWrapper）与 OkHttp（HttpUtil）两条路径
+ */
+class TraceHeaderPropagationTest {
+
+    private final List<Headers> received = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/echo", exchange -> {
+            try (exchange) {
+                received.add(exchange.getRequestHeaders());
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/echo";
+
+        RequestContext context = new RequestContext();
+        context.setTraceId("trace-outbound");
+        RequestContextHolder.setContext(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.clearContext();
+        server.stop(0);
+    }
+
+    @Test
+    void testHttpClientWrapperSendsTraceHeaders() {
+        HttpClientWrapper wrapper = new HttpClientWrapper(new RestTemplate());
+        wrapper.getJson(url, String.class, false);
+        wrapper.postJson(url, "{}", String.class, false);
+
+        assertEquals(2, received.size());
+        assertTraceHeaders(received.get(0));
+        assertTraceHeaders(received.get(1));
+        // 每次调用一个新的 spanId
+        assertNotEquals(received.get(0).getFirst("X-Request-Id"), received.get(1).getFirst("X-Request-Id"));
+    }
+
+    @Test
+    void testHttpUtilSendsTraceHeaders() {
+        assertTrue(HttpUtil.postJson(url, "{}").isSuccessful());
+
+        assertEquals(1, received.size());
+        assertTraceHeaders(received.getFirst());
+    }
+
+    @Test
+    void testNoTraceIdOutsideRequest() {
+        RequestContextHolder.clearContext();
+        HttpUtil.postJson(url, "{}");
+
+        assertNull(received.getFirst().getFirst("X-Trace-Id"));
+        assertNotNull(received.getFirst().getFirst("X-Request-Id"));
+    }
+
+    private static void assertTraceHeaders(Headers headers) {
+        assertEquals("trace-outbound", headers.getFirst("X-Trace-Id"));
+        assertTrue(headers.getFirst("X-Request-Id").matches("[0-9a-f]{16}"));
+    }
+}
@@ -1,5 +1,9 @@
 package com.findu.negotiation.infrastructure.filter;
 
+import com.findu.negotiation.infrastructure.context.StageTimer;
+import com.findu.negotiation.infrastructure.context.TraceIds;
+import com.findu.negotiation.infrastructure.metrics.MetricsRegistry;
+import com.findu.negotiation.infrastructure.warmup.WarmupRouting;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
 
@@ -291,5 +296,78 @@ class HttpLoggingFilterTest {
             filter.doFilter(request, response, filterChain);
         });
     }
-}
 
+    @Test
+    void testServerTimingHeader() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setMethod("POST");
+        request.setRequestURI("/api/v1/orders_negotiation/create");
+
+        StageTimer stageTimer = new StageTimer();
+        request.setAttribute(StageTimer.REQUEST_ATTRIBUTE, stageTimer);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (req, resp) -> {
+            stageTimer.mark(StageTimer.Stage.of("user_works"));
+            resp.getWriter().write("{}");
+        };
+
+        filter.doFilter(request, response, filterChain);
+
+        String serverTiming = response.getHeader("Server-Timing");
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.matches("user_works;dur=\\d+\\.\\d{3}, respond;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"),
+                serverTiming);
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void testNoServerTimingWithoutStageTimer() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setMethod("GET");
+        request.setRequestURI("/api/test");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    @Test
+    void testTraceIdIsEchoedOrGenerated() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        request.addHeader("X-Trace-Id", "trace-echo");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals("trace-echo", response.getHeader("X-Trace-Id"));
+
+        // 没有 X-Trace-Id 时使用 X-Request-Id
+        request = new MockHttpServletRequest("GET", "/api/test");
+        request.addHeader("X-Request-Id", "req-as-trace");
+        response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals("req-as-trace", response.getHeader("X-Trace-Id"));
+
+        // 都没有时生成，拦截器随后解析到的是同一个值
+        MockHttpServletRequest generated = new MockHttpServletRequest("GET", "/api/test");
+        response = new MockHttpServletResponse();
+        filter.doFilter(generated, response, new MockFilterChain());
+        String traceId = response.getHeader("X-Trace-Id");
+        assertNotNull(traceId);
+        assertEquals(traceId, TraceIds.resolve(generated));
+    }
+
+    @Test
+    void testWarmupRequestIsNotRecorded() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/warmup-test");
+        request.setAttribute(WarmupRouting.REQUEST_ATTRIBUTE, true);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/warmup-test");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(0, MetricsRegistry.endpoint("POST", "/api/warmup-test").snapshot().getCount());
+
+        request = new MockHttpServletRequest("POST", "/api/warmup-test");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/warmup-test");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(1, MetricsRegistry.endpoint("POST", "/api/warmup-test").snapshot().getCount());
+    }
+}
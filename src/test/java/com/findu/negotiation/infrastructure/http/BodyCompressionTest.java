@@ -0,0 +1,145 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.findu.negotiation.infrastructure.client.HttpClientWrapper;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下游请求体压缩与响应体解压测试，覆盖 HttpUtil（OkHttp）与 RestTemplate（CompressionInterceptor）两条路径
+ */
+class BodyCompressionTest {
+
+    /**
+     * 下游返回的响应体，重复内容便于压缩
+     */
+    private static final String RESPONSE = "{\"items\":\"" + "negotiation ".repeat(500) + "\"}";
+
+    private final List<String> contentEncodings = new CopyOnWriteArrayList<>();
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/echo", exchange -> {
+            try (exchange) {
+                String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                contentEncodings.add(String.valueOf(contentEncoding));
+                acceptEncodings.add(String.valueOf(acceptEncoding));
+                InputStream in = "gzip".equals(contentEncoding)
+                        ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+                bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+
+                byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+                if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    body = gzip(body);
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        BodyCompression.configure(true, List.of(baseUrl), 256, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BodyCompression.configure(true, List.of(), BodyCompression.DEFAULT_MIN_SIZE, BodyCompression.DEFAULT_LEVEL);
+        server.stop(0);
+    }
+
+    @Test
+    void testHttpUtilCompressesRequestAndDecodesResponse() {
+        String payload = "{\"conversation\":\"" + "hello ".repeat(200) + "\"}";
+
+        HttpUtil.HttpResponse<Map> response = HttpUtil.postJson(baseUrl + "/echo", payload, Map.class);
+
+        assertTrue(response.isSuccessful());
+        assertEquals("negotiation ".repeat(500), response.body().get("items"));
+        assertEquals("gzip", contentEncodings.getFirst());
+        assertEquals("gzip", acceptEncodings.getFirst());
+        assertEquals(payload, bodies.getFirst());
+    }
+
+    @Test
+    void testSmallOrUnlistedRequestNotCompressed() {
+        HttpUtil.HttpResponse<String> small = HttpUtil.postJson(baseUrl + "/echo", "{\"id\":\"1\"}");
+        BodyCompression.configure(true, List.of("http://other:8900"), 256, 1);
+        HttpUtil.postJson(baseUrl + "/echo", "{\"conversation\":\"" + "hello ".repeat(200) + "\"}");
+
+        assertEquals(List.of("null", "null"), contentEncodings);
+        // 响应类型为 String 时解压为完整字符串
+        assertEquals(RESPONSE, small.body());
+    }
+
+    @Test
+    void testRestTemplateInterceptor() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new CompressionInterceptor());
+        HttpClientWrapper wrapper = new HttpClientWrapper(restTemplate);
+        String payload = "{\"conversation\":\"" + "hello ".repeat(200) + "\"}";
+
+        Map<?, ?> got = wrapper.getJson(baseUrl + "/echo", Map.class, false).getBody();
+        Map<?, ?> posted = wrapper.postJson(baseUrl + "/echo", payload, Map.class, false).getBody();
+
+        assertEquals("negotiation ".repeat(500), got.get("items"));
+        assertEquals("negotiation ".repeat(500), posted.get("items"));
+        assertEquals(List.of("null", "gzip"), contentEncodings);
+        assertEquals(List.of("gzip", "gzip"), acceptEncodings);
+        assertEquals(payload, bodies.get(1));
+    }
+
+    @Test
+    void testStatsRecordRatioPerRoute() {
+        HttpUtil.postJson(baseUrl + "/echo", "{\"conversation\":\"" + "hello ".repeat(200) + "\"}", Map.class);
+
+        String route = "localhost:" + server.getAddress().getPort();
+        BodyCompression.Stats request = find(route, BodyCompression.REQUEST);
+        BodyCompression.Stats response = find(route, BodyCompression.RESPONSE);
+        assertTrue(request.getRawBytes() > request.getWireBytes());
+        assertEquals(RESPONSE.length(), response.getRawBytes());
+        assertTrue(response.getRatio() < 0.1, "重复内容的压缩比应远小于 1: " + response.getRatio());
+        assertEquals(1, response.getCpu().getCount());
+    }
+
+    private static BodyCompression.Stats find(String route, String direction) {
+        return BodyCompression.stats().stream()
+                .filter(s -> s.getRoute().equals(route) && s.getDirection().equals(direction))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.findu.negotiation.infrastructure.stub.DownstreamStubServer;
+import com.findu.negotiation.infrastructure.stub.LatencyDistribution;
+import com.findu.negotiation.infrastructure.stub.StubEndpoint;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 连接池统计与 Little 定律调整测试
+ */
+class InstrumentedConnectionManagerTest {
+
+    private DownstreamStubServer stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StubEndpoint slow = new StubEndpoint("user", LatencyDistribution.fixed(50), 0, 1);
+        stub = new DownstreamStubServer(0, "/agent", "/agent/batch", slow, slow, slow, slow);
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void testLeaseWaitAndHoldTimeRecorded() throws Exception {
+        InstrumentedConnectionManager manager = new InstrumentedConnectionManager("test");
+        manager.setDefaultMaxPerRoute(2);
+        String url = "http://localhost:" + stub.getPort(DownstreamStubServer.USER_OFFSET)
+                + "/api/v1/inner/user-admin/works/p/public";
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try (CloseableHttpClient client = HttpClients.custom().setConnectionManager(manager).build()) {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(executor.submit(() -> client.execute(new HttpGet(url), response -> {
+                    EntityUtils.consume(response.getEntity());
+                    return response.getCode();
+                })));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(200, future.get(10, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, manager.routeStats().size());
+            InstrumentedConnectionManager.RouteStats stats = manager.routeStats().iterator().next();
+            assertEquals(6, stats.getReleased());
+            assertEquals(6, stats.getLeaseWait().snapshot().getCount());
+            // 6 个请求只有 2 个连接，至少有请求要等满一个 50ms 的周期
+            assertTrue(stats.getLeaseWait().snapshot().getMaxMicros() >= 40_000);
+            assertTrue(stats.getHoldNanos() >= TimeUnit.MILLISECONDS.toNanos(6 * 50));
+            assertEquals(2, stats.getPoolStats().getMax());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testComputeLimit() {
+        // 扩容一次到位
+        assertEquals(40, ConnectionPoolResizer.computeLimit(10, 20, 2.0, 0.25, 8, 100));
+        // 缩容每次最多 25%
+        assertEquals(75, ConnectionPoolResizer.computeLimit(100, 5, 2.0, 0.25, 8, 100));
+        // 上下限
+        assertEquals(100, ConnectionPoolResizer.computeLimit(50, 80, 2.0, 0.25, 8, 100));
+        assertEquals(8, ConnectionPoolResizer.computeLimit(9, 0, 2.0, 0.25, 8, 100));
+    }
+}
@@ -0,0 +1,117 @@
+package com.findu.negotiation.infrastructure.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.infrastructure.client.HttpClientWrapper;
+import com.findu.negotiation.infrastructure.util.HttpUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Smile 内容协商测试：下游按 Accept 选择 Smile 或 JSON 返回，按 Content-Type 解码请求体，覆盖 HttpUtil 与 RestTemplate 两条路径
+ */
+class WireFormatTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+    private final List<String> accepts = new CopyOnWriteArrayList<>();
+    private final List<JsonNode> bodies = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/echo", exchange -> {
+            try (exchange) {
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                contentTypes.add(String.valueOf(contentType));
+                accepts.add(String.valueOf(accept));
+                byte[] request = exchange.getRequestBody().readAllBytes();
+                if (request.length > 0) {
+                    bodies.add((WireFormat.isSmileContentType(contentType) ? WireFormat.smileMapper() : JSON)
+                            .readTree(request));
+                }
+
+                Map<String, Object> response = Map.of("items", "negotiation", "count", 3);
+                boolean smile = accept != null && accept.startsWith(WireFormat.SMILE_VALUE);
+                byte[] body = (smile ? WireFormat.smileMapper() : JSON).writeValueAsBytes(response);
+                exchange.getResponseHeaders().set("Content-Type", smile ? WireFormat.SMILE_VALUE : "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        WireFormat.configure(List.of(baseUrl));
+    }
+
+    @AfterEach
+    void tearDown() {
+        WireFormat.configure(List.of());
+        server.stop(0);
+    }
+
+    @Test
+    void testHttpUtilSmileRoundTrip() {
+        HttpUtil.HttpResponse<Map> response = HttpUtil.postJson(baseUrl + "/echo", Map.of("conversation", "hello"), Map.class);
+
+        assertTrue(response.isSuccessful());
+        assertEquals("negotiation", response.body().get("items"));
+        assertEquals(3, response.body().get("count"));
+        assertTrue(WireFormat.isSmileContentType(contentTypes.getFirst()));
+        assertEquals(WireFormat.SMILE_ACCEPT, accepts.getFirst());
+        assertEquals("hello", bodies.getFirst().get("conversation").asText());
+    }
+
+    @Test
+    void testHttpUtilJsonForStringsAndUnlistedUrls() {
+        HttpUtil.HttpResponse<Map> prebuilt = HttpUtil.postJson(baseUrl + "/echo", "{\"conversation\":\"hello\"}", Map.class);
+        HttpUtil.HttpResponse<String> text = HttpUtil.postJson(baseUrl + "/echo", Map.of("conversation", "hello"));
+        WireFormat.configure(List.of("http://other:8900"));
+        HttpUtil.HttpResponse<Map> unlisted = HttpUtil.postJson(baseUrl + "/echo", Map.of("conversation", "hello"), Map.class);
+
+        assertEquals("negotiation", prebuilt.body().get("items"));
+        assertEquals("negotiation", unlisted.body().get("items"));
+        assertTrue(text.body().startsWith("{"));
+        assertTrue(contentTypes.stream().allMatch(type -> type.startsWith("application/json")), contentTypes.toString());
+        assertFalse(accepts.stream().anyMatch(accept -> accept.contains(WireFormat.SMILE_VALUE)), accepts.toString());
+    }
+
+    @Test
+    void testRestTemplateNegotiatesPerRoute() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new WireFormatInterceptor());
+        HttpClientWrapper wrapper = new HttpClientWrapper(restTemplate);
+
+        Map<?, ?> got = wrapper.getJson(baseUrl + "/echo", Map.class, false).getBody();
+        Map<?, ?> posted = wrapper.postJson(baseUrl + "/echo", Map.of("conversation", "hello"), Map.class, false).getBody();
+        WireFormat.configure(List.of("http://other:8900"));
+        Map<?, ?> unlisted = wrapper.getJson(baseUrl + "/echo", Map.class, false).getBody();
+
+        assertEquals("negotiation", got.get("items"));
+        assertEquals("negotiation", posted.get("items"));
+        assertEquals("negotiation", unlisted.get("items"));
+        assertEquals(WireFormat.SMILE_ACCEPT, accepts.get(0));
+        assertEquals(WireFormat.SMILE_ACCEPT, accepts.get(1));
+        assertFalse(accepts.get(2).contains(WireFormat.SMILE_VALUE), accepts.get(2));
+        assertTrue(WireFormat.isSmileContentType(contentTypes.get(1)));
+        assertEquals("hello", bodies.getFirst().get("conversation").asText());
+    }
+}
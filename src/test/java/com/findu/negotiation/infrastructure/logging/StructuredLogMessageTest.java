@@ -0,0 +1,65 @@
+package com.findu.negotiation.infrastructure.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StructuredLogMessage JSON 编码测试
+ */
+class StructuredLogMessageTest {
+
+    @Test
+    void testFieldTypes() {
+        StructuredLogMessage message = new StructuredLogMessage()
+                .put("type", "request_out")
+                .put("status_code", 200)
+                .put("truncated", false)
+                .putMillis("dur", 12045)
+                .put("missing", null);
+
+        assertEquals("{\"type\":\"request_out\",\"status_code\":200,\"truncated\":false,\"dur\":12.045,\"missing\":null}",
+                message.getFormattedMessage());
+    }
+
+    @Test
+    void testEscaping() {
+        StructuredLogMessage message = new StructuredLogMessage()
+                .put("body", "a\"b\\c\nd\u0001");
+
+        assertEquals("{\"body\":\"a\\\"b\\\\c\\nd\\u0001\"}", message.getFormattedMessage());
+    }
+
+    @Test
+    void testUtf8BytesDecodedAndTruncated() {
+        byte[] bytes = "{\"title\":\"上门保洁\"}".getBytes(StandardCharsets.UTF_8);
+
+        StructuredLogMessage full = new StructuredLogMessage().putUtf8("body", bytes, 1000);
+        assertEquals("{\"body\":\"{\\\"title\\\":\\\"上门保洁\\\"}\"}", full.getFormattedMessage());
+
+        // 截断在多字节字符中间时输出替换字符，不抛异常
+        StructuredLogMessage cut = new StructuredLogMessage().putUtf8("body", bytes, 12);
+        assertEquals("{\"body\":\"{\\\"title\\\":\\\"�\"}", cut.getFormattedMessage());
+    }
+
+    @Test
+    void testResetAndGrowBeyondInitialCapacity() {
+        StructuredLogMessage message = new StructuredLogMessage();
+        for (int i = 0; i < 40; i++) {
+            message.put("k" + i, i);
+        }
+        assertTrue(message.getFormattedMessage().endsWith("\"k39\":39}"));
+
+        message.reset().put("a", 1);
+        assertEquals("{\"a\":1}", message.getFormattedMessage());
+    }
+
+    @Test
+    void testFormatToAppendsToExistingBuffer() {
+        StringBuilder buffer = new StringBuilder("prefix ");
+        new StructuredLogMessage().put("a", "b").formatTo(buffer);
+        assertEquals("prefix {\"a\":\"b\"}", buffer.toString());
+    }
+}
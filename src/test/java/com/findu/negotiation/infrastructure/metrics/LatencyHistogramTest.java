@@ -0,0 +1,113 @@
+package com.findu.negotiation.infrastructure.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogram 与 MetricsRegistry 测试
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundariesAreMonotonic() {
+        int previous = -1;
+        for (long v = 0; v < 1_000_000; v += 7) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(index >= previous, "index must not decrease at " + v);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= v);
+            previous = index;
+        }
+    }
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMaxMicros());
+        assertEquals(50_000, snapshot.valueAtPercentile(50), 50_000 / 32.0);
+        assertEquals(99_000, snapshot.valueAtPercentile(99), 99_000 / 32.0);
+        assertEquals(99_900, snapshot.valueAtPercentile(99.9), 99_900 / 32.0);
+        assertEquals(50_000.5, snapshot.getMeanMicros(), 0.01);
+    }
+
+    @Test
+    void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().valueAtPercentile(99));
+
+        histogram.recordMicros(-5);
+        histogram.recordMicros(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.valueAtPercentile(50));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.recordNanos(i * 1000L);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals((long) threads * perThread, histogram.snapshot().getCount());
+    }
+
+    @Test
+    void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1500);
+        histogram.recordMicros(90_000);
+        histogram.reset();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getSumMicros());
+        assertEquals(0, snapshot.getMaxMicros());
+
+        histogram.recordMicros(200);
+        assertEquals(200, histogram.snapshot().getMaxMicros());
+    }
+
+    @Test
+    void testPrometheusOutput() throws IOException {
+        MetricsRegistry.downstream("test-downstream").recordMicros(1500);
+        MetricsRegistry.downstreamErrors("test-downstream").increment();
+
+        StringBuilder out = new StringBuilder();
+        MetricsRegistry.writePrometheus(out);
+        String text = out.toString();
+
+        assertTrue(text.contains("# TYPE findu_downstream_latency_seconds summary"));
+        assertTrue(text.contains("findu_downstream_latency_seconds{downstream=\"test-downstream\",quantile=\"0.5\"} 0.0015"));
+        assertTrue(text.contains("findu_downstream_latency_seconds_count{downstream=\"test-downstream\"} 1"));
+        assertTrue(text.contains("findu_downstream_errors_total{downstream=\"test-downstream\"} 1"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自适应并发限制测试
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static AdaptiveConcurrencyLimiter limiter(String name, boolean enabled, int initial) {
+        return new AdaptiveConcurrencyLimiter(name, enabled, initial, 2, 100, 1.5, 0.2, 600);
+    }
+
+    /**
+     * 以固定并发跑一批请求，每批全部获取后再全部归还
+     */
+    private static void runBatches(AdaptiveConcurrencyLimiter limiter, int batches, long rttNanos) {
+        for (int b = 0; b < batches; b++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter("test-reject", true, 3);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+        assertEquals(3, limiter.getInFlight());
+
+        limiter.release(10 * MS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = limiter("test-grow", true, 10);
+        runBatches(limiter, 50, 100 * MS);
+        assertTrue(limiter.getLimit() > 30, "limit=" + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    void testShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter("test-shrink", true, 50);
+        runBatches(limiter, 20, 100 * MS);
+        int before = limiter.getLimit();
+
+        // 下游变慢，RTT 升至 5 倍
+        runBatches(limiter, 5, 500 * MS);
+        assertTrue(limiter.getLimit() < before / 2, "before=" + before + ", after=" + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void testNoGrowthWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = limiter("test-idle", true, 40);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(100 * MS);
+        }
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void testDisabledNeverRejects() {
+        AdaptiveConcurrencyLimiter limiter = limiter("test-disabled", false, 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(0, limiter.getRejected());
+    }
+}
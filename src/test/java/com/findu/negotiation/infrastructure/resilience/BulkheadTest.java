@@ -0,0 +1,103 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 舱壁测试
+ */
+class BulkheadTest {
+
+    @Test
+    void testRejectsAfterQueueTimeout() {
+        Bulkhead bulkhead = new Bulkhead("test-timeout", 1, 20);
+        bulkhead.acquire();
+
+        long start = System.nanoTime();
+        BusinessException e = assertThrows(BusinessException.class, bulkhead::acquire);
+        assertEquals(ErrorCode.DOWNSTREAM_BUSY, e.getErrorCode());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(15));
+        assertEquals(1, bulkhead.getRejected());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(0, bulkhead.getAvailable());
+    }
+
+    @Test
+    void testQueuedCallerGetsReleasedPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test-queue", 1, 1000);
+        bulkhead.acquire();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiter = executor.submit(bulkhead::acquire);
+            Thread.sleep(20);
+            assertFalse(waiter.isDone());
+            bulkhead.release();
+            waiter.get(1, TimeUnit.SECONDS);
+            assertEquals(0, bulkhead.getRejected());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSaturatedDownstreamDoesNotBlockOthers() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("findu.bulkhead.default.max-concurrent", "2")
+                .withProperty("findu.bulkhead.default.queue-timeout", "10");
+        BulkheadRegistry registry = new BulkheadRegistry(environment);
+        Bulkhead chat = registry.get("test-chat");
+        Bulkhead user = registry.get("test-user");
+        assertSame(chat, registry.get("test-chat"));
+
+        // chat 的许可被两个卡住的调用占满
+        CountDownLatch stalled = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> {
+                    chat.acquire();
+                    try {
+                        stalled.await();
+                    } finally {
+                        chat.release();
+                    }
+                    return null;
+                });
+            }
+            while (chat.getAvailable() > 0) {
+                Thread.sleep(1);
+            }
+
+            assertThrows(BusinessException.class, chat::acquire);
+            user.acquire();
+            user.release();
+            assertEquals(0, user.getRejected());
+        } finally {
+            stalled.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testPerDownstreamOverride() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("findu.bulkhead.default.max-concurrent", "5")
+                .withProperty("findu.bulkhead.test-agent.max-concurrent", "9");
+        BulkheadRegistry registry = new BulkheadRegistry(environment);
+        assertEquals(9, registry.get("test-agent").getMaxConcurrent());
+        assertEquals(5, registry.get("test-dms").getMaxConcurrent());
+    }
+}
@@ -0,0 +1,87 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按 key 限速的令牌桶测试
+ */
+class KeyedRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    @Test
+    void testBurstThenRefillAtRate() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter("customer", true, 2, 3, 100, now::get);
+
+        // 空闲的桶可以连续放行 burst 个请求
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("u1"));
+        }
+        assertFalse(limiter.tryAcquire("u1"));
+        // 其他 key 不受影响
+        assertTrue(limiter.tryAcquire("u2"));
+
+        // 每秒 2 个：半秒后补充一个
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(limiter.tryAcquire("u1"));
+        assertFalse(limiter.tryAcquire("u1"));
+
+        // 长时间空闲后最多积攒 burst 个
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("u1"));
+        }
+        assertFalse(limiter.tryAcquire("u1"));
+        assertEquals(8, limiter.getAllowed());
+        assertEquals(3, limiter.getRejected());
+    }
+
+    @Test
+    void testRefundReturnsToken() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter("refund", true, 1, 2, 100, now::get);
+        assertTrue(limiter.tryAcquire("u1"));
+        assertTrue(limiter.tryAcquire("u1"));
+        limiter.refund("u1");
+        assertTrue(limiter.tryAcquire("u1"));
+        assertFalse(limiter.tryAcquire("u1"));
+
+        // 没有桶的 key 与空 key 退还时不做任何事
+        limiter.refund("unknown");
+        limiter.refund(null);
+        assertTrue(limiter.tryAcquire("unknown"));
+    }
+
+    @Test
+    void testTopOffendersOrderedByRejections() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter("provider", true, 1, 1, 100, now::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("script-a");
+        }
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("script-b");
+        }
+        limiter.tryAcquire("normal");
+
+        List<KeyedRateLimiter.Offender> top = limiter.topOffenders(2);
+        assertEquals(List.of(new KeyedRateLimiter.Offender("script-a", 4), new KeyedRateLimiter.Offender("script-b", 2)), top);
+        assertEquals(3, limiter.topOffenders(10).size() + 1);
+    }
+
+    @Test
+    void testDisabledOrMissingKeyAlwaysAllows() {
+        KeyedRateLimiter disabled = new KeyedRateLimiter("customer", false, 1, 1, 100, now::get);
+        KeyedRateLimiter enabled = new KeyedRateLimiter("customer", true, 1, 1, 100, now::get);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(disabled.tryAcquire("u1"));
+            assertTrue(enabled.tryAcquire(null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new KeyedRateLimiter("customer", true, 0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new KeyedRateLimiter("customer", true, 1, 0, 100));
+    }
+}
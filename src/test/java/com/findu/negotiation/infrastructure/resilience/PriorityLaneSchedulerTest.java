@@ -0,0 +1,122 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import com.findu.negotiation.infrastructure.exception.BusinessException;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.resilience.PriorityLaneScheduler.LaneConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 优先级通道调度测试
+ */
+class PriorityLaneSchedulerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static PriorityLaneScheduler scheduler(String name, int maxConcurrent, LaneConfig interactive, LaneConfig background) {
+        Map<Priority, LaneConfig> lanes = new EnumMap<>(Priority.class);
+        lanes.put(Priority.INTERACTIVE, interactive);
+        lanes.put(Priority.BACKGROUND, background);
+        return new PriorityLaneScheduler(name, maxConcurrent, lanes);
+    }
+
+    private static void awaitQueued(PriorityLaneScheduler scheduler, Priority priority, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getQueued(priority) < count) {
+            assertTrue(System.nanoTime() < deadline, "等待排队超时");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testBackgroundCapReservesInteractiveCapacity() {
+        PriorityLaneScheduler scheduler = scheduler("test-reserve", 4,
+                new LaneConfig(8, 4, 10, 10), new LaneConfig(1, 2, 10, 10));
+
+        scheduler.acquire(Priority.BACKGROUND);
+        scheduler.acquire(Priority.BACKGROUND);
+        // 后台通道已达上限，继续提交只能排队并超时
+        BusinessException e = assertThrows(BusinessException.class, () -> scheduler.acquire(Priority.BACKGROUND));
+        assertEquals(ErrorCode.DOWNSTREAM_BUSY, e.getErrorCode());
+        assertEquals(1, scheduler.getRejected(Priority.BACKGROUND));
+
+        // 交互请求仍可立即拿到剩余的许可
+        scheduler.acquire(Priority.INTERACTIVE);
+        scheduler.acquire(Priority.INTERACTIVE);
+        assertEquals(4, scheduler.getInFlight());
+        assertEquals(2, scheduler.getInFlight(Priority.BACKGROUND));
+    }
+
+    @Test
+    void testQueueFullRejectsImmediately() {
+        PriorityLaneScheduler scheduler = scheduler("test-queue-full", 1,
+                new LaneConfig(1, 1, 0, 1000), new LaneConfig(1, 1, 0, 1000));
+        scheduler.acquire(Priority.INTERACTIVE);
+
+        long start = System.nanoTime();
+        assertThrows(BusinessException.class, () -> scheduler.acquire(Priority.INTERACTIVE));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, scheduler.getRejected(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testWeightedDispatchFavorsInteractive() throws Exception {
+        PriorityLaneScheduler scheduler = scheduler("test-weight", 1,
+                new LaneConfig(3, 1, 100, 5000), new LaneConfig(1, 1, 100, 5000));
+        scheduler.acquire(Priority.INTERACTIVE);
+
+        List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            for (Priority priority : Priority.values()) {
+                futures.add(executor.submit(() -> scheduler.execute(priority, () -> order.add(priority))));
+            }
+        }
+        awaitQueued(scheduler, Priority.INTERACTIVE, 4);
+        awaitQueued(scheduler, Priority.BACKGROUND, 4);
+
+        scheduler.release(Priority.INTERACTIVE);
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // 权重 3:1，前 4 次派发中交互通道占 3 次
+        assertEquals(3, Collections.frequency(order.subList(0, 4), Priority.INTERACTIVE));
+        assertEquals(8, order.size());
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void testDeadlineRemovesWaiterFromQueue() throws Exception {
+        PriorityLaneScheduler scheduler = scheduler("test-deadline", 1,
+                new LaneConfig(1, 1, 10, 20), new LaneConfig(1, 1, 10, 20));
+        scheduler.acquire(Priority.INTERACTIVE);
+
+        Future<?> waiter = executor.submit(() -> scheduler.acquire(Priority.INTERACTIVE));
+        Exception e = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, e.getCause());
+        assertEquals(0, scheduler.getQueued(Priority.INTERACTIVE));
+
+        // 过期的等待者不会占用之后释放的许可
+        scheduler.release(Priority.INTERACTIVE);
+        assertEquals(0, scheduler.getInFlight());
+        scheduler.acquire(Priority.BACKGROUND);
+    }
+}
@@ -0,0 +1,132 @@
+package com.findu.negotiation.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 重试策略测试，时钟与休眠由测试控制
+ */
+class RetryPolicyTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private RetryPolicy policy(int maxAttempts, long maxElapsed, double budgetRatio, int budgetMax) {
+        return new RetryPolicy("test", maxAttempts, 20, 200, maxElapsed, budgetRatio, budgetMax, now::get, nanos -> {
+            sleeps.add(nanos);
+            now.addAndGet(nanos);
+        });
+    }
+
+    /**
+     * 前 failures 次抛出 error，之后返回 "ok"
+     */
+    private static Supplier<String> failing(int failures, RuntimeException error, AtomicInteger calls) {
+        return () -> {
+            if (calls.incrementAndGet() <= failures) {
+                throw error;
+            }
+            return "ok";
+        };
+    }
+
+    @Test
+    void testRetriesTransientErrorsWithJitteredBackoff() {
+        RetryPolicy policy = policy(3, 1000, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("ok", policy.execute(failing(2, new ResourceAccessException("timeout"), calls)));
+        assertEquals(3, calls.get());
+        assertEquals(2, sleeps.size());
+        for (long sleep : sleeps) {
+            assertTrue(sleep >= TimeUnit.MILLISECONDS.toNanos(20) && sleep <= TimeUnit.MILLISECONDS.toNanos(200), "sleep=" + sleep);
+        }
+        // 桶已满时存入的令牌被截断，两次重试各取出一个
+        assertEquals(8.0, policy.getBudgetTokens(), 1e-9);
+    }
+
+    @Test
+    void testDoesNotRetryClientErrors() {
+        RetryPolicy policy = policy(3, 1000, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class,
+                () -> policy.execute(failing(5, new HttpClientErrorException(HttpStatus.NOT_FOUND), calls)));
+        assertEquals(1, calls.get());
+        assertFalse(RetryPolicy.isRetryable(new HttpServerErrorException(HttpStatus.NOT_IMPLEMENTED)));
+        assertTrue(RetryPolicy.isRetryable(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    @Test
+    void testStopsAfterMaxAttempts() {
+        RetryPolicy policy = policy(3, 1000, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+        HttpServerErrorException error = new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        assertSame(error, assertThrows(HttpServerErrorException.class, () -> policy.execute(failing(5, error, calls))));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testRespectsMaxElapsed() {
+        RetryPolicy policy = policy(5, 100, 0.1, 10);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<String> slow = () -> {
+            calls.incrementAndGet();
+            // 每次尝试耗时 80ms，第一次退避后就会超过 100ms
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(80));
+            throw new ResourceAccessException("timeout");
+        };
+
+        assertThrows(ResourceAccessException.class, () -> policy.execute(slow));
+        assertEquals(1, calls.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    void testBudgetCapsRetriesToShareOfCalls() {
+        RetryPolicy policy = policy(2, 1000, 0.1, 2);
+        int attempts = 0;
+        // 下游整体故障时，初始的 2 个令牌用完后每 10 次调用才能重试一次
+        for (int i = 0; i < 100; i++) {
+            AtomicInteger calls = new AtomicInteger();
+            assertThrows(ResourceAccessException.class,
+                    () -> policy.execute(failing(10, new ResourceAccessException("refused"), calls)));
+            attempts += calls.get();
+        }
+        int retries = attempts - 100;
+        assertTrue(retries >= 10 && retries <= 12, "retries=" + retries);
+    }
+
+    @Test
+    void testNextDelayStaysWithinBounds() {
+        RetryPolicy policy = policy(3, 1000, 0.1, 10);
+        long base = TimeUnit.MILLISECONDS.toNanos(20);
+        long max = TimeUnit.MILLISECONDS.toNanos(200);
+        long delay = base;
+        for (int i = 0; i < 1000; i++) {
+            long next = policy.nextDelay(delay);
+            assertTrue(next >= base && next <= Math.min(max, delay * 3), "next=" + next);
+            delay = next;
+        }
+    }
+
+    @Test
+    void testRejectsInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy("x", 0, 20, 200, 1000, 0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy("x", 3, 200, 20, 1000, 0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy("x", 3, 20, 200, 1000, -1, 10));
+    }
+}
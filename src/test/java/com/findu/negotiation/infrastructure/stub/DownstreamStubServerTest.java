@@ -0,0 +1,167 @@
+package com.findu.negotiation.infrastructure.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.findu.negotiation.infrastructure.http.WireFormat;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryResponse;
+import com.findu.negotiation.infrastructure.client.dto.orderNegotiationAgent.OrderNegotiationCompletionsResponse;
+import com.findu.negotiation.infrastructure.client.dto.user.ProviderUserResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下游桩服务与延迟分布测试
+ */
+class DownstreamStubServerTest {
+
+    private static final String AGENT_PATH = "/api/v1/inner/order_negotiation/completions";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private DownstreamStubServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private DownstreamStubServer start(double errorRate) throws Exception {
+        server = new DownstreamStubServer(0, AGENT_PATH, AGENT_PATH + "/batch",
+                new StubEndpoint("user", LatencyDistribution.NONE, errorRate, 3),
+                new StubEndpoint("chat", LatencyDistribution.NONE, errorRate, 20),
+                new StubEndpoint("dms", LatencyDistribution.NONE, errorRate, 0),
+                new StubEndpoint("agent", LatencyDistribution.fixed(5), errorRate, 2));
+        server.start();
+        return server;
+    }
+
+    private HttpResponse<String> get(int offset, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort(offset) + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testPayloadsMatchClientDtos() throws Exception {
+        start(0);
+
+        HttpResponse<String> works = get(DownstreamStubServer.USER_OFFSET, "/api/v1/inner/user-admin/works/provider-10001/public?type=3");
+        assertEquals(200, works.statusCode());
+        ProviderUserResponse user = mapper.readValue(works.body(), ProviderUserResponse.class);
+        assertEquals(3, user.getData().getItems().size());
+        assertEquals("works-0", user.getData().getItems().getFirst().getWorksId());
+
+        HttpResponse<String> chat = get(DownstreamStubServer.CHAT_OFFSET, "/api/v1/inner/chat_history/provider-10001/customer-20002");
+        ChatHistoryResponse history = mapper.readValue(chat.body(), ChatHistoryResponse.class);
+        assertEquals(20, history.getData().getMessages().size());
+
+        HttpResponse<String> agent = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort(DownstreamStubServer.AGENT_OFFSET) + AGENT_PATH))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"id\":\"1\"}")).build(), HttpResponse.BodyHandlers.ofString());
+        OrderNegotiationCompletionsResponse completion = mapper.readValue(agent.body(), OrderNegotiationCompletionsResponse.class);
+        assertEquals(45000, completion.getResult().getPrice());
+        assertEquals(2, completion.getResult().getContent().size());
+
+        // 增量补全接口在补全接口路径之下，由同一个上下文按前缀匹配返回
+        HttpResponse<String> delta = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort(DownstreamStubServer.AGENT_OFFSET) + AGENT_PATH + "/delta"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"id\":\"2\"}")).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(45000, mapper.readValue(delta.body(), OrderNegotiationCompletionsResponse.class).getResult().getPrice());
+    }
+
+    @Test
+    void testGzipRequestAndResponse() throws Exception {
+        start(0);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"requests\":[{\"id\":\"a\"},{\"id\":\"b\"}]}".getBytes());
+        }
+        HttpResponse<InputStream> batch = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort(DownstreamStubServer.AGENT_OFFSET) + AGENT_PATH + "/batch"))
+                .header("Content-Encoding", "gzip")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray())).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals("gzip", batch.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream in = new GZIPInputStream(batch.body())) {
+            assertEquals(2, mapper.readTree(in).get("responses").size());
+        }
+
+        // 未声明 Accept-Encoding 时返回未压缩的响应
+        assertTrue(get(DownstreamStubServer.CHAT_OFFSET, "/api/v1/inner/chat_history/p/c").headers()
+                .firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    void testSmileRequestAndResponse() throws Exception {
+        start(0);
+
+        byte[] request = WireFormat.smileMapper().writeValueAsBytes(
+                mapper.readTree("{\"requests\":[{\"id\":\"a\"},{\"id\":\"b\"}]}"));
+        HttpResponse<byte[]> batch = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort(DownstreamStubServer.AGENT_OFFSET) + AGENT_PATH + "/batch"))
+                .header("Content-Type", WireFormat.SMILE_VALUE)
+                .header("Accept", WireFormat.SMILE_ACCEPT)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(WireFormat.SMILE_VALUE, batch.headers().firstValue("Content-Type").orElse(null));
+        assertEquals(2, WireFormat.smileMapper().readTree(batch.body()).get("responses").size());
+
+        HttpResponse<byte[]> chat = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort(DownstreamStubServer.CHAT_OFFSET) + "/api/v1/inner/chat_history/p/c"))
+                .header("Accept", WireFormat.SMILE_ACCEPT).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        ChatHistoryResponse history = WireFormat.smileMapper().readValue(chat.body(), ChatHistoryResponse.class);
+        assertEquals(20, history.getData().getMessages().size());
+    }
+
+    @Test
+    void testErrorRateInjectsServerErrors() throws Exception {
+        start(1.0);
+
+        assertEquals(500, get(DownstreamStubServer.DMS_OFFSET, "/api/v1/inner/demand/detail").statusCode());
+    }
+
+    @Test
+    void testParseDistributions() {
+        assertEquals(20_000_000, LatencyDistribution.parse("fixed:20").sampleNanos());
+        assertEquals(0, LatencyDistribution.parse("").sampleNanos());
+
+        LatencyDistribution uniform = LatencyDistribution.parse("uniform:10:20");
+        for (int i = 0; i < 1000; i++) {
+            long nanos = uniform.sampleNanos();
+            assertTrue(nanos >= 10_000_000 && nanos <= 20_000_000);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:1:2"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("lognormal:100:10"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StubEndpoint("x", LatencyDistribution.NONE, 1.5, 0));
+    }
+
+    @Test
+    void testLognormalQuantiles() {
+        LatencyDistribution lognormal = LatencyDistribution.lognormal(40, 200);
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = lognormal.sampleNanos();
+        }
+        Arrays.sort(samples);
+        assertEquals(40.0, samples[samples.length / 2] / 1e6, 2.0);
+        assertEquals(200.0, samples[samples.length * 99 / 100] / 1e6, 20.0);
+    }
+}
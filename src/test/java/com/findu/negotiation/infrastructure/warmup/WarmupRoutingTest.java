@@ -0,0 +1,80 @@
+package com.findu.negotiation.infrastructure.warmup;
+
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预热请求下游转发测试
+ */
+class WarmupRoutingTest {
+
+    private static final String USER_URL = "http://localhost:8800";
+
+    @AfterEach
+    void tearDown() {
+        WarmupRouting.uninstall();
+        RequestContextHolder.clearContext();
+    }
+
+    @Test
+    void testRewriteIsNoopOutsideWarmup() {
+        WarmupRouting.install(Map.of(USER_URL, "http://127.0.0.1:9000"));
+        assertEquals(USER_URL + "/works", WarmupRouting.rewrite(USER_URL + "/works"));
+
+        RequestContextHolder.setContext(new RequestContext());
+        assertEquals(USER_URL + "/works", WarmupRouting.rewrite(USER_URL + "/works"));
+    }
+
+    @Test
+    void testRewriteWarmupRequest() {
+        WarmupRouting.install(Map.of(USER_URL, "http://127.0.0.1:9000"));
+        RequestContext context = new RequestContext();
+        context.setWarmup(true);
+        RequestContextHolder.setContext(context);
+
+        assertEquals("http://127.0.0.1:9000/works?id=1", WarmupRouting.rewrite(USER_URL + "/works?id=1"));
+        assertThrows(IllegalStateException.class, () -> WarmupRouting.rewrite("http://localhost:8460/chat"));
+    }
+
+    @Test
+    void testTokenValidation() {
+        assertFalse(WarmupRouting.isValidToken(null));
+        String token = WarmupRouting.install(Map.of());
+        assertEquals(32, token.length());
+        assertTrue(WarmupRouting.isValidToken(token));
+        assertFalse(WarmupRouting.isValidToken("x" + token.substring(1)));
+
+        WarmupRouting.uninstall();
+        assertFalse(WarmupRouting.isValidToken(token));
+    }
+
+    @Test
+    void testWarmupRequestIsMarked() {
+        String token = WarmupRouting.install(Map.of());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/create");
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader(WarmupRouting.HEADER, token);
+        assertTrue(WarmupRouting.isWarmupRequest(request));
+        assertEquals(Boolean.TRUE, request.getAttribute(WarmupRouting.REQUEST_ATTRIBUTE));
+
+        // 令牌失效后已标记的请求仍按预热处理，过滤器与拦截器结论一致
+        WarmupRouting.uninstall();
+        assertTrue(WarmupRouting.isWarmupRequest(request));
+
+        // 非本机发起的请求即使令牌正确也不是预热请求
+        token = WarmupRouting.install(Map.of());
+        MockHttpServletRequest remote = new MockHttpServletRequest("POST", "/create");
+        remote.setRemoteAddr("10.0.0.8");
+        remote.addHeader(WarmupRouting.HEADER, token);
+        assertFalse(WarmupRouting.isWarmupRequest(remote));
+        assertEquals(Boolean.FALSE, remote.getAttribute(WarmupRouting.REQUEST_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,71 @@
+package com.findu.negotiation.interfaces.controller;
+
+import com.findu.negotiation.infrastructure.archive.ChatArchive;
+import com.findu.negotiation.infrastructure.client.dto.chat.ChatHistoryData;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.interfaces.dto.ApiResponse;
+import com.findu.negotiation.interfaces.dto.ChatEventRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 聊天消息事件接口测试
+ */
+class ChatEventControllerTest {
+
+    private static final String PROVIDER = "provider-10001";
+    private static final String CUSTOMER = "customer-20002";
+
+    @TempDir
+    Path dir;
+
+    private static ChatEventRequest event(String msgKey) {
+        ChatEventRequest request = new ChatEventRequest();
+        request.setProviderId(PROVIDER);
+        request.setCustomerId(CUSTOMER);
+        request.setMsgKey(msgKey);
+        return request;
+    }
+
+    @Test
+    void testDisabledPrecomputerIsNoop() {
+        // 预生成、集群路由、归档均未启用
+        ChatEventController controller = new ChatEventController();
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ApiResponse<Void> response = controller.chatEvent(event("m-1"), null, servletResponse);
+
+        assertEquals(ErrorCode.SUCCESS.getCode(), response.getCode());
+        assertNull(response.getData());
+        assertTrue(servletResponse.getHeaderNames().isEmpty());
+    }
+
+    @Test
+    void testEventInvalidatesArchive() {
+        ChatArchive archive = new ChatArchive(dir, 64 * 1024, Duration.ofHours(1), Duration.ofDays(7), 0.5);
+        try {
+            archive.append(PROVIDER, CUSTOMER, List.of(new ChatHistoryData.ChatMessage(CUSTOMER, PROVIDER, 1000L, 1L, 1L,
+                    "m-1", 1, List.of(new ChatHistoryData.MessageContent("text", "想约周六上午")))));
+            assertNotNull(archive.fresh(PROVIDER, CUSTOMER));
+            ChatEventController controller = new ChatEventController();
+            ReflectionTestUtils.setField(controller, "chatArchive", archive);
+
+            ApiResponse<Void> response = controller.chatEvent(event("m-2"), null, new MockHttpServletResponse());
+
+            assertEquals(ErrorCode.SUCCESS.getCode(), response.getCode());
+            // 不再当作最新，但 Chat 服务失败时仍可作为退路
+            assertNull(archive.fresh(PROVIDER, CUSTOMER));
+            assertEquals("m-1", archive.fallback(PROVIDER, CUSTOMER).lastMsgKey());
+        } finally {
+            archive.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.findu.negotiation.interfaces.controller;
+
+import com.findu.negotiation.application.NegotiationBizServiceImpl;
+import com.findu.negotiation.domain.entity.NegotiationEntity;
+import com.findu.negotiation.infrastructure.cache.DraftStore;
+import com.findu.negotiation.infrastructure.context.RequestContext;
+import com.findu.negotiation.infrastructure.context.RequestContextHolder;
+import com.findu.negotiation.infrastructure.exception.ErrorCode;
+import com.findu.negotiation.infrastructure.resilience.KeyedRateLimiter;
+import com.findu.negotiation.interfaces.dto.ApiResponse;
+import com.findu.negotiation.interfaces.dto.CreateNegotiationRequest;
+import com.findu.negotiation.interfaces.dto.CreateNegotiationResponse;
+import com.findu.negotiation.interfaces.dto.UpdateNegotiationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 协商接口测试
+ */
+class NegotiationControllerTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.clearContext();
+    }
+
+    @Test
+    void testUpdateWithoutDraftIsParamError() {
+        // 依赖均未注入，参数校验之后的任何调用都会失败
+        NegotiationController controller = new NegotiationController();
+        UpdateNegotiationRequest request = new UpdateNegotiationRequest();
+        request.setProviderId("provider-10001");
+        request.setCustomerId("customer-20002");
+
+        ApiResponse<CreateNegotiationResponse> response = controller.update(request, null, new MockHttpServletResponse());
+
+        assertEquals(ErrorCode.PARAM_ERROR.getCode(), response.getCode());
+        assertNull(response.getData());
+    }
+
+    @Test
+    void testRateLimitedCreateIsMarkedDegraded() {
+        // 每个 key 只有 2 个令牌，测试期间不会补充
+        KeyedRateLimiter customerLimiter = new KeyedRateLimiter("test-customer", true, 0.001, 2, 100);
+        KeyedRateLimiter providerLimiter = new KeyedRateLimiter("test-provider", true, 0.001, 2, 100);
+        NegotiationController controller = new NegotiationController();
+        ReflectionTestUtils.setField(controller, "negotiationBizService", new NegotiationBizServiceImpl());
+        ReflectionTestUtils.setField(controller, "customerRateLimiter", customerLimiter);
+        ReflectionTestUtils.setField(controller, "providerRateLimiter", providerLimiter);
+
+        RequestContext context = new RequestContext();
+        context.setUserId("customer-20002");
+        RequestContextHolder.setContext(context);
+        providerLimiter.tryAcquire("provider-10001");
+        providerLimiter.tryAcquire("provider-10001");
+
+        CreateNegotiationRequest request = new CreateNegotiationRequest();
+        request.setProviderId("provider-10001");
+        request.setCustomerId("customer-20002");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ApiResponse<CreateNegotiationResponse> response = controller.create(request, null, servletResponse);
+
+        assertEquals(ErrorCode.SUCCESS.getCode(), response.getCode());
+        assertEquals("rate_limited", servletResponse.getHeader(NegotiationController.DEGRADED_HEADER));
+        // 服务方维度拒绝时调用方维度的令牌已退还
+        assertTrue(customerLimiter.tryAcquire("customer-20002"));
+        assertTrue(customerLimiter.tryAcquire("customer-20002"));
+        assertFalse(customerLimiter.tryAcquire("customer-20002"));
+    }
+
+    @Test
+    void testRateLimitedUpdateReturnsStoredDraft() {
+        DraftStore draftStore = new DraftStore(100, Duration.ofMinutes(5));
+        draftStore.put(NegotiationEntity.builder()
+                .id("draft-1")
+                .providerId("provider-10001")
+                .customerId("customer-20002")
+                .title("两室一厅保洁")
+                .price(38000)
+                .lastMsgKey("m-2")
+                .build());
+        NegotiationBizServiceImpl service = new NegotiationBizServiceImpl();
+        ReflectionTestUtils.setField(service, "draftStore", draftStore);
+        KeyedRateLimiter providerLimiter = new KeyedRateLimiter("test-provider", true, 0.001, 1, 100);
+        NegotiationController controller = new NegotiationController();
+        ReflectionTestUtils.setField(controller, "negotiationBizService", service);
+        ReflectionTestUtils.setField(controller, "customerRateLimiter",
+                new KeyedRateLimiter("test-customer", true, 0.001, 10, 100));
+        ReflectionTestUtils.setField(controller, "providerRateLimiter", providerLimiter);
+        providerLimiter.tryAcquire("provider-10001");
+
+        UpdateNegotiationRequest request = new UpdateNegotiationRequest();
+        request.setProviderId("provider-10001");
+        request.setCustomerId("customer-20002");
+        request.setDraftId("draft-1");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ApiResponse<CreateNegotiationResponse> response = controller.update(request, null, servletResponse);
+
+        assertEquals(ErrorCode.SUCCESS.getCode(), response.getCode());
+        assertEquals("rate_limited", servletResponse.getHeader(NegotiationController.DEGRADED_HEADER));
+        // 只传草案ID时返回本地保存的上一版草案，而不是空白草案
+        assertEquals("draft-1", response.getData().getDraftId());
+        assertEquals("两室一厅保洁", response.getData().getTitle());
+        assertEquals(38000, response.getData().getPrice());
+
+        // 草案不属于这对用户时只能返回空白草案
+        request.setCustomerId("customer-30003");
+        response = controller.update(request, null, new MockHttpServletResponse());
+        assertNull(response.getData().getDraftId());
+        assertNull(response.getData().getTitle());
+    }
+}
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# 启动耗时基准：以 aot profile 打包并训练 AppCDS 归档，对比 default / cds / aot / aot-cds 四种模式
+# 从拉起 JVM 到首个 /create 成功的耗时，下游为基准进程内的零延迟桩服务
+#   ./startup.sh [--runs 5] [--modes default,aot-cds] [--timeout 120]
+# 第一个参数为 native 时另以 native profile 编译 native-image 可执行文件（需 GraalVM），加入 native 模式对比：
+#   ./startup.sh native [--runs 5]
+# 结果写入 target/startup/<时间>-<提交>.json
+set -euo pipefail
+cd "$(dirname "$0")"
+
+SHA="$(git rev-parse --short HEAD 2>/dev/null || echo nogit)"
+if ! git diff --quiet HEAD 2>/dev/null; then
+    SHA="${SHA}-dirty"
+fi
+DIST="target/startup-dist"
+OUT_DIR="target/startup"
+OUT="${OUT_DIR}/$(date +%Y%m%d-%H%M%S)-${SHA}.json"
+mkdir -p "${OUT_DIR}"
+
+NATIVE_ARGS=""
+if [ "${1:-}" = "native" ]; then
+    shift
+    mvn -B -q -Pdev,native -Dmaven.test.skip=true native:compile
+    mkdir -p "${OUT_DIR}/bin"
+    cp target/findu-negotiation "${OUT_DIR}/bin/findu-negotiation"
+    NATIVE_ARGS="--native $(pwd)/${OUT_DIR}/bin/findu-negotiation --modes default,aot-cds,native"
+fi
+
+mvn -B -q package -Dmaven.test.skip=true -Pdev,aot
+rm -rf "${DIST}"
+mkdir -p "${DIST}"
+tar --strip-components=1 -zxf target/*.tar.gz -C "${DIST}"
+bash "${DIST}/bin/cds-train.sh"
+
+mvn -B -q -Pbenchmark test-compile exec:exec \
+    -Dbenchmark.mainClass=com.findu.negotiation.benchmark.StartupBenchmark \
+    -Dbenchmark.args="--app-dir $(pwd)/${DIST} --out $(pwd)/${OUT} ${NATIVE_ARGS} $*"
+echo "结果: ${OUT}"